@@ -1,10 +1,100 @@
 package project.calculator.config;
 
+import com.sun.management.HotSpotDiagnosticMXBean;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import project.calculator.data.BondPriceKey;
+import project.calculator.data.enums.PricingMethod;
+import project.calculator.data.response.CalculationResult;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistry;
+import project.calculator.domain.finance.bond.service.calculator.pricing.BondPriceCacheEvictor;
+import project.calculator.domain.finance.bond.service.calculator.pricing.BondPriceCacheSize;
+import project.calculator.domain.finance.bond.service.calculator.pricing.BondPriceKeyGenerator;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    @Value("${calculator.bond-pricing.default-method}")
+    private PricingMethod defaultPricingMethod;
+    @Value("${calculator.bond-price-cache.heap-mb}")
+    private long bondPriceCacheHeapMb;
+    @Value("${calculator.bond-price-cache.offheap-mb}")
+    private long bondPriceCacheOffheapMb;
+    @Value("${calculator.bond-price-cache.time-to-idle-ms}")
+    private long bondPriceCacheTimeToIdleMs;
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheConfig.class);
+
+    /**
+     * bondPriceCacheを生成するJavaBean
+     * キーは価格に影響する項目と解決済みのカーブバージョンなので、値が古くなることはない。
+     * 最新カーブが切り替わると切替前のバージョンのエントリはBondPriceCacheEvictorで破棄する。
+     * バージョンを指定したリクエストのエントリなどは一定時間参照されなければ破棄し、メモリ量の上限でも古いものから退避する。
+     * 各層の大きさは設定値から決め、JVMのメモリ上限に収まらない場合は起動時に失敗させる。
+     * @return
+     */
+    @Bean
+    public JCacheManagerCustomizer bondPriceCacheCustomizer(){
+        return cacheManager -> {
+            BondPriceCacheSize size = BondPriceCacheSize.of(bondPriceCacheHeapMb, bondPriceCacheOffheapMb, Runtime.getRuntime().maxMemory(), maxDirectMemory());
+            CacheConfiguration<BondPriceKey, CalculationResult> configuration = CacheConfigurationBuilder
+                    .newCacheConfigurationBuilder(BondPriceKey.class, CalculationResult.class, ResourcePoolsBuilder.newResourcePoolsBuilder()
+                            .heap(size.getHeapMb(), MemoryUnit.MB)
+                            .offheap(size.getOffheapMb(), MemoryUnit.MB))
+                    .withExpiry(ExpiryPolicyBuilder.timeToIdleExpiration(Duration.ofMillis(bondPriceCacheTimeToIdleMs)))
+                    .build();
+            cacheManager.createCache("bondPriceCache", Eh107Configuration.fromEhcacheCacheConfiguration(configuration));
+            cacheManager.enableManagement("bondPriceCache", true);
+            cacheManager.enableStatistics("bondPriceCache", true);
+            logger.info(String.format("Created Bond Price Cache. %s", size));
+        };
+    }
+
+    /**
+     * 最新カーブの切替時にbondPriceCacheから切替前のバージョンのエントリを破棄するJavaBean
+     * @param discountCurveRegistry
+     * @param cacheManager
+     * @return
+     */
+    @Bean
+    public BondPriceCacheEvictor bondPriceCacheEvictor(DiscountCurveRegistry discountCurveRegistry, CacheManager cacheManager){
+        BondPriceCacheEvictor evictor = new BondPriceCacheEvictor(cacheManager);
+        discountCurveRegistry.addListener(evictor);
+        return evictor;
+    }
+
+    /**
+     * bondPriceCacheのキー生成用JavaBean
+     * @return
+     */
+    @Bean
+    public BondPriceKeyGenerator bondPriceKeyGenerator(){
+        return new BondPriceKeyGenerator(defaultPricingMethod);
+    }
+
+    /**
+     * ダイレクトメモリの上限。MaxDirectMemorySizeが未指定の場合は最大ヒープと同じになる。
+     * @return
+     */
+    private static long maxDirectMemory(){
+        HotSpotDiagnosticMXBean diagnostic = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+        long maxDirectMemory = Long.parseLong(diagnostic.getVMOption("MaxDirectMemorySize").getValue());
+        return maxDirectMemory > 0 ? maxDirectMemory : Runtime.getRuntime().maxMemory();
+    }
 }
@@ -1,21 +1,90 @@
 package project.calculator.config;
 
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.core.JdbcTemplate;
 import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.CashFlowTiming;
+import project.calculator.data.enums.CurveInterpolation;
+import project.calculator.data.enums.PricingMethod;
+import project.calculator.domain.batch.porfolio.job.EvaluationJobScheduler;
 import project.calculator.domain.finance.bond.algo.CalculationStrategy;
+import project.calculator.domain.finance.bond.algo.montecarlo.HullWhiteMonteCarloStrategy;
+import project.calculator.domain.finance.bond.algo.pricing.BondDoublePricingStrategy;
+import project.calculator.domain.finance.bond.algo.pricing.BondPricingStrategySelector;
 import project.calculator.domain.finance.bond.algo.pricing.BondTheoreticalPricingStrategy;
+import project.calculator.domain.finance.bond.algo.risk.BondRiskStrategy;
+import project.calculator.domain.finance.bond.algo.ytm.BondYieldStrategy;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistry;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistryImpl;
+import project.calculator.domain.finance.bond.scenario.BondScenarioEngine;
+import project.calculator.domain.finance.bond.schedule.CouponScheduleCache;
+import project.infra.rdb.bondmaster.BondMasterRepository;
+import project.infra.rdb.CursorReader;
 import project.infra.rdb.discountfactor.DiscountFactorDataRepository;
 import project.infra.rdb.discountfactor.DiscountFactorDataRepositoryJdbcImpl;
 import project.infra.rdb.discountfactor.DiscountFactorDataRepositoryMockImpl;
+import project.infra.rdb.evaluationjob.EvaluationType;
+import project.infra.rdb.stockexecution.StockExecutionCursorRepository;
+import project.infra.rdb.stockportfolioevaluation.StockPortfolioEvaluationBulkWriter;
+import project.infra.rdb.strockpricetimeseries.StockPriceCursorRepository;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 @Configuration
 @EnableAutoConfiguration
 public class CalculationStrategyConfig {
 
+    @Value("${calculator.discount-curve.history-size}")
+    private int curveHistorySize;
+    @Value("${calculator.discount-curve.interpolation}")
+    private CurveInterpolation curveInterpolation;
+    @Value("${calculator.bond-pricing.default-method}")
+    private PricingMethod defaultPricingMethod;
+    @Value("${calculator.bond-pricing.double-deviation-check}")
+    private boolean doubleDeviationCheck;
+    @Value("${calculator.bond-pricing.cash-flow-timing}")
+    private CashFlowTiming cashFlowTiming;
+    @Value("${calculator.coupon-schedule.max-size}")
+    private int couponScheduleMaxSize;
+    @Value("${calculator.bond-risk.key-rate-tenors}")
+    private double[] keyRateTenors;
+    @Value("${calculator.bond-yield.max-iterations}")
+    private int yieldMaxIterations;
+    @Value("${calculator.bond-yield.previous-yield-size}")
+    private int previousYieldSize;
+    @Value("${calculator.hull-white.mean-reversion}")
+    private double hullWhiteMeanReversion;
+    @Value("${calculator.hull-white.volatility}")
+    private double hullWhiteVolatility;
+    @Value("${calculator.hull-white.path-pairs}")
+    private int hullWhitePathPairs;
+    @Value("${calculator.hull-white.seed}")
+    private long hullWhiteSeed;
+    @Value("${calculator.portfolio-evaluation.write-chunk-size}")
+    private int evaluationWriteChunkSize;
+    @Value("${calculator.portfolio-evaluation.fetch-size}")
+    private int evaluationFetchSize;
+    @Value("${calculator.evaluation-job.max-running}")
+    private int evaluationJobMaxRunning;
+    @Value("${calculator.evaluation-job.max-running-nightly}")
+    private int evaluationJobMaxRunningNightly;
+    @Value("${calculator.evaluation-job.max-running-regular}")
+    private int evaluationJobMaxRunningRegular;
+    @Value("${calculator.evaluation-job.max-running-force}")
+    private int evaluationJobMaxRunningForce;
+    @Value("${calculator.evaluation-job.max-running-revise}")
+    private int evaluationJobMaxRunningRevise;
+
     /**
      * 本番用DFマスターデータRepository
      * @param jdbcTemplate
@@ -36,12 +105,152 @@ public class CalculationStrategyConfig {
     }
 
     /**
-     * 債権理論価格計算用JavaBean
+     * 評価結果の一括登録用Writer
+     * @param jdbcTemplate
+     * @return
+     */
+    @Bean
+    public StockPortfolioEvaluationBulkWriter stockPortfolioEvaluationBulkWriter(JdbcTemplate jdbcTemplate){
+        return new StockPortfolioEvaluationBulkWriter(jdbcTemplate, this.evaluationWriteChunkSize);
+    }
+
+    /**
+     * 評価計算用の約定のカーソル読み込み
+     * @param dataSource
+     * @return
+     */
+    @Bean
+    public StockExecutionCursorRepository stockExecutionCursorRepository(DataSource dataSource){
+        return new StockExecutionCursorRepository(new CursorReader(dataSource, this.evaluationFetchSize));
+    }
+
+    /**
+     * 評価計算用の市場価格のカーソル読み込み
+     * @param dataSource
+     * @return
+     */
+    @Bean
+    public StockPriceCursorRepository stockPriceCursorRepository(DataSource dataSource){
+        return new StockPriceCursorRepository(new CursorReader(dataSource, this.evaluationFetchSize));
+    }
+
+    /**
+     * 評価計算ジョブの実行順・同時実行数を決めるJavaBean
+     * @return
+     */
+    @Bean
+    public EvaluationJobScheduler evaluationJobScheduler(){
+        Map<EvaluationType, Integer> maxRunningByType = new EnumMap<>(EvaluationType.class);
+        maxRunningByType.put(EvaluationType.REGULAR, this.evaluationJobMaxRunningRegular);
+        maxRunningByType.put(EvaluationType.FORCE, this.evaluationJobMaxRunningForce);
+        maxRunningByType.put(EvaluationType.REVISE, this.evaluationJobMaxRunningRevise);
+        return new EvaluationJobScheduler(this.evaluationJobMaxRunning, this.evaluationJobMaxRunningNightly, maxRunningByType);
+    }
+
+    /**
+     * 割引現在価値カーブをメモリ上で保持するレジストリ
      * @param discountFactorDataRepository
      * @return
      */
     @Bean
-    public CalculationStrategy<BondPricingData> bondTheoreticalPricingStrategy(@Qualifier("discountFactorDataRepositoryJdbcImpl") DiscountFactorDataRepository discountFactorDataRepository){
-        return new BondTheoreticalPricingStrategy(discountFactorDataRepository);
+    public DiscountCurveRegistry discountCurveRegistry(@Qualifier("discountFactorDataRepositoryJdbcImpl") DiscountFactorDataRepository discountFactorDataRepository){
+        return new DiscountCurveRegistryImpl(discountFactorDataRepository, curveHistorySize);
+    }
+
+    /**
+     * 銘柄ごとの利払いスケジュールを保持するJavaBean。償還日は債券マスタから取得する。
+     * @param bondMasterRepository
+     * @return
+     */
+    @Bean
+    public CouponScheduleCache couponScheduleCache(BondMasterRepository bondMasterRepository){
+        return new CouponScheduleCache(bondCode -> bondMasterRepository.findFirstByBondCodeAndIsDeletedFalseOrderByVersionDesc(bondCode)
+                .map(b -> Instant.ofEpochMilli(b.getMaturity().getTime()).atZone(ZoneId.systemDefault()).toLocalDate()), couponScheduleMaxSize);
+    }
+
+    /**
+     * 債権理論価格計算用JavaBean
+     * @param discountCurveRegistry
+     * @param couponScheduleCache
+     * @return
+     */
+    @Bean
+    public BondTheoreticalPricingStrategy bondTheoreticalPricingStrategy(DiscountCurveRegistry discountCurveRegistry, CouponScheduleCache couponScheduleCache){
+        return new BondTheoreticalPricingStrategy(discountCurveRegistry, couponScheduleCache, curveInterpolation, cashFlowTiming);
+    }
+
+    /**
+     * 債権理論価格計算(倍精度)用JavaBean
+     * @param discountCurveRegistry
+     * @param bondTheoreticalPricingStrategy 精度確認の基準に使う
+     * @return
+     */
+    @Bean
+    public BondDoublePricingStrategy bondDoublePricingStrategy(DiscountCurveRegistry discountCurveRegistry,
+                                                               @Qualifier("bondTheoreticalPricingStrategy") CalculationStrategy<BondPricingData> bondTheoreticalPricingStrategy){
+        return new BondDoublePricingStrategy(discountCurveRegistry, bondTheoreticalPricingStrategy, doubleDeviationCheck, cashFlowTiming);
+    }
+
+    /**
+     * 債権理論価格計算(Hull-Whiteモデルのモンテカルロ法)用JavaBean
+     * @param discountCurveRegistry
+     * @param pricingExecutor
+     * @return
+     */
+    @Bean
+    public HullWhiteMonteCarloStrategy hullWhiteMonteCarloStrategy(DiscountCurveRegistry discountCurveRegistry, @Qualifier("pricingExecutor") ForkJoinPool pricingExecutor){
+        return new HullWhiteMonteCarloStrategy(discountCurveRegistry, pricingExecutor, curveInterpolation
+                , hullWhiteMeanReversion, hullWhiteVolatility, hullWhitePathPairs, hullWhiteSeed);
+    }
+
+    /**
+     * リクエストに応じて債権理論価格の計算方法を切り替えるJavaBean
+     * @param bondTheoreticalPricingStrategy
+     * @param bondDoublePricingStrategy
+     * @param hullWhiteMonteCarloStrategy
+     * @return
+     */
+    @Bean
+    @Primary
+    public CalculationStrategy<BondPricingData> bondPricingStrategySelector(@Qualifier("bondTheoreticalPricingStrategy") CalculationStrategy<BondPricingData> bondTheoreticalPricingStrategy,
+                                                                            BondDoublePricingStrategy bondDoublePricingStrategy,
+                                                                            HullWhiteMonteCarloStrategy hullWhiteMonteCarloStrategy){
+        Map<PricingMethod, CalculationStrategy<BondPricingData>> strategies = new EnumMap<>(PricingMethod.class);
+        strategies.put(PricingMethod.DISCOUNT_FACTOR, bondTheoreticalPricingStrategy);
+        strategies.put(PricingMethod.DISCOUNT_FACTOR_DOUBLE, bondDoublePricingStrategy);
+        strategies.put(PricingMethod.HULL_WHITE_MONTE_CARLO, hullWhiteMonteCarloStrategy);
+        return new BondPricingStrategySelector(strategies, defaultPricingMethod);
+    }
+
+    /**
+     * 債権リスク指標計算用JavaBean
+     * @param discountCurveRegistry
+     * @param pricingExecutor
+     * @return
+     */
+    @Bean
+    public BondRiskStrategy bondRiskStrategy(DiscountCurveRegistry discountCurveRegistry, @Qualifier("pricingExecutor") ForkJoinPool pricingExecutor){
+        return new BondRiskStrategy(discountCurveRegistry, pricingExecutor, keyRateTenors, curveInterpolation, cashFlowTiming);
+    }
+
+    /**
+     * 債権最終利回り計算用JavaBean
+     * @param pricingExecutor
+     * @return
+     */
+    @Bean
+    public BondYieldStrategy bondYieldStrategy(@Qualifier("pricingExecutor") ForkJoinPool pricingExecutor){
+        return new BondYieldStrategy(pricingExecutor, yieldMaxIterations, cashFlowTiming, previousYieldSize);
+    }
+
+    /**
+     * 債権シナリオ評価用JavaBean
+     * @param discountCurveRegistry
+     * @param bondTheoreticalPricingStrategy
+     * @return
+     */
+    @Bean
+    public BondScenarioEngine bondScenarioEngine(DiscountCurveRegistry discountCurveRegistry, BondTheoreticalPricingStrategy bondTheoreticalPricingStrategy){
+        return new BondScenarioEngine(discountCurveRegistry, bondTheoreticalPricingStrategy);
     }
 }
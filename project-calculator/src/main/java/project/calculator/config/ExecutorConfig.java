@@ -6,6 +6,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.concurrent.ForkJoinPool;
+
 @Configuration
 @EnableAutoConfiguration
 public class ExecutorConfig {
@@ -16,6 +18,8 @@ public class ExecutorConfig {
     private int maxPoolSize;
     @Value("${calculator.thread-pool-executor.queue-capacity}")
     private int queueCapacity;
+    @Value("${calculator.work-stealing-parallelism}")
+    private int workStealingParallelism;
 
     @Bean("asyncJobExecutor")
     public ThreadPoolTaskExecutor asyncJobExecutor(){
@@ -26,4 +30,22 @@ public class ExecutorConfig {
         taskExecutor.initialize();
         return taskExecutor;
     }
+
+    /**
+     * 債券価格・リスク指標のバッチ・ストリーム計算で使うスレッドプール。
+     * 計算はCPUバウンドなので並列度はプロセッサ数に合わせる。fork-joinのタスク分割にも使う。
+     */
+    @Bean(name = "pricingExecutor", destroyMethod = "shutdown")
+    public ForkJoinPool pricingExecutor(){
+        return new ForkJoinPool(workStealingParallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+
+    /**
+     * ポートフォリオ評価計算で(ポートフォリオ, 銘柄)ごとの計算を実行するスレッドプール。
+     * 共通プールを他の処理と取り合わないように専用とし、並列度は債券計算と同じくプロセッサ数に合わせる。
+     */
+    @Bean(name = "evaluationExecutor", destroyMethod = "shutdown")
+    public ForkJoinPool evaluationExecutor(){
+        return new ForkJoinPool(workStealingParallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
 }
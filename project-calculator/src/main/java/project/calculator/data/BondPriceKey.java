@@ -0,0 +1,195 @@
+package project.calculator.data;
+
+import project.calculator.data.enums.DayCountConvention;
+import project.calculator.data.enums.PricingMethod;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * <p>
+ * 債券理論価格キャッシュのキー。価格に影響する項目のみを持つ。
+ * </p>
+ * <p>
+ * 数値は末尾の0を取り除いて正規化するので、"0.030"と"0.03"は同じキーになる。
+ * カーブのバージョンは解決済みの値を持つので、最新カーブが切り替われば自然に別のキーとなる。
+ * </p>
+ * <p>
+ * 日数計算方式を指定した場合は受渡日・償還までの日数もキーに含める。償還日を債券マスタから取得する場合は銘柄コードも含める。
+ * </p>
+ */
+public final class BondPriceKey implements Serializable {
+    private static final Long serialVersionUID = 1L;
+    private final BigDecimal couponRate;
+    private final BigDecimal unit;
+    private final BigDecimal currentMaturity;
+    private final PaymentType paymentType;
+    private final Boolean isTermEndPayment;
+    private final long curveVersion;
+    private final PricingMethod pricingMethod;
+    private final DayCountConvention dayCountConvention;
+    private final LocalDate settlementDate;
+    private final Integer currentMaturityByDay;
+    private final String bondCode;
+
+    private BondPriceKey(BigDecimal couponRate, BigDecimal unit, BigDecimal currentMaturity, PaymentType paymentType, Boolean isTermEndPayment, long curveVersion, PricingMethod pricingMethod,
+                         DayCountConvention dayCountConvention, LocalDate settlementDate, Integer currentMaturityByDay, String bondCode) {
+        this.couponRate = couponRate;
+        this.unit = unit;
+        this.currentMaturity = currentMaturity;
+        this.paymentType = paymentType;
+        this.isTermEndPayment = isTermEndPayment;
+        this.curveVersion = curveVersion;
+        this.pricingMethod = pricingMethod;
+        this.dayCountConvention = dayCountConvention;
+        this.settlementDate = settlementDate;
+        this.currentMaturityByDay = currentMaturityByDay;
+        this.bondCode = bondCode;
+    }
+
+    /**
+     * 計算データからキーを生成する。
+     * @param data
+     * @param curveVersion 計算に使うカーブのバージョン(解決済み)
+     * @param pricingMethod 計算に使う計算方法(解決済み)
+     * @return
+     */
+    public static BondPriceKey of(BondPricingData data, long curveVersion, PricingMethod pricingMethod) {
+        if (data.getDayCountConvention() == null) {
+            return new BondPriceKey(normalize(data.getCouponRate()), normalize(data.getUnit()), normalize(data.getCurrentMaturity()),
+                    data.getPaymentType(), data.getIsTermEndPayment(), curveVersion, pricingMethod, null, null, null, null);
+        }
+        return new BondPriceKey(normalize(data.getCouponRate()), normalize(data.getUnit()), normalize(data.getCurrentMaturity()),
+                data.getPaymentType(), data.getIsTermEndPayment(), curveVersion, pricingMethod,
+                data.getDayCountConvention(), data.getSettlementDate(), data.getCurrentMaturityByDay(),
+                data.getCurrentMaturityByDay() == null ? data.getBondCode() : null);
+    }
+
+    private static BigDecimal normalize(BigDecimal value) {
+        return value == null ? null : value.stripTrailingZeros();
+    }
+
+    public BigDecimal getCouponRate() {
+        return this.couponRate;
+    }
+
+    public BigDecimal getUnit() {
+        return this.unit;
+    }
+
+    public BigDecimal getCurrentMaturity() {
+        return this.currentMaturity;
+    }
+
+    public PaymentType getPaymentType() {
+        return this.paymentType;
+    }
+
+    public Boolean getIsTermEndPayment() {
+        return this.isTermEndPayment;
+    }
+
+    public long getCurveVersion() {
+        return this.curveVersion;
+    }
+
+    public PricingMethod getPricingMethod() {
+        return this.pricingMethod;
+    }
+
+    public DayCountConvention getDayCountConvention() {
+        return this.dayCountConvention;
+    }
+
+    public LocalDate getSettlementDate() {
+        return this.settlementDate;
+    }
+
+    public Integer getCurrentMaturityByDay() {
+        return this.currentMaturityByDay;
+    }
+
+    public String getBondCode() {
+        return this.bondCode;
+    }
+
+    public boolean equals(final Object o) {
+        if (o == this) return true;
+        if (!(o instanceof BondPriceKey)) return false;
+        final BondPriceKey other = (BondPriceKey) o;
+        if (this.getCurveVersion() != other.getCurveVersion()) return false;
+        final Object this$couponRate = this.getCouponRate();
+        final Object other$couponRate = other.getCouponRate();
+        if (this$couponRate == null ? other$couponRate != null : !this$couponRate.equals(other$couponRate))
+            return false;
+        final Object this$unit = this.getUnit();
+        final Object other$unit = other.getUnit();
+        if (this$unit == null ? other$unit != null : !this$unit.equals(other$unit)) return false;
+        final Object this$currentMaturity = this.getCurrentMaturity();
+        final Object other$currentMaturity = other.getCurrentMaturity();
+        if (this$currentMaturity == null ? other$currentMaturity != null : !this$currentMaturity.equals(other$currentMaturity))
+            return false;
+        final Object this$paymentType = this.getPaymentType();
+        final Object other$paymentType = other.getPaymentType();
+        if (this$paymentType == null ? other$paymentType != null : !this$paymentType.equals(other$paymentType))
+            return false;
+        final Object this$isTermEndPayment = this.getIsTermEndPayment();
+        final Object other$isTermEndPayment = other.getIsTermEndPayment();
+        if (this$isTermEndPayment == null ? other$isTermEndPayment != null : !this$isTermEndPayment.equals(other$isTermEndPayment))
+            return false;
+        final Object this$pricingMethod = this.getPricingMethod();
+        final Object other$pricingMethod = other.getPricingMethod();
+        if (this$pricingMethod == null ? other$pricingMethod != null : !this$pricingMethod.equals(other$pricingMethod))
+            return false;
+        final Object this$dayCountConvention = this.getDayCountConvention();
+        final Object other$dayCountConvention = other.getDayCountConvention();
+        if (this$dayCountConvention == null ? other$dayCountConvention != null : !this$dayCountConvention.equals(other$dayCountConvention))
+            return false;
+        final Object this$settlementDate = this.getSettlementDate();
+        final Object other$settlementDate = other.getSettlementDate();
+        if (this$settlementDate == null ? other$settlementDate != null : !this$settlementDate.equals(other$settlementDate))
+            return false;
+        final Object this$currentMaturityByDay = this.getCurrentMaturityByDay();
+        final Object other$currentMaturityByDay = other.getCurrentMaturityByDay();
+        if (this$currentMaturityByDay == null ? other$currentMaturityByDay != null : !this$currentMaturityByDay.equals(other$currentMaturityByDay))
+            return false;
+        final Object this$bondCode = this.getBondCode();
+        final Object other$bondCode = other.getBondCode();
+        if (this$bondCode == null ? other$bondCode != null : !this$bondCode.equals(other$bondCode)) return false;
+        return true;
+    }
+
+    public int hashCode() {
+        final int PRIME = 59;
+        int result = 1;
+        final long $curveVersion = this.getCurveVersion();
+        result = result * PRIME + (int) ($curveVersion >>> 32 ^ $curveVersion);
+        final Object $couponRate = this.getCouponRate();
+        result = result * PRIME + ($couponRate == null ? 43 : $couponRate.hashCode());
+        final Object $unit = this.getUnit();
+        result = result * PRIME + ($unit == null ? 43 : $unit.hashCode());
+        final Object $currentMaturity = this.getCurrentMaturity();
+        result = result * PRIME + ($currentMaturity == null ? 43 : $currentMaturity.hashCode());
+        final Object $paymentType = this.getPaymentType();
+        result = result * PRIME + ($paymentType == null ? 43 : $paymentType.hashCode());
+        final Object $isTermEndPayment = this.getIsTermEndPayment();
+        result = result * PRIME + ($isTermEndPayment == null ? 43 : $isTermEndPayment.hashCode());
+        final Object $pricingMethod = this.getPricingMethod();
+        result = result * PRIME + ($pricingMethod == null ? 43 : $pricingMethod.hashCode());
+        final Object $dayCountConvention = this.getDayCountConvention();
+        result = result * PRIME + ($dayCountConvention == null ? 43 : $dayCountConvention.hashCode());
+        final Object $settlementDate = this.getSettlementDate();
+        result = result * PRIME + ($settlementDate == null ? 43 : $settlementDate.hashCode());
+        final Object $currentMaturityByDay = this.getCurrentMaturityByDay();
+        result = result * PRIME + ($currentMaturityByDay == null ? 43 : $currentMaturityByDay.hashCode());
+        final Object $bondCode = this.getBondCode();
+        result = result * PRIME + ($bondCode == null ? 43 : $bondCode.hashCode());
+        return result;
+    }
+
+    public String toString() {
+        return "BondPriceKey(couponRate=" + this.getCouponRate() + ", unit=" + this.getUnit() + ", currentMaturity=" + this.getCurrentMaturity() + ", paymentType=" + this.getPaymentType() + ", isTermEndPayment=" + this.getIsTermEndPayment() + ", curveVersion=" + this.getCurveVersion() + ", pricingMethod=" + this.getPricingMethod() + ", dayCountConvention=" + this.getDayCountConvention() + ", settlementDate=" + this.getSettlementDate() + ", currentMaturityByDay=" + this.getCurrentMaturityByDay() + ", bondCode=" + this.getBondCode() + ")";
+    }
+}
@@ -1,9 +1,12 @@
 package project.calculator.data;
 
+import project.calculator.data.enums.DayCountConvention;
+import project.calculator.data.enums.PricingMethod;
 import project.infra.rdb.discountfactor.PaymentType;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 //ToDo ユニットテストをstatic factoryに対応させる。
 public final class BondPricingData implements Serializable {
@@ -18,8 +21,27 @@ public final class BondPricingData implements Serializable {
     private final Boolean isTermEndPayment;
     // 一年or半年単位で端数を切り捨てする。
     private final BigDecimal currentMaturity;
+    // 割引現在価値のバージョン。nullの場合は最新版を使う。
+    private final Long curveVersion;
+    // 計算方法。nullの場合は設定ファイルで指定した既定の計算方法を使う。
+    private final PricingMethod pricingMethod;
+    // 日数計算方式。nullの場合は期間数に丸めて計算する。
+    private final DayCountConvention dayCountConvention;
+    // 受渡日。日数計算方式を指定した場合のみ使う。
+    private final LocalDate settlementDate;
+    // 受渡日から償還日までの日数。nullの場合は債券マスタの償還日を使う。
+    private final Integer currentMaturityByDay;
 
     public BondPricingData(String bondCode, BigDecimal currentPrice, BigDecimal bookPrice, BigDecimal unit, BigDecimal couponRate, PaymentType paymentType, Boolean isTermEndPayment, BigDecimal currentMaturity) {
+        this(bondCode, currentPrice, bookPrice, unit, couponRate, paymentType, isTermEndPayment, currentMaturity, null, null);
+    }
+
+    public BondPricingData(String bondCode, BigDecimal currentPrice, BigDecimal bookPrice, BigDecimal unit, BigDecimal couponRate, PaymentType paymentType, Boolean isTermEndPayment, BigDecimal currentMaturity, Long curveVersion, PricingMethod pricingMethod) {
+        this(bondCode, currentPrice, bookPrice, unit, couponRate, paymentType, isTermEndPayment, currentMaturity, curveVersion, pricingMethod, null, null, null);
+    }
+
+    public BondPricingData(String bondCode, BigDecimal currentPrice, BigDecimal bookPrice, BigDecimal unit, BigDecimal couponRate, PaymentType paymentType, Boolean isTermEndPayment, BigDecimal currentMaturity, Long curveVersion, PricingMethod pricingMethod,
+                           DayCountConvention dayCountConvention, LocalDate settlementDate, Integer currentMaturityByDay) {
         this.bondCode = bondCode;
         this.currentPrice = currentPrice;
         this.bookPrice = bookPrice;
@@ -28,6 +50,21 @@ public final class BondPricingData implements Serializable {
         this.paymentType = paymentType;
         this.isTermEndPayment = isTermEndPayment;
         this.currentMaturity = currentMaturity;
+        this.curveVersion = curveVersion;
+        this.pricingMethod = pricingMethod;
+        this.dayCountConvention = dayCountConvention;
+        this.settlementDate = settlementDate;
+        this.currentMaturityByDay = currentMaturityByDay;
+    }
+
+    /**
+     * カーブのバージョンだけを変更した計算条件を返す。
+     * @param curveVersion
+     * @return
+     */
+    public BondPricingData withCurveVersion(Long curveVersion) {
+        return new BondPricingData(this.bondCode, this.currentPrice, this.bookPrice, this.unit, this.couponRate, this.paymentType, this.isTermEndPayment
+                , this.currentMaturity, curveVersion, this.pricingMethod, this.dayCountConvention, this.settlementDate, this.currentMaturityByDay);
     }
 
     public static BondPricingDataBuilder builder() {
@@ -66,6 +103,26 @@ public final class BondPricingData implements Serializable {
         return this.currentMaturity;
     }
 
+    public Long getCurveVersion() {
+        return this.curveVersion;
+    }
+
+    public PricingMethod getPricingMethod() {
+        return this.pricingMethod;
+    }
+
+    public DayCountConvention getDayCountConvention() {
+        return this.dayCountConvention;
+    }
+
+    public LocalDate getSettlementDate() {
+        return this.settlementDate;
+    }
+
+    public Integer getCurrentMaturityByDay() {
+        return this.currentMaturityByDay;
+    }
+
     public boolean equals(final Object o) {
         if (o == this) return true;
         if (!(o instanceof BondPricingData)) return false;
@@ -99,6 +156,26 @@ public final class BondPricingData implements Serializable {
         final Object other$currentMaturity = other.getCurrentMaturity();
         if (this$currentMaturity == null ? other$currentMaturity != null : !this$currentMaturity.equals(other$currentMaturity))
             return false;
+        final Object this$curveVersion = this.getCurveVersion();
+        final Object other$curveVersion = other.getCurveVersion();
+        if (this$curveVersion == null ? other$curveVersion != null : !this$curveVersion.equals(other$curveVersion))
+            return false;
+        final Object this$pricingMethod = this.getPricingMethod();
+        final Object other$pricingMethod = other.getPricingMethod();
+        if (this$pricingMethod == null ? other$pricingMethod != null : !this$pricingMethod.equals(other$pricingMethod))
+            return false;
+        final Object this$dayCountConvention = this.getDayCountConvention();
+        final Object other$dayCountConvention = other.getDayCountConvention();
+        if (this$dayCountConvention == null ? other$dayCountConvention != null : !this$dayCountConvention.equals(other$dayCountConvention))
+            return false;
+        final Object this$settlementDate = this.getSettlementDate();
+        final Object other$settlementDate = other.getSettlementDate();
+        if (this$settlementDate == null ? other$settlementDate != null : !this$settlementDate.equals(other$settlementDate))
+            return false;
+        final Object this$currentMaturityByDay = this.getCurrentMaturityByDay();
+        final Object other$currentMaturityByDay = other.getCurrentMaturityByDay();
+        if (this$currentMaturityByDay == null ? other$currentMaturityByDay != null : !this$currentMaturityByDay.equals(other$currentMaturityByDay))
+            return false;
         return true;
     }
 
@@ -121,11 +198,21 @@ public final class BondPricingData implements Serializable {
         result = result * PRIME + ($isTermEndPayment == null ? 43 : $isTermEndPayment.hashCode());
         final Object $currentMaturity = this.getCurrentMaturity();
         result = result * PRIME + ($currentMaturity == null ? 43 : $currentMaturity.hashCode());
+        final Object $curveVersion = this.getCurveVersion();
+        result = result * PRIME + ($curveVersion == null ? 43 : $curveVersion.hashCode());
+        final Object $pricingMethod = this.getPricingMethod();
+        result = result * PRIME + ($pricingMethod == null ? 43 : $pricingMethod.hashCode());
+        final Object $dayCountConvention = this.getDayCountConvention();
+        result = result * PRIME + ($dayCountConvention == null ? 43 : $dayCountConvention.hashCode());
+        final Object $settlementDate = this.getSettlementDate();
+        result = result * PRIME + ($settlementDate == null ? 43 : $settlementDate.hashCode());
+        final Object $currentMaturityByDay = this.getCurrentMaturityByDay();
+        result = result * PRIME + ($currentMaturityByDay == null ? 43 : $currentMaturityByDay.hashCode());
         return result;
     }
 
     public String toString() {
-        return "BondPricingData(bondCode=" + this.getBondCode() + ", currentPrice=" + this.getCurrentPrice() + ", bookPrice=" + this.getBookPrice() + ", unit=" + this.getUnit() + ", couponRate=" + this.getCouponRate() + ", paymentType=" + this.getPaymentType() + ", isTermEndPayment=" + this.getIsTermEndPayment() + ", currentMaturity=" + this.getCurrentMaturity() + ")";
+        return "BondPricingData(bondCode=" + this.getBondCode() + ", currentPrice=" + this.getCurrentPrice() + ", bookPrice=" + this.getBookPrice() + ", unit=" + this.getUnit() + ", couponRate=" + this.getCouponRate() + ", paymentType=" + this.getPaymentType() + ", isTermEndPayment=" + this.getIsTermEndPayment() + ", currentMaturity=" + this.getCurrentMaturity() + ", curveVersion=" + this.getCurveVersion() + ", pricingMethod=" + this.getPricingMethod() + ", dayCountConvention=" + this.getDayCountConvention() + ", settlementDate=" + this.getSettlementDate() + ", currentMaturityByDay=" + this.getCurrentMaturityByDay() + ")";
     }
 
     public static class BondPricingDataBuilder {
@@ -137,6 +224,11 @@ public final class BondPricingData implements Serializable {
         private PaymentType paymentType;
         private Boolean isTermEndPayment;
         private BigDecimal currentMaturity;
+        private Long curveVersion;
+        private PricingMethod pricingMethod;
+        private DayCountConvention dayCountConvention;
+        private LocalDate settlementDate;
+        private Integer currentMaturityByDay;
 
         BondPricingDataBuilder() {
         }
@@ -181,12 +273,38 @@ public final class BondPricingData implements Serializable {
             return this;
         }
 
+        public BondPricingDataBuilder curveVersion(Long curveVersion) {
+            this.curveVersion = curveVersion;
+            return this;
+        }
+
+        public BondPricingDataBuilder pricingMethod(PricingMethod pricingMethod) {
+            this.pricingMethod = pricingMethod;
+            return this;
+        }
+
+        public BondPricingDataBuilder dayCountConvention(DayCountConvention dayCountConvention) {
+            this.dayCountConvention = dayCountConvention;
+            return this;
+        }
+
+        public BondPricingDataBuilder settlementDate(LocalDate settlementDate) {
+            this.settlementDate = settlementDate;
+            return this;
+        }
+
+        public BondPricingDataBuilder currentMaturityByDay(Integer currentMaturityByDay) {
+            this.currentMaturityByDay = currentMaturityByDay;
+            return this;
+        }
+
         public BondPricingData build() {
-            return new BondPricingData(bondCode, currentPrice, bookPrice, unit, couponRate, paymentType, isTermEndPayment, currentMaturity);
+            return new BondPricingData(bondCode, currentPrice, bookPrice, unit, couponRate, paymentType, isTermEndPayment, currentMaturity, curveVersion, pricingMethod,
+                    dayCountConvention, settlementDate, currentMaturityByDay);
         }
 
         public String toString() {
-            return "BondPricingData.BondPricingDataBuilder(bondCode=" + this.bondCode + ", currentPrice=" + this.currentPrice + ", bookPrice=" + this.bookPrice + ", unit=" + this.unit + ", couponRate=" + this.couponRate + ", paymentType=" + this.paymentType + ", isTermEndPayment=" + this.isTermEndPayment + ", currentMaturity=" + this.currentMaturity + ")";
+            return "BondPricingData.BondPricingDataBuilder(bondCode=" + this.bondCode + ", currentPrice=" + this.currentPrice + ", bookPrice=" + this.bookPrice + ", unit=" + this.unit + ", couponRate=" + this.couponRate + ", paymentType=" + this.paymentType + ", isTermEndPayment=" + this.isTermEndPayment + ", currentMaturity=" + this.currentMaturity + ", curveVersion=" + this.curveVersion + ", pricingMethod=" + this.pricingMethod + ", dayCountConvention=" + this.dayCountConvention + ", settlementDate=" + this.settlementDate + ", currentMaturityByDay=" + this.currentMaturityByDay + ")";
         }
     }
 }
@@ -0,0 +1,55 @@
+package project.calculator.data.converter;
+
+import project.calculator.data.BondPricingData;
+import project.infra.rdb.bondmaster.BondMaster;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 債券マスタのデータを計算用データクラスに変換するコンバータ
+ */
+public class BondMasterConverter {
+
+    private static final BigDecimal DAYS_OF_YEAR = new BigDecimal("365");
+
+    /**
+     * <p>
+     * 基準日時点の残存期間(年)を求めて計算用データに変換する。額面(FACE_VALUE)あたりの価格を計算する。
+     * 利払いは期末払いとみなす。
+     * </p>
+     * @param bondMaster
+     * @param baseDate
+     * @return
+     */
+    public static BondPricingData convertFrom(BondMaster bondMaster, LocalDate baseDate){
+        LocalDate maturity = Instant.ofEpochMilli(bondMaster.getMaturity().getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+        BigDecimal currentMaturity = new BigDecimal(ChronoUnit.DAYS.between(baseDate, maturity))
+                .divide(DAYS_OF_YEAR, 6, RoundingMode.DOWN);
+        return BondPricingData.builder()
+                .bondCode(bondMaster.getBondCode())
+                .couponRate(bondMaster.getCouponRate())
+                .unit(bondMaster.getFaceValue())
+                .paymentType(convertFrom(bondMaster.getPaymentType()))
+                .isTermEndPayment(Boolean.TRUE)
+                .currentMaturity(currentMaturity)
+                .build();
+    }
+
+    private static PaymentType convertFrom(project.infra.rdb.bondmaster.PaymentType paymentType){
+        if (paymentType == project.infra.rdb.bondmaster.PaymentType.ONE_YEAR){
+            return PaymentType.Annual;
+        }
+
+        if (paymentType == project.infra.rdb.bondmaster.PaymentType.HALF_YEAR){
+            return PaymentType.SemiAnnual;
+        }
+
+        return null;
+    }
+}
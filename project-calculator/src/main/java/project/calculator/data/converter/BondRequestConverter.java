@@ -1,7 +1,14 @@
 package project.calculator.data.converter;
 
 import io.grpc.finance.calculation.product.bond.BondPricingRequest;
+import io.grpc.util.DecimalValue;
+import io.grpc.util.DecimalValueConverter;
+import io.grpc.util.NumericEncoding;
 import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.DayCountConvention;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
 
 /**
  * gRPCで受信したDTOを計算用データクラスに変換するコンバータ
@@ -9,16 +16,32 @@ import project.calculator.data.BondPricingData;
 public class BondRequestConverter {
 
    public static BondPricingData convertFrom(BondPricingRequest req){
+        boolean useDecimal = req.getNumericEncoding() == NumericEncoding.SCALED_DECIMAL;
+        DayCountConvention dayCountConvention = DayCountConventionConverter.convertFrom(req.getDayCountConvention());
+        // 受渡日・償還までの日数は日数計算方式を指定した場合のみ使う
+        boolean isDated = dayCountConvention != null;
         BondPricingData data = BondPricingData.builder()
                 .bondCode(req.getBondCode())
-                .bookPrice(BigDecimalConverter.convertFrom(req.getBookPrice()))
-                .currentPrice(BigDecimalConverter.convertFrom(req.getCurrentPrice()))
-                .couponRate(BigDecimalConverter.convertFrom(req.getCouponRate()))
-                .currentMaturity(BigDecimalConverter.convertFrom(req.getCurrentMaturity()))
+                .bookPrice(convertFrom(useDecimal && req.hasBookPriceDecimal(), req.getBookPriceDecimal(), req.getBookPrice()))
+                .currentPrice(convertFrom(useDecimal && req.hasCurrentPriceDecimal(), req.getCurrentPriceDecimal(), req.getCurrentPrice()))
+                .couponRate(convertFrom(useDecimal && req.hasCouponRateDecimal(), req.getCouponRateDecimal(), req.getCouponRate()))
+                .currentMaturity(convertFrom(useDecimal && req.hasCurrentMaturityDecimal(), req.getCurrentMaturityDecimal(), req.getCurrentMaturity()))
                 .isTermEndPayment(req.getIsTermEndPayment())
                 .paymentType(PaymetTypeConverter.convertFrom(req.getPaymentType()))
-                .unit(BigDecimalConverter.convertFrom(req.getUnit()))
+                .unit(convertFrom(useDecimal && req.hasUnitDecimal(), req.getUnitDecimal(), req.getUnit()))
+                .curveVersion(req.getCurveVersion().isEmpty() ? null : Long.valueOf(req.getCurveVersion()))
+                .pricingMethod(PricingMethodConverter.convertFrom(req.getPricingMethod()))
+                .dayCountConvention(dayCountConvention)
+                .settlementDate(!isDated ? null : req.getSettlementDate().isEmpty() ? LocalDate.now() : LocalDate.parse(req.getSettlementDate()))
+                .currentMaturityByDay(!isDated || req.getCurrentMaturityByDay().isEmpty() ? null : Integer.valueOf(req.getCurrentMaturityByDay()))
                 .build();
        return data;
    }
+
+    /**
+     * 固定小数点表現が使える場合はそちらを優先し、なければ文字列表現から変換する。
+     */
+    private static BigDecimal convertFrom(boolean useDecimal, DecimalValue decimal, String s){
+        return useDecimal ? DecimalValueConverter.convertFrom(decimal) : BigDecimalConverter.convertFrom(s);
+    }
 }
@@ -0,0 +1,23 @@
+package project.calculator.data.converter;
+
+import io.grpc.finance.calculation.product.bond.TenorShift;
+import project.calculator.domain.finance.bond.scenario.CurveShock;
+
+import java.util.List;
+
+/**
+ * gRPCで受信したカーブのショックを計算用のクラスに変換するコンバータ
+ */
+public class CurveShockConverter {
+
+    public static CurveShock convertFrom(io.grpc.finance.calculation.product.bond.CurveShock shock){
+        List<TenorShift> shifts = shock.getZeroRateShiftsList();
+        double[] tenors = new double[shifts.size()];
+        double[] shiftsBp = new double[shifts.size()];
+        for (int i = 0; i < shifts.size(); i++) {
+            tenors[i] = shifts.get(i).getTenor();
+            shiftsBp[i] = shifts.get(i).getShiftBp();
+        }
+        return CurveShock.of(shock.getScenarioId(), tenors, shiftsBp);
+    }
+}
@@ -0,0 +1,26 @@
+package project.calculator.data.converter;
+
+import io.grpc.finance.calculation.product.bond.DayCountConventionRpc;
+import project.calculator.data.enums.DayCountConvention;
+
+/**
+ * gRPCで定義されたDayCountConventionRpcをこちら側のDayCountConvention型に変換する。
+ */
+public class DayCountConventionConverter {
+
+    public static DayCountConvention convertFrom(DayCountConventionRpc dayCountConventionRpc){
+        if (dayCountConventionRpc == DayCountConventionRpc.ACT_365F){
+            return DayCountConvention.ACT_365F;
+        }
+
+        if (dayCountConventionRpc == DayCountConventionRpc.ACT_ACT){
+            return DayCountConvention.ACT_ACT;
+        }
+
+        if (dayCountConventionRpc == DayCountConventionRpc.THIRTY_360){
+            return DayCountConvention.THIRTY_360;
+        }
+
+        return null;
+    }
+}
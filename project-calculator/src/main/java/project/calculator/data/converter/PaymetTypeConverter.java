@@ -20,4 +20,15 @@ public class PaymetTypeConverter {
         return null;
     }
 
+    public static PaymentTypeRpc convertTo(PaymentType paymentType){
+        if (paymentType == PaymentType.Annual){
+            return PaymentTypeRpc.ANNUAL;
+        }
+
+        if (paymentType == PaymentType.SemiAnnual){
+            return PaymentTypeRpc.SEMI_ANNUAL;
+        }
+
+        return PaymentTypeRpc.UNRECOGNIZED;
+    }
 }
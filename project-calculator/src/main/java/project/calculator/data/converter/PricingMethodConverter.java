@@ -0,0 +1,27 @@
+package project.calculator.data.converter;
+
+import io.grpc.finance.calculation.product.bond.PricingMethodRpc;
+import project.calculator.data.enums.PricingMethod;
+
+/**
+ * gRPCで定義されたPricingMethodRpcをこちら側のPricingMethod型に変換する。
+ */
+public class PricingMethodConverter {
+
+    public static PricingMethod convertFrom(PricingMethodRpc pricingMethodRpc){
+        if (pricingMethodRpc == PricingMethodRpc.DISCOUNT_FACTOR){
+            return PricingMethod.DISCOUNT_FACTOR;
+        }
+
+        if (pricingMethodRpc == PricingMethodRpc.DISCOUNT_FACTOR_DOUBLE){
+            return PricingMethod.DISCOUNT_FACTOR_DOUBLE;
+        }
+
+        if (pricingMethodRpc == PricingMethodRpc.HULL_WHITE_MONTE_CARLO){
+            return PricingMethod.HULL_WHITE_MONTE_CARLO;
+        }
+
+        return null;
+    }
+
+}
@@ -0,0 +1,48 @@
+package project.calculator.data.enums;
+
+import project.calculator.data.BondPricingData;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * 残存期間が利払い周期の整数倍でない(期間の途中の)債券のキャッシュフローの時点を決める方式。
+ * 理論価格・リスク指標・最終利回りは同じ方式を使い、結果を整合させる。
+ */
+public enum CashFlowTiming {
+    // 残存期間を期間数に切り捨て、現在時点から利払い周期ごとにキャッシュフローがあるものとする(従来の計算)
+    TRUNCATED {
+        @Override
+        public boolean isOffGrid(BondPricingData data) {
+            return false;
+        }
+    },
+    // 期末払いの債券は償還時点から利払い周期ずつ遡った時点ごとにキャッシュフローがあるものとする。期中払いの債券は従来通り切り捨てる
+    OFF_GRID {
+        @Override
+        public boolean isOffGrid(BondPricingData data) {
+            return data.getIsTermEndPayment()
+                    && data.getCurrentMaturity().remainder(data.getPaymentType().getStep()).signum() != 0;
+        }
+    };
+
+    /**
+     * 償還時点から遡った時点でキャッシュフローを割り引く債券か確認する。
+     * @param data
+     * @return
+     */
+    public abstract boolean isOffGrid(BondPricingData data);
+
+    /**
+     * 最初のキャッシュフローまでの期間数の端数を返す。キャッシュフローは期間数 k + offset (k = 0..期間数)の時点にある。
+     * @param data
+     * @return 0以上1未満。切り捨てる債券は0
+     */
+    public double offsetOf(BondPricingData data) {
+        if (!this.isOffGrid(data)) {
+            return 0;
+        }
+        BigDecimal step = data.getPaymentType().getStep();
+        return data.getCurrentMaturity().remainder(step).divide(step, MathContext.DECIMAL64).doubleValue();
+    }
+}
@@ -0,0 +1,13 @@
+package project.calculator.data.enums;
+
+/**
+ * 割引現在価値カーブの期間の間を補間する方式。
+ */
+public enum CurveInterpolation {
+    // log(DF)の線形補間。フォワードレートは期間ごとに一定となる
+    LOG_LINEAR,
+    // Hagan-Westのmonotone convex法。フォワードレートが連続かつ期間ごとのフォワードの単調性を保つ
+    MONOTONE_CONVEX,
+    // log(DF)の自然3次スプライン
+    CUBIC_SPLINE;
+}
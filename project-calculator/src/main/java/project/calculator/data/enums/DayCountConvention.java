@@ -0,0 +1,52 @@
+package project.calculator.data.enums;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 経過利息・クーポン額の計算に使う日数計算方式。
+ */
+public enum DayCountConvention {
+    // 実日数 / 365
+    ACT_365F {
+        @Override
+        public BigDecimal yearFraction(LocalDate periodStart, LocalDate periodEnd, LocalDate date, int frequency) {
+            return new BigDecimal(ChronoUnit.DAYS.between(periodStart, date)).divide(DAYS_OF_YEAR, MathContext.DECIMAL64);
+        }
+    },
+    // 実日数 / (利払い期間の実日数 × 年間の利払い回数) (ICMA)
+    ACT_ACT {
+        @Override
+        public BigDecimal yearFraction(LocalDate periodStart, LocalDate periodEnd, LocalDate date, int frequency) {
+            long periodDays = ChronoUnit.DAYS.between(periodStart, periodEnd);
+            return new BigDecimal(ChronoUnit.DAYS.between(periodStart, date))
+                    .divide(new BigDecimal(periodDays * frequency), MathContext.DECIMAL64);
+        }
+    },
+    // 30/360 (US)
+    THIRTY_360 {
+        @Override
+        public BigDecimal yearFraction(LocalDate periodStart, LocalDate periodEnd, LocalDate date, int frequency) {
+            int d1 = Math.min(periodStart.getDayOfMonth(), 30);
+            int d2 = date.getDayOfMonth() == 31 && d1 == 30 ? 30 : date.getDayOfMonth();
+            long days = 360L * (date.getYear() - periodStart.getYear()) + 30L * (date.getMonthValue() - periodStart.getMonthValue()) + (d2 - d1);
+            return new BigDecimal(days).divide(DAYS_OF_360, MathContext.DECIMAL64);
+        }
+    };
+
+    private static final BigDecimal DAYS_OF_YEAR = new BigDecimal("365");
+    private static final BigDecimal DAYS_OF_360 = new BigDecimal("360");
+
+    /**
+     * 利払い期間[periodStart, periodEnd]の期首からdateまでの年数を返す。
+     * dateにperiodEndを指定すると、その期間のクーポン額の計算に使う年数となる。
+     * @param periodStart 利払い期間の期首
+     * @param periodEnd 利払い期間の期末
+     * @param date
+     * @param frequency 年間の利払い回数
+     * @return
+     */
+    public abstract BigDecimal yearFraction(LocalDate periodStart, LocalDate periodEnd, LocalDate date, int frequency);
+}
@@ -1,5 +1,9 @@
 package project.calculator.data.enums;
 
 public enum PricingMethod {
-    DISCOUNT_FACTOR;
+    DISCOUNT_FACTOR,
+    // 倍精度浮動小数点で計算する。大量銘柄の一括評価向け。
+    DISCOUNT_FACTOR_DOUBLE,
+    // Hull-White 1ファクターモデルのモンテカルロ法で計算する。
+    HULL_WHITE_MONTE_CARLO;
 }
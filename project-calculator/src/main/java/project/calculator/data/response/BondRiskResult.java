@@ -0,0 +1,80 @@
+package project.calculator.data.response;
+
+import io.grpc.util.Status;
+import io.grpc.util.StatusMsg;
+
+import java.util.Arrays;
+
+/**
+ * 債券1銘柄のリスク指標の計算結果。
+ * 年限は年単位、感応度は金利1単位(1.0 = 100%)あたりの値。DV01のみ1bpあたりの価格変化額。
+ */
+public final class BondRiskResult {
+    private final double theoreticalPrice;
+    private final double macaulayDuration;
+    private final double modifiedDuration;
+    private final double convexity;
+    private final double dv01;
+    private final double[] keyRateTenors;
+    private final double[] keyRateDurations;
+    private final StatusMsg resultDetail;
+
+    private BondRiskResult(double theoreticalPrice, double macaulayDuration, double modifiedDuration, double convexity, double dv01,
+                           double[] keyRateTenors, double[] keyRateDurations, StatusMsg resultDetail) {
+        this.theoreticalPrice = theoreticalPrice;
+        this.macaulayDuration = macaulayDuration;
+        this.modifiedDuration = modifiedDuration;
+        this.convexity = convexity;
+        this.dv01 = dv01;
+        this.keyRateTenors = keyRateTenors;
+        this.keyRateDurations = keyRateDurations;
+        this.resultDetail = resultDetail;
+    }
+
+    public static BondRiskResult create(double theoreticalPrice, double macaulayDuration, double modifiedDuration, double convexity, double dv01,
+                                        double[] keyRateTenors, double[] keyRateDurations) {
+        StatusMsg msg = StatusMsg.newBuilder().setStatus(Status.OK).setDetail("Success").build();
+        return new BondRiskResult(theoreticalPrice, macaulayDuration, modifiedDuration, convexity, dv01,
+                keyRateTenors.clone(), keyRateDurations.clone(), msg);
+    }
+
+    public static BondRiskResult notCompleted(StatusMsg resultDetail) {
+        return new BondRiskResult(0, 0, 0, 0, 0, new double[0], new double[0], resultDetail);
+    }
+
+    public double getTheoreticalPrice() {
+        return this.theoreticalPrice;
+    }
+
+    public double getMacaulayDuration() {
+        return this.macaulayDuration;
+    }
+
+    public double getModifiedDuration() {
+        return this.modifiedDuration;
+    }
+
+    public double getConvexity() {
+        return this.convexity;
+    }
+
+    public double getDv01() {
+        return this.dv01;
+    }
+
+    public double[] getKeyRateTenors() {
+        return this.keyRateTenors.clone();
+    }
+
+    public double[] getKeyRateDurations() {
+        return this.keyRateDurations.clone();
+    }
+
+    public StatusMsg getResultDetail() {
+        return this.resultDetail;
+    }
+
+    public String toString() {
+        return "BondRiskResult(theoreticalPrice=" + this.getTheoreticalPrice() + ", macaulayDuration=" + this.getMacaulayDuration() + ", modifiedDuration=" + this.getModifiedDuration() + ", convexity=" + this.getConvexity() + ", dv01=" + this.getDv01() + ", keyRateTenors=" + Arrays.toString(this.keyRateTenors) + ", keyRateDurations=" + Arrays.toString(this.keyRateDurations) + ", resultDetail=" + this.getResultDetail() + ")";
+    }
+}
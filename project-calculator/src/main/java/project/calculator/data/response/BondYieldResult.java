@@ -0,0 +1,45 @@
+package project.calculator.data.response;
+
+import io.grpc.util.Status;
+import io.grpc.util.StatusMsg;
+
+/**
+ * 債券1銘柄の最終利回りの計算結果。
+ * 利回りは利払い周期ごとの複利で、金利1単位(1.0 = 100%)あたりの値。
+ */
+public final class BondYieldResult {
+    private final double yieldToMaturity;
+    private final int iterations;
+    private final StatusMsg resultDetail;
+
+    private BondYieldResult(double yieldToMaturity, int iterations, StatusMsg resultDetail) {
+        this.yieldToMaturity = yieldToMaturity;
+        this.iterations = iterations;
+        this.resultDetail = resultDetail;
+    }
+
+    public static BondYieldResult create(double yieldToMaturity, int iterations) {
+        StatusMsg msg = StatusMsg.newBuilder().setStatus(Status.OK).setDetail("Success").build();
+        return new BondYieldResult(yieldToMaturity, iterations, msg);
+    }
+
+    public static BondYieldResult notCompleted(double yieldToMaturity, int iterations, StatusMsg resultDetail) {
+        return new BondYieldResult(yieldToMaturity, iterations, resultDetail);
+    }
+
+    public double getYieldToMaturity() {
+        return this.yieldToMaturity;
+    }
+
+    public int getIterations() {
+        return this.iterations;
+    }
+
+    public StatusMsg getResultDetail() {
+        return this.resultDetail;
+    }
+
+    public String toString() {
+        return "BondYieldResult(yieldToMaturity=" + this.getYieldToMaturity() + ", iterations=" + this.getIterations() + ", resultDetail=" + this.getResultDetail() + ")";
+    }
+}
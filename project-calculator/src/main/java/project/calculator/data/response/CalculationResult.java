@@ -11,15 +11,22 @@ public final class CalculationResult implements Serializable {
     private final BigDecimal result;
     private final PricingMethod method;
     private final StatusMsg resultDetail;
+    // 経過利息。日数計算方式を指定した場合のみ設定し、resultは経過利息を含む価格(dirty)とする。
+    private final BigDecimal accruedInterest;
 
-    private CalculationResult(BigDecimal result, PricingMethod method, StatusMsg resultDetail) {
+    private CalculationResult(BigDecimal result, PricingMethod method, StatusMsg resultDetail, BigDecimal accruedInterest) {
         this.result = result;
         this.method = method;
         this.resultDetail = resultDetail;
+        this.accruedInterest = accruedInterest;
     }
 
     public static CalculationResult create(BigDecimal result, PricingMethod method, StatusMsg resultDetail) {
-        return new CalculationResult(result, method, resultDetail);
+        return new CalculationResult(result, method, resultDetail, null);
+    }
+
+    public static CalculationResult create(BigDecimal result, PricingMethod method, StatusMsg resultDetail, BigDecimal accruedInterest) {
+        return new CalculationResult(result, method, resultDetail, accruedInterest);
     }
 
     public BigDecimal getResult() {
@@ -34,6 +41,10 @@ public final class CalculationResult implements Serializable {
         return this.resultDetail;
     }
 
+    public BigDecimal getAccruedInterest() {
+        return this.accruedInterest;
+    }
+
     public boolean equals(final Object o) {
         if (o == this) return true;
         if (!(o instanceof CalculationResult)) return false;
@@ -48,6 +59,10 @@ public final class CalculationResult implements Serializable {
         final Object other$resultDetail = other.getResultDetail();
         if (this$resultDetail == null ? other$resultDetail != null : !this$resultDetail.equals(other$resultDetail))
             return false;
+        final Object this$accruedInterest = this.getAccruedInterest();
+        final Object other$accruedInterest = other.getAccruedInterest();
+        if (this$accruedInterest == null ? other$accruedInterest != null : !this$accruedInterest.equals(other$accruedInterest))
+            return false;
         return true;
     }
 
@@ -60,10 +75,12 @@ public final class CalculationResult implements Serializable {
         result = result * PRIME + ($method == null ? 43 : $method.hashCode());
         final Object $resultDetail = this.getResultDetail();
         result = result * PRIME + ($resultDetail == null ? 43 : $resultDetail.hashCode());
+        final Object $accruedInterest = this.getAccruedInterest();
+        result = result * PRIME + ($accruedInterest == null ? 43 : $accruedInterest.hashCode());
         return result;
     }
 
     public String toString() {
-        return "CalculationResult(result=" + this.getResult() + ", method=" + this.getMethod() + ", resultDetail=" + this.getResultDetail() + ")";
+        return "CalculationResult(result=" + this.getResult() + ", method=" + this.getMethod() + ", resultDetail=" + this.getResultDetail() + ", accruedInterest=" + this.getAccruedInterest() + ")";
     }
 }
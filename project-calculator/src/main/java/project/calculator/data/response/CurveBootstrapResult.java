@@ -0,0 +1,47 @@
+package project.calculator.data.response;
+
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 割引現在価値カーブのブートストラップ結果。
+ * 価格の変更がカーブに影響しなかった場合は新しいバージョンを公開しない。
+ */
+public final class CurveBootstrapResult {
+    private final long version;
+    private final boolean published;
+    // 利払い周期ごとのカーブの期間数
+    private final Map<PaymentType, Integer> curveSizes;
+    // 利払い周期ごとの解き直した期間数
+    private final Map<PaymentType, Integer> resolvedTerms;
+
+    public CurveBootstrapResult(long version, boolean published, Map<PaymentType, Integer> curveSizes, Map<PaymentType, Integer> resolvedTerms) {
+        this.version = version;
+        this.published = published;
+        this.curveSizes = Collections.unmodifiableMap(new EnumMap<>(curveSizes));
+        this.resolvedTerms = Collections.unmodifiableMap(new EnumMap<>(resolvedTerms));
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public boolean isPublished() {
+        return this.published;
+    }
+
+    public Map<PaymentType, Integer> getCurveSizes() {
+        return this.curveSizes;
+    }
+
+    public Map<PaymentType, Integer> getResolvedTerms() {
+        return this.resolvedTerms;
+    }
+
+    public String toString() {
+        return "CurveBootstrapResult(version=" + this.getVersion() + ", published=" + this.isPublished() + ", curveSizes=" + this.getCurveSizes() + ", resolvedTerms=" + this.getResolvedTerms() + ")";
+    }
+}
@@ -0,0 +1,103 @@
+package project.calculator.domain.batch.porfolio;
+
+import project.infra.rdb.strockpricetimeseries.StockPriceArrival;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * <p>
+ * 届いた市場価格の基準日を銘柄ごとにまとめたもの。
+ * 横置きした評価結果のうち、横置き元より後・評価結果の基準日以前に価格が届いたものが評価し直す対象となる。
+ * </p>
+ * <p>
+ * 生成後は変更しないので、複数スレッドから参照できる。
+ * </p>
+ */
+public final class ArrivedPrices {
+
+    private final Map<String, SortedSet<LocalDate>> datesByStockCode;
+    private final int size;
+
+    private ArrivedPrices(Map<String, SortedSet<LocalDate>> datesByStockCode, int size) {
+        this.datesByStockCode = datesByStockCode;
+        this.size = size;
+    }
+
+    /**
+     * 届いた価格の銘柄・基準日の組からまとめる。
+     * @param arrivals
+     * @return
+     */
+    public static ArrivedPrices of(List<? extends StockPriceArrival> arrivals) {
+        Map<String, SortedSet<LocalDate>> datesByStockCode = new TreeMap<>();
+        for (StockPriceArrival arrival : arrivals) {
+            datesByStockCode.computeIfAbsent(arrival.getStockCode(), k -> new TreeSet<>()).add(arrival.getBaseDate());
+        }
+        int size = 0;
+        for (Map.Entry<String, SortedSet<LocalDate>> entry : datesByStockCode.entrySet()) {
+            entry.setValue(Collections.unmodifiableSortedSet(entry.getValue()));
+            size += entry.getValue().size();
+        }
+        return new ArrivedPrices(Collections.unmodifiableMap(datesByStockCode), size);
+    }
+
+    public Set<String> getStockCodes() {
+        return this.datesByStockCode.keySet();
+    }
+
+    /**
+     * 銘柄の届いた価格の基準日を昇順で返す。
+     * @param stockCode
+     * @return 届いていない銘柄は空
+     */
+    public SortedSet<LocalDate> getDates(String stockCode) {
+        SortedSet<LocalDate> dates = this.datesByStockCode.get(stockCode);
+        return dates == null ? Collections.emptySortedSet() : dates;
+    }
+
+    /**
+     * 全ての銘柄で最も古い届いた価格の基準日を返す。
+     * @return 空の場合はnull
+     */
+    public LocalDate getFirstDate() {
+        return this.datesByStockCode.values().stream().map(SortedSet::first).min(LocalDate::compareTo).orElse(null);
+    }
+
+    /**
+     * 横置きした評価結果が届いた価格で評価し直す対象か確認する。
+     * @param stockCode
+     * @param sourceDate 横置き元の基準日。横置きできる価格がなかった場合はnull
+     * @param baseDate 評価結果の基準日
+     * @return 横置き元より後、評価結果の基準日以前に価格が届いていればtrue
+     */
+    public boolean isAffected(String stockCode, LocalDate sourceDate, LocalDate baseDate) {
+        SortedSet<LocalDate> dates = this.datesByStockCode.get(stockCode);
+        if (dates == null) {
+            return false;
+        }
+        SortedSet<LocalDate> newer = sourceDate == null ? dates : dates.tailSet(sourceDate.plusDays(1));
+        return !newer.isEmpty() && !newer.first().isAfter(baseDate);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ArrivedPrices{" +
+                "datesByStockCode=" + datesByStockCode +
+                '}';
+    }
+}
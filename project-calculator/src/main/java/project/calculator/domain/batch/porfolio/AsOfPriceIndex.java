@@ -0,0 +1,111 @@
+package project.calculator.domain.batch.porfolio;
+
+import project.infra.rdb.strockpricetimeseries.StockPrice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SortedSet;
+
+/**
+ * <p>
+ * 1銘柄の市場価格を営業日の順番(序数)で引けるようにした索引。
+ * 営業日ごとに、その日以前の最新の終値とその基準日を持つ(横置き)。
+ * </p>
+ * <p>
+ * 生成時に価格を一度だけ並べ替えて営業日と突き合わせるので、参照は序数なら定数時間、日付なら二分探索となる。
+ * 生成後は変更しないので、複数スレッドから参照できる。
+ * </p>
+ */
+public final class AsOfPriceIndex {
+
+    // 昇順の営業日。添字が序数
+    private final LocalDate[] businessDays;
+    private final BigDecimal[] closePrices;
+    // 横置きした価格の基準日
+    private final LocalDate[] sourceDates;
+
+    private AsOfPriceIndex(LocalDate[] businessDays, BigDecimal[] closePrices, LocalDate[] sourceDates) {
+        this.businessDays = businessDays;
+        this.closePrices = closePrices;
+        this.sourceDates = sourceDates;
+    }
+
+    /**
+     * 営業日ごとに横置きした価格の索引を生成する。価格は1銘柄のものであること。
+     * @param businessDays
+     * @param stockPrices nullの場合は全ての営業日で価格なしとなる
+     * @return
+     */
+    public static AsOfPriceIndex of(SortedSet<LocalDate> businessDays, List<StockPrice> stockPrices) {
+        LocalDate[] days = businessDays.toArray(new LocalDate[0]);
+        BigDecimal[] closePrices = new BigDecimal[days.length];
+        LocalDate[] sourceDates = new LocalDate[days.length];
+        StockPrice[] prices = stockPrices == null ? new StockPrice[0] : stockPrices.toArray(new StockPrice[0]);
+        Arrays.sort(prices, Comparator.comparing(StockPrice::getBaseDate));
+
+        int cursor = 0;
+        StockPrice latest = null;
+        for (int i = 0; i < days.length; i++) {
+            while (cursor < prices.length && !prices[cursor].getBaseDate().isAfter(days[i])) {
+                // 同じ基準日の価格が複数ある場合は先のものを使う(並べ替えは安定)
+                if (latest == null || !latest.getBaseDate().equals(prices[cursor].getBaseDate())) {
+                    latest = prices[cursor];
+                }
+                cursor++;
+            }
+            if (latest != null) {
+                closePrices[i] = latest.getClosePrice();
+                sourceDates[i] = latest.getBaseDate();
+            }
+        }
+        return new AsOfPriceIndex(days, closePrices, sourceDates);
+    }
+
+    public int size() {
+        return this.businessDays.length;
+    }
+
+    /**
+     * 営業日の序数を返す。
+     * @param baseDate
+     * @return 営業日でない場合は-1
+     */
+    public int ordinalOf(LocalDate baseDate) {
+        int index = Arrays.binarySearch(this.businessDays, baseDate);
+        return index >= 0 ? index : -1;
+    }
+
+    public LocalDate getBusinessDay(int ordinal) {
+        return this.businessDays[ordinal];
+    }
+
+    /**
+     * 横置きできる価格があるか確認する。
+     * @param ordinal
+     * @return
+     */
+    public boolean hasPrice(int ordinal) {
+        return this.sourceDates[ordinal] != null;
+    }
+
+    /**
+     * 営業日以前の最新の終値を返す。
+     * @param ordinal
+     * @return 価格がない場合はnull
+     */
+    public BigDecimal getClosePrice(int ordinal) {
+        return this.closePrices[ordinal];
+    }
+
+    /**
+     * getClosePriceで返す終値の基準日を返す。営業日と異なる場合は横置きした価格となる。
+     * @param ordinal
+     * @return 価格がない場合はnull
+     */
+    public LocalDate getSourceDate(int ordinal) {
+        return this.sourceDates[ordinal];
+    }
+}
@@ -0,0 +1,131 @@
+package project.calculator.domain.batch.porfolio;
+
+import project.infra.rdb.stockexecution.BuySellType;
+import project.infra.rdb.stockexecution.entity.StockExecution;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <p>
+ * 1銘柄の約定を約定日ごとに一度だけ集計し、昇順の基準日に対してDailyPositionを順に返す。
+ * 基準日ごとに約定全体を走査するDailyPosition#aggregateDailyExecutionと同じ値を、
+ * 約定数 + 基準日数に比例する時間で求める。
+ * </p>
+ * <p>
+ * 基準日はカーソルで進めるので、nextは基準日の昇順に呼ぶこと。スレッドセーフではない。
+ * </p>
+ */
+public class DailyPositionSweep {
+
+    private final String stockCode;
+    private final long stockPortfolioId;
+    private final String currencyCode;
+
+    // 約定日の昇順に、約定日ごとの集計値を持つ
+    private final LocalDate[] executionDates;
+    private final BigDecimal[] longAmounts;
+    private final BigDecimal[] longValues;
+    private final BigDecimal[] shortAmounts;
+    private final BigDecimal[] shortValues;
+
+    private int cursor = 0;
+    private LocalDate lastBaseDate = null;
+
+    private DailyPositionSweep(String stockCode, long stockPortfolioId, String currencyCode, int size) {
+        this.stockCode = stockCode;
+        this.stockPortfolioId = stockPortfolioId;
+        this.currencyCode = currencyCode;
+        this.executionDates = new LocalDate[size];
+        this.longAmounts = new BigDecimal[size];
+        this.longValues = new BigDecimal[size];
+        this.shortAmounts = new BigDecimal[size];
+        this.shortValues = new BigDecimal[size];
+    }
+
+    /**
+     * 約定を約定日ごとに集計する。約定は全て引数の銘柄のものであること。
+     * @param stockCode
+     * @param stockPortfolioId
+     * @param currencyCode
+     * @param executions
+     * @return
+     */
+    public static DailyPositionSweep of(String stockCode, long stockPortfolioId, String currencyCode, List<StockExecution> executions) {
+        List<StockExecution> sorted = new ArrayList<>(executions);
+        sorted.sort(Comparator.comparing(StockExecution::getExecutionDate));
+        int days = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            StockExecution execution = sorted.get(i);
+            if (!stockCode.equals(execution.getStockCode())) {
+                throw new IllegalArgumentException(String.format("Execution contain more than 1 Product. codes are [%s, %s]", stockCode, execution.getStockCode()));
+            }
+            if (i == 0 || !execution.getExecutionDate().equals(sorted.get(i - 1).getExecutionDate())) {
+                days++;
+            }
+        }
+
+        DailyPositionSweep sweep = new DailyPositionSweep(stockCode, stockPortfolioId, currencyCode, days);
+        int from = 0;
+        for (int day = 0; day < days; day++) {
+            LocalDate executionDate = sorted.get(from).getExecutionDate();
+            BigDecimal longAmount = BigDecimal.ZERO;
+            BigDecimal longValue = BigDecimal.ZERO;
+            BigDecimal shortAmount = BigDecimal.ZERO;
+            BigDecimal shortValue = BigDecimal.ZERO;
+            int to = from;
+            for (; to < sorted.size() && sorted.get(to).getExecutionDate().equals(executionDate); to++) {
+                StockExecution execution = sorted.get(to);
+                BigDecimal value = execution.getBookValue().multiply(execution.getAmount());
+                if (execution.getBuySellType() == BuySellType.BUY) {
+                    longAmount = longAmount.add(execution.getAmount());
+                    longValue = longValue.add(value);
+                } else if (execution.getBuySellType() == BuySellType.SELL) {
+                    shortAmount = shortAmount.add(execution.getAmount());
+                    shortValue = shortValue.add(value);
+                }
+            }
+            // DailyPosition#aggregateDailyExecutionと同じく加重平均簿価にしてから持つ
+            sweep.executionDates[day] = executionDate;
+            sweep.longAmounts[day] = longAmount;
+            sweep.longValues[day] = safeDivide(longValue, longAmount);
+            sweep.shortAmounts[day] = shortAmount.negate();
+            sweep.shortValues[day] = safeDivide(shortValue, shortAmount.negate()).abs();
+            from = to;
+        }
+        return sweep;
+    }
+
+    /**
+     * 基準日のポジションを返す。基準日より前の約定日で基準日にならなかったものは読み飛ばす。
+     * @param baseDate 前回の呼び出しより後の基準日
+     * @return
+     */
+    public DailyPosition next(LocalDate baseDate) {
+        if (this.lastBaseDate != null && !baseDate.isAfter(this.lastBaseDate)) {
+            throw new IllegalArgumentException(String.format("BaseDate must be ascending. Previous: %s, Actual: %s", this.lastBaseDate, baseDate));
+        }
+        this.lastBaseDate = baseDate;
+        while (this.cursor < this.executionDates.length && this.executionDates[this.cursor].isBefore(baseDate)) {
+            this.cursor++;
+        }
+        if (this.cursor < this.executionDates.length && this.executionDates[this.cursor].equals(baseDate)) {
+            int i = this.cursor++;
+            return new DailyPosition(baseDate, this.stockCode, this.stockPortfolioId
+                    , this.shortAmounts[i], this.longAmounts[i], this.shortValues[i], this.longValues[i], this.currencyCode);
+        }
+        return new DailyPosition(baseDate, this.stockCode, this.stockPortfolioId
+                , BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, this.currencyCode);
+    }
+
+    private static BigDecimal safeDivide(BigDecimal numerator, BigDecimal denominator) {
+        if (denominator.equals(BigDecimal.ZERO)) {
+            return BigDecimal.ZERO;
+        }
+        return numerator.divide(denominator, 10, RoundingMode.DOWN);
+    }
+}
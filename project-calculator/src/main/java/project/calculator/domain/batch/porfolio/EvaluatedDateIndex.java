@@ -0,0 +1,84 @@
+package project.calculator.domain.batch.porfolio;
+
+import project.calculator.domain.calendar.BusinessDays;
+import project.infra.rdb.stockportfolioevaluation.EvaluatedDate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * <p>
+ * 1ポートフォリオの評価済みの基準日を、銘柄ごとに営業日の序数のビットで持つ索引。
+ * 評価結果のエンティティを保持しないので、営業日数 / 8 バイト程度で銘柄ごとの評価済みの日付を確認できる。
+ * </p>
+ * <p>
+ * 生成後は変更しないので、複数スレッドから参照できる。
+ * </p>
+ */
+public final class EvaluatedDateIndex {
+
+    // 昇順の営業日。添字がビットの位置
+    private final LocalDate[] businessDays;
+    private final Map<String, BitSet> evaluatedByStockCode;
+
+    private EvaluatedDateIndex(LocalDate[] businessDays, Map<String, BitSet> evaluatedByStockCode) {
+        this.businessDays = businessDays;
+        this.evaluatedByStockCode = evaluatedByStockCode;
+    }
+
+    /**
+     * 評価済みの銘柄・基準日の組から索引を生成する。営業日でない基準日は無視する。
+     * @param businessDays
+     * @param evaluatedDates
+     * @return
+     */
+    public static EvaluatedDateIndex of(SortedSet<LocalDate> businessDays, List<? extends EvaluatedDate> evaluatedDates) {
+        LocalDate[] days = businessDays.toArray(new LocalDate[0]);
+        Map<String, BitSet> evaluatedByStockCode = new HashMap<>();
+        for (EvaluatedDate evaluatedDate : evaluatedDates) {
+            int ordinal = Arrays.binarySearch(days, evaluatedDate.getBaseDate());
+            if (ordinal < 0) {
+                continue;
+            }
+            evaluatedByStockCode.computeIfAbsent(evaluatedDate.getStockCode(), k -> new BitSet(days.length)).set(ordinal);
+        }
+        return new EvaluatedDateIndex(days, evaluatedByStockCode);
+    }
+
+    /**
+     * 銘柄の基準日が評価済みか確認する。
+     * @param stockCode
+     * @param baseDate
+     * @return
+     */
+    public boolean isEvaluated(String stockCode, LocalDate baseDate) {
+        BitSet evaluated = this.evaluatedByStockCode.get(stockCode);
+        if (evaluated == null) {
+            return false;
+        }
+        int ordinal = Arrays.binarySearch(this.businessDays, baseDate);
+        return ordinal >= 0 && evaluated.get(ordinal);
+    }
+
+    /**
+     * 銘柄の未評価の営業日を返す。
+     * @param stockCode
+     * @return
+     */
+    public BusinessDays targetDays(String stockCode) {
+        BitSet evaluated = this.evaluatedByStockCode.get(stockCode);
+        SortedSet<LocalDate> targetDays = new TreeSet<>();
+        for (int i = 0; i < this.businessDays.length; i++) {
+            if (evaluated == null || !evaluated.get(i)) {
+                targetDays.add(this.businessDays[i]);
+            }
+        }
+        return BusinessDays.of(targetDays);
+    }
+}
@@ -1,6 +1,9 @@
 package project.calculator.domain.batch.porfolio;
 
+import io.grpc.finance.calculation.batch.portfolio.MultiPortfolioEvaluationRequest;
 import io.grpc.finance.calculation.batch.portfolio.PortfolioEvaluationBatchServiceGrpc;
+import io.grpc.finance.calculation.batch.portfolio.PortfolioEvaluationJobRequest;
+import io.grpc.finance.calculation.batch.portfolio.PortfolioEvaluationJobResponse;
 import io.grpc.finance.calculation.batch.portfolio.PortfolioEvaluationRequest;
 import io.grpc.finance.calculation.batch.portfolio.PortfolioEvaluationResponse;
 import io.grpc.stub.StreamObserver;
@@ -9,16 +12,27 @@ import io.grpc.util.StatusMsg;
 import org.lognet.springboot.grpc.GRpcService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import project.calculator.domain.batch.porfolio.job.PortfolioEvaluationJobService;
+import project.infra.rdb.evaluationjob.EvaluationType;
+import project.infra.rdb.evaluationjob.PortfolioEvaluationJob;
+
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
 
 @GRpcService
 public class PortfolioEvaluationGrpcService extends PortfolioEvaluationBatchServiceGrpc.PortfolioEvaluationBatchServiceImplBase {
 
     private final PortfolioEvaluationService portfolioEvaluationService;
+    private final PortfolioEvaluationJobService portfolioEvaluationJobService;
 
     private static final Logger logger = LoggerFactory.getLogger(PortfolioEvaluationGrpcService.class);
 
-    PortfolioEvaluationGrpcService(PortfolioEvaluationService portfolioEvaluationService){
+    PortfolioEvaluationGrpcService(PortfolioEvaluationService portfolioEvaluationService, PortfolioEvaluationJobService portfolioEvaluationJobService){
         this.portfolioEvaluationService = portfolioEvaluationService;
+        this.portfolioEvaluationJobService = portfolioEvaluationJobService;
     }
 
     /**
@@ -28,13 +42,7 @@ public class PortfolioEvaluationGrpcService extends PortfolioEvaluationBatchServ
     @Override
     public void executeForceEvaluation(PortfolioEvaluationRequest request,
                                        StreamObserver<PortfolioEvaluationResponse> responseObserver) {
-        this.portfolioEvaluationService.executeForceEvaluation(request);
-        logger.info(String.format("Registered Force Evaluation Job. Param: %s", request.toString()));
-        PortfolioEvaluationResponse response = PortfolioEvaluationResponse.newBuilder()
-                .setStatusMsg(StatusMsg.newBuilder().setStatus(Status.OK).setDetail("Registered Force Evaluation Job").build())
-                .build();
-        responseObserver.onNext(response);
-        responseObserver.onCompleted();
+        this.registerJob(EvaluationType.FORCE, request, responseObserver);
     }
 
     /**
@@ -42,12 +50,7 @@ public class PortfolioEvaluationGrpcService extends PortfolioEvaluationBatchServ
     @Override
     public void executeReviseEvaluation(PortfolioEvaluationRequest request,
                                         StreamObserver<PortfolioEvaluationResponse> responseObserver) {
-        this.portfolioEvaluationService.executeReviseEvaluation(request);
-        logger.info(String.format("Registered Revise Evaluation Job. Param: %s", request.toString()));
-        StatusMsg statusMsg = StatusMsg.newBuilder().setStatus(Status.OK).setDetail("Registered Revise Evaluation Job").build();
-        PortfolioEvaluationResponse response = PortfolioEvaluationResponse.newBuilder().setStatusMsg(statusMsg).build();
-        responseObserver.onNext(response);
-        responseObserver.onCompleted();
+        this.registerJob(EvaluationType.REVISE, request, responseObserver);
     }
 
     /**
@@ -56,11 +59,109 @@ public class PortfolioEvaluationGrpcService extends PortfolioEvaluationBatchServ
     @Override
     public void executeRegularEvaluation(PortfolioEvaluationRequest request,
                                          StreamObserver<PortfolioEvaluationResponse> responseObserver) {
-        this.portfolioEvaluationService.executeRegularEvaluation(request);
-        logger.info(String.format("Registered Regular Evaluation Job. Param: %s", request.toString()));
-        StatusMsg statusMsg = StatusMsg.newBuilder().setStatus(Status.OK).setDetail("Registered Regular Evaluation Job").build();
-        PortfolioEvaluationResponse response = PortfolioEvaluationResponse.newBuilder().setStatusMsg(statusMsg).build();
+        this.registerJob(EvaluationType.REGULAR, request, responseObserver);
+    }
+
+    /**
+     * 複数ポートフォリオの標準評価計算の実行メソッド。ポートフォリオごとのジョブとして登録し、最初のジョブのIDと全てのジョブのIDを返す。
+     */
+    @Override
+    public void executeMultiPortfolioEvaluation(MultiPortfolioEvaluationRequest request,
+                                                StreamObserver<PortfolioEvaluationResponse> responseObserver) {
+        PortfolioEvaluationResponse response;
+        OptionalLong retryAfterMs = this.portfolioEvaluationJobService.checkAdmission(PortfolioEvaluationJobService.priorityOf(request));
+        if (retryAfterMs.isPresent()) {
+            responseObserver.onNext(resourceExhausted(retryAfterMs.getAsLong()));
+            responseObserver.onCompleted();
+            return;
+        }
+        try {
+            List<Long> portfolioIds = this.portfolioEvaluationService.findTargetPortfolioIds(request);
+            if (portfolioIds.isEmpty()) {
+                throw new IllegalArgumentException("Portfolio is not found.");
+            }
+            List<Long> jobIds = this.portfolioEvaluationJobService.registerAll(request, portfolioIds);
+            logger.info(String.format("Registered Multi Portfolio Evaluation Jobs. JobIds: %s, Param: %s", jobIds, request.toString()));
+            StatusMsg statusMsg = StatusMsg.newBuilder().setStatus(Status.OK).setDetail("Registered Multi Portfolio Evaluation Jobs").build();
+            response = PortfolioEvaluationResponse.newBuilder().setStatusMsg(statusMsg).setJobId(jobIds.get(0)).addAllJobIds(jobIds).build();
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            logger.warn(String.format("Invalid Multi Portfolio Evaluation Request. Param: %s", request.toString()), e);
+            StatusMsg statusMsg = StatusMsg.newBuilder().setStatus(Status.ERROR).setDetail(e.getMessage()).build();
+            response = PortfolioEvaluationResponse.newBuilder().setStatusMsg(statusMsg).build();
+        } catch (RuntimeException e) {
+            // 対象のポートフォリオの取得・ジョブの登録に失敗した場合は何も登録していない
+            logger.error(String.format("Cannot register Multi Portfolio Evaluation Jobs. Param: %s", request.toString()), e);
+            StatusMsg statusMsg = StatusMsg.newBuilder().setStatus(Status.ERROR).setDetail("Cannot register Multi Portfolio Evaluation Jobs").build();
+            response = PortfolioEvaluationResponse.newBuilder().setStatusMsg(statusMsg).build();
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * 評価計算ジョブの状態の参照メソッド
+     */
+    @Override
+    public void getEvaluationJob(PortfolioEvaluationJobRequest request,
+                                 StreamObserver<PortfolioEvaluationJobResponse> responseObserver) {
+        Optional<PortfolioEvaluationJob> job = this.portfolioEvaluationJobService.find(request.getJobId());
+        PortfolioEvaluationJobResponse.Builder builder = PortfolioEvaluationJobResponse.newBuilder().setJobId(request.getJobId());
+        if (job.isEmpty()){
+            builder.setStatusMsg(StatusMsg.newBuilder().setStatus(Status.ERROR).setDetail(String.format("Job is not found. JobId: %d", request.getJobId())).build());
+        } else {
+            PortfolioEvaluationJob found = job.get();
+            builder.setStatusMsg(StatusMsg.newBuilder().setStatus(Status.OK).setDetail("Success").build())
+                    .setPortfolioId(found.getStockPortfolioId())
+                    .setJobStatus(found.getStatus().name());
+            if (found.getStartDate() != null){
+                builder.setStartDate(found.getStartDate().format(DateTimeFormatter.ISO_LOCAL_DATE));
+            }
+            if (found.getEndDate() != null){
+                builder.setEndDate(found.getEndDate().format(DateTimeFormatter.ISO_LOCAL_DATE));
+            }
+            if (found.getMergedJobId() != null){
+                builder.setMergedJobId(found.getMergedJobId());
+            }
+            if (found.getDetail() != null){
+                builder.setDetail(found.getDetail());
+            }
+        }
+        responseObserver.onNext(builder.build());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * 評価計算をジョブとして登録し、ジョブのIDを返す。
+     */
+    private void registerJob(EvaluationType evaluationType, PortfolioEvaluationRequest request,
+                             StreamObserver<PortfolioEvaluationResponse> responseObserver) {
+        PortfolioEvaluationResponse response;
+        OptionalLong retryAfterMs = this.portfolioEvaluationJobService.checkAdmission(PortfolioEvaluationJobService.priorityOf(request));
+        if (retryAfterMs.isPresent()) {
+            responseObserver.onNext(resourceExhausted(retryAfterMs.getAsLong()));
+            responseObserver.onCompleted();
+            return;
+        }
+        try {
+            long jobId = this.portfolioEvaluationJobService.register(evaluationType, request);
+            logger.info(String.format("Registered %s Evaluation Job. JobId: %d, Param: %s", evaluationType, jobId, request.toString()));
+            StatusMsg statusMsg = StatusMsg.newBuilder().setStatus(Status.OK).setDetail(String.format("Registered %s Evaluation Job", evaluationType)).build();
+            response = PortfolioEvaluationResponse.newBuilder().setStatusMsg(statusMsg).setJobId(jobId).build();
+        } catch (IllegalArgumentException e) {
+            logger.warn(String.format("Invalid Evaluation Request. Param: %s", request.toString()), e);
+            StatusMsg statusMsg = StatusMsg.newBuilder().setStatus(Status.ERROR).setDetail(e.getMessage()).build();
+            response = PortfolioEvaluationResponse.newBuilder().setStatusMsg(statusMsg).build();
+        }
         responseObserver.onNext(response);
         responseObserver.onCompleted();
     }
+
+    /**
+     * 過負荷なので登録せず、再試行までの目安を返す。
+     */
+    private static PortfolioEvaluationResponse resourceExhausted(long retryAfterMs) {
+        StatusMsg statusMsg = StatusMsg.newBuilder().setStatus(Status.RESOURCE_EXHAUSTED)
+                .setDetail("Too many pending Evaluation Jobs").setRetryAfterMs(retryAfterMs).build();
+        return PortfolioEvaluationResponse.newBuilder().setStatusMsg(statusMsg).build();
+    }
 }
@@ -1,9 +1,41 @@
 package project.calculator.domain.batch.porfolio;
 
+import io.grpc.finance.calculation.batch.portfolio.MultiPortfolioEvaluationRequest;
 import io.grpc.finance.calculation.batch.portfolio.PortfolioEvaluationRequest;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ポートフォリオ評価計算。計算は非同期に実行し、終了すると完了するCompletableFutureを返す。
+ */
 public interface PortfolioEvaluationService {
-    public abstract void executeRegularEvaluation(PortfolioEvaluationRequest request);
-    public abstract void executeForceEvaluation(PortfolioEvaluationRequest request);
-    public abstract void executeReviseEvaluation(PortfolioEvaluationRequest request);
+    public abstract CompletableFuture<Void> executeRegularEvaluation(PortfolioEvaluationRequest request);
+    public abstract CompletableFuture<Void> executeForceEvaluation(PortfolioEvaluationRequest request);
+    public abstract CompletableFuture<Void> executeReviseEvaluation(PortfolioEvaluationRequest request);
+    public abstract CompletableFuture<Void> executeMultiPortfolioEvaluation(MultiPortfolioEvaluationRequest request);
+    public abstract CompletableFuture<Void> executeDirtyEvaluation(PortfolioEvaluationRequest request);
+
+    /**
+     * 複数ポートフォリオの評価計算の対象のポートフォリオIDを昇順で返す。
+     * @param request
+     * @return
+     */
+    public abstract List<Long> findTargetPortfolioIds(MultiPortfolioEvaluationRequest request);
+
+    /**
+     * 届いた市場価格の銘柄・基準日を横置きで参照している評価結果を評価し直す。対象はportfolioIdsのポートフォリオの評価結果に限る。
+     * @param arrivedPrices
+     * @param portfolioIds
+     * @return
+     */
+    public abstract CompletableFuture<Void> executeArrivedPriceEvaluation(ArrivedPrices arrivedPrices, Collection<Long> portfolioIds);
+
+    /**
+     * 届いた市場価格で評価し直す評価結果を持つ可能性のあるポートフォリオのIDを昇順で返す。
+     * @param arrivedPrices
+     * @return
+     */
+    public abstract List<Long> findLockOutPortfolioIds(ArrivedPrices arrivedPrices);
 }
@@ -0,0 +1,86 @@
+package project.calculator.domain.batch.porfolio;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * ポートフォリオごとの実行レーン。同じポートフォリオの評価計算は前の計算が終わってから開始し、
+ * 異なるポートフォリオの計算は互いに待たずに並列に実行する。
+ * </p>
+ * <p>
+ * レーンはポートフォリオごとの最後の計算の完了を表すFutureだけを持ち、キーごとの原子的な置き換えで後ろに繋ぐのでロックを使わない。
+ * 複数のポートフォリオにまたがる計算だけは、繋ぐ順序がレーン間で食い違って互いに待ち合わないように、登録を直列にする。
+ * </p>
+ */
+@Component
+public class PortfolioLanes {
+
+    // ポートフォリオごとの最後に登録した計算の完了。計算が終わりレーンが空になると削除する
+    private final ConcurrentHashMap<Long, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    /**
+     * ポートフォリオの前の計算が終わってから計算を開始する。
+     * 前の計算がなければ呼び出し元のスレッドで開始する。
+     * @param portfolioId
+     * @param work 計算を開始し、その完了を返す処理
+     * @param <T>
+     * @return 計算の完了
+     */
+    public <T> CompletableFuture<T> submit(long portfolioId, Supplier<CompletableFuture<T>> work) {
+        CompletableFuture<Void> gate = new CompletableFuture<>();
+        CompletableFuture<Void> previous = this.tails.put(portfolioId, gate);
+        CompletableFuture<Void> ready = previous == null ? CompletableFuture.completedFuture(null) : previous;
+        return this.run(ready, work, List.of(portfolioId), gate);
+    }
+
+    /**
+     * 全てのポートフォリオの前の計算が終わってから計算を開始する。
+     * @param portfolioIds
+     * @param work 計算を開始し、その完了を返す処理
+     * @param <T>
+     * @return 計算の完了
+     */
+    public <T> CompletableFuture<T> submitAll(Collection<Long> portfolioIds, Supplier<CompletableFuture<T>> work) {
+        CompletableFuture<Void> gate = new CompletableFuture<>();
+        List<CompletableFuture<Void>> previous = new ArrayList<>();
+        synchronized (this) {
+            for (Long portfolioId : portfolioIds) {
+                CompletableFuture<Void> tail = this.tails.put(portfolioId, gate);
+                if (tail != null) {
+                    previous.add(tail);
+                }
+            }
+        }
+        CompletableFuture<Void> ready = CompletableFuture.allOf(previous.toArray(new CompletableFuture<?>[0]));
+        return this.run(ready, work, List.copyOf(portfolioIds), gate);
+    }
+
+    /**
+     * ポートフォリオのレーンに実行中・実行待ちの計算があるか確認する。
+     * @param portfolioId
+     * @return
+     */
+    public boolean isBusy(long portfolioId) {
+        return this.tails.containsKey(portfolioId);
+    }
+
+    private <T> CompletableFuture<T> run(CompletableFuture<Void> ready, Supplier<CompletableFuture<T>> work, List<Long> portfolioIds, CompletableFuture<Void> gate) {
+        // 前の計算の成否によらず開始する。gateは例外で完了しないので、readyも正常に完了する
+        CompletableFuture<T> result = ready.thenCompose(v -> work.get());
+        result.whenComplete((v, e) -> {
+            for (Long portfolioId : portfolioIds) {
+                // 後ろに別の計算が繋がれていなければレーンを空にする
+                this.tails.remove(portfolioId, gate);
+            }
+            gate.complete(null);
+        });
+        return result;
+    }
+}
@@ -0,0 +1,97 @@
+package project.calculator.domain.batch.porfolio;
+
+import project.infra.rdb.stockexecution.entity.StockExecution;
+import project.infra.rdb.strockpricetimeseries.StockPrice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * 銘柄コード順に並んだ約定と市場価格を突き合わせ、1銘柄ずつStockSliceとして返す。
+ * 保持するのは返却中の1銘柄分と先読みの1件だけなので、カーソルから読む場合のヒープは最大の銘柄のデータ量で決まる。
+ * </p>
+ * <p>
+ * 約定と市場価格は同じ順序(DBの並び順)であり、市場価格の銘柄は約定の銘柄に含まれること。
+ * 銘柄コードは一致するかどうかだけを比較するので、DBの照合順序とJavaの文字列順序が異なってもよい。
+ * </p>
+ */
+public class StockSliceReader implements Iterator<StockSliceReader.StockSlice> {
+
+    private final Iterator<StockExecution> executions;
+    private final Iterator<StockPrice> prices;
+    // 先読みした次の銘柄の先頭
+    private StockExecution nextExecution;
+    private StockPrice nextPrice;
+
+    public StockSliceReader(Iterator<StockExecution> executions, Iterator<StockPrice> prices) {
+        this.executions = executions;
+        this.prices = prices;
+        this.nextExecution = executions.hasNext() ? executions.next() : null;
+        this.nextPrice = prices.hasNext() ? prices.next() : null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return this.nextExecution != null;
+    }
+
+    @Override
+    public StockSlice next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String stockCode = this.nextExecution.getStockCode();
+        List<StockExecution> stockExecutions = new ArrayList<>();
+        while (this.nextExecution != null && stockCode.equals(this.nextExecution.getStockCode())) {
+            stockExecutions.add(this.nextExecution);
+            this.nextExecution = this.executions.hasNext() ? this.executions.next() : null;
+        }
+        // 先行する銘柄の価格は読み終えているので、先頭が別の銘柄ならこの銘柄の価格はない
+        List<StockPrice> stockPrices = new ArrayList<>();
+        while (this.nextPrice != null && stockCode.equals(this.nextPrice.getStockCode())) {
+            stockPrices.add(this.nextPrice);
+            this.nextPrice = this.prices.hasNext() ? this.prices.next() : null;
+        }
+        return new StockSlice(stockCode, stockExecutions, stockPrices);
+    }
+
+    /**
+     * 1銘柄分の約定と市場価格
+     */
+    public static final class StockSlice {
+        private final String stockCode;
+        private final List<StockExecution> executions;
+        private final List<StockPrice> prices;
+
+        StockSlice(String stockCode, List<StockExecution> executions, List<StockPrice> prices) {
+            this.stockCode = stockCode;
+            this.executions = Collections.unmodifiableList(executions);
+            this.prices = Collections.unmodifiableList(prices);
+        }
+
+        public String getStockCode() {
+            return stockCode;
+        }
+
+        public List<StockExecution> getExecutions() {
+            return executions;
+        }
+
+        public List<StockPrice> getPrices() {
+            return prices;
+        }
+
+        @Override
+        public String toString() {
+            return "StockSlice{" +
+                    "stockCode='" + stockCode + '\'' +
+                    ", executions=" + executions.size() +
+                    ", prices=" + prices.size() +
+                    '}';
+        }
+    }
+}
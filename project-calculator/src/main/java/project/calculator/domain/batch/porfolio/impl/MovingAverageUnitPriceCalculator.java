@@ -2,7 +2,9 @@ package project.calculator.domain.batch.porfolio.impl;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import project.calculator.domain.batch.porfolio.AsOfPriceIndex;
 import project.calculator.domain.batch.porfolio.DailyPosition;
+import project.calculator.domain.batch.porfolio.DailyPositionSweep;
 import project.calculator.domain.batch.porfolio.UnitPriceCalculator;
 import project.calculator.domain.calendar.BusinessDays;
 import project.infra.rdb.stockexecution.entity.StockExecution;
@@ -16,6 +18,7 @@ import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -27,14 +30,20 @@ public class MovingAverageUnitPriceCalculator implements UnitPriceCalculator<Lis
 
     private final List<StockExecution> execution;
     private final List<StockPrice> stockPrice;
+    // 複数の計算機で共有する横置き価格の索引。nullの場合はstockPriceから生成する
+    private final AsOfPriceIndex sharedPriceIndex;
     private final BusinessDays businessDays;
+    // 計算開始前のポジション。nullの場合は残高0から計算する
+    private final StockPortfolioEvaluation openingPosition;
 
     private static final Logger logger = LoggerFactory.getLogger(MovingAverageUnitPriceCalculator.class);
 
-    private MovingAverageUnitPriceCalculator(List<StockExecution> execution, List<StockPrice> stockPrice, BusinessDays businessDays) {
+    private MovingAverageUnitPriceCalculator(List<StockExecution> execution, List<StockPrice> stockPrice, AsOfPriceIndex sharedPriceIndex, BusinessDays businessDays, StockPortfolioEvaluation openingPosition) {
         this.execution = execution;
         this.stockPrice = stockPrice;
+        this.sharedPriceIndex = sharedPriceIndex;
         this.businessDays = businessDays;
+        this.openingPosition = openingPosition;
     }
 
     /**
@@ -57,25 +66,66 @@ public class MovingAverageUnitPriceCalculator implements UnitPriceCalculator<Lis
             throw new IllegalArgumentException(String.format("StockPrice must have only 1 stock code. Actual Num -> %d", marketDateCodes.size()));
         }
         logger.info(String.format("Generate Calculator : StockCode: %s", stockCodes.toString()));
-        return new MovingAverageUnitPriceCalculator(execution,stockPrice,businessDays);
+        return new MovingAverageUnitPriceCalculator(execution,stockPrice,null,businessDays,null);
+    }
+
+    /**
+     * 銘柄ごとに生成済みの横置き価格の索引を使う計算機インスタンスを返す。複数のポートフォリオで同じ銘柄の市場価格を共有する場合に使う。
+     * @param execution
+     * @param priceIndex 約定と同じ銘柄の索引。businessDaysの営業日を含むこと
+     * @param businessDays
+     * @return
+     */
+    public static UnitPriceCalculator<List<StockPortfolioEvaluation>> generate(List<StockExecution> execution, AsOfPriceIndex priceIndex, BusinessDays businessDays){
+        Set<String> stockCodes = execution.stream().map(StockExecution::getStockCode).collect(Collectors.toSet());
+        if(stockCodes.size() != 1){
+            throw new IllegalArgumentException(String.format("Calculation target must have only 1 stock code. Actual Num -> %d", stockCodes.size()));
+        }
+        logger.debug(String.format("Generate Calculator : StockCode: %s", stockCodes.toString()));
+        return new MovingAverageUnitPriceCalculator(execution,null,priceIndex,businessDays,null);
+    }
+
+    /**
+     * 評価済みの最新のポジションから続けて計算する計算機インスタンスを返す。
+     * 約定・市場価格は評価済みの基準日より後のものだけでよく、期間内に約定・市場価格がなくてもよい。
+     * @param execution openingPositionの基準日より後の約定
+     * @param stockPrice
+     * @param businessDays openingPositionの基準日より後の営業日
+     * @param openingPosition 評価済みの最新のポジション
+     * @return
+     */
+    public static UnitPriceCalculator<List<StockPortfolioEvaluation>> resume(List<StockExecution> execution, List<StockPrice> stockPrice, BusinessDays businessDays, StockPortfolioEvaluation openingPosition){
+        List<StockExecution> target = execution == null ? Collections.emptyList() : execution;
+        List<StockPrice> price = stockPrice == null ? Collections.emptyList() : stockPrice;
+        String stockCode = openingPosition.getStockCode();
+        if (target.stream().anyMatch(s -> !stockCode.equals(s.getStockCode())) || price.stream().anyMatch(s -> !stockCode.equals(s.getStockCode()))){
+            throw new IllegalArgumentException(String.format("Calculation target must have only stock code of opening position. Expected -> %s", stockCode));
+        }
+        if (target.stream().anyMatch(s -> !s.getExecutionDate().isAfter(openingPosition.getBaseDate()))){
+            throw new IllegalArgumentException(String.format("Execution must be after opening position. BaseDate -> %s", openingPosition.getBaseDate()));
+        }
+        logger.info(String.format("Generate Calculator : StockCode: %s, Resume From: %s", stockCode, openingPosition.getBaseDate()));
+        return new MovingAverageUnitPriceCalculator(target,price,null,businessDays,openingPosition);
     }
 
     @Override
     public List<StockPortfolioEvaluation> calculate() {
 
-        // 初期値
-        BigDecimal prevAmount = BigDecimal.ZERO;
-        BigDecimal prevBookValue = BigDecimal.ZERO;
-        BigDecimal prevTotalValue = BigDecimal.ZERO;
-        // 対象基準日からDailyPositionを生成
-        List<DailyPosition> dailyPositions = this.businessDays.getBusinessDays().stream()
-                .map(baseDate -> DailyPosition.aggregateDailyExecution(baseDate, execution))
-                .collect(Collectors.toList());
+        // 初期値。評価済みのポジションがあればそこから続ける
+        BigDecimal prevAmount = this.openingPosition == null ? BigDecimal.ZERO : this.openingPosition.getAmount();
+        BigDecimal prevBookValue = this.openingPosition == null ? BigDecimal.ZERO : this.openingPosition.getBookValue();
+        BigDecimal prevTotalValue = prevBookValue.multiply(prevAmount);
+        // 約定を約定日ごとに一度だけ集計し、昇順の基準日に沿って順に取り出す
+        DailyPositionSweep sweep = this.createSweep();
+        // 営業日ごとの横置き価格を一度だけ求めておく。共有の索引は営業日がずれるので日付から序数を引く
+        boolean shared = this.sharedPriceIndex != null;
+        AsOfPriceIndex priceIndex = shared ? this.sharedPriceIndex : AsOfPriceIndex.of(this.businessDays.getBusinessDays(), this.stockPrice);
 
         List<StockPortfolioEvaluation> tmpResult = new ArrayList<>();
+        int ordinal = 0;
         for(LocalDate businessday : this.businessDays.getBusinessDays()){
             // businessdayのポジションを取得。
-            DailyPosition tPosition = dailyPositions.stream().filter(p -> p.getBaseDate().equals(businessday)).findFirst().orElseThrow(IllegalArgumentException::new);
+            DailyPosition tPosition = sweep.next(businessday);
 
             // T時点までの買ポジションの合計を算出する。
             BigDecimal totalAmount = prevAmount.add(tPosition.getLongAmount());
@@ -87,18 +137,22 @@ public class MovingAverageUnitPriceCalculator implements UnitPriceCalculator<Lis
             prevAmount = prevAmount.add(tPosition.calculateTotalAmount());
             prevTotalValue = prevBookValue.multiply(prevAmount);
 
-            // マーケットデータを取得する。
-            StockPrice stockPrice = this.retrieveStockPrice(businessday);
+            // マーケットデータを取得する。該当日のデータがない場合は横置きした価格となる。
+            if (shared){
+                ordinal = priceIndex.ordinalOf(businessday);
+            }
+            boolean hasPrice = ordinal >= 0 && priceIndex.hasPrice(ordinal);
 
             BigDecimal currentValue = null;
             BigDecimal currentPl = null;
             LocalDate evaluationDateBaseDate = null;
 
-            if (stockPrice != null){
-                currentValue = stockPrice.getClosePrice();
+            if (hasPrice){
+                currentValue = priceIndex.getClosePrice(ordinal);
                 currentPl = currentValue.subtract(prevBookValue);
-                evaluationDateBaseDate = stockPrice.getBaseDate();
+                evaluationDateBaseDate = priceIndex.getSourceDate(ordinal);
             }
+            ordinal++;
 
             // 必要なエンティティを構築する。
             StockPortfolioEvaluation evaluation = new StockPortfolioEvaluation();
@@ -109,7 +163,7 @@ public class MovingAverageUnitPriceCalculator implements UnitPriceCalculator<Lis
             evaluation.setBookValue(prevBookValue);
             evaluation.setAmount(prevAmount);
             evaluation.setCurrentPl(currentPl);
-            evaluation.setLockOut(stockPrice == null || !stockPrice.getBaseDate().equals(businessday));
+            evaluation.setLockOut(!hasPrice || !evaluationDateBaseDate.equals(businessday));
             evaluation.setCurrencyCode(tPosition.getCurrencyCode());
             evaluation.setEvaluationDateBaseDate(evaluationDateBaseDate);
             evaluation.setCreateUser("Calculator_" + Thread.currentThread().getName());
@@ -125,21 +179,15 @@ public class MovingAverageUnitPriceCalculator implements UnitPriceCalculator<Lis
     }
 
     /**
-     * baseDateのStockPriceを取得する。
-     * 該当のデータがない場合は、baseDate以前の最新のStockPriceで横置きする。
-     * 横置きも不可の場合はnullを返す。
-     * @param baseDate
+     * 約定を集計したDailyPositionSweepを生成する。銘柄・通貨は先頭の約定、約定がない場合は評価済みのポジションから取る。
      * @return
      */
-    private StockPrice retrieveStockPrice(LocalDate baseDate){
-        LocalDate currentDate = this.stockPrice.stream()
-                .filter(s -> s.getBaseDate().isBefore(baseDate.plusDays(1)))
-                .map(StockPriceBase::getBaseDate)
-                .max(LocalDate::compareTo)
-                .orElse(null);
-        StockPrice stockPrice = this.stockPrice.stream()
-                .filter(s -> s.getBaseDate().equals(currentDate))
-                .findFirst().orElse(null);
-        return stockPrice;
+    private DailyPositionSweep createSweep(){
+        if (this.execution.isEmpty() && this.openingPosition != null){
+            return DailyPositionSweep.of(this.openingPosition.getStockCode(), this.openingPosition.getStockPortfolioId()
+                    , this.openingPosition.getCurrencyCode(), this.execution);
+        }
+        StockExecution first = this.execution.stream().findFirst().orElseThrow(IllegalArgumentException::new);
+        return DailyPositionSweep.of(first.getStockCode(), first.getStockPortfolioId(), first.getCurrencyCode(), this.execution);
     }
 }
@@ -1,24 +1,36 @@
 package project.calculator.domain.batch.porfolio.impl;
 
+import io.grpc.finance.calculation.batch.portfolio.MultiPortfolioEvaluationRequest;
 import io.grpc.finance.calculation.batch.portfolio.PortfolioEvaluationRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.util.Pair;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import project.calculator.domain.batch.porfolio.ArrivedPrices;
+import project.calculator.domain.batch.porfolio.AsOfPriceIndex;
+import project.calculator.domain.batch.porfolio.EvaluatedDateIndex;
 import project.calculator.domain.batch.porfolio.PortfolioEvaluationService;
+import project.calculator.domain.batch.porfolio.StockSliceReader;
 import project.calculator.domain.batch.porfolio.UnitPriceCalculator;
 import project.calculator.domain.calendar.BusinessDays;
 import project.calculator.domain.calendar.CalendarService;
 import project.calculator.domain.calendar.CountryCode;
+import project.infra.rdb.evaluationdirtykey.StockEvaluationDirtyKey;
+import project.infra.rdb.evaluationdirtykey.StockEvaluationDirtyKeyRepository;
+import project.infra.rdb.stockexecution.StockExecutionCursorRepository;
 import project.infra.rdb.stockexecution.StockExecutionRepository;
 import project.infra.rdb.stockexecution.entity.StockExecution;
+import project.infra.rdb.stockportfolio.StockPortfolioRepository;
 import project.infra.rdb.stockportfolioevaluation.StockPortfolioEvaluation;
 import project.infra.rdb.stockportfolioevaluation.StockPortfolioEvaluationBase;
+import project.infra.rdb.stockportfolioevaluation.StockPortfolioEvaluationBulkWriter;
 import project.infra.rdb.stockportfolioevaluation.StockPortfolioEvaluationRepository;
 import project.infra.rdb.strockpricetimeseries.StockPrice;
 import project.infra.rdb.strockpricetimeseries.StockPriceBase;
+import project.infra.rdb.strockpricetimeseries.StockPriceCursorRepository;
 import project.infra.rdb.strockpricetimeseries.StockPriceRepository;
 
 import javax.transaction.Transactional;
@@ -28,13 +40,24 @@ import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class PortfolioEvaluationServiceImpl implements PortfolioEvaluationService {
@@ -43,158 +66,490 @@ public class PortfolioEvaluationServiceImpl implements PortfolioEvaluationServic
     private final StockExecutionRepository stockExecutionRepository;
     private final StockPriceRepository stockPriceRepository;
     private final StockPortfolioEvaluationRepository stockPortfolioEvaluationRepository;
+    private final StockPortfolioEvaluationBulkWriter stockPortfolioEvaluationBulkWriter;
+    private final StockPortfolioRepository stockPortfolioRepository;
+    private final StockExecutionCursorRepository stockExecutionCursorRepository;
+    private final StockPriceCursorRepository stockPriceCursorRepository;
+    private final StockEvaluationDirtyKeyRepository stockEvaluationDirtyKeyRepository;
+    // (ポートフォリオ, 銘柄)ごとの計算を実行する専用のスレッドプール
+    private final ForkJoinPool evaluationExecutor;
+
+    // 複数ポートフォリオの評価でポートフォリオ間で共有する横置き価格の索引の銘柄数
+    private static final int SHARED_PRICE_INDEX_SIZE = 1000;
 
     private static final Logger logger = LoggerFactory.getLogger(PortfolioEvaluationServiceImpl.class);
 
-    public PortfolioEvaluationServiceImpl(CalendarService calendarService, StockExecutionRepository stockExecutionRepository, StockPriceRepository stockPriceRepository, StockPortfolioEvaluationRepository stockPortfolioEvaluationRepository) {
+    public PortfolioEvaluationServiceImpl(CalendarService calendarService, StockExecutionRepository stockExecutionRepository, StockPriceRepository stockPriceRepository, StockPortfolioEvaluationRepository stockPortfolioEvaluationRepository
+            , StockPortfolioEvaluationBulkWriter stockPortfolioEvaluationBulkWriter, StockPortfolioRepository stockPortfolioRepository
+            , StockExecutionCursorRepository stockExecutionCursorRepository, StockPriceCursorRepository stockPriceCursorRepository
+            , StockEvaluationDirtyKeyRepository stockEvaluationDirtyKeyRepository
+            , @Qualifier("evaluationExecutor") ForkJoinPool evaluationExecutor) {
         this.calendarService = calendarService;
         this.stockExecutionRepository = stockExecutionRepository;
         this.stockPriceRepository = stockPriceRepository;
         this.stockPortfolioEvaluationRepository = stockPortfolioEvaluationRepository;
+        this.stockPortfolioEvaluationBulkWriter = stockPortfolioEvaluationBulkWriter;
+        this.stockPortfolioRepository = stockPortfolioRepository;
+        this.stockExecutionCursorRepository = stockExecutionCursorRepository;
+        this.stockPriceCursorRepository = stockPriceCursorRepository;
+        this.stockEvaluationDirtyKeyRepository = stockEvaluationDirtyKeyRepository;
+        this.evaluationExecutor = evaluationExecutor;
     }
 
     @Override
     @Async("asyncJobExecutor")
     @Transactional(rollbackOn = Exception.class)
-    public void executeRegularEvaluation(PortfolioEvaluationRequest request) {
+    public CompletableFuture<Void> executeRegularEvaluation(PortfolioEvaluationRequest request) {
         logger.info(String.format("Start Regular Evaluation"));
         long start = System.currentTimeMillis();
         long stockPortfolioId = request.getPortfolioId();
         LocalDate startDate = LocalDate.parse(request.getStartDate(), DateTimeFormatter.ISO_LOCAL_DATE);
         LocalDate endDate = LocalDate.parse(request.getEndDate(), DateTimeFormatter.ISO_LOCAL_DATE);
 
+        if (request.getIncremental()){
+            List<StockPortfolioEvaluation> openingPositions = this.stockPortfolioEvaluationRepository.findLatestByStockPortfolioId(stockPortfolioId, endDate);
+            if (!openingPositions.isEmpty()){
+                this.executeIncrementalEvaluation(stockPortfolioId, endDate, openingPositions);
+                logger.info(String.format("Finish Evaluation. Processing Time : %d [ms]", System.currentTimeMillis() - start));
+                return CompletableFuture.completedFuture(null);
+            }
+            // 評価済みのデータがなければ通常通り計算する
+            logger.info(String.format("Evaluation result is not found. So Evaluate from start date. Params: %s", request.toString()));
+        }
+
         //評価済みの期間データを取得&評価対象の日付を取得
         BusinessDays businessDays = BusinessDays.of(this.calendarService.getBusinessDaysBetween(CountryCode.JP,startDate,endDate));
 
-        BusinessDays notTargetDays = BusinessDays.of(this.stockPortfolioEvaluationRepository.findAll()
-                        .stream()
-                        .map(StockPortfolioEvaluationBase::getBaseDate)
-                        .collect(Collectors.toSet()));
-
-        BusinessDays targetDays = businessDays.removeAll(notTargetDays);
-
-        //評価対象約定データを取得
-        Specification<StockExecution> specification = StockExecution.executionDateBefore(endDate).and(StockExecution.equalsTo(stockPortfolioId));
-        List<StockExecution> evaluationTarget = this.stockExecutionRepository.findAll(specification);
+        // 対象のポートフォリオ・期間の評価済みの銘柄と基準日の組だけを取得し、銘柄ごとに除外する
+        EvaluatedDateIndex evaluatedDateIndex = EvaluatedDateIndex.of(businessDays.getBusinessDays()
+                , this.stockPortfolioEvaluationRepository.findEvaluatedDates(stockPortfolioId, startDate, endDate));
 
-        if (evaluationTarget == null || evaluationTarget.isEmpty()){
+        //評価対象の約定・マーケットデータを銘柄ごとに読み込みながら評価する
+        int registered = this.evaluateByStock(stockPortfolioId, startDate, endDate, generateWith(evaluatedDateIndex::targetDays));
+        if (registered < 0){
             logger.warn(String.format("Execution Data is Empty. So Evaluation Job is not executed. Params: %s", request.toString()));
+            return CompletableFuture.completedFuture(null);
+        }
+        logger.info(String.format("Register [%s] Evaluation Results.", registered));
+        logger.info(String.format("Finish Evaluation. Processing Time : %d [ms]", System.currentTimeMillis() - start));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * <p>
+     * 銘柄ごとに評価済みの最新のポジション(数量・簿価)から続けて、その基準日より後の営業日だけを計算する。
+     * 約定・市場価格はカーソルで銘柄コード順に読み、計算中の銘柄は評価済みの期間によらずスレッドプールの並列度までとする。
+     * </p>
+     * <p>
+     * 評価結果のない銘柄は、遡って登録された約定を含めて最初の約定日から計算する。
+     * </p>
+     * @param stockPortfolioId
+     * @param endDate
+     * @param openingPositions 銘柄ごとの評価済みの最新のポジション
+     */
+    private void executeIncrementalEvaluation(long stockPortfolioId, LocalDate endDate, List<StockPortfolioEvaluation> openingPositions) {
+        Map<String, StockPortfolioEvaluation> openingPositionByStockCode = openingPositions.stream()
+                .collect(Collectors.toMap(StockPortfolioEvaluationBase::getStockCode, Function.identity()));
+        LocalDate resumeDate = openingPositions.stream().map(StockPortfolioEvaluationBase::getBaseDate).min(LocalDate::compareTo).orElseThrow(IllegalStateException::new);
+        if (!resumeDate.isBefore(endDate)){
+            logger.info(String.format("Evaluation is up to date. PortfolioId: %d, EndDate: %s", stockPortfolioId, endDate));
             return;
         }
 
-        //評価に利用するマーケットデータを取得
-        Set<String> stockCodes = evaluationTarget.stream().map(StockExecution::getStockCode).collect(Collectors.toSet());
-        List<StockPrice> stockPrice = this.stockPriceRepository.retrieveByStockCode(stockCodes,startDate,endDate);
+        //評価済みの基準日より後の営業日のみ取得。横置きに使うため、市場価格は評価済みの基準日から読む
+        SortedSet<LocalDate> businessDays = BusinessDays.of(this.calendarService.getBusinessDaysBetween(CountryCode.JP, resumeDate.plusDays(1), endDate)).getBusinessDays();
+        int registered = this.evaluateByStock(stockPortfolioId, resumeDate, endDate, slice -> {
+            StockPortfolioEvaluation openingPosition = openingPositionByStockCode.get(slice.getStockCode());
+            if (openingPosition == null){
+                return this.createCalculatorFromFirstExecution(slice, endDate);
+            }
+            // 評価済みのポジションに反映済みの約定は除く
+            List<StockExecution> resumed = slice.getExecutions().stream().filter(s -> s.getExecutionDate().isAfter(openingPosition.getBaseDate())).collect(Collectors.toList());
+            BusinessDays targetDays = BusinessDays.of(businessDays.tailSet(openingPosition.getBaseDate().plusDays(1)));
+            return MovingAverageUnitPriceCalculator.resume(resumed, slice.getPrices(), targetDays, openingPosition);
+        });
+        logger.info(String.format("Register [%s] Evaluation Results. Resume From: %s", Math.max(registered, 0), resumeDate));
+    }
 
-        //株式コードごとに分割し非同期で実行
-        List<CompletableFuture<List<StockPortfolioEvaluation>>> futures = new ArrayList<>();
-        Map<String, List<StockExecution>> executionByStockCode = evaluationTarget.stream().collect(Collectors.groupingBy(StockExecution::getStockCode));
-        Map<String, List<StockPrice>> stockPriceByStockCode = stockPrice.stream().collect(Collectors.groupingBy(StockPriceBase::getStockCode));
-        for (String stockCode : stockCodes){
-            List<StockExecution> target = executionByStockCode.get(stockCode);
-            List<StockPrice> price = stockPriceByStockCode.get(stockCode);
-            UnitPriceCalculator<List<StockPortfolioEvaluation>> calculator = MovingAverageUnitPriceCalculator.generate(target, price, targetDays);
-            CompletableFuture<List<StockPortfolioEvaluation>> future = CompletableFuture.supplyAsync(() -> calculator.calculate());
-            futures.add(future);
+    /**
+     * 評価結果のない銘柄の計算機を、最初の約定日からendDateまでの営業日で返す。
+     * カーソルの市場価格は評価済みの基準日からなので、最初の約定日からの市場価格をこの銘柄の分だけ取得し直す。
+     * @param slice 全期間の約定を持つ1銘柄分のデータ
+     * @param endDate
+     * @return
+     */
+    private UnitPriceCalculator<List<StockPortfolioEvaluation>> createCalculatorFromFirstExecution(StockSliceReader.StockSlice slice, LocalDate endDate){
+        LocalDate firstExecutionDate = slice.getExecutions().stream().map(StockExecution::getExecutionDate).min(LocalDate::compareTo).orElseThrow(IllegalStateException::new);
+        BusinessDays targetDays = BusinessDays.of(this.calendarService.getBusinessDaysBetween(CountryCode.JP, firstExecutionDate, endDate));
+        List<StockPrice> prices = this.stockPriceRepository.retrieveByStockCode(Set.of(slice.getStockCode()), firstExecutionDate, endDate);
+        return MovingAverageUnitPriceCalculator.generate(slice.getExecutions(), AsOfPriceIndex.of(targetDays.getBusinessDays(), prices), targetDays);
+    }
+
+    /**
+     * 銘柄ごとの評価対象の営業日で、約定から計算する計算機を生成する。
+     * @param targetDaysByStockCode 銘柄ごとの評価対象の営業日
+     * @return
+     */
+    private static Function<StockSliceReader.StockSlice, UnitPriceCalculator<List<StockPortfolioEvaluation>>> generateWith(Function<String, BusinessDays> targetDaysByStockCode){
+        return slice -> {
+            BusinessDays targetDays = targetDaysByStockCode.apply(slice.getStockCode());
+            return MovingAverageUnitPriceCalculator.generate(slice.getExecutions(), AsOfPriceIndex.of(targetDays.getBusinessDays(), slice.getPrices()), targetDays);
+        };
+    }
+
+    /**
+     * <p>
+     * 約定・市場価格をカーソルで銘柄コード順に読み、1銘柄ずつ計算して登録する。
+     * 計算中の銘柄はスレッドプールの並列度までとし、それを超える場合は最も古い銘柄の計算を待って登録するので、
+     * ヒープに載るのは並列度分の銘柄のデータだけとなる。
+     * </p>
+     * <p>
+     * 約定はendDate以前の全期間、市場価格はstartDateからendDateまでを読む。
+     * </p>
+     * @param stockPortfolioId
+     * @param startDate 市場価格を読む最初の基準日
+     * @param endDate
+     * @param calculatorFactory 1銘柄分のデータから計算機を生成する。呼び出し元のスレッドで銘柄コード順に呼ばれる
+     * @return 登録した件数。約定がない場合は-1
+     */
+    private int evaluateByStock(long stockPortfolioId, LocalDate startDate, LocalDate endDate
+            , Function<StockSliceReader.StockSlice, UnitPriceCalculator<List<StockPortfolioEvaluation>>> calculatorFactory){
+        int inFlight = Math.max(this.evaluationExecutor.getParallelism(), 1);
+        Deque<CompletableFuture<List<StockPortfolioEvaluation>>> futures = new ArrayDeque<>(inFlight);
+        int registered = 0;
+        int stocks = 0;
+        try (Stream<StockExecution> executions = this.stockExecutionCursorRepository.streamByStockPortfolioId(stockPortfolioId, endDate);
+             Stream<StockPrice> prices = this.stockPriceCursorRepository.streamByStockPortfolioId(stockPortfolioId, endDate, startDate, endDate)){
+            StockSliceReader reader = new StockSliceReader(executions.iterator(), prices.iterator());
+            while (reader.hasNext()){
+                UnitPriceCalculator<List<StockPortfolioEvaluation>> calculator = calculatorFactory.apply(reader.next());
+                if (futures.size() >= inFlight){
+                    registered += this.stockPortfolioEvaluationBulkWriter.upsertAll(futures.poll().join());
+                }
+                futures.add(CompletableFuture.supplyAsync(() -> calculator.calculate(), this.evaluationExecutor));
+                stocks++;
+            }
         }
         // fork-join
-        List<StockPortfolioEvaluation> evaluationResult = futures.stream().map(CompletableFuture::join).flatMap(sl -> sl.stream()).collect(Collectors.toList());
-        //bulkInsert(全て新規作成なので全て正常に更新されるはず
-        this.stockPortfolioEvaluationRepository.saveAll(evaluationResult);
-        logger.info(String.format("Register [%s] Evaluation Results.", evaluationResult.size()));
+        while (!futures.isEmpty()){
+            registered += this.stockPortfolioEvaluationBulkWriter.upsertAll(futures.poll().join());
+        }
+        logger.debug(String.format("Evaluated [%d] stocks. PortfolioId: %d", stocks, stockPortfolioId));
+        return stocks == 0 ? -1 : registered;
+    }
+
+    /**
+     * <p>
+     * 複数のポートフォリオの標準評価計算をまとめて実行する。
+     * ポートフォリオごとに約定・市場価格をカーソルで読み、標準評価計算と同じく計算中の銘柄をスレッドプールの並列度までとするので、
+     * ヒープに載るデータ量は対象のポートフォリオ数によらない。
+     * </p>
+     * <p>
+     * 横置き価格の索引は銘柄ごとに作り、直近に使った銘柄の分だけをポートフォリオ間で共有する。
+     * </p>
+     * @param request
+     */
+    @Override
+    @Async("asyncJobExecutor")
+    @Transactional(rollbackOn = Exception.class)
+    public CompletableFuture<Void> executeMultiPortfolioEvaluation(MultiPortfolioEvaluationRequest request) {
+        logger.info(String.format("Start Multi Portfolio Evaluation"));
+        long start = System.currentTimeMillis();
+        LocalDate startDate = LocalDate.parse(request.getStartDate(), DateTimeFormatter.ISO_LOCAL_DATE);
+        LocalDate endDate = LocalDate.parse(request.getEndDate(), DateTimeFormatter.ISO_LOCAL_DATE);
+        List<Long> stockPortfolioIds = this.findTargetPortfolioIds(request);
+        if (stockPortfolioIds.isEmpty()){
+            logger.warn(String.format("Portfolio is not found. So Evaluation Job is not executed. Params: %s", request.toString()));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        //評価対象の日付を取得
+        BusinessDays businessDays = BusinessDays.of(this.calendarService.getBusinessDaysBetween(CountryCode.JP,startDate,endDate));
+        // 市場価格の期間は全ポートフォリオで同じなので、索引は銘柄ごとに共有できる。呼び出し元のスレッドだけが使う
+        Map<String, AsOfPriceIndex> priceIndexByStockCode = new LinkedHashMap<>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AsOfPriceIndex> eldest) {
+                return size() > SHARED_PRICE_INDEX_SIZE;
+            }
+        };
+
+        int registered = 0;
+        int evaluated = 0;
+        for (Long stockPortfolioId : stockPortfolioIds){
+            EvaluatedDateIndex evaluatedDateIndex = EvaluatedDateIndex.of(businessDays.getBusinessDays()
+                    , this.stockPortfolioEvaluationRepository.findEvaluatedDates(stockPortfolioId, startDate, endDate));
+            int count = this.evaluateByStock(stockPortfolioId, startDate, endDate, slice -> MovingAverageUnitPriceCalculator.generate(slice.getExecutions()
+                    , priceIndexByStockCode.computeIfAbsent(slice.getStockCode(), stockCode -> AsOfPriceIndex.of(businessDays.getBusinessDays(), slice.getPrices()))
+                    , evaluatedDateIndex.targetDays(slice.getStockCode())));
+            if (count < 0){
+                logger.debug(String.format("Execution Data is Empty. PortfolioId: %d", stockPortfolioId));
+                continue;
+            }
+            registered += count;
+            evaluated++;
+            logger.debug(String.format("Register [%s] Evaluation Results. PortfolioId: %d", count, stockPortfolioId));
+        }
+        if (evaluated == 0){
+            logger.warn(String.format("Execution Data is Empty. So Evaluation Job is not executed. Params: %s", request.toString()));
+            return CompletableFuture.completedFuture(null);
+        }
+        logger.info(String.format("Register [%s] Evaluation Results. Portfolios: %d", registered, evaluated));
         logger.info(String.format("Finish Evaluation. Processing Time : %d [ms]", System.currentTimeMillis() - start));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public List<Long> findTargetPortfolioIds(MultiPortfolioEvaluationRequest request) {
+        return request.getPortfolioIdsList().isEmpty()
+                ? this.stockPortfolioRepository.findAllIdsByIsDeletedFalse()
+                : request.getPortfolioIdsList().stream().distinct().sorted().collect(Collectors.toList());
     }
 
     @Override
     @Async("asyncJobExecutor")
     @Transactional(rollbackOn = Exception.class)
-    public void executeForceEvaluation(PortfolioEvaluationRequest request) {
+    public CompletableFuture<Void> executeForceEvaluation(PortfolioEvaluationRequest request) {
         logger.info(String.format("Start Force Evaluation"));
         long start = System.currentTimeMillis();
         long stockPortfolioId = request.getPortfolioId();
         // 対象期間の評価履歴を削除
         LocalDate startDate = LocalDate.parse(request.getStartDate(), DateTimeFormatter.ISO_LOCAL_DATE);
         LocalDate endDate = LocalDate.parse(request.getEndDate(), DateTimeFormatter.ISO_LOCAL_DATE);
-        List<StockPortfolioEvaluation> deleteTarget = this.stockPortfolioEvaluationRepository
-                .findAllByStockPortfolioIdEqualsAndBaseDateBeforeAndBaseDateAfter(stockPortfolioId, endDate, startDate);
-        this.stockPortfolioEvaluationRepository.deleteAll(deleteTarget);
+        // エンティティを読み込まずに一括で削除する。JPQLの削除は即時に実行されるので後続の登録と順序が入れ替わらない
+        int deleted = this.stockPortfolioEvaluationRepository.deleteByStockPortfolioIdInPeriod(stockPortfolioId, startDate, endDate);
 
-        logger.info(String.format("Delete [%s] evaluation result.", deleteTarget.size()));
+        logger.info(String.format("Delete [%s] evaluation result.", deleted));
 
         //評価済みの期間データを取得&評価対象の日付を取得
         BusinessDays targetDays = BusinessDays.of(this.calendarService.getBusinessDaysBetween(CountryCode.JP,startDate,endDate));
 
-        //評価対象約定データを取得
-        Specification<StockExecution> specification = StockExecution.executionDateBefore(endDate).and(StockExecution.equalsTo(stockPortfolioId));
-        List<StockExecution> evaluationTarget = this.stockExecutionRepository.findAll(specification);
-
-        if (evaluationTarget == null || evaluationTarget.isEmpty()){
+        //評価対象の約定・マーケットデータを銘柄ごとに読み込みながら評価する
+        int registered = this.evaluateByStock(stockPortfolioId, startDate, endDate, generateWith(stockCode -> targetDays));
+        if (registered < 0){
             logger.warn(String.format("Execution Data is Empty. So Evaluation Job is not executed. Params: %s", request.toString()));
-            return;
-        }
-
-        //評価に利用するマーケットデータを取得
-        Set<String> stockCodes = evaluationTarget.stream().map(StockExecution::getStockCode).collect(Collectors.toSet());
-        List<StockPrice> stockPrice = this.stockPriceRepository.retrieveByStockCode(stockCodes,startDate,endDate);
-
-        //株式コードごとに分割し非同期で実行
-        List<CompletableFuture<List<StockPortfolioEvaluation>>> futures = new ArrayList<>();
-        Map<String, List<StockExecution>> executionByStockCode = evaluationTarget.stream().collect(Collectors.groupingBy(StockExecution::getStockCode));
-        Map<String, List<StockPrice>> stockPriceByStockCode = stockPrice.stream().collect(Collectors.groupingBy(StockPriceBase::getStockCode));
-        for (String stockCode : stockCodes){
-            List<StockExecution> target = executionByStockCode.get(stockCode);
-            List<StockPrice> price = stockPriceByStockCode.get(stockCode);
-            UnitPriceCalculator<List<StockPortfolioEvaluation>> calculator = MovingAverageUnitPriceCalculator.generate(target, price, targetDays);
-            CompletableFuture<List<StockPortfolioEvaluation>> future = CompletableFuture.supplyAsync(() -> calculator.calculate());
-            futures.add(future);
+            return CompletableFuture.completedFuture(null);
         }
-        // fork-join
-        List<StockPortfolioEvaluation> evaluationResult = futures.stream().map(CompletableFuture::join).flatMap(sl -> sl.stream()).collect(Collectors.toList());
-        //bulkInsert(全て新規作成なので全て正常に更新されるはず
-        this.stockPortfolioEvaluationRepository.saveAll(evaluationResult);
-        logger.info(String.format("Register [%s] Evaluation Results.", evaluationResult.size()));
+        logger.info(String.format("Register [%s] Evaluation Results.", registered));
         logger.info(String.format("Finish Evaluation. Processing Time : %d [ms]", System.currentTimeMillis() - start));
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
     @Async("asyncJobExecutor")
     @Transactional(rollbackOn = Exception.class)
-    public void executeReviseEvaluation(PortfolioEvaluationRequest request) {
+    public CompletableFuture<Void> executeReviseEvaluation(PortfolioEvaluationRequest request) {
         logger.info(String.format("Start Revise Evaluation"));
         long start = System.currentTimeMillis();
         long stockPortfolioId = request.getPortfolioId();
         // 対象の評価履歴を取得
         List<StockPortfolioEvaluation> updateTarget = this.stockPortfolioEvaluationRepository
                 .findAllByStockPortfolioIdEqualsAndLockOutTrueAndDeletedFalse(stockPortfolioId);
-        Set<LocalDate> targetDates = updateTarget.stream().map(StockPortfolioEvaluationBase::getBaseDate).collect(Collectors.toSet());
+        if (updateTarget.isEmpty()){
+            logger.info(String.format("Revise target is not found. PortfolioId: %d", stockPortfolioId));
+            return CompletableFuture.completedFuture(null);
+        }
+        // 横置き元の基準日から対象の基準日までの価格を、銘柄ごとにまとめて取得する
+        Set<String> stockCodes = updateTarget.stream().map(StockPortfolioEvaluationBase::getStockCode).collect(Collectors.toSet());
+        LocalDate startDate = updateTarget.stream()
+                .map(s -> s.getEvaluationDateBaseDate() == null ? s.getBaseDate() : s.getEvaluationDateBaseDate())
+                .min(LocalDate::compareTo).orElseThrow();
+        LocalDate endDate = updateTarget.stream().map(StockPortfolioEvaluationBase::getBaseDate).max(LocalDate::compareTo).orElseThrow();
+        Map<String, List<StockPrice>> stockPriceByStockCode = this.stockPriceRepository.retrieveByStockCode(stockCodes, startDate, endDate).stream()
+                .collect(Collectors.groupingBy(StockPriceBase::getStockCode));
+        Map<String, List<StockPortfolioEvaluation>> targetByStockCode = updateTarget.stream()
+                .collect(Collectors.groupingBy(StockPortfolioEvaluationBase::getStockCode));
 
-        Map<Pair<String, LocalDate>, StockPrice> marketData = this.stockPriceRepository.findAllByBaseDateInAndDeletedFalse(targetDates).stream().collect(Collectors.toMap(s -> Pair.of(s.getStockCode(), s.getBaseDate()), Function.identity()));
-        Map<Pair<String, LocalDate>, StockPortfolioEvaluation> target = updateTarget.stream().collect(Collectors.toMap(s -> Pair.of(s.getStockCode(), s.getBaseDate()), Function.identity()));
+        List<StockPortfolioEvaluation> result = new ArrayList<>();
+        for (Map.Entry<String, List<StockPortfolioEvaluation>> entry : targetByStockCode.entrySet()){
+            // 対象の基準日を序数とした横置き価格の索引を銘柄ごとに一度だけ作る
+            SortedSet<LocalDate> targetDates = entry.getValue().stream().map(StockPortfolioEvaluationBase::getBaseDate).collect(Collectors.toCollection(TreeSet::new));
+            AsOfPriceIndex priceIndex = AsOfPriceIndex.of(targetDates, stockPriceByStockCode.get(entry.getKey()));
+
+            for (StockPortfolioEvaluation evaluation : entry.getValue()){
+                if (this.revalue(evaluation, priceIndex)){
+                    result.add(evaluation);
+                }
+            }
+        }
+        this.stockPortfolioEvaluationBulkWriter.upsertAll(result);
+        logger.info(String.format("Register [%s] Evaluation Results.", result.size()));
+        logger.info(String.format("Finish Evaluation. Processing Time : %d [ms]", System.currentTimeMillis() - start));
+        return CompletableFuture.completedFuture(null);
+    }
 
+    /**
+     * <p>
+     * 届いた市場価格の銘柄・基準日を横置きで参照している評価結果だけを、ポートフォリオをまたいで評価し直す。
+     * 横置き元より後・評価結果の基準日以前に価格が届いた評価結果が対象で、価格は銘柄ごとに届いた基準日と対象の基準日の分だけを主キーで取得する。
+     * </p>
+     * <p>
+     * 横置き元より前に届いた価格はその時点で評価し直しているので、横置き元より新しい価格は今回届いた価格か対象の基準日の価格に限られる。
+     * </p>
+     * @param arrivedPrices
+     * @param portfolioIds
+     */
+    @Override
+    @Async("asyncJobExecutor")
+    @Transactional(rollbackOn = Exception.class)
+    public CompletableFuture<Void> executeArrivedPriceEvaluation(ArrivedPrices arrivedPrices, Collection<Long> portfolioIds) {
+        logger.info(String.format("Start Arrived Price Evaluation"));
+        long start = System.currentTimeMillis();
+        Set<Long> targetPortfolioIds = new HashSet<>(portfolioIds);
         List<StockPortfolioEvaluation> result = new ArrayList<>();
-        for (Pair<String, LocalDate> dataKey : target.keySet()){
-            StockPrice currentMarketData = marketData.get(dataKey);
-            if (currentMarketData == null){
-                logger.warn(String.format("Cannot get StockPrice. Datakey: [%s]", dataKey.toString()));
+        for (String stockCode : arrivedPrices.getStockCodes()){
+            SortedSet<LocalDate> arrivedDates = arrivedPrices.getDates(stockCode);
+            List<StockPortfolioEvaluation> updateTarget = this.stockPortfolioEvaluationRepository
+                    .findAllByStockCodeAndLockOutTrueAndDeletedFalseAndBaseDateGreaterThanEqual(stockCode, arrivedDates.first()).stream()
+                    .filter(e -> targetPortfolioIds.contains(e.getStockPortfolioId()))
+                    .filter(e -> arrivedPrices.isAffected(stockCode, e.getEvaluationDateBaseDate(), e.getBaseDate()))
+                    .collect(Collectors.toList());
+            if (updateTarget.isEmpty()){
                 continue;
             }
+            SortedSet<LocalDate> targetDates = updateTarget.stream().map(StockPortfolioEvaluationBase::getBaseDate).collect(Collectors.toCollection(TreeSet::new));
+            // 最後の対象の基準日より後に届いた価格は横置きに使わないので取得しない
+            Set<LocalDate> priceDates = new HashSet<>(targetDates);
+            priceDates.addAll(arrivedDates.headSet(targetDates.last().plusDays(1)));
+            AsOfPriceIndex priceIndex = AsOfPriceIndex.of(targetDates, this.stockPriceRepository.findAllByStockCodeAndBaseDateInAndDeletedFalse(stockCode, priceDates));
 
-            BigDecimal currentPrice = currentMarketData.getClosePrice();
-            StockPortfolioEvaluation evaluation = target.get(dataKey);
+            for (StockPortfolioEvaluation evaluation : updateTarget){
+                if (this.revalue(evaluation, priceIndex)){
+                    result.add(evaluation);
+                }
+            }
+        }
+        this.stockPortfolioEvaluationBulkWriter.upsertAll(result);
+        logger.info(String.format("Register [%s] Evaluation Results. Arrived Prices: %d", result.size(), arrivedPrices.size()));
+        logger.info(String.format("Finish Evaluation. Processing Time : %d [ms]", System.currentTimeMillis() - start));
+        return CompletableFuture.completedFuture(null);
+    }
 
-            BigDecimal currentPl = currentPrice.subtract(evaluation.getBookValue());
-            currentPl.setScale(10, RoundingMode.DOWN);
+    @Override
+    public List<Long> findLockOutPortfolioIds(ArrivedPrices arrivedPrices) {
+        if (arrivedPrices.isEmpty()){
+            return Collections.emptyList();
+        }
+        return this.stockPortfolioEvaluationRepository.findLockOutPortfolioIds(arrivedPrices.getStockCodes(), arrivedPrices.getFirstDate());
+    }
 
-            evaluation.setCurrentValue(currentPrice);
-            evaluation.setCurrentPl(currentPl);
-            evaluation.setUpdateUser("Calculator_"+Thread.currentThread()+this.getClass().getName());
-            evaluation.setUpdateTimestamp(Timestamp.valueOf(LocalDateTime.now()));
-            evaluation.setLockOut(!dataKey.getSecond().equals(currentMarketData.getBaseDate()));
-            evaluation.setEvaluationDateBaseDate(currentMarketData.getBaseDate());
-            result.add(evaluation);
+    /**
+     * 横置き元より新しい価格があれば、その価格で横置きした評価結果を評価し直す。
+     * @param evaluation
+     * @param priceIndex 評価結果の銘柄の、基準日を含む索引
+     * @return 評価し直した場合はtrue
+     */
+    private boolean revalue(StockPortfolioEvaluation evaluation, AsOfPriceIndex priceIndex){
+        int ordinal = priceIndex.ordinalOf(evaluation.getBaseDate());
+        if (!priceIndex.hasPrice(ordinal)){
+            logger.warn(String.format("Cannot get StockPrice. Datakey: [%s]", Pair.of(evaluation.getStockCode(), evaluation.getBaseDate()).toString()));
+            return false;
+        }
+        LocalDate sourceDate = priceIndex.getSourceDate(ordinal);
+        if (evaluation.getEvaluationDateBaseDate() != null && !sourceDate.isAfter(evaluation.getEvaluationDateBaseDate())){
+            // 横置き元より新しい価格が届いていないので更新しない
+            return false;
         }
-        this.stockPortfolioEvaluationRepository.saveAll(result);
-        logger.info(String.format("Register [%s] Evaluation Results.", updateTarget.size()));
+
+        BigDecimal currentPrice = priceIndex.getClosePrice(ordinal);
+        BigDecimal currentPl = currentPrice.subtract(evaluation.getBookValue()).setScale(10, RoundingMode.DOWN);
+
+        evaluation.setCurrentValue(currentPrice);
+        evaluation.setCurrentPl(currentPl);
+        evaluation.setUpdateUser("Calculator_"+Thread.currentThread()+this.getClass().getName());
+        evaluation.setUpdateTimestamp(Timestamp.valueOf(LocalDateTime.now()));
+        evaluation.setLockOut(!evaluation.getBaseDate().equals(sourceDate));
+        evaluation.setEvaluationDateBaseDate(sourceDate);
+        return true;
+    }
+
+    /**
+     * <p>
+     * 約定の登録で古くなった(ポートフォリオ, 銘柄)だけを、影響を受ける最も古い約定日から評価済みの最新の基準日まで計算し直す。
+     * 約定日より前に評価済みのポジションがあればそこから続けて計算するので、約定・市場価格はその基準日以降の分だけを読む。ポートフォリオの他の銘柄は計算しない。
+     * </p>
+     * <p>
+     * 計算し直す期間の評価結果は削除してから登録するので、売却で数量が0になった日の古い評価結果は残らない。
+     * 計算し直した組は評価結果と同じトランザクションで削除する。計算中に登録し直された組は残り、次の差分評価で計算する。
+     * </p>
+     * @param request
+     */
+    @Override
+    @Async("asyncJobExecutor")
+    @Transactional(rollbackOn = Exception.class)
+    public CompletableFuture<Void> executeDirtyEvaluation(PortfolioEvaluationRequest request) {
+        logger.info(String.format("Start Dirty Evaluation"));
+        long start = System.currentTimeMillis();
+        long stockPortfolioId = request.getPortfolioId();
+        List<StockEvaluationDirtyKey> dirtyKeys = this.stockEvaluationDirtyKeyRepository.findAllByStockPortfolioId(stockPortfolioId);
+        if (dirtyKeys.isEmpty()){
+            logger.info(String.format("Dirty key is not found. PortfolioId: %d", stockPortfolioId));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // 評価済みの期間の中だけを計算し直す。期間より後の約定は次の標準評価計算で反映される
+        LocalDate firstBaseDate = this.stockPortfolioEvaluationRepository.findFirstBaseDate(stockPortfolioId);
+        LocalDate lastBaseDate = this.stockPortfolioEvaluationRepository.findLastBaseDate(stockPortfolioId);
+        List<CompletableFuture<List<StockPortfolioEvaluation>>> futures = new ArrayList<>();
+        int deleted = 0;
+        for (StockEvaluationDirtyKey dirtyKey : dirtyKeys){
+            if (lastBaseDate == null || dirtyKey.getFromDate().isAfter(lastBaseDate)){
+                continue;
+            }
+            Optional<StockPortfolioEvaluation> openingPosition = this.stockPortfolioEvaluationRepository
+                    .findFirstByStockPortfolioIdAndStockCodeAndDeletedFalseAndBaseDateLessThanOrderByBaseDateDesc(stockPortfolioId, dirtyKey.getStockCode(), dirtyKey.getFromDate());
+            LocalDate targetFrom = openingPosition.map(p -> p.getBaseDate().plusDays(1))
+                    .orElse(dirtyKey.getFromDate().isBefore(firstBaseDate) ? firstBaseDate : dirtyKey.getFromDate());
+            Optional<UnitPriceCalculator<List<StockPortfolioEvaluation>>> calculator = this.createDirtyCalculator(dirtyKey, openingPosition, targetFrom, lastBaseDate);
+            // 数量が0になった日は計算結果に含まれないので、上書きだけでは古い評価結果が残る。計算し直す期間は先に削除する
+            deleted += this.stockPortfolioEvaluationRepository.deleteByStockPortfolioIdAndStockCodeInPeriod(stockPortfolioId, dirtyKey.getStockCode(), targetFrom, lastBaseDate);
+            calculator.ifPresent(c -> futures.add(CompletableFuture.supplyAsync(() -> c.calculate(), this.evaluationExecutor)));
+        }
+        // fork-join
+        int registered = 0;
+        for (CompletableFuture<List<StockPortfolioEvaluation>> future : futures){
+            registered += this.stockPortfolioEvaluationBulkWriter.upsertAll(future.join());
+        }
+        int cleared = 0;
+        for (StockEvaluationDirtyKey dirtyKey : dirtyKeys){
+            cleared += this.stockEvaluationDirtyKeyRepository.deleteIfUnchanged(stockPortfolioId, dirtyKey.getStockCode(), dirtyKey.getRevision());
+        }
+        logger.info(String.format("Delete [%s] and Register [%s] Evaluation Results. Stocks: %d, Cleared Dirty Keys: %d/%d", deleted, registered, futures.size(), cleared, dirtyKeys.size()));
         logger.info(String.format("Finish Evaluation. Processing Time : %d [ms]", System.currentTimeMillis() - start));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * 1銘柄の差分評価の計算機を返す。
+     * 約定日より前の最新の評価結果があればそこから続け、なければtargetFromから計算する。
+     * @param dirtyKey
+     * @param openingPosition 約定日より前の最新の評価結果
+     * @param targetFrom 計算し直す最初の日
+     * @param lastBaseDate ポートフォリオの評価済みの最新の基準日
+     * @return 約定がない場合は空
+     */
+    private Optional<UnitPriceCalculator<List<StockPortfolioEvaluation>>> createDirtyCalculator(StockEvaluationDirtyKey dirtyKey
+            , Optional<StockPortfolioEvaluation> openingPosition, LocalDate targetFrom, LocalDate lastBaseDate){
+        long stockPortfolioId = dirtyKey.getStockPortfolioId();
+        String stockCode = dirtyKey.getStockCode();
+        BusinessDays targetDays = BusinessDays.of(this.calendarService.getBusinessDaysBetween(CountryCode.JP, targetFrom, lastBaseDate));
+
+        // 評価済みのポジションに反映済みの約定は読まない
+        Specification<StockExecution> specification = StockExecution.equalsTo(stockPortfolioId)
+                .and(StockExecution.stockCodeEqualsTo(stockCode))
+                .and(StockExecution.executionDateAfter(openingPosition.map(p -> p.getBaseDate().plusDays(1)).orElse(null)))
+                .and(StockExecution.executionDateBefore(lastBaseDate));
+        List<StockExecution> executions = this.stockExecutionRepository.findAll(specification);
+        //横置きに使うため、評価済みの基準日の市場価格から取得する
+        LocalDate priceFrom = openingPosition.map(StockPortfolioEvaluationBase::getBaseDate).orElse(targetFrom);
+        List<StockPrice> prices = this.stockPriceRepository.retrieveByStockCode(Set.of(stockCode), priceFrom, lastBaseDate);
+
+        if (openingPosition.isPresent()){
+            return Optional.of(MovingAverageUnitPriceCalculator.resume(executions, prices, targetDays, openingPosition.get()));
+        }
+        if (executions.isEmpty()){
+            logger.warn(String.format("Execution Data is Empty. Dirty Key: %s", dirtyKey));
+            return Optional.empty();
+        }
+        return Optional.of(MovingAverageUnitPriceCalculator.generate(executions, AsOfPriceIndex.of(targetDays.getBusinessDays(), prices), targetDays));
     }
 }
@@ -0,0 +1,167 @@
+package project.calculator.domain.batch.porfolio.job;
+
+import project.infra.rdb.evaluationjob.EvaluationJobStatus;
+import project.infra.rdb.evaluationjob.EvaluationPriority;
+import project.infra.rdb.evaluationjob.EvaluationType;
+import project.infra.rdb.evaluationjob.PortfolioEvaluationJob;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * 実行待ちのジョブのうち、同じポートフォリオ・同じ種類の計算をまとめる。
+ * 標準評価・強制評価は期間が重なるか隣接するジョブを、それらを覆う期間の1つのジョブにまとめる。
+ * 修正評価・差分評価は期間を持たないので、ポートフォリオごとに1つにまとめる。
+ * 強制評価は期間内を全て計算し直すので、その期間に含まれる標準評価(続きから計算するものを除く)は強制評価にまとめる。
+ * </p>
+ * <p>
+ * まとめた先は最も古い(IDの小さい)ジョブとし、他のジョブは状態をMERGEDにしてまとめた先のIDを設定する。
+ * まとめたジョブの優先度は、まとめられたジョブの中で最も高いものとする。
+ * </p>
+ */
+public final class EvaluationJobCoalescer {
+
+    private EvaluationJobCoalescer() {
+    }
+
+    /**
+     * 実行待ちのジョブをまとめる。引数のジョブは期間・状態が更新される。
+     * @param pendingJobs
+     * @return
+     */
+    public static Result coalesce(List<PortfolioEvaluationJob> pendingJobs) {
+        // 同じ計算になるジョブごとに分ける
+        Map<List<Object>, List<PortfolioEvaluationJob>> jobsByKey = new LinkedHashMap<>();
+        for (PortfolioEvaluationJob job : pendingJobs) {
+            List<Object> key = List.of(job.getStockPortfolioId(), job.getEvaluationType(), job.isIncremental());
+            jobsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(job);
+        }
+
+        List<PortfolioEvaluationJob> runnable = new ArrayList<>();
+        List<PortfolioEvaluationJob> merged = new ArrayList<>();
+        for (List<PortfolioEvaluationJob> jobs : jobsByKey.values()) {
+            if (!jobs.get(0).getEvaluationType().isPeriodic()) {
+                coalesceAll(jobs, runnable, merged);
+            } else {
+                coalesceOverlapping(jobs, runnable, merged);
+            }
+        }
+        absorbCoveredRegular(runnable, merged);
+        runnable.sort(Comparator.comparingLong(PortfolioEvaluationJob::getId));
+        return new Result(runnable, merged);
+    }
+
+    private static void coalesceAll(List<PortfolioEvaluationJob> jobs, List<PortfolioEvaluationJob> runnable, List<PortfolioEvaluationJob> merged) {
+        PortfolioEvaluationJob primary = jobs.stream().min(Comparator.comparingLong(PortfolioEvaluationJob::getId)).orElseThrow();
+        primary.setPriority(highestPriority(jobs));
+        runnable.add(primary);
+        for (PortfolioEvaluationJob job : jobs) {
+            if (job != primary) {
+                markMerged(job, primary, merged);
+            }
+        }
+    }
+
+    private static void coalesceOverlapping(List<PortfolioEvaluationJob> jobs, List<PortfolioEvaluationJob> runnable, List<PortfolioEvaluationJob> merged) {
+        List<PortfolioEvaluationJob> sorted = new ArrayList<>(jobs);
+        sorted.sort(Comparator.comparing(PortfolioEvaluationJob::getStartDate).thenComparingLong(PortfolioEvaluationJob::getId));
+
+        List<PortfolioEvaluationJob> cluster = new ArrayList<>();
+        LocalDate clusterEnd = null;
+        for (PortfolioEvaluationJob job : sorted) {
+            // 期間が重なるか隣接していれば同じ計算にまとめられる
+            if (clusterEnd != null && job.getStartDate().isAfter(clusterEnd.plusDays(1))) {
+                closeCluster(cluster, clusterEnd, runnable, merged);
+                cluster = new ArrayList<>();
+                clusterEnd = null;
+            }
+            cluster.add(job);
+            clusterEnd = clusterEnd == null || job.getEndDate().isAfter(clusterEnd) ? job.getEndDate() : clusterEnd;
+        }
+        if (!cluster.isEmpty()) {
+            closeCluster(cluster, clusterEnd, runnable, merged);
+        }
+    }
+
+    private static void closeCluster(List<PortfolioEvaluationJob> cluster, LocalDate clusterEnd, List<PortfolioEvaluationJob> runnable, List<PortfolioEvaluationJob> merged) {
+        PortfolioEvaluationJob primary = cluster.stream().min(Comparator.comparingLong(PortfolioEvaluationJob::getId)).orElseThrow();
+        // 開始日の昇順なので先頭が最も早い
+        primary.setStartDate(cluster.get(0).getStartDate());
+        primary.setEndDate(clusterEnd);
+        primary.setPriority(highestPriority(cluster));
+        runnable.add(primary);
+        for (PortfolioEvaluationJob job : cluster) {
+            if (job != primary) {
+                markMerged(job, primary, merged);
+            }
+        }
+    }
+
+    private static void absorbCoveredRegular(List<PortfolioEvaluationJob> runnable, List<PortfolioEvaluationJob> merged) {
+        List<PortfolioEvaluationJob> forceJobs = new ArrayList<>();
+        for (PortfolioEvaluationJob job : runnable) {
+            if (job.getEvaluationType() == EvaluationType.FORCE) {
+                forceJobs.add(job);
+            }
+        }
+        if (forceJobs.isEmpty()) {
+            return;
+        }
+        Iterator<PortfolioEvaluationJob> iterator = runnable.iterator();
+        while (iterator.hasNext()) {
+            PortfolioEvaluationJob job = iterator.next();
+            if (job.getEvaluationType() != EvaluationType.REGULAR || job.isIncremental()) {
+                continue;
+            }
+            for (PortfolioEvaluationJob force : forceJobs) {
+                if (force.getStockPortfolioId() == job.getStockPortfolioId()
+                        && !force.getStartDate().isAfter(job.getStartDate()) && !force.getEndDate().isBefore(job.getEndDate())) {
+                    force.setPriority(highestPriority(List.of(force, job)));
+                    markMerged(job, force, merged);
+                    iterator.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    private static EvaluationPriority highestPriority(List<PortfolioEvaluationJob> jobs) {
+        // 列挙の順序が優先度の高い順
+        return jobs.stream().map(PortfolioEvaluationJob::getPriority).min(Comparator.naturalOrder()).orElseThrow();
+    }
+
+    private static void markMerged(PortfolioEvaluationJob job, PortfolioEvaluationJob primary, List<PortfolioEvaluationJob> merged) {
+        job.setStatus(EvaluationJobStatus.MERGED);
+        job.setMergedJobId(primary.getId());
+        job.setDetail(String.format("Merged into job %d", primary.getId()));
+        merged.add(job);
+    }
+
+    /**
+     * まとめた結果。runnableは実行するジョブ、mergedは他のジョブにまとめられたジョブ
+     */
+    public static final class Result {
+        private final List<PortfolioEvaluationJob> runnable;
+        private final List<PortfolioEvaluationJob> merged;
+
+        Result(List<PortfolioEvaluationJob> runnable, List<PortfolioEvaluationJob> merged) {
+            this.runnable = Collections.unmodifiableList(runnable);
+            this.merged = Collections.unmodifiableList(merged);
+        }
+
+        public List<PortfolioEvaluationJob> getRunnable() {
+            return runnable;
+        }
+
+        public List<PortfolioEvaluationJob> getMerged() {
+            return merged;
+        }
+    }
+}
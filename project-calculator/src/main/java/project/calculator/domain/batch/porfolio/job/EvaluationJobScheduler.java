@@ -0,0 +1,105 @@
+package project.calculator.domain.batch.porfolio.job;
+
+import project.infra.rdb.evaluationjob.EvaluationPriority;
+import project.infra.rdb.evaluationjob.EvaluationType;
+import project.infra.rdb.evaluationjob.PortfolioEvaluationJob;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * 実行待ちのジョブから、今回開始するジョブを選ぶ。
+ * INTERACTIVEのジョブをNIGHTLYのジョブより先に選び、同じ優先度の中では古いジョブのあるポートフォリオから順番に選ぶ。
+ * 同じポートフォリオのジョブは同時に実行しないので、実行中のジョブがあるポートフォリオのジョブは選ばず、1回に選ぶのはポートフォリオごとに1件までとする。
+ * </p>
+ * <p>
+ * 同時実行数は全体と計算の種類ごとに上限を持つ。NIGHTLYのジョブはmaxNightlyRunningまでとし、
+ * 残りの枠はINTERACTIVEのジョブのために空けておく。
+ * </p>
+ */
+public final class EvaluationJobScheduler {
+
+    private final int maxRunning;
+    private final int maxNightlyRunning;
+    private final Map<EvaluationType, Integer> maxRunningByType;
+
+    public EvaluationJobScheduler(int maxRunning, int maxNightlyRunning, Map<EvaluationType, Integer> maxRunningByType) {
+        if (maxRunning <= 0 || maxNightlyRunning < 0 || maxNightlyRunning > maxRunning) {
+            throw new IllegalArgumentException(String.format("Invalid max running. MaxRunning: %d, MaxNightlyRunning: %d", maxRunning, maxNightlyRunning));
+        }
+        this.maxRunning = maxRunning;
+        this.maxNightlyRunning = maxNightlyRunning;
+        this.maxRunningByType = new EnumMap<>(EvaluationType.class);
+        for (EvaluationType type : EvaluationType.values()) {
+            // 指定のない種類は全体の上限まで実行できる
+            this.maxRunningByType.put(type, Math.min(maxRunningByType.getOrDefault(type, maxRunning), maxRunning));
+        }
+    }
+
+    public int getMaxRunning() {
+        return maxRunning;
+    }
+
+    /**
+     * 今回開始するジョブを開始する順に返す。
+     * @param pendingJobs 実行待ちのジョブ
+     * @param runningJobs 実行中のジョブ
+     * @return
+     */
+    public List<PortfolioEvaluationJob> select(List<PortfolioEvaluationJob> pendingJobs, Collection<PortfolioEvaluationJob> runningJobs) {
+        int running = runningJobs.size();
+        int nightlyRunning = 0;
+        Map<EvaluationType, Integer> runningByType = new EnumMap<>(EvaluationType.class);
+        Set<Long> busyPortfolioIds = new HashSet<>();
+        for (PortfolioEvaluationJob job : runningJobs) {
+            if (job.getPriority() == EvaluationPriority.NIGHTLY) {
+                nightlyRunning++;
+            }
+            runningByType.merge(job.getEvaluationType(), 1, Integer::sum);
+            busyPortfolioIds.add(job.getStockPortfolioId());
+        }
+
+        List<PortfolioEvaluationJob> selected = new ArrayList<>();
+        for (EvaluationPriority priority : EvaluationPriority.values()) {
+            // ポートフォリオごとにIDの昇順に並べ、古いジョブのあるポートフォリオから順に見る
+            Map<Long, Deque<PortfolioEvaluationJob>> queues = new LinkedHashMap<>();
+            pendingJobs.stream()
+                    .filter(job -> job.getPriority() == priority)
+                    .filter(job -> !busyPortfolioIds.contains(job.getStockPortfolioId()))
+                    .sorted(Comparator.comparingLong(PortfolioEvaluationJob::getId))
+                    .forEach(job -> queues.computeIfAbsent(job.getStockPortfolioId(), k -> new ArrayDeque<>()).add(job));
+
+            for (Deque<PortfolioEvaluationJob> queue : queues.values()) {
+                if (running >= this.maxRunning
+                        || (priority == EvaluationPriority.NIGHTLY && nightlyRunning >= this.maxNightlyRunning)) {
+                    break;
+                }
+                // 種類ごとの上限に達していないジョブのうち最も古いものを選ぶ。残りは次回以降に実行する
+                PortfolioEvaluationJob job = queue.stream()
+                        .filter(j -> runningByType.getOrDefault(j.getEvaluationType(), 0) < this.maxRunningByType.get(j.getEvaluationType()))
+                        .findFirst().orElse(null);
+                if (job == null) {
+                    continue;
+                }
+                selected.add(job);
+                running++;
+                if (priority == EvaluationPriority.NIGHTLY) {
+                    nightlyRunning++;
+                }
+                runningByType.merge(job.getEvaluationType(), 1, Integer::sum);
+                busyPortfolioIds.add(job.getStockPortfolioId());
+            }
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,266 @@
+package project.calculator.domain.batch.porfolio.job;
+
+import io.grpc.finance.calculation.batch.portfolio.MultiPortfolioEvaluationRequest;
+import io.grpc.finance.calculation.batch.portfolio.PortfolioEvaluationRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import project.calculator.domain.batch.porfolio.PortfolioEvaluationService;
+import project.calculator.domain.batch.porfolio.PortfolioLanes;
+import project.infra.rdb.evaluationdirtykey.StockEvaluationDirtyKeyRepository;
+import project.infra.rdb.evaluationjob.EvaluationJobStatus;
+import project.infra.rdb.evaluationjob.EvaluationType;
+import project.infra.rdb.evaluationjob.PortfolioEvaluationJob;
+import project.infra.rdb.evaluationjob.PortfolioEvaluationJobRepository;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * 実行待ちのジョブを定期的に読み込み、まとめられるジョブをまとめてから評価計算を実行する。
+ * 開始するジョブはEvaluationJobSchedulerが優先度・同時実行数の上限に従って選び、残りは次回以降に実行する。
+ * 評価計算はPortfolioLanesのポートフォリオごとのレーンで実行し、同じポートフォリオの計算が同時に評価結果を書き込まないようにする。
+ * </p>
+ * <p>
+ * 起動時に実行中のまま残っているジョブは、前回の停止で中断されたものとして実行待ちに戻す。
+ * 約定の登録で古くなった評価結果があるポートフォリオは、差分評価のジョブを登録して計算し直す。
+ * 差分評価が失敗したポートフォリオは、dirtyRetryBackoffMsが経つまで登録し直さない。
+ * </p>
+ * <p>
+ * 同時に開始する標準評価(続きから計算するものを除く)のジョブのうち期間が同じものは、複数ポートフォリオの評価計算でまとめて計算し、
+ * 約定・市場価格の読み込みを共有する。
+ * </p>
+ */
+@Component
+public class PortfolioEvaluationJobDispatcher {
+
+    private static final String UPDATE_USER = "Calculator_PortfolioEvaluationJobDispatcher";
+
+    private final PortfolioEvaluationJobRepository portfolioEvaluationJobRepository;
+    private final PortfolioEvaluationService portfolioEvaluationService;
+    private final EvaluationJobScheduler evaluationJobScheduler;
+    private final PortfolioLanes portfolioLanes;
+    private final PortfolioEvaluationJobService portfolioEvaluationJobService;
+    private final StockEvaluationDirtyKeyRepository stockEvaluationDirtyKeyRepository;
+    // 差分評価が失敗してから登録し直すまでの時間
+    private final long dirtyRetryBackoffMs;
+    // 実行中のジョブ。キーはジョブのID
+    private final Map<Long, PortfolioEvaluationJob> runningJobs = new ConcurrentHashMap<>();
+
+    private static final Logger logger = LoggerFactory.getLogger(PortfolioEvaluationJobDispatcher.class);
+
+    public PortfolioEvaluationJobDispatcher(PortfolioEvaluationJobRepository portfolioEvaluationJobRepository, PortfolioEvaluationService portfolioEvaluationService
+            , EvaluationJobScheduler evaluationJobScheduler, PortfolioLanes portfolioLanes
+            , PortfolioEvaluationJobService portfolioEvaluationJobService, StockEvaluationDirtyKeyRepository stockEvaluationDirtyKeyRepository
+            , @Value("${calculator.evaluation-job.dirty-retry-backoff-ms}") long dirtyRetryBackoffMs) {
+        this.portfolioEvaluationJobRepository = portfolioEvaluationJobRepository;
+        this.portfolioEvaluationService = portfolioEvaluationService;
+        this.evaluationJobScheduler = evaluationJobScheduler;
+        this.portfolioLanes = portfolioLanes;
+        this.portfolioEvaluationJobService = portfolioEvaluationJobService;
+        this.stockEvaluationDirtyKeyRepository = stockEvaluationDirtyKeyRepository;
+        this.dirtyRetryBackoffMs = dirtyRetryBackoffMs;
+    }
+
+    @PostConstruct
+    public void recover() {
+        int recovered = this.portfolioEvaluationJobRepository.updateStatus(EvaluationJobStatus.RUNNING, EvaluationJobStatus.PENDING
+                , UPDATE_USER, Timestamp.valueOf(LocalDateTime.now()));
+        if (recovered > 0) {
+            logger.info(String.format("Recovered [%d] interrupted Evaluation Jobs.", recovered));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${calculator.evaluation-job.dispatch-interval-ms}")
+    public synchronized void dispatch() {
+        if (this.runningJobs.size() >= this.evaluationJobScheduler.getMaxRunning()) {
+            return;
+        }
+        List<PortfolioEvaluationJob> pendingJobs = this.portfolioEvaluationJobRepository.findAllByStatusOrderByIdAsc(EvaluationJobStatus.PENDING);
+        if (this.registerDirtyJobs(pendingJobs)) {
+            pendingJobs = this.portfolioEvaluationJobRepository.findAllByStatusOrderByIdAsc(EvaluationJobStatus.PENDING);
+        }
+        if (pendingJobs.isEmpty()) {
+            return;
+        }
+        EvaluationJobCoalescer.Result result = EvaluationJobCoalescer.coalesce(pendingJobs);
+        if (!result.getMerged().isEmpty()) {
+            List<PortfolioEvaluationJob> updated = new ArrayList<>(result.getMerged());
+            updated.addAll(result.getRunnable());
+            updated.forEach(PortfolioEvaluationJobDispatcher::touch);
+            this.portfolioEvaluationJobRepository.saveAll(updated);
+            logger.info(String.format("Merged [%d] Evaluation Jobs into [%d] Jobs.", result.getMerged().size(), result.getRunnable().size()));
+        }
+
+        // 複数ポートフォリオの計算などでレーンが使われているポートフォリオのジョブは次回以降に実行する
+        List<PortfolioEvaluationJob> runnableJobs = result.getRunnable().stream()
+                .filter(job -> !this.portfolioLanes.isBusy(job.getStockPortfolioId()))
+                .collect(Collectors.toList());
+        for (List<PortfolioEvaluationJob> jobs : groupByPeriod(this.evaluationJobScheduler.select(runnableJobs, this.runningJobs.values()))) {
+            if (!this.start(jobs)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 開始するジョブのうち、まとめて計算できる標準評価のジョブを期間ごとにまとめる。その他のジョブは1件ずつとする。
+     * @param selected
+     * @return 開始する順のジョブの組
+     */
+    static List<List<PortfolioEvaluationJob>> groupByPeriod(List<PortfolioEvaluationJob> selected) {
+        Map<List<Object>, List<PortfolioEvaluationJob>> jobsByKey = new LinkedHashMap<>();
+        for (PortfolioEvaluationJob job : selected) {
+            List<Object> key = job.getEvaluationType() == EvaluationType.REGULAR && !job.isIncremental()
+                    ? List.of(job.getStartDate(), job.getEndDate())
+                    : List.of(job.getId());
+            jobsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(job);
+        }
+        return new ArrayList<>(jobsByKey.values());
+    }
+
+    /**
+     * 約定の登録で古くなった評価結果があるポートフォリオの差分評価のジョブを登録する。
+     * 実行待ち・実行中の差分評価のジョブがあるポートフォリオと、差分評価が最近失敗したポートフォリオは登録しない。
+     * 失敗しても古くなった組は残るので、待たずに登録すると失敗するジョブを毎回登録し続けることになる。
+     * @param pendingJobs
+     * @return 登録した場合はtrue
+     */
+    private boolean registerDirtyJobs(List<PortfolioEvaluationJob> pendingJobs) {
+        List<Long> dirtyPortfolioIds = this.stockEvaluationDirtyKeyRepository.findAllStockPortfolioIds();
+        if (dirtyPortfolioIds.isEmpty()) {
+            return false;
+        }
+        Set<Long> scheduled = Stream.concat(pendingJobs.stream(), this.runningJobs.values().stream())
+                .filter(job -> job.getEvaluationType() == EvaluationType.DIRTY)
+                .map(PortfolioEvaluationJob::getStockPortfolioId)
+                .collect(Collectors.toSet());
+        Timestamp since = Timestamp.valueOf(LocalDateTime.now().minus(this.dirtyRetryBackoffMs, ChronoUnit.MILLIS));
+        scheduled.addAll(this.portfolioEvaluationJobRepository.findStockPortfolioIdsUpdatedSince(EvaluationType.DIRTY, EvaluationJobStatus.FAILED, since));
+        boolean registered = false;
+        for (Long stockPortfolioId : dirtyPortfolioIds) {
+            if (!scheduled.contains(stockPortfolioId)) {
+                this.portfolioEvaluationJobService.register(EvaluationType.DIRTY, PortfolioEvaluationRequest.newBuilder().setPortfolioId(stockPortfolioId).build());
+                registered = true;
+            }
+        }
+        return registered;
+    }
+
+    /**
+     * ジョブを実行中にして、ポートフォリオのレーンで評価計算を開始する。複数のジョブは全てのポートフォリオのレーンが空いてからまとめて計算する。
+     * @param jobs
+     * @return 実行できない場合はfalse
+     */
+    private boolean start(List<PortfolioEvaluationJob> jobs) {
+        for (PortfolioEvaluationJob job : jobs) {
+            job.setStatus(EvaluationJobStatus.RUNNING);
+            touch(job);
+            this.runningJobs.put(job.getId(), job);
+        }
+        this.portfolioEvaluationJobRepository.saveAll(jobs);
+        CompletableFuture<Void> future = jobs.size() == 1
+                ? this.portfolioLanes.submit(jobs.get(0).getStockPortfolioId(), () -> this.execute(jobs.get(0)))
+                : this.portfolioLanes.submitAll(portfolioIdsOf(jobs), () -> this.executeMulti(jobs));
+        future.whenComplete((v, e) -> {
+            for (PortfolioEvaluationJob job : jobs) {
+                this.runningJobs.remove(job.getId());
+                this.finish(job, e);
+            }
+        });
+        if (future.isCompletedExceptionally()) {
+            // レーンが空いていれば呼び出し元のスレッドで登録されるので、実行スレッドに断られたかはここで分かる
+            return !isRejected(future.handle((r, e) -> e).join());
+        }
+        return true;
+    }
+
+    private CompletableFuture<Void> executeMulti(List<PortfolioEvaluationJob> jobs) {
+        PortfolioEvaluationJob first = jobs.get(0);
+        MultiPortfolioEvaluationRequest request = MultiPortfolioEvaluationRequest.newBuilder()
+                .addAllPortfolioIds(portfolioIdsOf(jobs))
+                .setStartDate(first.getStartDate().format(DateTimeFormatter.ISO_LOCAL_DATE))
+                .setEndDate(first.getEndDate().format(DateTimeFormatter.ISO_LOCAL_DATE))
+                .build();
+        return this.portfolioEvaluationService.executeMultiPortfolioEvaluation(request);
+    }
+
+    private static List<Long> portfolioIdsOf(List<PortfolioEvaluationJob> jobs) {
+        return jobs.stream().map(PortfolioEvaluationJob::getStockPortfolioId).collect(Collectors.toList());
+    }
+
+    private CompletableFuture<Void> execute(PortfolioEvaluationJob job) {
+        PortfolioEvaluationRequest.Builder builder = PortfolioEvaluationRequest.newBuilder()
+                .setPortfolioId(job.getStockPortfolioId())
+                .setIncremental(job.isIncremental());
+        if (job.getStartDate() != null) {
+            builder.setStartDate(job.getStartDate().format(DateTimeFormatter.ISO_LOCAL_DATE));
+        }
+        if (job.getEndDate() != null) {
+            builder.setEndDate(job.getEndDate().format(DateTimeFormatter.ISO_LOCAL_DATE));
+        }
+        PortfolioEvaluationRequest request = builder.build();
+        switch (job.getEvaluationType()) {
+            case REGULAR:
+                return this.portfolioEvaluationService.executeRegularEvaluation(request);
+            case FORCE:
+                return this.portfolioEvaluationService.executeForceEvaluation(request);
+            case REVISE:
+                return this.portfolioEvaluationService.executeReviseEvaluation(request);
+            case DIRTY:
+                return this.portfolioEvaluationService.executeDirtyEvaluation(request);
+            default:
+                throw new IllegalArgumentException(String.format("Unexpected Evaluation Type: %s", job.getEvaluationType()));
+        }
+    }
+
+    private void finish(PortfolioEvaluationJob job, Throwable e) {
+        if (isRejected(e)) {
+            // 実行スレッドのキューが埋まっているので次回に実行する
+            logger.warn(String.format("Evaluation Job is rejected. So retry later. Job: %s", job));
+            job.setStatus(EvaluationJobStatus.PENDING);
+        } else if (e == null) {
+            job.setStatus(EvaluationJobStatus.COMPLETED);
+            job.setDetail("Success");
+        } else {
+            logger.error(String.format("Evaluation Job is failed. Job: %s", job), e);
+            job.setStatus(EvaluationJobStatus.FAILED);
+            String detail = String.valueOf(e.getMessage());
+            job.setDetail(detail.length() > 500 ? detail.substring(0, 500) : detail);
+        }
+        touch(job);
+        try {
+            this.portfolioEvaluationJobRepository.save(job);
+        } catch (RuntimeException ex) {
+            // 状態を更新できない場合は再起動時に実行待ちに戻る
+            logger.error(String.format("Cannot update Evaluation Job status. Job: %s", job), ex);
+        }
+    }
+
+    private static boolean isRejected(Throwable e) {
+        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+        return cause instanceof TaskRejectedException;
+    }
+
+    private static void touch(PortfolioEvaluationJob job) {
+        job.setUpdateUser(UPDATE_USER);
+        job.setUpdateTimestamp(Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,58 @@
+package project.calculator.domain.batch.porfolio.job;
+
+import io.grpc.finance.calculation.batch.portfolio.MultiPortfolioEvaluationRequest;
+import io.grpc.finance.calculation.batch.portfolio.PortfolioEvaluationRequest;
+import project.infra.rdb.evaluationjob.EvaluationPriority;
+import project.infra.rdb.evaluationjob.EvaluationType;
+import project.infra.rdb.evaluationjob.PortfolioEvaluationJob;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * ポートフォリオ評価計算ジョブの登録・参照。登録したジョブはPortfolioEvaluationJobDispatcherが実行する。
+ */
+public interface PortfolioEvaluationJobService {
+
+    /**
+     * ジョブを実行待ちとして登録する。
+     * @param evaluationType
+     * @param request
+     * @return ジョブのID
+     */
+    public abstract long register(EvaluationType evaluationType, PortfolioEvaluationRequest request);
+
+    /**
+     * 複数のポートフォリオの標準評価計算を、ポートフォリオごとのジョブとして実行待ちに登録する。全て登録するか、全く登録しない。
+     * 同じ期間で開始したジョブはPortfolioEvaluationJobDispatcherがまとめて計算する。
+     * @param request
+     * @param portfolioIds 対象のポートフォリオのID
+     * @return ポートフォリオの順のジョブのID
+     */
+    public abstract List<Long> registerAll(MultiPortfolioEvaluationRequest request, List<Long> portfolioIds);
+
+    public abstract Optional<PortfolioEvaluationJob> find(long jobId);
+
+    /**
+     * 優先度ごとの実行待ちのジョブ数が上限に達していないか確認する。
+     * @param priority
+     * @return 受け付けられない場合は再試行するまでに待つ時間の目安(ミリ秒)。受け付けられる場合は空
+     */
+    public abstract OptionalLong checkAdmission(EvaluationPriority priority);
+
+    /**
+     * リクエストの優先度をジョブの優先度に変換する。
+     * @param request
+     * @return
+     */
+    public static EvaluationPriority priorityOf(PortfolioEvaluationRequest request) {
+        return request.getPriority() == io.grpc.finance.calculation.batch.portfolio.EvaluationPriority.NIGHTLY
+                ? EvaluationPriority.NIGHTLY : EvaluationPriority.INTERACTIVE;
+    }
+
+    public static EvaluationPriority priorityOf(MultiPortfolioEvaluationRequest request) {
+        return request.getPriority() == io.grpc.finance.calculation.batch.portfolio.EvaluationPriority.NIGHTLY
+                ? EvaluationPriority.NIGHTLY : EvaluationPriority.INTERACTIVE;
+    }
+}
@@ -0,0 +1,128 @@
+package project.calculator.domain.batch.porfolio.job;
+
+import io.grpc.finance.calculation.batch.portfolio.MultiPortfolioEvaluationRequest;
+import io.grpc.finance.calculation.batch.portfolio.PortfolioEvaluationRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import project.infra.rdb.evaluationjob.EvaluationJobStatus;
+import project.infra.rdb.evaluationjob.EvaluationPriority;
+import project.infra.rdb.evaluationjob.EvaluationType;
+import project.infra.rdb.evaluationjob.PortfolioEvaluationJob;
+import project.infra.rdb.evaluationjob.PortfolioEvaluationJobRepository;
+
+import javax.transaction.Transactional;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Collectors;
+
+@Service
+public class PortfolioEvaluationJobServiceImpl implements PortfolioEvaluationJobService {
+
+    private final PortfolioEvaluationJobRepository portfolioEvaluationJobRepository;
+    private final int maxPendingInteractive;
+    private final int maxPendingNightly;
+    private final int maxRunning;
+    // 実行待ちのジョブが同時実行数の分だけ進むのにかかる時間の目安
+    private final long retryAfterMs;
+
+    private static final Logger logger = LoggerFactory.getLogger(PortfolioEvaluationJobServiceImpl.class);
+
+    public PortfolioEvaluationJobServiceImpl(PortfolioEvaluationJobRepository portfolioEvaluationJobRepository
+            , @Value("${calculator.evaluation-job.max-pending-interactive}") int maxPendingInteractive
+            , @Value("${calculator.evaluation-job.max-pending-nightly}") int maxPendingNightly
+            , @Value("${calculator.evaluation-job.max-running}") int maxRunning
+            , @Value("${calculator.evaluation-job.retry-after-ms}") long retryAfterMs) {
+        this.portfolioEvaluationJobRepository = portfolioEvaluationJobRepository;
+        this.maxPendingInteractive = maxPendingInteractive;
+        this.maxPendingNightly = maxPendingNightly;
+        this.maxRunning = maxRunning;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    @Override
+    public long register(EvaluationType evaluationType, PortfolioEvaluationRequest request) {
+        LocalDate startDate = parse(request.getStartDate());
+        LocalDate endDate = parse(request.getEndDate());
+        if (evaluationType.isPeriodic()){
+            validatePeriod(startDate, endDate);
+        }
+        PortfolioEvaluationJob job = this.createJob(request.getPortfolioId(), evaluationType, startDate, endDate
+                , request.getIncremental(), PortfolioEvaluationJobService.priorityOf(request));
+        PortfolioEvaluationJob saved = this.portfolioEvaluationJobRepository.save(job);
+        logger.info(String.format("Registered Evaluation Job: %s", saved));
+        return saved.getId();
+    }
+
+    @Override
+    @Transactional(rollbackOn = Exception.class)
+    public List<Long> registerAll(MultiPortfolioEvaluationRequest request, List<Long> portfolioIds) {
+        LocalDate startDate = parse(request.getStartDate());
+        LocalDate endDate = parse(request.getEndDate());
+        validatePeriod(startDate, endDate);
+        EvaluationPriority priority = PortfolioEvaluationJobService.priorityOf(request);
+        List<PortfolioEvaluationJob> jobs = new ArrayList<>();
+        for (Long portfolioId : portfolioIds) {
+            jobs.add(this.createJob(portfolioId, EvaluationType.REGULAR, startDate, endDate, false, priority));
+        }
+        List<Long> jobIds = this.portfolioEvaluationJobRepository.saveAll(jobs).stream()
+                .map(PortfolioEvaluationJob::getId)
+                .collect(Collectors.toList());
+        logger.info(String.format("Registered [%d] Regular Evaluation Jobs. StartDate: %s, EndDate: %s, Priority: %s", jobIds.size(), startDate, endDate, priority));
+        return jobIds;
+    }
+
+    private PortfolioEvaluationJob createJob(long portfolioId, EvaluationType evaluationType, LocalDate startDate, LocalDate endDate
+            , boolean incremental, EvaluationPriority priority) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        PortfolioEvaluationJob job = new PortfolioEvaluationJob();
+        job.setStockPortfolioId(portfolioId);
+        job.setEvaluationType(evaluationType);
+        job.setStartDate(startDate);
+        job.setEndDate(endDate);
+        job.setIncremental(incremental);
+        job.setPriority(priority);
+        job.setStatus(EvaluationJobStatus.PENDING);
+        job.setCreateUser("Calculator_" + this.getClass().getSimpleName());
+        job.setCreateTimestamp(now);
+        job.setUpdateUser("Calculator_" + this.getClass().getSimpleName());
+        job.setUpdateTimestamp(now);
+        return job;
+    }
+
+    @Override
+    public Optional<PortfolioEvaluationJob> find(long jobId) {
+        return this.portfolioEvaluationJobRepository.findById(jobId);
+    }
+
+    @Override
+    public OptionalLong checkAdmission(EvaluationPriority priority) {
+        long pending = this.portfolioEvaluationJobRepository.countByStatusAndPriority(EvaluationJobStatus.PENDING, priority);
+        int maxPending = priority == EvaluationPriority.NIGHTLY ? this.maxPendingNightly : this.maxPendingInteractive;
+        if (pending < maxPending) {
+            return OptionalLong.empty();
+        }
+        // 実行待ちのジョブが捌けるまでの回数に比例して待たせる
+        long waves = (pending + this.maxRunning - 1) / this.maxRunning;
+        long retryAfter = this.retryAfterMs * waves;
+        logger.warn(String.format("Evaluation Job is not admitted. Priority: %s, Pending: %d, RetryAfterMs: %d", priority, pending, retryAfter));
+        return OptionalLong.of(retryAfter);
+    }
+
+    private static void validatePeriod(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)){
+            throw new IllegalArgumentException(String.format("Invalid evaluation period. StartDate: %s, EndDate: %s", startDate, endDate));
+        }
+    }
+
+    private static LocalDate parse(String date) {
+        return date == null || date.isEmpty() ? null : LocalDate.parse(date, DateTimeFormatter.ISO_LOCAL_DATE);
+    }
+}
@@ -0,0 +1,189 @@
+package project.calculator.domain.batch.porfolio.job;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import project.calculator.domain.batch.porfolio.ArrivedPrices;
+import project.calculator.domain.batch.porfolio.PortfolioEvaluationService;
+import project.calculator.domain.batch.porfolio.PortfolioLanes;
+import project.infra.rdb.strockpricetimeseries.StockPriceArrival;
+import project.infra.rdb.strockpricetimeseries.StockPriceArrivalCursor;
+import project.infra.rdb.strockpricetimeseries.StockPriceArrivalCursorRepository;
+import project.infra.rdb.strockpricetimeseries.StockPriceRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ * 登録・更新された市場価格を定期的に読み込み、その銘柄・基準日を横置きで参照している評価結果を評価し直す。
+ * 価格は(更新日時, 銘柄, 基準日)の順にbatchSize件ずつ、前回読んだ最後の行の続きから読む。
+ * 書き込み中のトランザクションの行を読み飛ばさないように、更新日時がsettleMsより前の行だけを読む。
+ * </p>
+ * <p>
+ * 評価し直しは対象の評価結果を持つポートフォリオのレーンで実行し、評価計算のジョブと同じポートフォリオの評価結果を同時に書き込まないようにする。
+ * 読み込み位置は評価し直しが終わってから進める。失敗した場合は retryBackoffMs × 失敗回数 だけ待って同じ価格から読み直し、
+ * maxRetries回読み直しても失敗した価格は読み飛ばして後続の価格を処理する。読み飛ばした価格の評価結果は修正評価で評価し直す。
+ * </p>
+ * <p>
+ * 読み込み位置はstock_price_arrival_cursorに保存し、再起動しても続きから読む。
+ * 保存した位置がなければ、最新の更新日時のlookbackMs前から読み始める。評価し直しは何度実行しても同じ結果になる。
+ * </p>
+ */
+@Component
+public class StockPriceArrivalWatcher {
+
+    private static final String UPDATE_USER = "Calculator_StockPriceArrivalWatcher";
+
+    private final StockPriceRepository stockPriceRepository;
+    private final StockPriceArrivalCursorRepository stockPriceArrivalCursorRepository;
+    private final PortfolioEvaluationService portfolioEvaluationService;
+    private final PortfolioLanes portfolioLanes;
+    // 1回に読み込む価格の件数
+    private final int batchSize;
+    private final long settleMs;
+    private final long lookbackMs;
+    private final int maxRetries;
+    private final long retryBackoffMs;
+    // 評価し直しの実行中はtrue。以下のフィールドはtrueにしたスレッドだけが変更する
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    // 読み込み位置。前回読んだ最後の行
+    private volatile StockPriceArrivalCursor cursor;
+    // 現在の読み込み位置から続けて失敗した回数と、次に読み直す時刻
+    private volatile int failures = 0;
+    private volatile long retryAt = 0L;
+
+    private static final Logger logger = LoggerFactory.getLogger(StockPriceArrivalWatcher.class);
+
+    public StockPriceArrivalWatcher(StockPriceRepository stockPriceRepository, StockPriceArrivalCursorRepository stockPriceArrivalCursorRepository
+            , PortfolioEvaluationService portfolioEvaluationService, PortfolioLanes portfolioLanes
+            , @Value("${calculator.price-arrival.batch-size}") int batchSize
+            , @Value("${calculator.price-arrival.settle-ms}") long settleMs
+            , @Value("${calculator.price-arrival.lookback-ms}") long lookbackMs
+            , @Value("${calculator.price-arrival.max-retries}") int maxRetries
+            , @Value("${calculator.price-arrival.retry-backoff-ms}") long retryBackoffMs) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid batch size: %d", batchSize));
+        }
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException(String.format("Invalid max retries: %d", maxRetries));
+        }
+        this.stockPriceRepository = stockPriceRepository;
+        this.stockPriceArrivalCursorRepository = stockPriceArrivalCursorRepository;
+        this.portfolioEvaluationService = portfolioEvaluationService;
+        this.portfolioLanes = portfolioLanes;
+        this.batchSize = batchSize;
+        this.settleMs = settleMs;
+        this.lookbackMs = lookbackMs;
+        this.maxRetries = maxRetries;
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    @Scheduled(fixedDelayString = "${calculator.price-arrival.poll-interval-ms}")
+    public void poll() {
+        if (!this.running.compareAndSet(false, true)) {
+            return;
+        }
+        boolean submitted = false;
+        try {
+            if (System.currentTimeMillis() < this.retryAt) {
+                return;
+            }
+            if (this.cursor == null) {
+                this.cursor = this.loadCursor();
+            }
+            Timestamp until = Timestamp.valueOf(LocalDateTime.now().minus(this.settleMs, ChronoUnit.MILLIS));
+            List<StockPriceArrival> arrivals = this.stockPriceRepository.findArrivedAfter(this.cursor.getCursorTimestamp(), this.cursor.getCursorStockCode()
+                    , this.cursor.getCursorBaseDate(), until, PageRequest.of(0, this.batchSize));
+            if (arrivals.isEmpty()) {
+                return;
+            }
+            StockPriceArrival last = arrivals.get(arrivals.size() - 1);
+            ArrivedPrices arrivedPrices = ArrivedPrices.of(arrivals);
+            List<Long> portfolioIds = this.portfolioEvaluationService.findLockOutPortfolioIds(arrivedPrices);
+            if (portfolioIds.isEmpty()) {
+                // 横置きした評価結果がなければ評価し直すものはない
+                this.advance(last);
+                return;
+            }
+            submitted = true;
+            this.portfolioLanes.submitAll(portfolioIds, () -> this.portfolioEvaluationService.executeArrivedPriceEvaluation(arrivedPrices, portfolioIds))
+                    .whenComplete((v, e) -> {
+                        try {
+                            if (e == null) {
+                                this.advance(last);
+                            } else {
+                                this.retryOrSkip(arrivedPrices, last, e);
+                            }
+                        } finally {
+                            this.running.set(false);
+                        }
+                    });
+        } finally {
+            if (!submitted) {
+                this.running.set(false);
+            }
+        }
+    }
+
+    private StockPriceArrivalCursor loadCursor() {
+        Optional<StockPriceArrivalCursor> saved = this.stockPriceArrivalCursorRepository.findById(StockPriceArrivalCursor.ID);
+        if (saved.isPresent()) {
+            logger.info(String.format("Watch StockPrice arrivals from %s", saved.get()));
+            return saved.get();
+        }
+        Timestamp latest = this.stockPriceRepository.findMaxUpdateTimestamp();
+        LocalDateTime base = latest == null ? LocalDateTime.now() : latest.toLocalDateTime();
+        StockPriceArrivalCursor cursor = new StockPriceArrivalCursor();
+        // 空の銘柄コードより後として、この更新日時の行から読む
+        cursor.setCursorTimestamp(Timestamp.valueOf(base.minus(this.lookbackMs, ChronoUnit.MILLIS)));
+        cursor.setCursorStockCode("");
+        cursor.setCursorBaseDate(LocalDate.EPOCH);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        cursor.setCreateUser(UPDATE_USER);
+        cursor.setCreateTimestamp(now);
+        cursor.setUpdateUser(UPDATE_USER);
+        cursor.setUpdateTimestamp(now);
+        logger.info(String.format("Watch StockPrice arrivals from %s", cursor));
+        return this.stockPriceArrivalCursorRepository.save(cursor);
+    }
+
+    /**
+     * 読み直した回数がmaxRetries未満なら待ってから読み直し、それ以上なら読み飛ばして読み込み位置を進める。
+     * @param arrivedPrices
+     * @param last
+     * @param e
+     */
+    private void retryOrSkip(ArrivedPrices arrivedPrices, StockPriceArrival last, Throwable e) {
+        int failed = this.failures + 1;
+        if (failed <= this.maxRetries) {
+            this.failures = failed;
+            this.retryAt = System.currentTimeMillis() + this.retryBackoffMs * failed;
+            logger.warn(String.format("Arrived Price Evaluation is failed. So retry later. Failures: %d, Arrived Prices: %s", failed, arrivedPrices), e);
+            return;
+        }
+        logger.error(String.format("Arrived Price Evaluation is failed %d times. So skip these prices and revise them later. Arrived Prices: %s"
+                , failed, arrivedPrices), e);
+        this.advance(last);
+    }
+
+    private void advance(StockPriceArrival last) {
+        StockPriceArrivalCursor cursor = this.cursor;
+        cursor.setCursorTimestamp(last.getUpdateTimestamp());
+        cursor.setCursorStockCode(last.getStockCode());
+        cursor.setCursorBaseDate(last.getBaseDate());
+        cursor.setUpdateUser(UPDATE_USER);
+        cursor.setUpdateTimestamp(Timestamp.valueOf(LocalDateTime.now()));
+        this.cursor = this.stockPriceArrivalCursorRepository.save(cursor);
+        this.failures = 0;
+        this.retryAt = 0L;
+    }
+}
@@ -2,6 +2,9 @@ package project.calculator.domain.finance.bond.algo;
 
 import project.calculator.data.response.CalculationResult;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * 計算アルゴリズムを抽象化するインターフェース
  * 型引数は計算に使用するデータオブジェクトの型。
@@ -9,4 +12,13 @@ import project.calculator.data.response.CalculationResult;
 @FunctionalInterface
 public interface CalculationStrategy<T> {
     public abstract CalculationResult execute(T data);
+
+    /**
+     * 複数の計算をまとめて行う。まとめて計算できるアルゴリズムはオーバーライドする。既定では1件ずつ計算する。
+     * @param data
+     * @return リクエスト順の計算結果
+     */
+    public default List<CalculationResult> executeBatch(List<T> data) {
+        return data.stream().map(this::execute).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,12 @@
+package project.calculator.domain.finance.bond.algo;
+
+import project.calculator.data.response.BondRiskResult;
+
+/**
+ * リスク指標の計算アルゴリズムを抽象化するインターフェース
+ * 型引数は計算に使用するデータオブジェクトの型。
+ */
+@FunctionalInterface
+public interface RiskCalculationStrategy<T> {
+    public abstract BondRiskResult execute(T data);
+}
@@ -0,0 +1,216 @@
+package project.calculator.domain.finance.bond.algo.montecarlo;
+
+import io.grpc.util.Status;
+import io.grpc.util.StatusMsg;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.CurveInterpolation;
+import project.calculator.data.enums.PricingMethod;
+import project.calculator.data.response.CalculationResult;
+import project.calculator.domain.finance.bond.algo.CalculationStrategy;
+import project.calculator.domain.finance.bond.curve.DiscountCurve;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistry;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * Hull-White 1ファクターモデルのモンテカルロ法で債券の理論価格を計算する。
+ * モデルは割引現在価値カーブに一致するように較正し、パスはキャッシュフローの時点ごとに厳密に生成する。
+ * 期末払いの債券のみ対象とし、キャッシュフローは償還時点から利払い周期ずつ遡った時点とする。
+ * </p>
+ * <p>
+ * パスは対称変量法で2本ずつ生成する。パスの組をBLOCK_SIZEごとのブロックに分け、ブロックごとにseedから分割した乱数列を割り当てる。
+ * ブロックの合計は固定の順序で足し合わせるので、結果は並列度によらずビット単位で一致する。
+ * 乱数・パスのバッファはタスクごとに一度だけ確保し、パスごとには確保しない。
+ * </p>
+ * <p>
+ * CalculationStrategyConfigクラスで管理するのでAutoConfiguration用アノテーションは不用
+ * </p>
+ */
+public class HullWhiteMonteCarloStrategy implements CalculationStrategy<BondPricingData> {
+
+    // 1ブロックあたりのパスの組の数。並列度によらず固定とする
+    private static final int BLOCK_SIZE = 256;
+
+    private final DiscountCurveRegistry discountCurveRegistry;
+    private final ForkJoinPool forkJoinPool;
+    private final CurveInterpolation curveInterpolation;
+    private final double meanReversion;
+    private final double volatility;
+    // 対称なパスの組の数
+    private final int pathPairs;
+    private final long seed;
+    private static final Logger logger = LoggerFactory.getLogger(HullWhiteMonteCarloStrategy.class);
+
+    public HullWhiteMonteCarloStrategy(DiscountCurveRegistry discountCurveRegistry, ForkJoinPool forkJoinPool, CurveInterpolation curveInterpolation
+            , double meanReversion, double volatility, int pathPairs, long seed) {
+        if (!(meanReversion > 0) || volatility < 0 || pathPairs <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid Hull-White parameters. MeanReversion: %s, Volatility: %s, PathPairs: %d", meanReversion, volatility, pathPairs));
+        }
+        this.discountCurveRegistry = discountCurveRegistry;
+        this.forkJoinPool = forkJoinPool;
+        this.curveInterpolation = curveInterpolation;
+        this.meanReversion = meanReversion;
+        this.volatility = volatility;
+        this.pathPairs = pathPairs;
+        this.seed = seed;
+    }
+
+    @Override
+    public CalculationResult execute(BondPricingData data) {
+        Optional<DiscountCurve> curve = this.discountCurveRegistry.resolve(data.getPaymentType(), data.getCurveVersion());
+        if (curve.isEmpty()) {
+            return notCompleted(String.format("Discount Factor data is not found. PaymentType: %s, Version: %s", data.getPaymentType(), data.getCurveVersion()));
+        }
+        if (!data.getIsTermEndPayment()) {
+            return notCompleted("Only term-end payment is supported.");
+        }
+        double maturity = data.getCurrentMaturity().doubleValue();
+        if (maturity < 0) {
+            return notCompleted("Current maturity is negative.");
+        }
+
+        double step = data.getPaymentType().getStep().doubleValue();
+        double unit = data.getUnit().doubleValue();
+        double coupon = data.getCouponRate().multiply(data.getPaymentType().getStep()).doubleValue() * unit;
+        int size = maturity > 0 ? (int) Math.ceil(maturity / step - 1e-9) : 0;
+        if (size == 0) {
+            // 満期を迎えた債券は確率的な要素がない
+            return CalculationResult.create(data.getUnit(), PricingMethod.HULL_WHITE_MONTE_CARLO, ok());
+        }
+        double[] times = new double[size];
+        double[] amounts = new double[size];
+        double[] discountFactors = new double[size];
+        for (int k = 0; k < size; k++) {
+            // 時点の昇順に並べる。最後の時点が償還
+            times[k] = maturity - (size - 1 - k) * step;
+            amounts[k] = k == size - 1 ? coupon + unit : coupon;
+            discountFactors[k] = curve.get().interpolateDiscountFactor(times[k], this.curveInterpolation);
+            if (Double.isNaN(discountFactors[k])) {
+                return notCompleted("Discount Factor data is not sufficient.");
+            }
+        }
+
+        HullWhitePathGrid grid = new HullWhitePathGrid(this.meanReversion, this.volatility, times, amounts, discountFactors);
+        double price = this.simulate(grid);
+        return CalculationResult.create(BigDecimal.valueOf(price), PricingMethod.HULL_WHITE_MONTE_CARLO, ok());
+    }
+
+    /**
+     * パスの平均を計算する。
+     * @param grid
+     * @return 価格の期待値
+     */
+    double simulate(HullWhitePathGrid grid) {
+        int blocks = (this.pathPairs + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        // ブロックの乱数列はスレッドの実行順によらないように、事前に順番に分割しておく
+        SplittableRandom root = new SplittableRandom(this.seed);
+        SplittableRandom[] streams = new SplittableRandom[blocks];
+        for (int b = 0; b < blocks; b++) {
+            streams[b] = root.split();
+        }
+        double[] sums = new double[blocks];
+        double[] sumsOfSquares = new double[blocks];
+        this.forkJoinPool.invoke(new PathTask(grid, streams, sums, sumsOfSquares, 0, blocks));
+
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (int b = 0; b < blocks; b++) {
+            sum += sums[b];
+            sumOfSquares += sumsOfSquares[b];
+        }
+        double mean = sum / this.pathPairs;
+        if (logger.isDebugEnabled()) {
+            double variance = Math.max(sumOfSquares / this.pathPairs - mean * mean, 0);
+            logger.debug(String.format("Hull-White Monte Carlo. Price: %s, StandardError: %s, PathPairs: %d", mean, Math.sqrt(variance / this.pathPairs), this.pathPairs));
+        }
+        return mean;
+    }
+
+    /**
+     * ブロックの範囲[from, to)のパスを生成する。
+     */
+    private void simulateBlocks(HullWhitePathGrid grid, SplittableRandom[] streams, double[] sums, double[] sumsOfSquares, int from, int to) {
+        double[] normals = new double[2 * grid.size()];
+        for (int b = from; b < to; b++) {
+            SplittableRandom random = streams[b];
+            int pairs = Math.min(BLOCK_SIZE, this.pathPairs - b * BLOCK_SIZE);
+            double sum = 0;
+            double sumOfSquares = 0;
+            for (int p = 0; p < pairs; p++) {
+                fillNormals(random, normals);
+                double value = 0.5 * (grid.presentValue(normals, 1) + grid.presentValue(normals, -1));
+                sum += value;
+                sumOfSquares += value * value;
+            }
+            sums[b] = sum;
+            sumsOfSquares[b] = sumOfSquares;
+        }
+    }
+
+    /**
+     * 極座標法で標準正規乱数を2つずつ生成する。
+     */
+    private static void fillNormals(SplittableRandom random, double[] normals) {
+        for (int i = 0; i < normals.length; i += 2) {
+            double u;
+            double v;
+            double s;
+            do {
+                u = 2 * random.nextDouble() - 1;
+                v = 2 * random.nextDouble() - 1;
+                s = u * u + v * v;
+            } while (s >= 1 || s == 0);
+            double m = Math.sqrt(-2 * Math.log(s) / s);
+            normals[i] = u * m;
+            normals[i + 1] = v * m;
+        }
+    }
+
+    private static StatusMsg ok() {
+        return StatusMsg.newBuilder().setStatus(Status.OK).setDetail("Success").build();
+    }
+
+    private static CalculationResult notCompleted(String detail) {
+        logger.info(detail);
+        StatusMsg msg = StatusMsg.newBuilder().setStatus(Status.NOT_COMPLETED).setDetail(detail).build();
+        return CalculationResult.create(BigDecimal.ZERO, PricingMethod.HULL_WHITE_MONTE_CARLO, msg);
+    }
+
+    /**
+     * ブロックの範囲を分割しながら並列にパスを生成するタスク
+     */
+    private class PathTask extends RecursiveAction {
+        private final HullWhitePathGrid grid;
+        private final SplittableRandom[] streams;
+        private final double[] sums;
+        private final double[] sumsOfSquares;
+        private final int from;
+        private final int to;
+
+        PathTask(HullWhitePathGrid grid, SplittableRandom[] streams, double[] sums, double[] sumsOfSquares, int from, int to) {
+            this.grid = grid;
+            this.streams = streams;
+            this.sums = sums;
+            this.sumsOfSquares = sumsOfSquares;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                HullWhiteMonteCarloStrategy.this.simulateBlocks(grid, streams, sums, sumsOfSquares, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new PathTask(grid, streams, sums, sumsOfSquares, from, middle), new PathTask(grid, streams, sums, sumsOfSquares, middle, to));
+        }
+    }
+}
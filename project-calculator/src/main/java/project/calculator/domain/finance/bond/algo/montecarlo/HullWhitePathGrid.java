@@ -0,0 +1,96 @@
+package project.calculator.domain.finance.bond.algo.montecarlo;
+
+/**
+ * <p>
+ * Hull-White 1ファクターモデルのパスを生成する時点(キャッシュフローの時点)ごとの係数。
+ * </p>
+ * <p>
+ * 短期金利を r(t) = x(t) + φ(t), dx = -a・x・dt + σ・dW, x(0) = 0 と分解する。
+ * 時点間の x と ∫x ds の増分は2変量正規分布となるので、時点間を分割せずに厳密に生成できる。
+ * φ(t)は初期カーブに一致するように決まり、パスの割引現在価値は P(0, T)・exp(-V(T)/2 - ∫_0^T x ds) となる
+ * (V(T)は∫_0^T x dsの分散)。
+ * </p>
+ * <p>
+ * 生成後は変更しないので、複数スレッドから参照できる。
+ * </p>
+ */
+final class HullWhitePathGrid {
+
+    // 昇順の時点(年)
+    private final double[] times;
+    private final double[] amounts;
+    // 時点ごとの e^{-aΔ}, (1 - e^{-aΔ}) / a
+    private final double[] decay;
+    private final double[] integralWeight;
+    // (x, ∫x ds)の増分の共分散行列のコレスキー分解
+    private final double[] l11;
+    private final double[] l21;
+    private final double[] l22;
+    // P(0, T)・exp(-V(T)/2)
+    private final double[] deterministicDiscountFactors;
+
+    /**
+     * @param meanReversion 平均回帰速度a(正であること)
+     * @param volatility ボラティリティσ
+     * @param times 昇順の時点(年)
+     * @param amounts 時点ごとのキャッシュフロー
+     * @param discountFactors 時点ごとの初期カーブの割引現在価値
+     */
+    HullWhitePathGrid(double meanReversion, double volatility, double[] times, double[] amounts, double[] discountFactors) {
+        int size = times.length;
+        this.times = times.clone();
+        this.amounts = amounts.clone();
+        this.decay = new double[size];
+        this.integralWeight = new double[size];
+        this.l11 = new double[size];
+        this.l21 = new double[size];
+        this.l22 = new double[size];
+        this.deterministicDiscountFactors = new double[size];
+
+        double a = meanReversion;
+        double s2 = volatility * volatility;
+        double previous = 0;
+        for (int k = 0; k < size; k++) {
+            double dt = times[k] - previous;
+            double e1 = Math.exp(-a * dt);
+            double e2 = Math.exp(-2 * a * dt);
+            this.decay[k] = e1;
+            this.integralWeight[k] = (1 - e1) / a;
+            double varX = s2 * (1 - e2) / (2 * a);
+            double varI = s2 / (a * a) * (dt - 2 * (1 - e1) / a + (1 - e2) / (2 * a));
+            double cov = s2 / (2 * a * a) * (1 - e1) * (1 - e1);
+            this.l11[k] = Math.sqrt(varX);
+            this.l21[k] = this.l11[k] > 0 ? cov / this.l11[k] : 0;
+            this.l22[k] = Math.sqrt(Math.max(varI - this.l21[k] * this.l21[k], 0));
+
+            double t = times[k];
+            double variance = s2 / (a * a) * (t + 2 / a * Math.exp(-a * t) - 1 / (2 * a) * Math.exp(-2 * a * t) - 3 / (2 * a));
+            this.deterministicDiscountFactors[k] = discountFactors[k] * Math.exp(-0.5 * variance);
+            previous = t;
+        }
+    }
+
+    int size() {
+        return this.times.length;
+    }
+
+    /**
+     * 正規乱数からパスを1本生成し、キャッシュフローの現在価値の合計を返す。
+     * @param normals 時点ごとに2つずつの標準正規乱数
+     * @param sign 1または-1。-1の場合は乱数の符号を反転した対称なパスとなる
+     * @return
+     */
+    double presentValue(double[] normals, double sign) {
+        double x = 0;
+        double integral = 0;
+        double value = 0;
+        for (int k = 0; k < this.times.length; k++) {
+            double z1 = sign * normals[2 * k];
+            double z2 = sign * normals[2 * k + 1];
+            integral += x * this.integralWeight[k] + this.l21[k] * z1 + this.l22[k] * z2;
+            x = x * this.decay[k] + this.l11[k] * z1;
+            value += this.amounts[k] * this.deterministicDiscountFactors[k] * Math.exp(-integral);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,81 @@
+package project.calculator.domain.finance.bond.algo.pricing;
+
+import project.calculator.data.BondPricingData;
+import project.calculator.domain.finance.bond.curve.DiscountCurve;
+
+/**
+ * <p>
+ * 同じ割引現在価値カーブで評価する債券群を、項目ごとのプリミティブ配列(struct of arrays)で保持する。
+ * </p>
+ * <p>
+ * BigDecimalからの変換と期間インデックスの計算は追加時に一度だけ行い、
+ * 価格計算は配列を先頭から順に走査するだけのループにする。
+ * </p>
+ */
+final class BondBook {
+
+    private final DiscountCurve curve;
+    // 元のリクエスト内での位置
+    private final int[] positions;
+    // 1期間あたりのクーポン(額面1あたり)
+    private final double[] couponPerPeriod;
+    private final double[] unit;
+    // 元本を割り引く期間インデックス
+    private final int[] maturityIndex;
+    // クーポンを割り引く期間インデックスの範囲[couponFrom, couponTo)
+    private final int[] couponFrom;
+    private final int[] couponTo;
+    private int size = 0;
+
+    BondBook(DiscountCurve curve, int capacity) {
+        this.curve = curve;
+        this.positions = new int[capacity];
+        this.couponPerPeriod = new double[capacity];
+        this.unit = new double[capacity];
+        this.maturityIndex = new int[capacity];
+        this.couponFrom = new int[capacity];
+        this.couponTo = new int[capacity];
+    }
+
+    /**
+     * 債券を追加する。期間数はBondTheoreticalPricingStrategyと同じ方法で求めたもの。
+     * @param position 元のリクエスト内での位置
+     * @param data
+     * @param periods 残存期間を利払い周期で割った期間数
+     */
+    void add(int position, BondPricingData data, int periods) {
+        this.positions[size] = position;
+        this.couponPerPeriod[size] = data.getCouponRate().multiply(data.getPaymentType().getStep()).doubleValue();
+        this.unit[size] = data.getUnit().doubleValue();
+        this.maturityIndex[size] = periods;
+        if (data.getIsTermEndPayment()) {
+            this.couponFrom[size] = 1;
+            this.couponTo[size] = periods + 1;
+        } else {
+            this.couponFrom[size] = 0;
+            this.couponTo[size] = Math.min(periods + 1, data.getCurrentMaturity().intValue());
+        }
+        size++;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    int positionAt(int i) {
+        return this.positions[i];
+    }
+
+    /**
+     * 全銘柄の理論価格を計算する。
+     * @return 追加した順の理論価格
+     */
+    double[] price() {
+        double[] prices = new double[size];
+        for (int i = 0; i < size; i++) {
+            double discountedCoupon = couponPerPeriod[i] * curve.sumDiscountFactorsAsDouble(couponFrom[i], couponTo[i]);
+            prices[i] = (curve.getDiscountFactorAsDouble(maturityIndex[i]) + discountedCoupon) * unit[i];
+        }
+        return prices;
+    }
+}
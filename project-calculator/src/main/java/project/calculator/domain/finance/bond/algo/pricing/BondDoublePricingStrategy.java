@@ -0,0 +1,152 @@
+package project.calculator.domain.finance.bond.algo.pricing;
+
+import io.grpc.util.Status;
+import io.grpc.util.StatusMsg;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.CashFlowTiming;
+import project.calculator.data.enums.PricingMethod;
+import project.calculator.data.response.CalculationResult;
+import project.calculator.domain.finance.bond.algo.CalculationStrategy;
+import project.calculator.domain.finance.bond.curve.DiscountCurve;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistry;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p>
+ * 割引現在価値による理論価格を倍精度浮動小数点で計算する。
+ * 大量銘柄の一括評価向けで、BigDecimalによる計算(BondTheoreticalPricingStrategy)と同じ式を使う。
+ * </p>
+ * <p>
+ * CalculationStrategyConfigクラスで管理するのでAutoConfiguration用アノテーションは不用
+ * </p>
+ */
+public class BondDoublePricingStrategy implements CalculationStrategy<BondPricingData> {
+
+    private final DiscountCurveRegistry discountCurveRegistry;
+    // 精度確認に使う基準の計算方法
+    private final CalculationStrategy<BondPricingData> referenceStrategy;
+    private final boolean deviationCheck;
+    // 基準の計算方法と同じものを指定する
+    private final CashFlowTiming cashFlowTiming;
+    private static final Logger logger = LoggerFactory.getLogger(BondDoublePricingStrategy.class);
+
+    public BondDoublePricingStrategy(DiscountCurveRegistry discountCurveRegistry, CalculationStrategy<BondPricingData> referenceStrategy, boolean deviationCheck) {
+        this(discountCurveRegistry, referenceStrategy, deviationCheck, CashFlowTiming.TRUNCATED);
+    }
+
+    public BondDoublePricingStrategy(DiscountCurveRegistry discountCurveRegistry, CalculationStrategy<BondPricingData> referenceStrategy, boolean deviationCheck
+            , CashFlowTiming cashFlowTiming) {
+        this.discountCurveRegistry = discountCurveRegistry;
+        this.referenceStrategy = referenceStrategy;
+        this.deviationCheck = deviationCheck;
+        this.cashFlowTiming = cashFlowTiming;
+    }
+
+    @Override
+    public CalculationResult execute(BondPricingData data) {
+        return this.executeBatch(Collections.singletonList(data)).get(0);
+    }
+
+    /**
+     * <p>
+     * 複数銘柄をまとめて計算する。使用するカーブごとに列指向の配列へ詰め替え、ループで一括計算する。
+     * deviationCheckが有効な場合は基準の計算方法との最大誤差をログに出力する。
+     * </p>
+     *
+     * @param data
+     * @return リクエスト順の計算結果
+     */
+    @Override
+    public List<CalculationResult> executeBatch(List<BondPricingData> data) {
+        CalculationResult[] results = new CalculationResult[data.size()];
+        int[] periods = new int[data.size()];
+        // カーブはバージョンごとに一つのインスタンスなので同一性で分類する
+        Map<DiscountCurve, List<Integer>> positionsByCurve = new IdentityHashMap<>();
+
+        for (int i = 0; i < data.size(); i++) {
+            BondPricingData bond = data.get(i);
+            if (bond.getDayCountConvention() != null || this.cashFlowTiming.isOffGrid(bond)) {
+                // 利払い日ごと・期間の途中で割引く計算は配列に詰め替えられないので基準の計算方法に任せる
+                results[i] = this.referenceStrategy.execute(bond);
+                continue;
+            }
+            Optional<DiscountCurve> curve = this.discountCurveRegistry.resolve(bond.getPaymentType(), bond.getCurveVersion());
+            if (curve.isEmpty()) {
+                results[i] = notCompleted("Discount Factor data is not found.");
+                continue;
+            }
+            periods[i] = bond.getCurrentMaturity().divide(bond.getPaymentType().getStep()).intValue();
+            if (periods[i] < 0 || periods[i] + 1 > curve.get().size()) {
+                results[i] = notCompleted("Discount Factor data is not sufficient.");
+                continue;
+            }
+            positionsByCurve.computeIfAbsent(curve.get(), k -> new ArrayList<>()).add(i);
+        }
+
+        StatusMsg ok = StatusMsg.newBuilder().setStatus(Status.OK).setDetail("Success").build();
+        for (Map.Entry<DiscountCurve, List<Integer>> entry : positionsByCurve.entrySet()) {
+            BondBook book = new BondBook(entry.getKey(), entry.getValue().size());
+            entry.getValue().forEach(i -> book.add(i, data.get(i), periods[i]));
+            double[] prices = book.price();
+            for (int i = 0; i < book.size(); i++) {
+                results[book.positionAt(i)] = CalculationResult.create(BigDecimal.valueOf(prices[i]), PricingMethod.DISCOUNT_FACTOR_DOUBLE, ok);
+            }
+        }
+
+        List<CalculationResult> resultList = Arrays.asList(results);
+        if (this.deviationCheck) {
+            this.measureMaxDeviation(data, resultList);
+        }
+        return resultList;
+    }
+
+    /**
+     * <p>
+     * 基準の計算方法で計算し直し、倍精度計算との最大誤差(絶対値)を返す。
+     * 両方の計算が正常終了した銘柄のみを比較する。
+     * </p>
+     *
+     * @param data
+     * @return 最大誤差。比較できる銘柄がない場合は0
+     */
+    public BigDecimal measureMaxDeviation(List<BondPricingData> data) {
+        return this.measureMaxDeviation(data, this.executeBatch(data));
+    }
+
+    private BigDecimal measureMaxDeviation(List<BondPricingData> data, List<CalculationResult> results) {
+        BigDecimal maxDeviation = BigDecimal.ZERO;
+        String maxDeviationBondCode = null;
+        for (int i = 0; i < data.size(); i++) {
+            if (results.get(i).getResultDetail().getStatus() != Status.OK) {
+                continue;
+            }
+            CalculationResult reference = this.referenceStrategy.execute(data.get(i));
+            if (reference.getResultDetail().getStatus() != Status.OK) {
+                continue;
+            }
+            BigDecimal deviation = results.get(i).getResult().subtract(reference.getResult()).abs();
+            if (deviation.compareTo(maxDeviation) > 0) {
+                maxDeviation = deviation;
+                maxDeviationBondCode = data.get(i).getBondCode();
+            }
+        }
+        logger.info(String.format("Max deviation from reference pricing: %s, BondCode: %s, Count: %d", maxDeviation.toPlainString(), maxDeviationBondCode, data.size()));
+        return maxDeviation;
+    }
+
+    private static CalculationResult notCompleted(String detail) {
+        logger.info(detail);
+        StatusMsg msg = StatusMsg.newBuilder().setStatus(Status.NOT_COMPLETED).setDetail(detail).build();
+        return CalculationResult.create(BigDecimal.ZERO, PricingMethod.DISCOUNT_FACTOR_DOUBLE, msg);
+    }
+}
@@ -0,0 +1,85 @@
+package project.calculator.domain.finance.bond.algo.pricing;
+
+import io.grpc.util.Status;
+import io.grpc.util.StatusMsg;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.PricingMethod;
+import project.calculator.data.response.CalculationResult;
+import project.calculator.domain.finance.bond.algo.CalculationStrategy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * <p>
+ * リクエストで指定された計算方法に応じて債券価格の計算アルゴリズムを切り替える。
+ * 指定がない場合は設定ファイルで指定した既定の計算方法を使う。
+ * </p>
+ * <p>
+ * CalculationStrategyConfigクラスで管理するのでAutoConfiguration用アノテーションは不用
+ * </p>
+ */
+public class BondPricingStrategySelector implements CalculationStrategy<BondPricingData> {
+
+    private final Map<PricingMethod, CalculationStrategy<BondPricingData>> strategies;
+    private final PricingMethod defaultMethod;
+    private static final Logger logger = LoggerFactory.getLogger(BondPricingStrategySelector.class);
+
+    public BondPricingStrategySelector(Map<PricingMethod, CalculationStrategy<BondPricingData>> strategies, PricingMethod defaultMethod) {
+        this.strategies = new EnumMap<>(strategies);
+        this.defaultMethod = defaultMethod;
+    }
+
+    @Override
+    public CalculationResult execute(BondPricingData data) {
+        PricingMethod method = this.methodOf(data);
+        CalculationStrategy<BondPricingData> strategy = this.strategies.get(method);
+        if (strategy == null) {
+            return notSupported(method);
+        }
+        return strategy.execute(data);
+    }
+
+    /**
+     * 計算方法ごとにまとめて、それぞれのアルゴリズムで一括計算する。
+     * @param data
+     * @return リクエスト順の計算結果
+     */
+    @Override
+    public List<CalculationResult> executeBatch(List<BondPricingData> data) {
+        CalculationResult[] results = new CalculationResult[data.size()];
+        Map<PricingMethod, List<Integer>> positionsByMethod = new EnumMap<>(PricingMethod.class);
+        for (int i = 0; i < data.size(); i++) {
+            positionsByMethod.computeIfAbsent(this.methodOf(data.get(i)), k -> new ArrayList<>()).add(i);
+        }
+        for (Map.Entry<PricingMethod, List<Integer>> entry : positionsByMethod.entrySet()) {
+            CalculationStrategy<BondPricingData> strategy = this.strategies.get(entry.getKey());
+            if (strategy == null) {
+                entry.getValue().forEach(i -> results[i] = notSupported(entry.getKey()));
+                continue;
+            }
+            List<CalculationResult> calculated = strategy.executeBatch(entry.getValue().stream().map(data::get).collect(Collectors.toList()));
+            for (int j = 0; j < calculated.size(); j++) {
+                results[entry.getValue().get(j)] = calculated.get(j);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private PricingMethod methodOf(BondPricingData data) {
+        return data.getPricingMethod() == null ? this.defaultMethod : data.getPricingMethod();
+    }
+
+    private static CalculationResult notSupported(PricingMethod method) {
+        logger.info(String.format("Pricing method is not supported. Method: %s", method));
+        StatusMsg msg = StatusMsg.newBuilder().setStatus(Status.NOT_COMPLETED).setDetail("Pricing method is not supported.").build();
+        return CalculationResult.create(BigDecimal.ZERO, method, msg);
+    }
+}
@@ -5,62 +5,105 @@ import io.grpc.util.StatusMsg;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.CashFlowTiming;
+import project.calculator.data.enums.CurveInterpolation;
+import project.calculator.data.enums.DayCountConvention;
 import project.calculator.data.enums.PricingMethod;
 import project.calculator.data.response.CalculationResult;
 import project.calculator.domain.finance.bond.algo.CalculationStrategy;
-import project.infra.rdb.discountfactor.DiscountFactorDataRepository;
+import project.calculator.domain.finance.bond.curve.DiscountCurve;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistry;
+import project.calculator.domain.finance.bond.schedule.CouponSchedule;
+import project.calculator.domain.finance.bond.schedule.CouponScheduleCache;
 
 import java.math.BigDecimal;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
 
 /**
  * CalculationStrategyConfigクラスで管理するのでAutoConfiguration用アノテーションは不用
  */
 public class BondTheoreticalPricingStrategy implements CalculationStrategy<BondPricingData> {
 
-    private final DiscountFactorDataRepository discountFactorDataRepository;
+    // カーブを参照する年数は実日数 / 365で数える
+    private static final double DAYS_OF_YEAR = 365;
+
+    private final DiscountCurveRegistry discountCurveRegistry;
+    private final CouponScheduleCache couponScheduleCache;
+    // 期間の途中の割引現在価値を求める補間方式
+    private final CurveInterpolation curveInterpolation;
+    // 残存期間が利払い周期の整数倍でない債券のキャッシュフローの時点
+    private final CashFlowTiming cashFlowTiming;
     private static final Logger logger = LoggerFactory.getLogger(BondTheoreticalPricingStrategy.class);
 
-    public BondTheoreticalPricingStrategy(DiscountFactorDataRepository discountFactorDataRepository) {
-        this.discountFactorDataRepository = discountFactorDataRepository;
+    /**
+     * 債券マスタを参照しない。日数計算方式を指定する場合はリクエストで償還までの日数を指定すること。
+     * 残存期間は期間数に切り捨てる。
+     * @param discountCurveRegistry
+     */
+    public BondTheoreticalPricingStrategy(DiscountCurveRegistry discountCurveRegistry) {
+        this(discountCurveRegistry, new CouponScheduleCache(bondCode -> Optional.empty()), CurveInterpolation.LOG_LINEAR, CashFlowTiming.TRUNCATED);
+    }
+
+    public BondTheoreticalPricingStrategy(DiscountCurveRegistry discountCurveRegistry, CouponScheduleCache couponScheduleCache, CurveInterpolation curveInterpolation
+            , CashFlowTiming cashFlowTiming) {
+        this.discountCurveRegistry = discountCurveRegistry;
+        this.couponScheduleCache = couponScheduleCache;
+        this.curveInterpolation = curveInterpolation;
+        this.cashFlowTiming = cashFlowTiming;
     }
 
     @Override
     public CalculationResult execute(BondPricingData data) {
-        List<BigDecimal> discountFactor = this.handleDiscountFactor(data).stream()
-                .limit(data.getCurrentMaturity().divide(data.getPaymentType().getStep()).longValue() + 1)
-                .collect(Collectors.toList());
+        Optional<DiscountCurve> curve = this.discountCurveRegistry.resolve(data.getPaymentType(), data.getCurveVersion());
+        if (curve.isEmpty()) {
+            logger.info(String.format("Discount Factor data is not found. PaymentType: %s, Version: %s", data.getPaymentType(), data.getCurveVersion()));
+            StatusMsg msg = StatusMsg.newBuilder().setStatus(Status.NOT_COMPLETED).setDetail("Discount Factor data is not found.").build();
+            return CalculationResult.create(BigDecimal.ZERO, PricingMethod.DISCOUNT_FACTOR, msg);
+        }
+
+        return this.execute(data, curve.get());
+    }
+
+    /**
+     * <p>
+     * 指定したカーブで理論価格を計算する。シナリオ評価のようにレジストリにないカーブを使う場合に呼ぶ。
+     * </p>
+     *
+     * @param data
+     * @param discountCurve
+     * @return
+     */
+    public CalculationResult execute(BondPricingData data, DiscountCurve discountCurve) {
+        if (data.getDayCountConvention() != null) {
+            return this.executeByDayCount(data, discountCurve);
+        }
+        if (this.cashFlowTiming.isOffGrid(data)) {
+            return this.executeOffGrid(data, discountCurve);
+        }
+
+        // 残存期間を利払い周期で割った期間数。割引現在価値はインデックス0..periodsを使う。
+        int periods = data.getCurrentMaturity().divide(data.getPaymentType().getStep()).intValue();
 
-        if(isDiscountFactorNotEnough(data, discountFactor)){
+        if(isDiscountFactorNotEnough(periods, discountCurve)){
             logger.info("Discount Factor data is not sufficient.");
             StatusMsg msg = StatusMsg.newBuilder().setStatus(Status.NOT_COMPLETED).setDetail("Discount Factor data is not sufficient.").build();
             CalculationResult result = CalculationResult.create(BigDecimal.ZERO, PricingMethod.DISCOUNT_FACTOR, msg);
             return result;
         }
 
-        BigDecimal NPVOfPrincipal = discountFactor.get(discountFactor.size() - 1).multiply(data.getUnit());
-
-        if (data.getIsTermEndPayment()) {
-            BigDecimal NPVOfCoupon = discountFactor.stream().skip(1)
-                    .map(d -> d.multiply(data.getCouponRate()))
-                    .map(d -> d.multiply(data.getPaymentType().getStep()))
-                    .limit(data.getCurrentMaturity().divide(data.getPaymentType().getStep()).longValue())
-                    .reduce(BigDecimal.ZERO, (p, q) -> p.add(q));
+        BigDecimal NPVOfPrincipal = discountCurve.getDiscountFactor(periods).multiply(data.getUnit());
+        // 1期間あたりのクーポン(額面1あたり)
+        BigDecimal couponPerPeriod = data.getCouponRate().multiply(data.getPaymentType().getStep());
 
-            BigDecimal theoreticalPrice = NPVOfPrincipal.add(NPVOfCoupon.multiply(data.getUnit()));
-            StatusMsg msg = StatusMsg.newBuilder().setStatus(Status.OK).setDetail("Success").build();
-            CalculationResult result = CalculationResult.create(theoreticalPrice, PricingMethod.DISCOUNT_FACTOR, msg);
-            return result;
-        }
-
-        BigDecimal NPVOfCoupon = discountFactor.stream()
-                .map(d -> d.multiply(data.getCouponRate()))
-                .map(d -> d.multiply(data.getPaymentType().getStep()))
-                .limit(data.getCurrentMaturity().longValue())
-                .reduce(BigDecimal.ZERO, (p, q) -> p.add(q));
+        // 割引現在価値の合計は累積和から定数時間で求める。
+        BigDecimal sumOfDiscountFactor = data.getIsTermEndPayment()
+                ? discountCurve.sumDiscountFactors(1, periods + 1)
+                : discountCurve.sumDiscountFactors(0, Math.min(periods + 1, data.getCurrentMaturity().intValue()));
 
+        BigDecimal NPVOfCoupon = sumOfDiscountFactor.multiply(couponPerPeriod);
         BigDecimal theoreticalPrice = NPVOfPrincipal.add(NPVOfCoupon.multiply(data.getUnit()));
         StatusMsg msg = StatusMsg.newBuilder().setStatus(Status.OK).setDetail("Success").build();
         CalculationResult result = CalculationResult.create(theoreticalPrice, PricingMethod.DISCOUNT_FACTOR, msg);
@@ -69,36 +112,96 @@ public class BondTheoreticalPricingStrategy implements CalculationStrategy<BondP
 
     /**
      * <p>
-     * 利払い周期によって使用する割引現在価値を切り替える。
+     * 利払いスケジュールに沿って、受渡日から各利払い日までの年数で割引現在価値を補間して理論価格(dirty)を計算する。
+     * クーポン額・経過利息は日数計算方式で求める。isTermEndPaymentは使わず、利払い日ごとにその期間のクーポンを受け取る。
      * </p>
      *
-     * @param bondPricingData
-     * @return 割引現在価値のMap
+     * @param data
+     * @param discountCurve
+     * @return resultは経過利息を含む価格。経過利息はaccruedInterestに設定する
      */
-    private List<BigDecimal> handleDiscountFactor(BondPricingData bondPricingData) {
-        switch (bondPricingData.getPaymentType()) {
-            case Annual:
-                return this.discountFactorDataRepository.loadAnnualDiscountFactor();
-            case SemiAnnual:
-                return this.discountFactorDataRepository.loadSemiAnnualDiscountFactor();
-            default:
-                return Collections.emptyList();
+    private CalculationResult executeByDayCount(BondPricingData data, DiscountCurve discountCurve) {
+        LocalDate settlementDate = data.getSettlementDate() != null ? data.getSettlementDate() : LocalDate.now();
+        LocalDate maturity = data.getCurrentMaturityByDay() != null ? settlementDate.plusDays(data.getCurrentMaturityByDay()) : null;
+        Optional<CouponSchedule> found = this.couponScheduleCache.get(data.getBondCode(), maturity, data.getPaymentType(), settlementDate);
+        if (found.isEmpty()) {
+            return notCompleted(String.format("Maturity is not found. BondCode: %s", data.getBondCode()));
+        }
+        CouponSchedule schedule = found.get();
+        int next = schedule.nextCouponIndex(settlementDate);
+        if (next >= schedule.size()) {
+            return notCompleted(String.format("Bond has already matured. BondCode: %s", data.getBondCode()));
         }
+
+        DayCountConvention convention = data.getDayCountConvention();
+        int frequency = schedule.frequency();
+        BigDecimal annualCoupon = data.getCouponRate().multiply(data.getUnit());
+        BigDecimal theoreticalPrice = BigDecimal.ZERO;
+        for (int i = next; i < schedule.size(); i++) {
+            LocalDate start = schedule.getCouponDate(i - 1);
+            LocalDate end = schedule.getCouponDate(i);
+            double df = discountCurve.interpolateDiscountFactor(ChronoUnit.DAYS.between(settlementDate, end) / DAYS_OF_YEAR, this.curveInterpolation);
+            if (Double.isNaN(df)) {
+                return notCompleted("Discount Factor data is not sufficient.");
+            }
+            BigDecimal cashFlow = annualCoupon.multiply(convention.yearFraction(start, end, end, frequency));
+            if (i == schedule.size() - 1) {
+                cashFlow = cashFlow.add(data.getUnit());
+            }
+            theoreticalPrice = theoreticalPrice.add(cashFlow.multiply(BigDecimal.valueOf(df), MathContext.DECIMAL64));
+        }
+
+        BigDecimal accruedInterest = annualCoupon.multiply(
+                convention.yearFraction(schedule.getCouponDate(next - 1), schedule.getCouponDate(next), settlementDate, frequency), MathContext.DECIMAL64);
+        StatusMsg msg = StatusMsg.newBuilder().setStatus(Status.OK).setDetail("Success").build();
+        return CalculationResult.create(theoreticalPrice, PricingMethod.DISCOUNT_FACTOR, msg, accruedInterest);
     }
 
     /**
      * <p>
-     * 計算に必要な割引現在価値が存在するか確認
+     * 残存期間が利払い周期の整数倍でない期末払いの債券の理論価格を計算する。
+     * 償還時点から利払い周期ずつ遡った時点ごとにクーポンを受け取るものとし、各時点の割引現在価値を補間で求める。
+     * CashFlowTiming.OFF_GRIDの場合のみ使う。
      * </p>
      *
      * @param data
+     * @param discountCurve
+     * @return
+     */
+    private CalculationResult executeOffGrid(BondPricingData data, DiscountCurve discountCurve) {
+        double maturity = data.getCurrentMaturity().doubleValue();
+        double step = data.getPaymentType().getStep().doubleValue();
+        BigDecimal coupon = data.getCouponRate().multiply(data.getPaymentType().getStep()).multiply(data.getUnit());
+        BigDecimal theoreticalPrice = BigDecimal.ZERO;
+        for (int k = 0; maturity - k * step > 0; k++) {
+            double df = discountCurve.interpolateDiscountFactor(maturity - k * step, this.curveInterpolation);
+            if (Double.isNaN(df)) {
+                return notCompleted("Discount Factor data is not sufficient.");
+            }
+            BigDecimal cashFlow = k == 0 ? coupon.add(data.getUnit()) : coupon;
+            theoreticalPrice = theoreticalPrice.add(cashFlow.multiply(BigDecimal.valueOf(df), MathContext.DECIMAL64));
+        }
+        StatusMsg msg = StatusMsg.newBuilder().setStatus(Status.OK).setDetail("Success").build();
+        return CalculationResult.create(theoreticalPrice, PricingMethod.DISCOUNT_FACTOR, msg);
+    }
+
+    private static CalculationResult notCompleted(String detail) {
+        logger.info(detail);
+        StatusMsg msg = StatusMsg.newBuilder().setStatus(Status.NOT_COMPLETED).setDetail(detail).build();
+        return CalculationResult.create(BigDecimal.ZERO, PricingMethod.DISCOUNT_FACTOR, msg);
+    }
+
+    /**
+     * <p>
+     * 計算に必要な割引現在価値が存在するか確認
+     * </p>
+     *
+     * @param periods
+     * @param discountCurve
      * @return
      */
-    private Boolean isDiscountFactorNotEnough(BondPricingData data, List<BigDecimal> discountFactors){
-        // 残存期間 * （半期 or 通期）で必要な割引現在価値の数を計算する。
-        Integer termLength = data.getCurrentMaturity().intValue() * BigDecimal.ONE.divide(data.getPaymentType().getStep()).intValue();
-        // 割引現在価値の数を求める。
-        Integer discountFactorSize = discountFactors.size();
-        return termLength > discountFactorSize;
+    private Boolean isDiscountFactorNotEnough(int periods, DiscountCurve discountCurve){
+        // 現在時点(インデックス0)から満期までの割引現在価値が必要となる。
+        return periods < 0 || periods + 1 > discountCurve.size();
     }
 }
@@ -0,0 +1,233 @@
+package project.calculator.domain.finance.bond.algo.risk;
+
+import io.grpc.util.Status;
+import io.grpc.util.StatusMsg;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.CashFlowTiming;
+import project.calculator.data.enums.CurveInterpolation;
+import project.calculator.data.response.BondRiskResult;
+import project.calculator.domain.finance.bond.algo.RiskCalculationStrategy;
+import project.calculator.domain.finance.bond.curve.DiscountCurve;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * 割引現在価値カーブから債券のリスク指標を計算する。
+ * </p>
+ * <p>
+ * 各期間の割引現在価値から年複利のゼロレートzを求め、キャッシュフローごとに
+ * 基準価格・パラレルシフト(±1bp)・キーレートごとのシフト(±1bp)を同じループ内で評価する。
+ * キーレートのシフトは隣接する年限の間で線形に按分するので、キーレートデュレーションの合計は修正デュレーションに一致する。
+ * キャッシュフローの時点はBondTheoreticalPricingStrategyと同じCashFlowTimingで決め、期間の途中の割引現在価値は補間で求める。
+ * </p>
+ * <ul>
+ *     <li>マコーレーデュレーション: Σ t・PV / P</li>
+ *     <li>修正デュレーション: (P(z-1bp) - P(z+1bp)) / (2・P・1bp)</li>
+ *     <li>コンベクシティ: (P(z+1bp) + P(z-1bp) - 2P) / (P・1bp^2)</li>
+ *     <li>DV01: (P(z-1bp) - P(z+1bp)) / 2</li>
+ * </ul>
+ * <p>
+ * CalculationStrategyConfigクラスで管理するのでAutoConfiguration用アノテーションは不用
+ * </p>
+ */
+public class BondRiskStrategy implements RiskCalculationStrategy<BondPricingData> {
+
+    private static final double BUMP = 0.0001;
+    // これ以下の銘柄数になるまでタスクを分割する
+    private static final int SPLIT_THRESHOLD = 64;
+
+    private final DiscountCurveRegistry discountCurveRegistry;
+    private final ForkJoinPool forkJoinPool;
+    // キーレートの年限(昇順)
+    private final double[] keyRateTenors;
+    // 期間の途中の割引現在価値を求める補間方式
+    private final CurveInterpolation curveInterpolation;
+    private final CashFlowTiming cashFlowTiming;
+
+    private static final Logger logger = LoggerFactory.getLogger(BondRiskStrategy.class);
+
+    /**
+     * 残存期間は期間数に切り捨てる。
+     */
+    public BondRiskStrategy(DiscountCurveRegistry discountCurveRegistry, ForkJoinPool forkJoinPool, double[] keyRateTenors) {
+        this(discountCurveRegistry, forkJoinPool, keyRateTenors, CurveInterpolation.LOG_LINEAR, CashFlowTiming.TRUNCATED);
+    }
+
+    public BondRiskStrategy(DiscountCurveRegistry discountCurveRegistry, ForkJoinPool forkJoinPool, double[] keyRateTenors
+            , CurveInterpolation curveInterpolation, CashFlowTiming cashFlowTiming) {
+        if (keyRateTenors.length == 0) {
+            throw new IllegalArgumentException("Key rate tenors must not be empty.");
+        }
+        this.discountCurveRegistry = discountCurveRegistry;
+        this.forkJoinPool = forkJoinPool;
+        this.keyRateTenors = keyRateTenors.clone();
+        Arrays.sort(this.keyRateTenors);
+        this.curveInterpolation = curveInterpolation;
+        this.cashFlowTiming = cashFlowTiming;
+    }
+
+    @Override
+    public BondRiskResult execute(BondPricingData data) {
+        Optional<DiscountCurve> curve = this.discountCurveRegistry.resolve(data.getPaymentType(), data.getCurveVersion());
+        if (curve.isEmpty()) {
+            return notCompleted("Discount Factor data is not found.");
+        }
+        int periods = data.getCurrentMaturity().divide(data.getPaymentType().getStep()).intValue();
+        if (periods < 0 || periods + 1 > curve.get().size()) {
+            return notCompleted("Discount Factor data is not sufficient.");
+        }
+        return this.analyze(data, curve.get(), periods);
+    }
+
+    /**
+     * 複数銘柄のリスク指標をfork-joinで並列に計算する。
+     * @param data
+     * @return リクエスト順の計算結果
+     */
+    public List<BondRiskResult> executeBatch(List<BondPricingData> data) {
+        BondRiskResult[] results = new BondRiskResult[data.size()];
+        this.forkJoinPool.invoke(new RiskTask(data, results, 0, data.size()));
+        return Arrays.asList(results);
+    }
+
+    private BondRiskResult analyze(BondPricingData data, DiscountCurve curve, int periods) {
+        double step = data.getPaymentType().getStep().doubleValue();
+        double unit = data.getUnit().doubleValue();
+        double coupon = data.getCouponRate().multiply(data.getPaymentType().getStep()).doubleValue() * unit;
+        // キャッシュフローは期間数 i + offset の時点にある。期間の途中で割り引く場合はi = 0..periodsの全てでクーポンを受け取る
+        double offset = this.cashFlowTiming.offsetOf(data);
+        boolean offGrid = offset > 0;
+        // クーポンを受け取る期間インデックスの範囲[couponFrom, couponTo)はBondTheoreticalPricingStrategyと同じ
+        int couponFrom = data.getIsTermEndPayment() && !offGrid ? 1 : 0;
+        int couponTo = data.getIsTermEndPayment() ? periods + 1 : Math.min(periods + 1, data.getCurrentMaturity().intValue());
+
+        int k = this.keyRateTenors.length;
+        double price = 0;
+        double timeWeightedPrice = 0;
+        double priceUp = 0;
+        double priceDown = 0;
+        // キーレートごとのシフトによる価格変化
+        double[] keyRateUp = new double[k];
+        double[] keyRateDown = new double[k];
+
+        int last = Math.max(couponTo - 1, periods);
+        for (int i = Math.min(couponFrom, periods); i <= last; i++) {
+            double cashFlow = (i >= couponFrom && i < couponTo ? coupon : 0) + (i == periods ? unit : 0);
+            if (cashFlow == 0) {
+                continue;
+            }
+            double t = (i + offset) * step;
+            double df = offGrid ? curve.interpolateDiscountFactor(t, this.curveInterpolation) : curve.getDiscountFactorAsDouble(i);
+            if (Double.isNaN(df)) {
+                return notCompleted("Discount Factor data is not sufficient.");
+            }
+            double pv = cashFlow * df;
+            price += pv;
+            if (t <= 0) {
+                // 現在時点のキャッシュフローは金利に感応しない
+                priceUp += pv;
+                priceDown += pv;
+                continue;
+            }
+            timeWeightedPrice += t * pv;
+            // df = (1 + z)^(-t) から 1 + z を求める
+            double base = Math.pow(df, -1 / t);
+            priceUp += cashFlow * Math.pow(base + BUMP, -t);
+            priceDown += cashFlow * Math.pow(base - BUMP, -t);
+
+            int bucket = this.lowerBucket(t);
+            double weight = this.weightOfLowerBucket(bucket, t);
+            keyRateUp[bucket] += cashFlow * Math.pow(base + BUMP * weight, -t) - pv;
+            keyRateDown[bucket] += cashFlow * Math.pow(base - BUMP * weight, -t) - pv;
+            if (weight < 1) {
+                keyRateUp[bucket + 1] += cashFlow * Math.pow(base + BUMP * (1 - weight), -t) - pv;
+                keyRateDown[bucket + 1] += cashFlow * Math.pow(base - BUMP * (1 - weight), -t) - pv;
+            }
+        }
+
+        if (price <= 0) {
+            return notCompleted("Theoretical price is not positive.");
+        }
+        double[] keyRateDurations = new double[k];
+        for (int j = 0; j < k; j++) {
+            keyRateDurations[j] = (keyRateDown[j] - keyRateUp[j]) / (2 * price * BUMP);
+        }
+        return BondRiskResult.create(price
+                , timeWeightedPrice / price
+                , (priceDown - priceUp) / (2 * price * BUMP)
+                , (priceUp + priceDown - 2 * price) / (price * BUMP * BUMP)
+                , (priceDown - priceUp) / 2
+                , this.keyRateTenors
+                , keyRateDurations);
+    }
+
+    /**
+     * 年限tを按分する2つのキーレートのうち、短い方のインデックスを返す。
+     * 最短の年限以下なら0、最長の年限以上なら最後のインデックス。
+     */
+    private int lowerBucket(double t) {
+        int index = Arrays.binarySearch(this.keyRateTenors, t);
+        if (index >= 0) {
+            return index;
+        }
+        int insertion = -index - 1;
+        if (insertion == 0) {
+            return 0;
+        }
+        return Math.min(insertion - 1, this.keyRateTenors.length - 1);
+    }
+
+    /**
+     * 短い方のキーレートに按分する割合を返す。
+     */
+    private double weightOfLowerBucket(int bucket, double t) {
+        if (bucket == this.keyRateTenors.length - 1 || t <= this.keyRateTenors[bucket]) {
+            return 1;
+        }
+        double lower = this.keyRateTenors[bucket];
+        double upper = this.keyRateTenors[bucket + 1];
+        return (upper - t) / (upper - lower);
+    }
+
+    private static BondRiskResult notCompleted(String detail) {
+        logger.info(detail);
+        return BondRiskResult.notCompleted(StatusMsg.newBuilder().setStatus(Status.NOT_COMPLETED).setDetail(detail).build());
+    }
+
+    /**
+     * 銘柄の範囲を分割しながら並列に計算するタスク
+     */
+    private class RiskTask extends RecursiveAction {
+        private final List<BondPricingData> data;
+        private final BondRiskResult[] results;
+        private final int from;
+        private final int to;
+
+        RiskTask(List<BondPricingData> data, BondRiskResult[] results, int from, int to) {
+            this.data = data;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    results[i] = BondRiskStrategy.this.execute(data.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RiskTask(data, results, from, middle), new RiskTask(data, results, middle, to));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package project.calculator.domain.finance.bond.algo.ytm;
+
+import io.grpc.util.Status;
+import io.grpc.util.StatusMsg;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.CashFlowTiming;
+import project.calculator.data.response.BondYieldResult;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * 市場価格(currentPrice)から債券の最終利回りを求める。
+ * </p>
+ * <p>
+ * 銘柄群をまとめてYieldBookに詰め、ニュートン法(区間外に出た場合は二分法)で一括して解く。
+ * 初期値は同じ銘柄の前回の解とし、初回は近似利回り(クーポン + 償還差益の年換算) / 平均価格を使う。
+ * 前回の解は直近に参照したpreviousYieldSize銘柄分だけ保持する。
+ * 反復回数がmaxIterationsに達しても収束しない銘柄は計算未完了とする。
+ * キャッシュフローの時点は理論価格の計算と同じCashFlowTimingで決める。
+ * </p>
+ * <p>
+ * CalculationStrategyConfigクラスで管理するのでAutoConfiguration用アノテーションは不用
+ * </p>
+ */
+public class BondYieldStrategy {
+
+    // 解を探す利回りの範囲
+    private static final double MIN_YIELD = -0.5;
+    private static final double MAX_YIELD = 1.0;
+    // 額面1あたりの価格の許容誤差
+    private static final double PRICE_TOLERANCE = 1e-10;
+    // これ以下の銘柄数になるまでタスクを分割する
+    private static final int SPLIT_THRESHOLD = 256;
+    // 前回の解を保持する銘柄数の既定値
+    private static final int DEFAULT_PREVIOUS_YIELD_SIZE = 10000;
+
+    private final ForkJoinPool forkJoinPool;
+    private final int maxIterations;
+    private final CashFlowTiming cashFlowTiming;
+    // 銘柄コードごとの前回の解のLRU。アクセス順のLinkedHashMapで古いものから破棄する。
+    private final Map<String, Double> previousYields;
+
+    private static final Logger logger = LoggerFactory.getLogger(BondYieldStrategy.class);
+
+    /**
+     * 残存期間は期間数に切り捨てる。
+     */
+    public BondYieldStrategy(ForkJoinPool forkJoinPool, int maxIterations) {
+        this(forkJoinPool, maxIterations, CashFlowTiming.TRUNCATED);
+    }
+
+    public BondYieldStrategy(ForkJoinPool forkJoinPool, int maxIterations, CashFlowTiming cashFlowTiming) {
+        this(forkJoinPool, maxIterations, cashFlowTiming, DEFAULT_PREVIOUS_YIELD_SIZE);
+    }
+
+    public BondYieldStrategy(ForkJoinPool forkJoinPool, int maxIterations, CashFlowTiming cashFlowTiming, int previousYieldSize) {
+        if (previousYieldSize < 0) {
+            throw new IllegalArgumentException(String.format("Previous yield size must not be negative. Actual -> %d", previousYieldSize));
+        }
+        this.forkJoinPool = forkJoinPool;
+        this.maxIterations = maxIterations;
+        this.cashFlowTiming = cashFlowTiming;
+        this.previousYields = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Double> eldest) {
+                return size() > previousYieldSize;
+            }
+        });
+    }
+
+    public BondYieldResult execute(BondPricingData data) {
+        BondYieldResult[] results = new BondYieldResult[1];
+        this.solve(Collections.singletonList(data), results, 0, 1);
+        return results[0];
+    }
+
+    /**
+     * 複数銘柄の最終利回りをfork-joinで並列に計算する。
+     * @param data
+     * @return リクエスト順の計算結果
+     */
+    public List<BondYieldResult> executeBatch(List<BondPricingData> data) {
+        BondYieldResult[] results = new BondYieldResult[data.size()];
+        this.forkJoinPool.invoke(new YieldTask(data, results, 0, data.size()));
+        return Arrays.asList(results);
+    }
+
+    public int getParallelism() {
+        return this.forkJoinPool.getParallelism();
+    }
+
+    /**
+     * 範囲[from, to)の銘柄をまとめて解く。
+     */
+    private void solve(List<BondPricingData> data, BondYieldResult[] results, int from, int to) {
+        YieldBook book = new YieldBook(to - from);
+        for (int i = from; i < to; i++) {
+            BondPricingData bond = data.get(i);
+            if (bond.getCurrentPrice() == null || bond.getCurrentPrice().signum() <= 0) {
+                results[i] = notCompleted("Current price is not positive.");
+                continue;
+            }
+            int periods = bond.getCurrentMaturity().divide(bond.getPaymentType().getStep()).intValue();
+            if (periods < 0) {
+                results[i] = notCompleted("Current maturity is negative.");
+                continue;
+            }
+            double price = bond.getCurrentPrice().doubleValue();
+            double unit = bond.getUnit().doubleValue();
+            double couponRate = bond.getCouponRate().doubleValue();
+            Double previous = bond.getBondCode() != null ? this.previousYields.get(bond.getBondCode()) : null;
+            double initialYield = previous != null ? previous : approximateYield(price / unit, couponRate, bond.getCurrentMaturity().doubleValue());
+            boolean added = book.add(i, price, unit
+                    , bond.getPaymentType().getStep().doubleValue()
+                    , bond.getCouponRate().multiply(bond.getPaymentType().getStep()).doubleValue()
+                    , periods
+                    , bond.getIsTermEndPayment()
+                    , bond.getCurrentMaturity().intValue()
+                    , this.cashFlowTiming.offsetOf(bond)
+                    , initialYield, MIN_YIELD, MAX_YIELD);
+            if (!added) {
+                results[i] = notCompleted(String.format("Yield is out of range [%s, %s]. BondCode: %s", MIN_YIELD, MAX_YIELD, bond.getBondCode()));
+            }
+        }
+
+        book.solve(this.maxIterations, PRICE_TOLERANCE);
+
+        for (int j = 0; j < book.size(); j++) {
+            int i = book.positionAt(j);
+            if (!book.isConverged(j)) {
+                StatusMsg msg = StatusMsg.newBuilder().setStatus(Status.NOT_COMPLETED)
+                        .setDetail(String.format("Yield did not converge in %d iterations.", this.maxIterations)).build();
+                results[i] = BondYieldResult.notCompleted(book.yieldAt(j), book.iterationsAt(j), msg);
+                continue;
+            }
+            if (data.get(i).getBondCode() != null) {
+                this.previousYields.put(data.get(i).getBondCode(), book.yieldAt(j));
+            }
+            results[i] = BondYieldResult.create(book.yieldAt(j), book.iterationsAt(j));
+        }
+    }
+
+    /**
+     * 近似利回り。価格は額面1あたり。
+     */
+    private static double approximateYield(double price, double couponRate, double maturity) {
+        if (maturity <= 0) {
+            return couponRate;
+        }
+        return (couponRate + (1 - price) / maturity) / ((1 + price) / 2);
+    }
+
+    private static BondYieldResult notCompleted(String detail) {
+        logger.info(detail);
+        return BondYieldResult.notCompleted(0, 0, StatusMsg.newBuilder().setStatus(Status.NOT_COMPLETED).setDetail(detail).build());
+    }
+
+    /**
+     * 銘柄の範囲を分割しながら並列に計算するタスク
+     */
+    private class YieldTask extends RecursiveAction {
+        private final List<BondPricingData> data;
+        private final BondYieldResult[] results;
+        private final int from;
+        private final int to;
+
+        YieldTask(List<BondPricingData> data, BondYieldResult[] results, int from, int to) {
+            this.data = data;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                BondYieldStrategy.this.solve(data, results, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new YieldTask(data, results, from, middle), new YieldTask(data, results, middle, to));
+        }
+    }
+}
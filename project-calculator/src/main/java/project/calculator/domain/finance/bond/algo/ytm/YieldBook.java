@@ -0,0 +1,181 @@
+package project.calculator.domain.finance.bond.algo.ytm;
+
+/**
+ * <p>
+ * 最終利回りを求める債券群を、項目ごとのプリミティブ配列(struct of arrays)で保持し、まとめて解く。
+ * </p>
+ * <p>
+ * キャッシュフローはBondTheoreticalPricingStrategyと同じで、割引現在価値DF(k)を v^k (v = 1 / (1 + y・利払い周期))に置き換えた
+ * P(y) = 額面・(v^n + クーポン・Σv^k) が市場価格に一致する y を求める。
+ * 期間の途中で割り引く債券(CashFlowTiming.OFF_GRID)は、キャッシュフローの時点を端数offsetだけずらした v^(k+offset) で割り引く。
+ * 反復ごとに未収束の銘柄だけを走査してニュートン法で更新する。P(y)は単調減少なので、評価のたびに解を挟む区間を狭め、
+ * ニュートン法の更新が区間の外に出た場合は二分法に切り替える。
+ * </p>
+ */
+final class YieldBook {
+
+    private final int[] positions;
+    private final double[] targetPrice;
+    private final double[] unit;
+    private final double[] step;
+    // 1期間あたりのクーポン(額面1あたり)
+    private final double[] couponPerPeriod;
+    // 元本を割り引く期間インデックス
+    private final int[] maturityIndex;
+    // クーポンを割り引く期間インデックスの範囲[couponFrom, couponTo)
+    private final int[] couponFrom;
+    private final int[] couponTo;
+    // 最初のキャッシュフローまでの期間数の端数
+    private final double[] offset;
+    // 解を挟む区間[lower, upper]と現在の推定値
+    private final double[] lower;
+    private final double[] upper;
+    private final double[] yield;
+    private final int[] iterations;
+    private final boolean[] converged;
+    private int size = 0;
+
+    YieldBook(int capacity) {
+        this.positions = new int[capacity];
+        this.targetPrice = new double[capacity];
+        this.unit = new double[capacity];
+        this.step = new double[capacity];
+        this.couponPerPeriod = new double[capacity];
+        this.maturityIndex = new int[capacity];
+        this.couponFrom = new int[capacity];
+        this.couponTo = new int[capacity];
+        this.offset = new double[capacity];
+        this.lower = new double[capacity];
+        this.upper = new double[capacity];
+        this.yield = new double[capacity];
+        this.iterations = new int[capacity];
+        this.converged = new boolean[capacity];
+    }
+
+    /**
+     * 債券を追加する。
+     * @param position 元のリクエスト内での位置
+     * @param periods 残存期間を利払い周期で割った期間数
+     * @param offset 最初のキャッシュフローまでの期間数の端数。0より大きい場合は期間インデックス0..periodsの全てでクーポンを受け取る
+     * @param initialYield 初期値
+     * @param lowerYield 区間の下限
+     * @param upperYield 区間の上限
+     * @return 区間内に解がない場合はfalseを返し、追加しない
+     */
+    boolean add(int position, double targetPrice, double unit, double step, double couponPerPeriod, int periods, boolean isTermEndPayment,
+             int maturityInYears, double offset, double initialYield, double lowerYield, double upperYield) {
+        this.positions[size] = position;
+        this.targetPrice[size] = targetPrice;
+        this.unit[size] = unit;
+        this.step[size] = step;
+        this.couponPerPeriod[size] = couponPerPeriod;
+        this.maturityIndex[size] = periods;
+        this.couponFrom[size] = isTermEndPayment && offset <= 0 ? 1 : 0;
+        this.couponTo[size] = isTermEndPayment ? periods + 1 : Math.min(periods + 1, maturityInYears);
+        this.offset[size] = Math.max(offset, 0);
+        this.lower[size] = lowerYield;
+        this.upper[size] = upperYield;
+        this.yield[size] = initialYield > lowerYield && initialYield < upperYield ? initialYield : (lowerYield + upperYield) / 2;
+
+        double[] valueAndSlope = new double[2];
+        this.evaluate(size, lowerYield, valueAndSlope);
+        boolean isAboveAtLower = valueAndSlope[0] >= targetPrice;
+        this.evaluate(size, upperYield, valueAndSlope);
+        boolean isBelowAtUpper = valueAndSlope[0] <= targetPrice;
+        if (!isAboveAtLower || !isBelowAtUpper) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    int positionAt(int i) {
+        return this.positions[i];
+    }
+
+    double yieldAt(int i) {
+        return this.yield[i];
+    }
+
+    int iterationsAt(int i) {
+        return this.iterations[i];
+    }
+
+    boolean isConverged(int i) {
+        return this.converged[i];
+    }
+
+    /**
+     * 未収束の銘柄がなくなるか、反復回数の上限に達するまで解く。
+     * @param maxIterations 反復回数の上限
+     * @param tolerance 額面1あたりの価格の許容誤差
+     */
+    void solve(int maxIterations, double tolerance) {
+        int[] active = new int[size];
+        int activeCount = size;
+        for (int i = 0; i < size; i++) {
+            active[i] = i;
+        }
+        double[] valueAndSlope = new double[2];
+        for (int iteration = 1; iteration <= maxIterations && activeCount > 0; iteration++) {
+            int next = 0;
+            for (int a = 0; a < activeCount; a++) {
+                int i = active[a];
+                iterations[i] = iteration;
+                this.evaluate(i, yield[i], valueAndSlope);
+                double error = valueAndSlope[0] - targetPrice[i];
+                if (Math.abs(error) <= tolerance * unit[i]) {
+                    converged[i] = true;
+                    continue;
+                }
+                // 価格が高すぎる場合は利回りを上げる
+                if (error > 0) {
+                    lower[i] = yield[i];
+                } else {
+                    upper[i] = yield[i];
+                }
+                double candidate = yield[i] - error / valueAndSlope[1];
+                if (!(candidate > lower[i] && candidate < upper[i])) {
+                    candidate = (lower[i] + upper[i]) / 2;
+                }
+                if (Math.abs(candidate - yield[i]) <= Math.ulp(yield[i])) {
+                    converged[i] = true;
+                    continue;
+                }
+                yield[i] = candidate;
+                active[next++] = i;
+            }
+            activeCount = next;
+        }
+    }
+
+    /**
+     * 利回りyでの価格とその利回りに対する微分を求める。
+     * @param i
+     * @param y
+     * @param valueAndSlope 結果の格納先 [価格, dP/dy]
+     */
+    private void evaluate(int i, double y, double[] valueAndSlope) {
+        double v = 1 / (1 + y * step[i]);
+        int n = maturityIndex[i];
+        int from = Math.min(couponFrom[i], n);
+        int last = Math.max(couponTo[i] - 1, n);
+        double price = 0;
+        // Σ (k+offset)・CF・v^(k+offset)
+        double weighted = 0;
+        double vk = Math.pow(v, from + offset[i]);
+        for (int k = from; k <= last; k++) {
+            double cashFlow = (k >= couponFrom[i] && k < couponTo[i] ? couponPerPeriod[i] : 0) + (k == n ? 1 : 0);
+            price += cashFlow * vk;
+            weighted += (k + offset[i]) * cashFlow * vk;
+            vk *= v;
+        }
+        valueAndSlope[0] = price * unit[i];
+        // d(v^t)/dy = -t・step・v^(t+1)
+        valueAndSlope[1] = -step[i] * v * weighted * unit[i];
+    }
+}
@@ -0,0 +1,175 @@
+package project.calculator.domain.finance.bond.curve;
+
+import project.calculator.data.enums.CurveInterpolation;
+import project.calculator.domain.finance.bond.curve.interpolation.CurveInterpolator;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 利払い周期とバージョンで一意に決まる割引現在価値カーブのスナップショット。
+ * 生成後は変更されないため、ロックなしで複数スレッドから参照できる。
+ */
+public final class DiscountCurve {
+
+    private final PaymentType paymentType;
+    private final long version;
+    // 添字は期間のインデックス(0が現在時点)
+    private final BigDecimal[] discountFactors;
+    // cumulativeDiscountFactors[k] = discountFactors[0] + ... + discountFactors[k-1]
+    private final BigDecimal[] cumulativeDiscountFactors;
+    // 倍精度計算用。累積和は丸め誤差をためないようにBigDecimalの累積和から変換する。
+    private final double[] discountFactorsAsDouble;
+    private final double[] cumulativeDiscountFactorsAsDouble;
+    // 補間方式ごとの補間器。添字はCurveInterpolationのordinal
+    private final AtomicReferenceArray<CurveInterpolator> interpolators = new AtomicReferenceArray<>(CurveInterpolation.values().length);
+
+    private DiscountCurve(PaymentType paymentType, long version, BigDecimal[] discountFactors) {
+        this.paymentType = paymentType;
+        this.version = version;
+        this.discountFactors = discountFactors;
+        this.cumulativeDiscountFactors = new BigDecimal[discountFactors.length + 1];
+        this.cumulativeDiscountFactors[0] = BigDecimal.ZERO;
+        for (int i = 0; i < discountFactors.length; i++) {
+            this.cumulativeDiscountFactors[i + 1] = this.cumulativeDiscountFactors[i].add(discountFactors[i]);
+        }
+        this.discountFactorsAsDouble = new double[discountFactors.length];
+        this.cumulativeDiscountFactorsAsDouble = new double[discountFactors.length + 1];
+        for (int i = 0; i < discountFactors.length; i++) {
+            this.discountFactorsAsDouble[i] = discountFactors[i].doubleValue();
+            this.cumulativeDiscountFactorsAsDouble[i + 1] = this.cumulativeDiscountFactors[i + 1].doubleValue();
+        }
+    }
+
+    /**
+     * 期間の昇順に並んだ割引現在価値からカーブを生成する。
+     * @param paymentType
+     * @param version
+     * @param discountFactors
+     * @return
+     */
+    public static DiscountCurve of(PaymentType paymentType, long version, List<BigDecimal> discountFactors) {
+        if (paymentType == null || discountFactors == null) {
+            throw new IllegalArgumentException("PaymentType and DiscountFactors must not be null.");
+        }
+        return new DiscountCurve(paymentType, version, discountFactors.toArray(new BigDecimal[0]));
+    }
+
+    public PaymentType getPaymentType() {
+        return this.paymentType;
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public int size() {
+        return this.discountFactors.length;
+    }
+
+    public boolean isEmpty() {
+        return this.discountFactors.length == 0;
+    }
+
+    /**
+     * 指定した期間インデックスの割引現在価値を返す。
+     * @param index
+     * @return
+     */
+    public BigDecimal getDiscountFactor(int index) {
+        return this.discountFactors[index];
+    }
+
+    /**
+     * 期間インデックスが[fromIndex, toIndex)の割引現在価値の合計を返す。
+     * 事前計算した累積和の差分を取るだけなので、期間の長さによらず定数時間で計算できる。
+     * @param fromIndex 開始インデックス(含む)
+     * @param toIndex 終了インデックス(含まない)
+     * @return
+     */
+    public BigDecimal sumDiscountFactors(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > this.discountFactors.length || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException(String.format("Invalid range. from: %d, to: %d, size: %d", fromIndex, toIndex, this.discountFactors.length));
+        }
+        return this.cumulativeDiscountFactors[toIndex].subtract(this.cumulativeDiscountFactors[fromIndex]);
+    }
+
+    /**
+     * 指定した期間インデックスの割引現在価値を倍精度で返す。
+     * @param index
+     * @return
+     */
+    public double getDiscountFactorAsDouble(int index) {
+        return this.discountFactorsAsDouble[index];
+    }
+
+    /**
+     * 期間インデックスが[fromIndex, toIndex)の割引現在価値の合計を倍精度で返す。
+     * 一括計算のループ内で呼ぶため範囲の検査は行わない。
+     * @param fromIndex 開始インデックス(含む)
+     * @param toIndex 終了インデックス(含まない)
+     * @return
+     */
+    public double sumDiscountFactorsAsDouble(int fromIndex, int toIndex) {
+        return this.cumulativeDiscountFactorsAsDouble[toIndex] - this.cumulativeDiscountFactorsAsDouble[fromIndex];
+    }
+
+    /**
+     * <p>
+     * 年数tの割引現在価値を、前後の期間の割引現在価値から対数線形補間で求める。
+     * 期間の途中に支払われるキャッシュフローを、期間数に丸めずに割り引くために使う。
+     * </p>
+     * @param t 現在時点からの年数
+     * @return tがカーブの範囲外の場合はNaN
+     */
+    public double interpolateDiscountFactor(double t) {
+        return this.interpolateDiscountFactor(t, CurveInterpolation.LOG_LINEAR);
+    }
+
+    /**
+     * 年数tの割引現在価値を、指定した補間方式で求める。
+     * @param t 現在時点からの年数
+     * @param interpolation
+     * @return tがカーブの範囲外の場合はNaN
+     */
+    public double interpolateDiscountFactor(double t, CurveInterpolation interpolation) {
+        return this.getInterpolator(interpolation).discountFactor(t);
+    }
+
+    /**
+     * 補間方式ごとの補間器を返す。係数はカーブ(バージョン)ごとに初回参照時に一度だけ計算する。
+     * @param interpolation
+     * @return
+     */
+    public CurveInterpolator getInterpolator(CurveInterpolation interpolation) {
+        CurveInterpolator interpolator = this.interpolators.get(interpolation.ordinal());
+        if (interpolator != null) {
+            return interpolator;
+        }
+        double step = this.paymentType.getStep().doubleValue();
+        double[] times = new double[this.discountFactorsAsDouble.length];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = i * step;
+        }
+        // 同時に生成された場合は先に登録されたものを使う
+        this.interpolators.compareAndSet(interpolation.ordinal(), null, CurveInterpolator.of(interpolation, times, this.discountFactorsAsDouble));
+        return this.interpolators.get(interpolation.ordinal());
+    }
+
+    /**
+     * 割引現在価値を不変リストとして返す。
+     * @return
+     */
+    public List<BigDecimal> getDiscountFactors() {
+        return Collections.unmodifiableList(Arrays.asList(this.discountFactors));
+    }
+
+    @Override
+    public String toString() {
+        return "DiscountCurve(paymentType=" + this.paymentType + ", version=" + this.version + ", size=" + this.discountFactors.length + ")";
+    }
+}
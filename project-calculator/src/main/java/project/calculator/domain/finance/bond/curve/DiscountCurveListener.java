@@ -0,0 +1,16 @@
+package project.calculator.domain.finance.bond.curve;
+
+/**
+ * 最新の割引現在価値カーブが切り替わったことを受け取るリスナ。
+ * DiscountCurveRegistry#addListenerで登録する。
+ */
+@FunctionalInterface
+public interface DiscountCurveListener {
+
+    /**
+     * 最新カーブの切替後に呼ばれる。
+     * @param previous 切替前の最新カーブ。初回読込時はnull
+     * @param latest 切替後の最新カーブ
+     */
+    public abstract void onLatestChanged(DiscountCurve previous, DiscountCurve latest);
+}
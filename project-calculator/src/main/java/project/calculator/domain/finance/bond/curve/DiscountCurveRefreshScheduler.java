@@ -0,0 +1,26 @@
+package project.calculator.domain.finance.bond.curve;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import project.infra.rdb.discountfactor.PaymentType;
+
+/**
+ * discount_factor_masterに新しいバージョンが公開されていないか定期的に確認し、
+ * 公開されていればレジストリのカーブを切り替える。
+ */
+@Component
+public class DiscountCurveRefreshScheduler {
+
+    private final DiscountCurveRegistry discountCurveRegistry;
+
+    public DiscountCurveRefreshScheduler(DiscountCurveRegistry discountCurveRegistry) {
+        this.discountCurveRegistry = discountCurveRegistry;
+    }
+
+    @Scheduled(fixedDelayString = "${calculator.discount-curve.refresh-interval-ms}")
+    public void refresh() {
+        for (PaymentType paymentType : PaymentType.values()) {
+            this.discountCurveRegistry.refresh(paymentType);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package project.calculator.domain.finance.bond.curve;
+
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.util.Optional;
+
+/**
+ * 割引現在価値カーブをメモリ上で管理するレジストリ。
+ * 最新版は新しいバージョンが公開された時点でアトミックに切り替わり、
+ * 過去のバージョンは一定数まで保持される。
+ */
+public interface DiscountCurveRegistry {
+
+    /**
+     * 指定した利払い周期の最新カーブを返す。
+     * @param paymentType
+     * @return カーブが登録されていない場合はempty
+     */
+    public abstract Optional<DiscountCurve> getLatest(PaymentType paymentType);
+
+    /**
+     * 指定した利払い周期・バージョンのカーブを返す。
+     * @param paymentType
+     * @param version
+     * @return 該当するカーブが存在しない場合はempty
+     */
+    public abstract Optional<DiscountCurve> get(PaymentType paymentType, long version);
+
+    /**
+     * マスターデータの最新バージョンを確認し、現在のカーブと異なれば切り替える。
+     * @param paymentType
+     * @return カーブを切り替えた場合はtrue
+     */
+    public abstract boolean refresh(PaymentType paymentType);
+
+    /**
+     * 計算済みのカーブを登録する。現在の最新版より新しい場合は最新版として切り替える。
+     * @param curve
+     */
+    public abstract void publish(DiscountCurve curve);
+
+    /**
+     * 最新カーブの切替を通知するリスナを登録する。
+     * @param listener
+     */
+    public abstract void addListener(DiscountCurveListener listener);
+
+    /**
+     * バージョンの指定がなければ最新版、あれば指定したバージョンのカーブを返す。
+     * @param paymentType
+     * @param version nullの場合は最新版
+     * @return 該当するカーブが存在しない場合はempty
+     */
+    public default Optional<DiscountCurve> resolve(PaymentType paymentType, Long version) {
+        if (paymentType == null) {
+            return Optional.empty();
+        }
+        return version == null ? this.getLatest(paymentType) : this.get(paymentType, version);
+    }
+}
@@ -0,0 +1,163 @@
+package project.calculator.domain.finance.bond.curve;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.util.Pair;
+import project.infra.rdb.discountfactor.DiscountFactorDataRepository;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * DiscountCurveRegistryの実装。
+ * 参照はAtomicReferenceから読むだけなのでロックを取らない。
+ * カーブの読込と切替のみsynchronizedで直列化する。
+ * カーブが登録されていない利払い周期は、次にrefreshするか、カーブがpublishされるまでマスターデータを確認しない。
+ * CalculationStrategyConfigクラスで管理するのでAutoConfiguration用アノテーションは不用
+ */
+public class DiscountCurveRegistryImpl implements DiscountCurveRegistry {
+
+    private final DiscountFactorDataRepository discountFactorDataRepository;
+    private final Map<PaymentType, AtomicReference<DiscountCurve>> latestCurves;
+    // 過去バージョンのLRU。アクセス順のLinkedHashMapで古いものから破棄する。
+    private final Map<Pair<PaymentType, Long>, DiscountCurve> history;
+    private final List<DiscountCurveListener> listeners = new CopyOnWriteArrayList<>();
+    // マスターデータにカーブがなかった利払い周期
+    private final Set<PaymentType> missingCurves = ConcurrentHashMap.newKeySet();
+
+    private static final Logger logger = LoggerFactory.getLogger(DiscountCurveRegistryImpl.class);
+
+    public DiscountCurveRegistryImpl(DiscountFactorDataRepository discountFactorDataRepository, int historySize) {
+        if (historySize < 0) {
+            throw new IllegalArgumentException(String.format("History size must not be negative. Actual -> %d", historySize));
+        }
+        this.discountFactorDataRepository = discountFactorDataRepository;
+        Map<PaymentType, AtomicReference<DiscountCurve>> latest = new EnumMap<>(PaymentType.class);
+        for (PaymentType paymentType : PaymentType.values()) {
+            latest.put(paymentType, new AtomicReference<>());
+        }
+        this.latestCurves = Collections.unmodifiableMap(latest);
+        this.history = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Pair<PaymentType, Long>, DiscountCurve> eldest) {
+                return size() > historySize;
+            }
+        });
+    }
+
+    @Override
+    public Optional<DiscountCurve> getLatest(PaymentType paymentType) {
+        DiscountCurve curve = this.latestCurves.get(paymentType).get();
+        if (curve == null && !this.missingCurves.contains(paymentType)) {
+            // 初回参照時のみマスターデータから読み込む。
+            this.loadLatest(paymentType);
+            curve = this.latestCurves.get(paymentType).get();
+        }
+        return Optional.ofNullable(curve);
+    }
+
+    /**
+     * 待っている間に他のスレッドが読み込んだ場合や、カーブがないとわかった場合は読み込まない。
+     * @param paymentType
+     */
+    private synchronized void loadLatest(PaymentType paymentType) {
+        if (this.latestCurves.get(paymentType).get() == null && !this.missingCurves.contains(paymentType)) {
+            this.refresh(paymentType);
+        }
+    }
+
+    @Override
+    public Optional<DiscountCurve> get(PaymentType paymentType, long version) {
+        DiscountCurve latest = this.latestCurves.get(paymentType).get();
+        if (latest != null && latest.getVersion() == version) {
+            return Optional.of(latest);
+        }
+        Pair<PaymentType, Long> key = Pair.of(paymentType, version);
+        DiscountCurve cached = this.history.get(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<DiscountCurve> loaded = this.load(paymentType, version);
+        loaded.ifPresent(c -> this.history.put(key, c));
+        return loaded;
+    }
+
+    @Override
+    public synchronized boolean refresh(PaymentType paymentType) {
+        long latestVersion = this.discountFactorDataRepository.findLatestVersion(paymentType);
+        if (latestVersion < 0) {
+            logger.warn(String.format("Discount Factor data is not registered. PaymentType: %s", paymentType));
+            this.markMissing(paymentType);
+            return false;
+        }
+        DiscountCurve current = this.latestCurves.get(paymentType).get();
+        if (current != null && current.getVersion() == latestVersion) {
+            return false;
+        }
+        Optional<DiscountCurve> curve = this.get(paymentType, latestVersion);
+        if (curve.isEmpty()) {
+            this.markMissing(paymentType);
+            return false;
+        }
+        this.swap(curve.get());
+        return true;
+    }
+
+    private void markMissing(PaymentType paymentType) {
+        if (this.latestCurves.get(paymentType).get() == null) {
+            this.missingCurves.add(paymentType);
+        }
+    }
+
+    @Override
+    public synchronized void publish(DiscountCurve curve) {
+        DiscountCurve current = this.latestCurves.get(curve.getPaymentType()).get();
+        if (current == null || current.getVersion() < curve.getVersion()) {
+            this.swap(curve);
+            return;
+        }
+        this.history.put(Pair.of(curve.getPaymentType(), curve.getVersion()), curve);
+    }
+
+    @Override
+    public void addListener(DiscountCurveListener listener) {
+        this.listeners.add(listener);
+    }
+
+    private void swap(DiscountCurve curve) {
+        DiscountCurve previous = this.latestCurves.get(curve.getPaymentType()).getAndSet(curve);
+        this.missingCurves.remove(curve.getPaymentType());
+        this.history.remove(Pair.of(curve.getPaymentType(), curve.getVersion()));
+        if (previous != null) {
+            this.history.put(Pair.of(previous.getPaymentType(), previous.getVersion()), previous);
+        }
+        logger.info(String.format("Switched Discount Curve. Previous: %s, Current: %s", previous, curve));
+        for (DiscountCurveListener listener : this.listeners) {
+            try {
+                listener.onLatestChanged(previous, curve);
+            } catch (RuntimeException e) {
+                // 通知先の失敗でカーブの切替自体は取り消さない。
+                logger.error(String.format("Failed to notify Discount Curve change. Listener: %s", listener), e);
+            }
+        }
+    }
+
+    private Optional<DiscountCurve> load(PaymentType paymentType, long version) {
+        List<BigDecimal> discountFactors = this.discountFactorDataRepository.loadDiscountFactor(paymentType, version);
+        if (discountFactors == null || discountFactors.isEmpty()) {
+            return Optional.empty();
+        }
+        logger.info(String.format("Loaded Discount Curve. PaymentType: %s, Version: %d, Size: %d", paymentType, version, discountFactors.size()));
+        return Optional.of(DiscountCurve.of(paymentType, version, discountFactors));
+    }
+}
@@ -0,0 +1,221 @@
+package project.calculator.domain.finance.bond.curve.bootstrap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import project.calculator.data.BondPricingData;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * <p>
+ * 1つの利払い周期について、債券の市場価格から割引現在価値カーブをブートストラップする。
+ * </p>
+ * <p>
+ * 期間数nの債券(期末払い)の価格は P / 額面 = DF(n) + クーポン・Σ_{k=1..n} DF(k) となる。
+ * 期間数の短い順に、市場価格のある債券の期間(ピラー)ごとにDF(n)を解く。
+ * ピラー間の期間は直前のピラーとの間で対数線形補間するので、DF(n)はニュートン法で求める。
+ * 同じピラーに複数の債券がある場合は、それぞれで解いたDF(n)の平均をとる。
+ * </p>
+ * <p>
+ * DF(n)は短い期間のDFだけに依存するので、一部の価格が変わった場合は、変わった債券のうち最も短いピラー以降のみ解き直す。
+ * スレッドセーフではないので、呼び出し側で直列化すること。
+ * </p>
+ */
+public class CurveBootstrapper {
+
+    // discount_factor_master.discount_factorの小数部の桁数
+    private static final int SCALE = 16;
+    private static final int MAX_ITERATIONS = 50;
+    private static final double TOLERANCE = 1e-15;
+
+    private final PaymentType paymentType;
+    // 期間数ごとの債券
+    private final TreeMap<Integer, List<BondPricingData>> instrumentsByPeriod = new TreeMap<>();
+    private final Map<String, Integer> periodByBondCode = new HashMap<>();
+    // 額面1あたりの市場価格
+    private final Map<String, Double> quotes = new HashMap<>();
+    // DFを解いたピラー。0は常に含む
+    private final TreeSet<Integer> solvedPillars = new TreeSet<>(Collections.singleton(0));
+    // 期間ごとの割引現在価値。インデックス0は1
+    private double[] discountFactors = new double[]{1};
+
+    private static final Logger logger = LoggerFactory.getLogger(CurveBootstrapper.class);
+
+    private CurveBootstrapper(CurveBootstrapper source) {
+        this.paymentType = source.paymentType;
+        // 債券は生成後に変更しないので共有する
+        this.instrumentsByPeriod.putAll(source.instrumentsByPeriod);
+        this.periodByBondCode.putAll(source.periodByBondCode);
+        this.quotes.putAll(source.quotes);
+        this.solvedPillars.addAll(source.solvedPillars);
+        this.discountFactors = source.discountFactors;
+    }
+
+    public CurveBootstrapper(PaymentType paymentType, Collection<BondPricingData> instruments) {
+        this.paymentType = paymentType;
+        for (BondPricingData instrument : instruments) {
+            if (instrument.getPaymentType() != paymentType) {
+                continue;
+            }
+            int periods = instrument.getCurrentMaturity().divide(paymentType.getStep()).intValue();
+            if (periods <= 0) {
+                continue;
+            }
+            this.instrumentsByPeriod.computeIfAbsent(periods, k -> new ArrayList<>()).add(instrument);
+            this.periodByBondCode.put(instrument.getBondCode(), periods);
+        }
+    }
+
+    public PaymentType getPaymentType() {
+        return this.paymentType;
+    }
+
+    /**
+     * 市場価格と解いたカーブを複製する。複製への反映は元のインスタンスに影響しない。
+     * @return
+     */
+    public CurveBootstrapper copy() {
+        return new CurveBootstrapper(this);
+    }
+
+    /**
+     * 市場価格を反映し、影響を受けるピラー以降を解き直す。
+     * @param prices 銘柄コードごとの市場価格(額面あたり)。この利払い周期の債券以外は無視する
+     * @return 解き直した期間の数
+     */
+    public int update(Map<String, BigDecimal> prices) {
+        int firstChanged = Integer.MAX_VALUE;
+        for (Map.Entry<String, BigDecimal> price : prices.entrySet()) {
+            Integer period = this.periodByBondCode.get(price.getKey());
+            if (period == null || price.getValue() == null) {
+                continue;
+            }
+            BondPricingData instrument = this.findInstrument(period, price.getKey());
+            double quote = price.getValue().doubleValue() / instrument.getUnit().doubleValue();
+            Double previous = this.quotes.put(price.getKey(), quote);
+            if (previous == null || previous != quote) {
+                firstChanged = Math.min(firstChanged, period);
+            }
+        }
+        if (firstChanged == Integer.MAX_VALUE) {
+            return 0;
+        }
+        return this.solveFrom(firstChanged);
+    }
+
+    /**
+     * 現在のカーブを返す。
+     * @return 期間の昇順の割引現在価値
+     */
+    public List<BigDecimal> getDiscountFactors() {
+        List<BigDecimal> result = new ArrayList<>(this.discountFactors.length);
+        for (double df : this.discountFactors) {
+            result.add(BigDecimal.valueOf(df).setScale(SCALE, RoundingMode.HALF_EVEN));
+        }
+        return result;
+    }
+
+    /**
+     * 期間数fromPeriod以上のピラーを解き直す。
+     * @return 解き直した期間の数
+     */
+    private int solveFrom(int fromPeriod) {
+        // 直前に解いたピラーまでは変わらない。それ以降の期間は補間の端点が変わりうるので全て解き直す
+        int start = this.solvedPillars.lower(fromPeriod);
+        this.solvedPillars.tailSet(start, false).clear();
+        int lastPillar = this.instrumentsByPeriod.lastKey();
+        double[] solved = Arrays.copyOf(this.discountFactors, lastPillar + 1);
+        double sum = 0;
+        for (int k = 1; k <= start; k++) {
+            sum += solved[k];
+        }
+
+        int pillar = start;
+        for (Map.Entry<Integer, List<BondPricingData>> entry : this.instrumentsByPeriod.tailMap(start, false).entrySet()) {
+            int n = entry.getKey();
+            double total = 0;
+            int count = 0;
+            for (BondPricingData instrument : entry.getValue()) {
+                Double quote = this.quotes.get(instrument.getBondCode());
+                if (quote == null) {
+                    continue;
+                }
+                double coupon = instrument.getCouponRate().multiply(this.paymentType.getStep()).doubleValue();
+                double df = solvePillar(solved[pillar], pillar, n, sum, coupon, quote);
+                if (!(df > 0) || Double.isInfinite(df)) {
+                    logger.warn(String.format("Discount factor could not be solved. BondCode: %s, PaymentType: %s, Term: %d", instrument.getBondCode(), this.paymentType, n));
+                    continue;
+                }
+                total += df;
+                count++;
+            }
+            if (count == 0) {
+                // 市場価格がない期間は次のピラーとの補間で埋める
+                continue;
+            }
+            double df = total / count;
+            for (int k = pillar + 1; k <= n; k++) {
+                solved[k] = interpolate(solved[pillar], df, pillar, n, k);
+                sum += solved[k];
+            }
+            pillar = n;
+            this.solvedPillars.add(n);
+        }
+
+        this.discountFactors = Arrays.copyOf(solved, pillar + 1);
+        return pillar - start;
+    }
+
+    /**
+     * 直前のピラーpまでのDFの和sumが既知のとき、期間数nの債券の価格に一致するDF(n)を求める。
+     */
+    private static double solvePillar(double previousDf, int p, int n, double sum, double coupon, double quote) {
+        double x = previousDf * Math.pow(quote, 1.0 / Math.max(1, n - p));
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double value = x - quote + coupon * sum;
+            double slope = 1;
+            for (int k = p + 1; k <= n; k++) {
+                double df = interpolate(previousDf, x, p, n, k);
+                value += coupon * df;
+                // d(DF(k))/dx = w・DF(k)/x, w = (k - p) / (n - p)
+                slope += coupon * df * (k - p) / (n - p) / x;
+            }
+            double next = x - value / slope;
+            if (next <= 0) {
+                next = x / 2;
+            }
+            if (Math.abs(next - x) <= TOLERANCE) {
+                return next;
+            }
+            x = next;
+        }
+        return x;
+    }
+
+    private static double interpolate(double dfAtP, double dfAtN, int p, int n, int k) {
+        if (k == n) {
+            return dfAtN;
+        }
+        return dfAtP * Math.pow(dfAtN / dfAtP, (double) (k - p) / (n - p));
+    }
+
+    private BondPricingData findInstrument(int period, String bondCode) {
+        for (BondPricingData instrument : this.instrumentsByPeriod.get(period)) {
+            if (instrument.getBondCode().equals(bondCode)) {
+                return instrument;
+            }
+        }
+        throw new IllegalStateException(String.format("Instrument is not found. BondCode: %s", bondCode));
+    }
+}
@@ -0,0 +1,50 @@
+package project.calculator.domain.finance.bond.curve.interpolation;
+
+/**
+ * <p>
+ * log(DF)を自然3次スプライン(両端の2階微分が0)で補間する。
+ * 区間iでは y = y[i] + b[i]・dt + c[i]・dt^2 + d[i]・dt^3 (dtは区間の始点からの年数)となる。
+ * </p>
+ */
+final class CubicSplineInterpolator extends CurveInterpolator {
+
+    private final double[] b;
+    private final double[] c;
+    private final double[] d;
+
+    CubicSplineInterpolator(double[] times, double[] discountFactors) {
+        super(times, discountFactors);
+        int n = this.times.length - 1;
+        this.b = new double[Math.max(n, 0)];
+        this.c = new double[n + 1];
+        this.d = new double[Math.max(n, 0)];
+        if (n < 1) {
+            return;
+        }
+        double[] y = this.logDiscountFactors;
+        double[] h = new double[n];
+        for (int i = 0; i < n; i++) {
+            h[i] = this.times[i + 1] - this.times[i];
+        }
+        // 2階微分の連続条件の三重対角方程式をトーマス法で解く
+        double[] mu = new double[n + 1];
+        double[] z = new double[n + 1];
+        for (int i = 1; i < n; i++) {
+            double alpha = 3 / h[i] * (y[i + 1] - y[i]) - 3 / h[i - 1] * (y[i] - y[i - 1]);
+            double l = 2 * (this.times[i + 1] - this.times[i - 1]) - h[i - 1] * mu[i - 1];
+            mu[i] = h[i] / l;
+            z[i] = (alpha - h[i - 1] * z[i - 1]) / l;
+        }
+        for (int j = n - 1; j >= 0; j--) {
+            this.c[j] = z[j] - mu[j] * this.c[j + 1];
+            this.b[j] = (y[j + 1] - y[j]) / h[j] - h[j] * (this.c[j + 1] + 2 * this.c[j]) / 3;
+            this.d[j] = (this.c[j + 1] - this.c[j]) / (3 * h[j]);
+        }
+    }
+
+    @Override
+    protected double logDiscountFactor(int segment, double x, double h) {
+        double dt = x * h;
+        return this.logDiscountFactors[segment] + dt * (this.b[segment] + dt * (this.c[segment] + dt * this.d[segment]));
+    }
+}
@@ -0,0 +1,82 @@
+package project.calculator.domain.finance.bond.curve.interpolation;
+
+import project.calculator.data.enums.CurveInterpolation;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * 割引現在価値カーブの期間の間を補間する。
+ * 係数は生成時に一度だけ計算してプリミティブ配列に持つので、参照は二分探索と多項式の評価のみとなる。
+ * 生成後は変更しないので、複数スレッドから参照できる。
+ * </p>
+ */
+public abstract class CurveInterpolator {
+
+    // 昇順の年数。times[0]は0
+    protected final double[] times;
+    private final double[] discountFactors;
+    // y = -log(DF)
+    protected final double[] logDiscountFactors;
+
+    protected CurveInterpolator(double[] times, double[] discountFactors) {
+        if (times.length != discountFactors.length) {
+            throw new IllegalArgumentException(String.format("Invalid curve. Times: %d, DiscountFactors: %d", times.length, discountFactors.length));
+        }
+        this.times = times.clone();
+        this.discountFactors = discountFactors.clone();
+        this.logDiscountFactors = new double[discountFactors.length];
+        for (int i = 0; i < discountFactors.length; i++) {
+            this.logDiscountFactors[i] = -Math.log(discountFactors[i]);
+        }
+    }
+
+    /**
+     * 補間方式に応じた補間器を生成する。
+     * @param interpolation
+     * @param times 昇順の年数
+     * @param discountFactors 年数ごとの割引現在価値
+     * @return
+     */
+    public static CurveInterpolator of(CurveInterpolation interpolation, double[] times, double[] discountFactors) {
+        switch (interpolation) {
+            case LOG_LINEAR:
+                return new LogLinearInterpolator(times, discountFactors);
+            case MONOTONE_CONVEX:
+                return new MonotoneConvexInterpolator(times, discountFactors);
+            case CUBIC_SPLINE:
+                return new CubicSplineInterpolator(times, discountFactors);
+            default:
+                throw new IllegalArgumentException(String.format("Unsupported interpolation: %s", interpolation));
+        }
+    }
+
+    /**
+     * 年数tの割引現在価値を返す。
+     * @param t 現在時点からの年数
+     * @return tがカーブの範囲外の場合はNaN
+     */
+    public double discountFactor(double t) {
+        int last = this.times.length - 1;
+        if (last < 0 || !(t >= this.times[0] && t <= this.times[last])) {
+            return Double.NaN;
+        }
+        int index = Arrays.binarySearch(this.times, t);
+        if (index >= 0) {
+            return this.discountFactors[index];
+        }
+        // tを含む区間[times[segment], times[segment + 1]]
+        int segment = -index - 2;
+        double h = this.times[segment + 1] - this.times[segment];
+        return Math.exp(-this.logDiscountFactor(segment, (t - this.times[segment]) / h, h));
+    }
+
+    /**
+     * 区間内の-log(DF)を求める。
+     * @param segment 区間の始点のインデックス
+     * @param x 区間内の位置(0 &lt; x &lt; 1)
+     * @param h 区間の長さ(年)
+     * @return
+     */
+    protected abstract double logDiscountFactor(int segment, double x, double h);
+}
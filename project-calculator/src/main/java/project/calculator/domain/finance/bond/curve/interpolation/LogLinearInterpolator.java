@@ -0,0 +1,16 @@
+package project.calculator.domain.finance.bond.curve.interpolation;
+
+/**
+ * log(DF)を区間ごとに線形補間する。
+ */
+final class LogLinearInterpolator extends CurveInterpolator {
+
+    LogLinearInterpolator(double[] times, double[] discountFactors) {
+        super(times, discountFactors);
+    }
+
+    @Override
+    protected double logDiscountFactor(int segment, double x, double h) {
+        return this.logDiscountFactors[segment] + (this.logDiscountFactors[segment + 1] - this.logDiscountFactors[segment]) * x;
+    }
+}
@@ -0,0 +1,130 @@
+package project.calculator.domain.finance.bond.curve.interpolation;
+
+/**
+ * <p>
+ * Hagan-Westのmonotone convex法で補間する。
+ * 区間ごとの離散フォワードfdと、期間の端点の瞬間フォワードfから、区間内の瞬間フォワードを fd + g(x) とする。
+ * g(x)は区間の両端の g0 = f(始点) - fd, g1 = f(終点) - fd の符号と大小によって4通りの形をとり、区間内の積分は0となる。
+ * </p>
+ * <p>
+ * 区間ごとに形の種類・境界点eta・係数を事前に計算しておき、参照時はg(x)の積分の閉形式を評価する。
+ * </p>
+ */
+final class MonotoneConvexInterpolator extends CurveInterpolator {
+
+    // g(x) = 0
+    private static final byte FLAT = 0;
+    // g(x) = g0(1 - 4x + 3x^2) + g1(-2x + 3x^2)
+    private static final byte QUADRATIC = 1;
+    // [0, eta]はg0で一定、その後g1まで2次で変化する
+    private static final byte FLAT_THEN_QUADRATIC = 2;
+    // g0から2次で変化し、[eta, 1]はg1で一定
+    private static final byte QUADRATIC_THEN_FLAT = 3;
+    // etaで最小(最大)値Aをとる2つの2次式
+    private static final byte TWO_QUADRATICS = 4;
+
+    // 区間ごとの離散フォワード
+    private final double[] forwards;
+    private final double[] g0;
+    private final double[] g1;
+    private final double[] eta;
+    private final double[] a;
+    private final byte[] types;
+
+    MonotoneConvexInterpolator(double[] times, double[] discountFactors) {
+        super(times, discountFactors);
+        int n = Math.max(this.times.length - 1, 0);
+        this.forwards = new double[n];
+        this.g0 = new double[n];
+        this.g1 = new double[n];
+        this.eta = new double[n];
+        this.a = new double[n];
+        this.types = new byte[n];
+        if (n == 0) {
+            return;
+        }
+        double[] h = new double[n];
+        for (int i = 0; i < n; i++) {
+            h[i] = this.times[i + 1] - this.times[i];
+            this.forwards[i] = (this.logDiscountFactors[i + 1] - this.logDiscountFactors[i]) / h[i];
+        }
+        // 端点の瞬間フォワード。内側は隣接する離散フォワードの区間長による加重平均
+        double[] f = new double[n + 1];
+        for (int i = 1; i < n; i++) {
+            f[i] = (h[i - 1] * this.forwards[i] + h[i] * this.forwards[i - 1]) / (h[i - 1] + h[i]);
+        }
+        if (n == 1) {
+            f[0] = this.forwards[0];
+            f[1] = this.forwards[0];
+        } else {
+            f[0] = this.forwards[0] - 0.5 * (f[1] - this.forwards[0]);
+            f[n] = this.forwards[n - 1] - 0.5 * (f[n - 1] - this.forwards[n - 1]);
+        }
+        for (int i = 0; i < n; i++) {
+            this.g0[i] = f[i] - this.forwards[i];
+            this.g1[i] = f[i + 1] - this.forwards[i];
+            this.classify(i);
+        }
+    }
+
+    private void classify(int i) {
+        double g0 = this.g0[i];
+        double g1 = this.g1[i];
+        if (g0 == 0 && g1 == 0) {
+            this.types[i] = FLAT;
+        } else if ((g0 < 0 && -0.5 * g0 <= g1 && g1 <= -2 * g0) || (g0 > 0 && -0.5 * g0 >= g1 && g1 >= -2 * g0)) {
+            this.types[i] = QUADRATIC;
+        } else if ((g0 < 0 && g1 > -2 * g0) || (g0 > 0 && g1 < -2 * g0)) {
+            this.types[i] = FLAT_THEN_QUADRATIC;
+            this.eta[i] = (g1 + 2 * g0) / (g1 - g0);
+        } else if ((g0 > 0 && 0 > g1 && g1 > -0.5 * g0) || (g0 < 0 && 0 < g1 && g1 < -0.5 * g0)) {
+            this.types[i] = QUADRATIC_THEN_FLAT;
+            this.eta[i] = 3 * g1 / (g1 - g0);
+        } else {
+            // g0, g1が同符号
+            this.types[i] = TWO_QUADRATICS;
+            this.eta[i] = g1 / (g1 + g0);
+            this.a[i] = -g0 * g1 / (g0 + g1);
+        }
+    }
+
+    @Override
+    protected double logDiscountFactor(int segment, double x, double h) {
+        return this.logDiscountFactors[segment] + h * (this.forwards[segment] * x + this.integrate(segment, x));
+    }
+
+    /**
+     * g(s)の[0, x]での積分
+     */
+    private double integrate(int i, double x) {
+        double g0 = this.g0[i];
+        double g1 = this.g1[i];
+        double eta = this.eta[i];
+        switch (this.types[i]) {
+            case QUADRATIC:
+                return g0 * (x - 2 * x * x + x * x * x) + g1 * (x * x * x - x * x);
+            case FLAT_THEN_QUADRATIC:
+                if (x <= eta) {
+                    return g0 * x;
+                }
+                return g0 * x + (g1 - g0) * cube(x - eta) / (3 * (1 - eta) * (1 - eta));
+            case QUADRATIC_THEN_FLAT:
+                if (x < eta) {
+                    return g1 * x + (g0 - g1) * eta / 3 * (1 - cube((eta - x) / eta));
+                }
+                return g1 * x + (g0 - g1) * eta / 3;
+            case TWO_QUADRATICS:
+                double a = this.a[i];
+                if (x <= eta) {
+                    return eta == 0 ? 0 : a * x + (g0 - a) * eta / 3 * (1 - cube((eta - x) / eta));
+                }
+                return a * x + (g0 - a) * eta / 3 + (g1 - a) * cube(x - eta) / (3 * (1 - eta) * (1 - eta));
+            default:
+                return 0;
+        }
+    }
+
+    private static double cube(double x) {
+        return x * x * x;
+    }
+}
@@ -2,14 +2,51 @@ package project.calculator.domain.finance.bond.external.grpc;
 
 
 import io.grpc.finance.calculation.pricer.bond.BondPriceCalculatorGrpcServiceGrpc;
+import io.grpc.finance.calculation.product.bond.BondPricingBatchRequest;
 import io.grpc.finance.calculation.product.bond.BondPricingRequest;
+import io.grpc.finance.calculation.product.bond.BondRiskBatchResponse;
+import io.grpc.finance.calculation.product.bond.BondRiskResponse;
+import io.grpc.finance.calculation.product.bond.BondScenarioGridChunk;
+import io.grpc.finance.calculation.product.bond.BondScenarioRequest;
+import io.grpc.finance.calculation.product.bond.KeyRateDuration;
+import io.grpc.finance.calculation.product.bond.BondTheoreticalPriceBatchResponse;
 import io.grpc.finance.calculation.product.bond.BondTheoreticalPriceResponse;
+import io.grpc.finance.calculation.product.bond.BondYieldBatchResponse;
+import io.grpc.finance.calculation.product.bond.BondYieldResponse;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
+import io.grpc.util.DecimalValueConverter;
+import io.grpc.util.NumericEncoding;
+import io.grpc.util.Status;
+import io.grpc.util.StatusMsg;
 import org.lognet.springboot.grpc.GRpcService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import project.calculator.data.BondPricingData;
 import project.calculator.data.converter.BondRequestConverter;
+import project.calculator.data.converter.CurveShockConverter;
+import project.calculator.data.response.BondRiskResult;
+import project.calculator.data.response.BondYieldResult;
 import project.calculator.data.response.CalculationResult;
 import project.calculator.domain.finance.bond.service.calculator.pricing.BondPriceCalculatorService;
+import project.calculator.domain.finance.bond.scenario.CurveShock;
+import project.calculator.domain.finance.bond.scenario.ScenarioCurveSet;
+import project.calculator.domain.finance.bond.service.calculator.risk.BondRiskCalculatorService;
+import project.calculator.domain.finance.bond.service.calculator.scenario.BondScenarioService;
+import project.calculator.domain.finance.bond.service.calculator.ytm.BondYieldCalculatorService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * 債券理論価格の計算をRPCで行うサービスクラス。
@@ -18,19 +55,284 @@ import project.calculator.domain.finance.bond.service.calculator.pricing.BondPri
 public class BondPriceCalculatorGrpcServiceImpl extends BondPriceCalculatorGrpcServiceGrpc.BondPriceCalculatorGrpcServiceImplBase {
 
     private final BondPriceCalculatorService bondPriceCalculatorService;
+    private final BondRiskCalculatorService bondRiskCalculatorService;
+    private final BondYieldCalculatorService bondYieldCalculatorService;
+    private final BondScenarioService bondScenarioService;
+    private final Executor pricingExecutor;
+    private final int streamWindow;
+    private final int scenarioChunkSize;
+
+    private static final Logger logger = LoggerFactory.getLogger(BondPriceCalculatorGrpcServiceImpl.class);
 
-    public BondPriceCalculatorGrpcServiceImpl(BondPriceCalculatorService bondPriceCalculatorService) {
+    public BondPriceCalculatorGrpcServiceImpl(BondPriceCalculatorService bondPriceCalculatorService,
+                                              BondRiskCalculatorService bondRiskCalculatorService,
+                                              BondYieldCalculatorService bondYieldCalculatorService,
+                                              BondScenarioService bondScenarioService,
+                                              @Qualifier("pricingExecutor") Executor pricingExecutor,
+                                              @Value("${calculator.bond-pricing.stream-window}") int streamWindow,
+                                              @Value("${calculator.bond-scenario.chunk-size}") int scenarioChunkSize) {
         this.bondPriceCalculatorService = bondPriceCalculatorService;
+        this.bondRiskCalculatorService = bondRiskCalculatorService;
+        this.bondYieldCalculatorService = bondYieldCalculatorService;
+        this.bondScenarioService = bondScenarioService;
+        this.pricingExecutor = pricingExecutor;
+        this.streamWindow = streamWindow;
+        this.scenarioChunkSize = scenarioChunkSize;
     }
 
     @Override
     public void responseTheoreticalPriceByDiscountFactor(BondPricingRequest request, StreamObserver<BondTheoreticalPriceResponse> responseObserver) {
         BondPricingData data = BondRequestConverter.convertFrom(request);
         CalculationResult result = this.bondPriceCalculatorService.calculateByDiscountFactor(data);
-        BondTheoreticalPriceResponse response = BondTheoreticalPriceResponse.newBuilder()
-                .setTheoreticalPrice(result.getResult().toPlainString())
+        BondTheoreticalPriceResponse response = this.convertFrom(request, result)
                 .setStatusMsg(result.getResultDetail()).build();
         responseObserver.onNext(response);
         responseObserver.onCompleted();
     }
+
+    /**
+     * <p>
+     * 複数銘柄の理論価格をまとめて計算し、リクエスト順に返却する。
+     * 変換できない銘柄はその銘柄のステータスにエラーを記録し、残りの銘柄はキャッシュにないものだけを一括計算する。
+     * </p>
+     */
+    @Override
+    public void responseTheoreticalPricesByDiscountFactor(BondPricingBatchRequest request, StreamObserver<BondTheoreticalPriceBatchResponse> responseObserver) {
+        this.respondAsync(request, responseObserver, "theoretical prices", () -> BondTheoreticalPriceBatchResponse.newBuilder()
+                .addAllResponses(this.calculateBatch(request, "theoretical price"
+                        , this.bondPriceCalculatorService::calculateByDiscountFactor
+                        , (bond, i, result) -> this.convertFrom(bond, result)
+                                .setBondCode(bond.getBondCode())
+                                .setRequestIndex(i)
+                                .setStatusMsg(result.getResultDetail()).build()
+                        , (bond, i, msg) -> BondTheoreticalPriceResponse.newBuilder()
+                                .setBondCode(bond.getBondCode()).setRequestIndex(i).setStatusMsg(msg).build()))
+                .build());
+    }
+
+    /**
+     * <p>
+     * 受信した銘柄を順次並列に計算し、完了したものから返却する。
+     * 同時に計算する件数はstreamWindowまでとし、クライアントが受信できない間は追加の受信を止める。
+     * </p>
+     */
+    @Override
+    public StreamObserver<BondPricingRequest> streamTheoreticalPriceByDiscountFactor(StreamObserver<BondTheoreticalPriceResponse> responseObserver) {
+        return new BondPricingRequestStreamObserver(
+                (ServerCallStreamObserver<BondTheoreticalPriceResponse>) responseObserver, this::priceAsync, this.streamWindow);
+    }
+
+    /**
+     * <p>
+     * 複数銘柄のリスク指標を計算し、リクエスト順に返却する。
+     * 変換できない銘柄はその銘柄のステータスにエラーを記録し、残りの銘柄はまとめて並列に計算する。
+     * </p>
+     */
+    @Override
+    public void responseRiskByDiscountFactor(BondPricingBatchRequest request, StreamObserver<BondRiskBatchResponse> responseObserver) {
+        this.respondAsync(request, responseObserver, "bond risk", () -> BondRiskBatchResponse.newBuilder()
+                .addAllResponses(this.calculateBatch(request, "bond risk"
+                        , this.bondRiskCalculatorService::calculateByDiscountFactor
+                        , BondPriceCalculatorGrpcServiceImpl::convertFrom
+                        , (bond, i, msg) -> BondRiskResponse.newBuilder()
+                                .setBondCode(bond.getBondCode()).setRequestIndex(i).setStatusMsg(msg).build()))
+                .build());
+    }
+
+    /**
+     * <p>
+     * 複数銘柄の市場価格から最終利回りをまとめて求め、リクエスト順に返却する。
+     * 変換できない銘柄はその銘柄のステータスにエラーを記録し、残りの銘柄はまとめて並列に計算する。
+     * </p>
+     */
+    @Override
+    public void responseYieldsByPrice(BondPricingBatchRequest request, StreamObserver<BondYieldBatchResponse> responseObserver) {
+        this.respondAsync(request, responseObserver, "yield to maturity", () -> BondYieldBatchResponse.newBuilder()
+                .addAllResponses(this.calculateBatch(request, "yield to maturity"
+                        , this.bondYieldCalculatorService::calculateByPrice
+                        , (bond, i, result) -> BondYieldResponse.newBuilder()
+                                .setBondCode(bond.getBondCode())
+                                .setRequestIndex(i)
+                                .setStatusMsg(result.getResultDetail())
+                                .setYieldToMaturity(result.getYieldToMaturity())
+                                .setIterations(result.getIterations())
+                                .build()
+                        , (bond, i, msg) -> BondYieldResponse.newBuilder()
+                                .setBondCode(bond.getBondCode()).setRequestIndex(i).setStatusMsg(msg).build()))
+                .build());
+    }
+
+    /**
+     * 一括計算をpricingExecutorで実行して返却する。計算自体が失敗した場合はINTERNALで終了する。
+     * @param request
+     * @param responseObserver
+     * @param name ログ・エラーメッセージに使う計算の名前
+     * @param calculation 一括計算の応答を返す処理
+     */
+    private <T> void respondAsync(BondPricingBatchRequest request, StreamObserver<T> responseObserver, String name, Supplier<T> calculation) {
+        CompletableFuture.supplyAsync(calculation, this.pricingExecutor).whenComplete((response, e) -> {
+            if (e != null) {
+                logger.error(String.format("Failed to calculate %s. Count: %d", name, request.getRequestsCount()), e);
+                responseObserver.onError(io.grpc.Status.INTERNAL.withDescription(String.format("Failed to calculate %s.", name)).withCause(e).asRuntimeException());
+                return;
+            }
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        });
+    }
+
+    /**
+     * 銘柄ごとにリクエストを変換し、変換できた銘柄をまとめて計算してリクエスト順の応答を返す。
+     * 変換できない銘柄はonErrorでエラーの応答とする。
+     * @param request
+     * @param name ログに使う計算の名前
+     * @param calculation 変換できた銘柄の一括計算。リクエスト順の計算結果を返す
+     * @param onResult 計算結果から銘柄の応答を作る
+     * @param onError 変換できなかった銘柄の応答を作る
+     * @return リクエスト順の応答
+     */
+    private <R, M> List<M> calculateBatch(BondPricingBatchRequest request, String name, Function<List<BondPricingData>, List<R>> calculation
+            , BatchResponseBuilder<R, M> onResult, BatchResponseBuilder<StatusMsg, M> onError) {
+        List<M> responses = new ArrayList<>(Collections.nCopies(request.getRequestsCount(), null));
+        List<BondPricingData> data = new ArrayList<>(request.getRequestsCount());
+        List<Integer> positions = new ArrayList<>(request.getRequestsCount());
+        for (int i = 0; i < request.getRequestsCount(); i++) {
+            BondPricingRequest bond = request.getRequests(i);
+            try {
+                data.add(BondRequestConverter.convertFrom(bond));
+                positions.add(i);
+            } catch (RuntimeException e) {
+                logger.warn(String.format("Failed to convert %s request. BondCode: %s, Index: %d", name, bond.getBondCode(), i), e);
+                StatusMsg msg = StatusMsg.newBuilder().setStatus(Status.ERROR).setDetail(e.toString()).build();
+                responses.set(i, onError.build(bond, i, msg));
+            }
+        }
+
+        List<R> results = calculation.apply(data);
+        for (int j = 0; j < results.size(); j++) {
+            int i = positions.get(j);
+            responses.set(i, onResult.build(request.getRequests(i), i, results.get(j)));
+        }
+        return responses;
+    }
+
+    /**
+     * 一括計算の銘柄ごとの応答を作る。
+     * @param <R> 計算結果
+     * @param <M> 応答
+     */
+    @FunctionalInterface
+    private interface BatchResponseBuilder<R, M> {
+        M build(BondPricingRequest bond, int requestIndex, R result);
+    }
+
+    private static BondRiskResponse convertFrom(BondPricingRequest bond, int requestIndex, BondRiskResult result) {
+        BondRiskResponse.Builder builder = BondRiskResponse.newBuilder()
+                .setBondCode(bond.getBondCode())
+                .setRequestIndex(requestIndex)
+                .setStatusMsg(result.getResultDetail())
+                .setTheoreticalPrice(result.getTheoreticalPrice())
+                .setMacaulayDuration(result.getMacaulayDuration())
+                .setModifiedDuration(result.getModifiedDuration())
+                .setConvexity(result.getConvexity())
+                .setDv01(result.getDv01());
+        double[] tenors = result.getKeyRateTenors();
+        double[] durations = result.getKeyRateDurations();
+        for (int k = 0; k < tenors.length; k++) {
+            builder.addKeyRateDurations(KeyRateDuration.newBuilder().setTenor(tenors[k]).setDuration(durations[k]));
+        }
+        return builder.build();
+    }
+
+    /**
+     * <p>
+     * 銘柄×シナリオの理論価格の行列を計算し、銘柄の行ごとのチャンクに分けて完了した順に返却する。
+     * 銘柄の指定がない場合はbond_masterの有効な全銘柄を評価する。
+     * </p>
+     */
+    @Override
+    public void streamScenarioGrid(BondScenarioRequest request, StreamObserver<BondScenarioGridChunk> responseObserver) {
+        BondScenarioGridStreamer streamer = new BondScenarioGridStreamer(
+                (ServerCallStreamObserver<BondScenarioGridChunk>) responseObserver, this.pricingExecutor, this.scenarioChunkSize, this.streamWindow);
+
+        CompletableFuture.runAsync(() -> {
+            // リクエストの変換に失敗した場合だけ不正な引数とし、銘柄の読み込みなどそれ以降の失敗は内部エラーとする
+            List<BondPricingData> requestedBonds;
+            List<CurveShock> shocks;
+            Long baseVersion;
+            try {
+                requestedBonds = request.getBondsList().stream().map(BondRequestConverter::convertFrom).collect(Collectors.toList());
+                shocks = request.getShocksList().stream().map(CurveShockConverter::convertFrom).collect(Collectors.toList());
+                baseVersion = request.getBaseCurveVersion().isEmpty() ? null : Long.valueOf(request.getBaseCurveVersion());
+            } catch (RuntimeException e) {
+                logger.warn(String.format("Invalid scenario grid request. Shocks: %d, Bonds: %d", request.getShocksCount(), request.getBondsCount()), e);
+                streamer.fail(io.grpc.Status.INVALID_ARGUMENT.withDescription(e.toString()));
+                return;
+            }
+            List<BondPricingData> bonds = requestedBonds.isEmpty() ? this.bondScenarioService.loadBondUniverse(LocalDate.now()) : requestedBonds;
+            ScenarioCurveSet curveSet = this.bondScenarioService.buildCurveSet(baseVersion, shocks);
+            streamer.start(curveSet.getScenarioIds(), bonds.size(),
+                    (fromRow, toRow) -> this.bondScenarioService.priceRows(bonds, fromRow, toRow, curveSet));
+        }, this.pricingExecutor).exceptionally(e -> {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            logger.error(String.format("Failed to prepare scenario grid. Shocks: %d, Bonds: %d", request.getShocksCount(), request.getBondsCount()), cause);
+            streamer.fail(io.grpc.Status.INTERNAL.withDescription("Failed to prepare scenario grid.").withCause(cause));
+            return null;
+        });
+    }
+
+    /**
+     * <p>
+     * 1銘柄の理論価格を計算用スレッドプールで計算する。
+     * キャッシュを効かせるため、計算はサービスクラス経由で行う。
+     * </p>
+     *
+     * @param index リクエスト内での順番
+     * @param request
+     * @return
+     */
+    CompletableFuture<BondTheoreticalPriceResponse> priceAsync(long index, BondPricingRequest request) {
+        return CompletableFuture.supplyAsync(() -> {
+            BondPricingData data = BondRequestConverter.convertFrom(request);
+            CalculationResult result = this.bondPriceCalculatorService.calculateByDiscountFactor(data);
+            return this.convertFrom(request, result)
+                    .setBondCode(request.getBondCode())
+                    .setRequestIndex(index)
+                    .setStatusMsg(result.getResultDetail()).build();
+        }, this.pricingExecutor).exceptionally(e -> {
+            logger.warn(String.format("Failed to calculate theoretical price. BondCode: %s, Index: %d", request.getBondCode(), index), e);
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            StatusMsg msg = StatusMsg.newBuilder().setStatus(Status.ERROR).setDetail(cause.toString()).build();
+            return BondTheoreticalPriceResponse.newBuilder()
+                    .setBondCode(request.getBondCode())
+                    .setRequestIndex(index)
+                    .setStatusMsg(msg).build();
+        });
+    }
+
+    /**
+     * <p>
+     * リクエストと同じエンコード方式で理論価格を設定する。経過利息がある場合はclean価格も設定する。
+     * </p>
+     *
+     * @param request
+     * @param result
+     * @return
+     */
+    private BondTheoreticalPriceResponse.Builder convertFrom(BondPricingRequest request, CalculationResult result) {
+        BondTheoreticalPriceResponse.Builder builder = BondTheoreticalPriceResponse.newBuilder();
+        BigDecimal accruedInterest = result.getAccruedInterest();
+        if (request.getNumericEncoding() == NumericEncoding.SCALED_DECIMAL) {
+            if (accruedInterest != null) {
+                builder.setAccruedInterestDecimal(DecimalValueConverter.convertFrom(accruedInterest))
+                        .setCleanPriceDecimal(DecimalValueConverter.convertFrom(result.getResult().subtract(accruedInterest)));
+            }
+            return builder.setTheoreticalPriceDecimal(DecimalValueConverter.convertFrom(result.getResult()));
+        }
+        if (accruedInterest != null) {
+            builder.setAccruedInterest(accruedInterest.toPlainString())
+                    .setCleanPrice(result.getResult().subtract(accruedInterest).toPlainString());
+        }
+        return builder.setTheoreticalPrice(result.getResult().toPlainString());
+    }
 }
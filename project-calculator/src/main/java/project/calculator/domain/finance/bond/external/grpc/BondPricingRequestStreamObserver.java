@@ -0,0 +1,111 @@
+package project.calculator.domain.finance.bond.external.grpc;
+
+import io.grpc.finance.calculation.product.bond.BondPricingRequest;
+import io.grpc.finance.calculation.product.bond.BondTheoreticalPriceResponse;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * <p>
+ * 双方向ストリームで受信した債券の理論価格を計算するオブザーバ。
+ * </p>
+ * <p>
+ * 受信は手動のフロー制御とし、計算中の件数がwindowを超えないようにする。
+ * 結果を1件送信するごとに1件受信を要求するが、クライアント側が受信できない間は要求を保留し、
+ * 送信可能になった時点でまとめて要求する。
+ * </p>
+ */
+class BondPricingRequestStreamObserver implements StreamObserver<BondPricingRequest> {
+
+    private final ServerCallStreamObserver<BondTheoreticalPriceResponse> responseObserver;
+    private final BiFunction<Long, BondPricingRequest, CompletableFuture<BondTheoreticalPriceResponse>> pricer;
+    private final Object lock = new Object();
+
+    /** 受信スレッドからのみ更新する */
+    private long nextIndex = 0;
+    /** 以下はlockで保護する */
+    private int inFlight = 0;
+    private int deferredRequests = 0;
+    private boolean halfClosed = false;
+    private boolean closed = false;
+
+    private static final Logger logger = LoggerFactory.getLogger(BondPricingRequestStreamObserver.class);
+
+    BondPricingRequestStreamObserver(ServerCallStreamObserver<BondTheoreticalPriceResponse> responseObserver,
+                                     BiFunction<Long, BondPricingRequest, CompletableFuture<BondTheoreticalPriceResponse>> pricer,
+                                     int window) {
+        this.responseObserver = responseObserver;
+        this.pricer = pricer;
+        this.responseObserver.disableAutoInboundFlowControl();
+        this.responseObserver.setOnReadyHandler(this::onReady);
+        this.responseObserver.setOnCancelHandler(this::onCancel);
+        this.responseObserver.request(window);
+    }
+
+    @Override
+    public void onNext(BondPricingRequest request) {
+        synchronized (lock) {
+            inFlight++;
+        }
+        this.pricer.apply(nextIndex++, request).thenAccept(this::emit);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        logger.warn("Bond pricing stream was terminated by client.", t);
+        synchronized (lock) {
+            closed = true;
+        }
+    }
+
+    @Override
+    public void onCompleted() {
+        synchronized (lock) {
+            halfClosed = true;
+            completeIfDone();
+        }
+    }
+
+    private void emit(BondTheoreticalPriceResponse response) {
+        synchronized (lock) {
+            inFlight--;
+            if (closed) {
+                return;
+            }
+            responseObserver.onNext(response);
+            if (responseObserver.isReady()) {
+                responseObserver.request(1);
+            } else {
+                deferredRequests++;
+            }
+            completeIfDone();
+        }
+    }
+
+    private void onReady() {
+        synchronized (lock) {
+            if (!closed && deferredRequests > 0) {
+                responseObserver.request(deferredRequests);
+                deferredRequests = 0;
+            }
+        }
+    }
+
+    private void onCancel() {
+        synchronized (lock) {
+            closed = true;
+        }
+    }
+
+    private void completeIfDone() {
+        if (!closed && halfClosed && inFlight == 0) {
+            closed = true;
+            responseObserver.onCompleted();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package project.calculator.domain.finance.bond.external.grpc;
+
+import io.grpc.finance.calculation.product.bond.BondScenarioGridChunk;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import project.calculator.domain.finance.bond.scenario.ScenarioGridRows;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+
+/**
+ * <p>
+ * シナリオ評価の結果行列を、銘柄の行ごとのチャンクに分けて送信する。
+ * </p>
+ * <p>
+ * チャンクは計算用スレッドプールで並列に計算し、完了した順に送信する。
+ * 計算中・送信待ちのチャンクはwindowまでとし、クライアントが受信できない間は次のチャンクの計算を始めない。
+ * クライアントがキャンセルした場合は、以降のチャンクを計算しない。
+ * </p>
+ */
+class BondScenarioGridStreamer {
+
+    private final ServerCallStreamObserver<BondScenarioGridChunk> responseObserver;
+    private final Executor executor;
+    private final int chunkSize;
+    private final int window;
+    private final Object lock = new Object();
+
+    /** 以下はlockで保護する */
+    private final ArrayDeque<ScenarioGridRows> completed = new ArrayDeque<>();
+    private BiFunction<Integer, Integer, ScenarioGridRows> pricer;
+    private List<String> scenarioIds;
+    private int totalRows;
+    private int totalChunks;
+    private int submittedChunks = 0;
+    private int sentChunks = 0;
+    private boolean started = false;
+    private boolean closed = false;
+
+    private static final Logger logger = LoggerFactory.getLogger(BondScenarioGridStreamer.class);
+
+    /**
+     * 送信可能・キャンセルの通知はRPCの呼び出し中に登録する必要があるため、生成時に登録する。
+     */
+    BondScenarioGridStreamer(ServerCallStreamObserver<BondScenarioGridChunk> responseObserver, Executor executor, int chunkSize, int window) {
+        this.responseObserver = responseObserver;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.window = window;
+        this.responseObserver.setOnReadyHandler(this::drain);
+        this.responseObserver.setOnCancelHandler(this::onCancel);
+    }
+
+    /**
+     * 計算を開始する。
+     * @param scenarioIds 列(シナリオ)の並び
+     * @param totalRows 行(銘柄)の数
+     * @param pricer 行の範囲[fromRow, toRow)を計算する関数
+     */
+    void start(List<String> scenarioIds, int totalRows, BiFunction<Integer, Integer, ScenarioGridRows> pricer) {
+        synchronized (lock) {
+            this.scenarioIds = scenarioIds;
+            this.totalRows = totalRows;
+            this.totalChunks = (totalRows + chunkSize - 1) / chunkSize;
+            this.pricer = pricer;
+            this.started = true;
+            if (closed) {
+                return;
+            }
+            if (totalChunks == 0) {
+                // 銘柄がない場合も列の並びは返す
+                closed = true;
+                responseObserver.onNext(BondScenarioGridChunk.newBuilder().addAllScenarioIds(scenarioIds).setTotalRows(0).build());
+                responseObserver.onCompleted();
+                return;
+            }
+            while (submittedChunks < totalChunks && submittedChunks - sentChunks < window) {
+                submitNext();
+            }
+        }
+    }
+
+    /**
+     * 計算の準備に失敗した場合に呼ぶ。
+     * @param status
+     */
+    void fail(io.grpc.Status status) {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            responseObserver.onError(status.asRuntimeException());
+        }
+    }
+
+    private void submitNext() {
+        int fromRow = submittedChunks * chunkSize;
+        int toRow = Math.min(fromRow + chunkSize, totalRows);
+        submittedChunks++;
+        CompletableFuture.supplyAsync(() -> this.priceIfOpen(fromRow, toRow), executor).whenComplete((rows, e) -> {
+            if (e != null) {
+                logger.error(String.format("Failed to calculate scenario grid. FromRow: %d, ToRow: %d", fromRow, toRow), e);
+                fail(io.grpc.Status.INTERNAL.withDescription("Failed to calculate scenario grid.").withCause(e));
+                return;
+            }
+            if (rows == null) {
+                return;
+            }
+            synchronized (lock) {
+                completed.add(rows);
+            }
+            drain();
+        });
+    }
+
+    private ScenarioGridRows priceIfOpen(int fromRow, int toRow) {
+        synchronized (lock) {
+            if (closed) {
+                return null;
+            }
+        }
+        return this.pricer.apply(fromRow, toRow);
+    }
+
+    private void drain() {
+        synchronized (lock) {
+            if (!started || closed) {
+                return;
+            }
+            // 同期的に計算が完了した場合はこのメソッドが再入するので、ループごとに状態を確認する
+            while (!closed && !completed.isEmpty() && responseObserver.isReady()) {
+                responseObserver.onNext(this.convertFrom(completed.poll(), sentChunks == 0));
+                sentChunks++;
+                if (submittedChunks < totalChunks) {
+                    submitNext();
+                }
+            }
+            if (!closed && sentChunks == totalChunks) {
+                closed = true;
+                responseObserver.onCompleted();
+            }
+        }
+    }
+
+    private void onCancel() {
+        synchronized (lock) {
+            closed = true;
+            completed.clear();
+        }
+        logger.info("Scenario grid stream was cancelled by client.");
+    }
+
+    private BondScenarioGridChunk convertFrom(ScenarioGridRows rows, boolean isFirst) {
+        BondScenarioGridChunk.Builder builder = BondScenarioGridChunk.newBuilder()
+                .setFirstRow(rows.getFirstRow())
+                .setTotalRows(totalRows);
+        if (isFirst) {
+            builder.addAllScenarioIds(scenarioIds);
+        }
+        for (int r = 0; r < rows.rowCount(); r++) {
+            builder.addBondCodes(rows.getBondCode(r));
+            builder.addStatuses(rows.getStatus(r));
+        }
+        for (double price : rows.getPrices()) {
+            builder.addPrices(price);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,71 @@
+package project.calculator.domain.finance.bond.external.grpc;
+
+import io.grpc.finance.calculation.pricer.bond.DiscountCurveBootstrapGrpcServiceGrpc;
+import io.grpc.finance.calculation.product.bond.BondMarketQuote;
+import io.grpc.finance.calculation.product.bond.CurveBootstrapRequest;
+import io.grpc.finance.calculation.product.bond.CurveBootstrapResponse;
+import io.grpc.finance.calculation.product.bond.CurveBootstrapSummary;
+import io.grpc.stub.StreamObserver;
+import io.grpc.util.Status;
+import io.grpc.util.StatusMsg;
+import org.lognet.springboot.grpc.GRpcService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import project.calculator.data.converter.PaymetTypeConverter;
+import project.calculator.data.response.CurveBootstrapResult;
+import project.calculator.domain.finance.bond.service.calculator.curve.DiscountCurveBootstrapService;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 債券の市場価格から割引現在価値カーブを作り直すRPCのサービスクラス。
+ */
+@GRpcService
+public class DiscountCurveBootstrapGrpcServiceImpl extends DiscountCurveBootstrapGrpcServiceGrpc.DiscountCurveBootstrapGrpcServiceImplBase {
+
+    private final DiscountCurveBootstrapService discountCurveBootstrapService;
+
+    private static final Logger logger = LoggerFactory.getLogger(DiscountCurveBootstrapGrpcServiceImpl.class);
+
+    public DiscountCurveBootstrapGrpcServiceImpl(DiscountCurveBootstrapService discountCurveBootstrapService) {
+        this.discountCurveBootstrapService = discountCurveBootstrapService;
+    }
+
+    @Override
+    public void bootstrapDiscountCurve(CurveBootstrapRequest request, StreamObserver<CurveBootstrapResponse> responseObserver) {
+        Map<String, BigDecimal> prices = new HashMap<>(request.getQuotesCount());
+        try {
+            for (BondMarketQuote quote : request.getQuotesList()) {
+                prices.put(quote.getBondCode(), new BigDecimal(quote.getPrice()));
+            }
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid market price in curve bootstrap request.", e);
+            responseObserver.onError(io.grpc.Status.INVALID_ARGUMENT.withDescription(e.toString()).asRuntimeException());
+            return;
+        }
+
+        CurveBootstrapResult result;
+        try {
+            result = this.discountCurveBootstrapService.bootstrap(prices, request.getFullRebuild(), request.getUpdateUser());
+        } catch (RuntimeException e) {
+            logger.error(String.format("Failed to bootstrap discount curves. Quotes: %d, FullRebuild: %s", request.getQuotesCount(), request.getFullRebuild()), e);
+            responseObserver.onError(io.grpc.Status.INTERNAL.withDescription("Failed to bootstrap discount curves.").withCause(e).asRuntimeException());
+            return;
+        }
+        CurveBootstrapResponse.Builder builder = CurveBootstrapResponse.newBuilder()
+                .setStatusMsg(StatusMsg.newBuilder().setStatus(Status.OK).setDetail(result.isPublished() ? "Published" : "Not changed").build())
+                .setCurveVersion(String.valueOf(result.getVersion()))
+                .setPublished(result.isPublished());
+        for (Map.Entry<PaymentType, Integer> entry : result.getCurveSizes().entrySet()) {
+            builder.addSummaries(CurveBootstrapSummary.newBuilder()
+                    .setPaymentType(PaymetTypeConverter.convertTo(entry.getKey()))
+                    .setCurveSize(entry.getValue())
+                    .setResolvedTerms(result.getResolvedTerms().getOrDefault(entry.getKey(), 0)));
+        }
+        responseObserver.onNext(builder.build());
+        responseObserver.onCompleted();
+    }
+}
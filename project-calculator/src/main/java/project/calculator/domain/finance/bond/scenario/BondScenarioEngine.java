@@ -0,0 +1,125 @@
+package project.calculator.domain.finance.bond.scenario;
+
+import io.grpc.util.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.response.CalculationResult;
+import project.calculator.domain.finance.bond.algo.pricing.BondTheoreticalPricingStrategy;
+import project.calculator.domain.finance.bond.curve.DiscountCurve;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistry;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p>
+ * 基準カーブにショックを与えた複数のシナリオで、銘柄ごとの理論価格を計算する。
+ * </p>
+ * <p>
+ * ショック後のカーブは利払い周期ごとに一度だけ作り、全銘柄で共有する。
+ * 価格の計算はBondTheoreticalPricingStrategyに任せるので、累積和により1銘柄1シナリオあたり定数時間で済む。
+ * 行の範囲ごとに独立して計算できるので、呼び出し側で行を分割して並列に実行する。
+ * </p>
+ * CalculationStrategyConfigクラスで管理するのでAutoConfiguration用アノテーションは不用
+ */
+public class BondScenarioEngine {
+
+    private final DiscountCurveRegistry discountCurveRegistry;
+    private final BondTheoreticalPricingStrategy bondTheoreticalPricingStrategy;
+
+    private static final Logger logger = LoggerFactory.getLogger(BondScenarioEngine.class);
+
+    public BondScenarioEngine(DiscountCurveRegistry discountCurveRegistry, BondTheoreticalPricingStrategy bondTheoreticalPricingStrategy) {
+        this.discountCurveRegistry = discountCurveRegistry;
+        this.bondTheoreticalPricingStrategy = bondTheoreticalPricingStrategy;
+    }
+
+    /**
+     * 利払い周期ごとに基準カーブを解決し、全シナリオのショックを与えたカーブを作る。
+     * @param baseVersion 基準カーブのバージョン。nullの場合は最新版
+     * @param shocks
+     * @return
+     */
+    public ScenarioCurveSet buildCurveSet(Long baseVersion, List<CurveShock> shocks) {
+        List<String> scenarioIds = new ArrayList<>(shocks.size());
+        shocks.forEach(s -> scenarioIds.add(s.getScenarioId()));
+
+        Map<PaymentType, DiscountCurve[]> shockedCurves = new EnumMap<>(PaymentType.class);
+        for (PaymentType paymentType : PaymentType.values()) {
+            Optional<DiscountCurve> base = this.discountCurveRegistry.resolve(paymentType, baseVersion);
+            if (base.isEmpty()) {
+                logger.warn(String.format("Base Discount Curve is not found. PaymentType: %s, Version: %s", paymentType, baseVersion));
+                continue;
+            }
+            DiscountCurve[] curves = new DiscountCurve[shocks.size()];
+            for (int j = 0; j < shocks.size(); j++) {
+                curves[j] = shocks.get(j).apply(base.get());
+            }
+            shockedCurves.put(paymentType, curves);
+        }
+        return new ScenarioCurveSet(scenarioIds, shockedCurves);
+    }
+
+    /**
+     * 行の範囲[fromRow, toRow)の銘柄を全シナリオで評価する。
+     * 正常終了しなかったシナリオの価格はNaNとし、行の状態はその銘柄で最初に正常終了しなかったシナリオの状態とする。
+     * @param bonds 全銘柄
+     * @param fromRow
+     * @param toRow
+     * @param curveSet
+     * @return
+     */
+    public ScenarioGridRows priceRows(List<BondPricingData> bonds, int fromRow, int toRow, ScenarioCurveSet curveSet) {
+        int rows = toRow - fromRow;
+        int columns = curveSet.scenarioCount();
+        String[] bondCodes = new String[rows];
+        Status[] statuses = new Status[rows];
+        double[] prices = new double[rows * columns];
+
+        for (int r = 0; r < rows; r++) {
+            BondPricingData bond = bonds.get(fromRow + r);
+            bondCodes[r] = bond.getBondCode();
+            DiscountCurve[] curves = bond.getPaymentType() == null ? null : curveSet.getShockedCurves(bond.getPaymentType());
+            // ショック後のカーブは基準カーブと同じ長さなので、期間の不足は1回だけ確認すればよい
+            if (curves == null || (columns > 0 && !this.coversMaturity(bond, curves[0]))) {
+                statuses[r] = Status.NOT_COMPLETED;
+                Arrays.fill(prices, r * columns, (r + 1) * columns, Double.NaN);
+                continue;
+            }
+            Status status = Status.OK;
+            for (int c = 0; c < columns; c++) {
+                CalculationResult result = this.bondTheoreticalPricingStrategy.execute(bond, curves[c]);
+                Status cell = result.getResultDetail().getStatus();
+                if (cell == Status.OK) {
+                    prices[r * columns + c] = result.getResult().doubleValue();
+                } else {
+                    prices[r * columns + c] = Double.NaN;
+                    status = status == Status.OK ? cell : status;
+                }
+            }
+            statuses[r] = status;
+        }
+        return new ScenarioGridRows(fromRow, bondCodes, statuses, prices);
+    }
+
+    /**
+     * 残存期間がカーブの最後の期間の年数以内か確認する。期間数に切り捨てずに比べるので、最後の期間を超える残存期間は対象外となる。
+     * @param bond
+     * @param curve
+     * @return
+     */
+    private boolean coversMaturity(BondPricingData bond, DiscountCurve curve) {
+        if (bond.getCurrentMaturity() == null || curve.isEmpty()) {
+            return false;
+        }
+        BigDecimal lastTime = bond.getPaymentType().getStep().multiply(BigDecimal.valueOf(curve.size() - 1));
+        return bond.getCurrentMaturity().signum() >= 0 && bond.getCurrentMaturity().compareTo(lastTime) <= 0;
+    }
+}
@@ -0,0 +1,119 @@
+package project.calculator.domain.finance.bond.scenario;
+
+import project.calculator.domain.finance.bond.curve.DiscountCurve;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * ゼロレート(連続複利)のシフトで表したカーブのショック。
+ * 年限間は線形補間し、最短・最長の年限の外側は端の値で外挿する。
+ * </p>
+ * <p>
+ * パラレルシフトは1点、ツイストは2点、ヒストリカルは観測した年限すべてを指定すればよい。
+ * </p>
+ */
+public final class CurveShock {
+
+    private final String scenarioId;
+    // 昇順の年限
+    private final double[] tenors;
+    // 年限ごとのシフト幅(bp)
+    private final double[] shiftsBp;
+
+    private CurveShock(String scenarioId, double[] tenors, double[] shiftsBp) {
+        this.scenarioId = scenarioId;
+        this.tenors = tenors;
+        this.shiftsBp = shiftsBp;
+    }
+
+    /**
+     * ショックを生成する。年限は昇順でなくてもよい。
+     * @param scenarioId
+     * @param tenors
+     * @param shiftsBp
+     * @return
+     */
+    public static CurveShock of(String scenarioId, double[] tenors, double[] shiftsBp) {
+        if (tenors.length == 0 || tenors.length != shiftsBp.length) {
+            throw new IllegalArgumentException(String.format("Invalid curve shock. ScenarioId: %s", scenarioId));
+        }
+        Integer[] order = new Integer[tenors.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(tenors[a], tenors[b]));
+        double[] sortedTenors = new double[tenors.length];
+        double[] sortedShifts = new double[tenors.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedTenors[i] = tenors[order[i]];
+            sortedShifts[i] = shiftsBp[order[i]];
+        }
+        return new CurveShock(scenarioId, sortedTenors, sortedShifts);
+    }
+
+    /**
+     * 全年限を同じ幅だけシフトするショックを生成する。
+     * @param scenarioId
+     * @param shiftBp
+     * @return
+     */
+    public static CurveShock parallel(String scenarioId, double shiftBp) {
+        return new CurveShock(scenarioId, new double[]{0}, new double[]{shiftBp});
+    }
+
+    public String getScenarioId() {
+        return this.scenarioId;
+    }
+
+    /**
+     * 年限tのシフト幅(bp)を返す。
+     * @param t
+     * @return
+     */
+    public double shiftAt(double t) {
+        int last = this.tenors.length - 1;
+        if (t <= this.tenors[0]) {
+            return this.shiftsBp[0];
+        }
+        if (t >= this.tenors[last]) {
+            return this.shiftsBp[last];
+        }
+        int index = Arrays.binarySearch(this.tenors, t);
+        if (index >= 0) {
+            return this.shiftsBp[index];
+        }
+        int upper = -index - 1;
+        int lower = upper - 1;
+        double weight = (t - this.tenors[lower]) / (this.tenors[upper] - this.tenors[lower]);
+        return this.shiftsBp[lower] + (this.shiftsBp[upper] - this.shiftsBp[lower]) * weight;
+    }
+
+    /**
+     * <p>
+     * カーブにショックを与えたカーブを返す。DF(t) × exp(-shift(t) × t)で計算する。
+     * 返すカーブの利払い周期・バージョンは元のカーブと同じ。
+     * </p>
+     * @param base
+     * @return
+     */
+    public DiscountCurve apply(DiscountCurve base) {
+        double step = base.getPaymentType().getStep().doubleValue();
+        List<BigDecimal> shocked = new ArrayList<>(base.size());
+        for (int i = 0; i < base.size(); i++) {
+            double t = i * step;
+            double factor = Math.exp(-this.shiftAt(t) / 10000 * t);
+            shocked.add(base.getDiscountFactor(i).multiply(BigDecimal.valueOf(factor), MathContext.DECIMAL64));
+        }
+        return DiscountCurve.of(base.getPaymentType(), base.getVersion(), shocked);
+    }
+
+    @Override
+    public String toString() {
+        return "CurveShock(scenarioId=" + this.scenarioId + ", tenors=" + Arrays.toString(this.tenors) + ", shiftsBp=" + Arrays.toString(this.shiftsBp) + ")";
+    }
+}
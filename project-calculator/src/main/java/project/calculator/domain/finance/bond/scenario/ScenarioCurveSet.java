@@ -0,0 +1,42 @@
+package project.calculator.domain.finance.bond.scenario;
+
+import project.calculator.domain.finance.bond.curve.DiscountCurve;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 利払い周期ごとに、全シナリオのショックを与えたカーブを保持する。
+ * 生成後は変更しないので、複数スレッドから参照できる。
+ */
+public final class ScenarioCurveSet {
+
+    private final List<String> scenarioIds;
+    // 添字はscenarioIdsと同じ順
+    private final Map<PaymentType, DiscountCurve[]> shockedCurves;
+
+    ScenarioCurveSet(List<String> scenarioIds, Map<PaymentType, DiscountCurve[]> shockedCurves) {
+        this.scenarioIds = Collections.unmodifiableList(scenarioIds);
+        this.shockedCurves = new EnumMap<>(shockedCurves);
+    }
+
+    public List<String> getScenarioIds() {
+        return this.scenarioIds;
+    }
+
+    public int scenarioCount() {
+        return this.scenarioIds.size();
+    }
+
+    /**
+     * 利払い周期に対応するショック後のカーブを返す。
+     * @param paymentType
+     * @return 基準カーブが存在しない場合はnull
+     */
+    DiscountCurve[] getShockedCurves(PaymentType paymentType) {
+        return this.shockedCurves.get(paymentType);
+    }
+}
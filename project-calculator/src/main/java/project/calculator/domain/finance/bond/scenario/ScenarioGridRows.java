@@ -0,0 +1,42 @@
+package project.calculator.domain.finance.bond.scenario;
+
+import io.grpc.util.Status;
+
+/**
+ * シナリオ評価の結果行列のうち、連続する銘柄の行をまとめたもの。
+ * pricesは行優先で(銘柄数 × シナリオ数)の要素を持つ。
+ */
+public final class ScenarioGridRows {
+
+    private final int firstRow;
+    private final String[] bondCodes;
+    private final Status[] statuses;
+    private final double[] prices;
+
+    ScenarioGridRows(int firstRow, String[] bondCodes, Status[] statuses, double[] prices) {
+        this.firstRow = firstRow;
+        this.bondCodes = bondCodes;
+        this.statuses = statuses;
+        this.prices = prices;
+    }
+
+    public int getFirstRow() {
+        return this.firstRow;
+    }
+
+    public int rowCount() {
+        return this.bondCodes.length;
+    }
+
+    public String getBondCode(int row) {
+        return this.bondCodes[row];
+    }
+
+    public Status getStatus(int row) {
+        return this.statuses[row];
+    }
+
+    public double[] getPrices() {
+        return this.prices;
+    }
+}
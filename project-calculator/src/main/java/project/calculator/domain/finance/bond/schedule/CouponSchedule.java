@@ -0,0 +1,105 @@
+package project.calculator.domain.finance.bond.schedule;
+
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * 償還日から利払い周期ごとに遡って生成した利払い日の列。
+ * 生成後は変更しないので、複数スレッドから参照できる。
+ * </p>
+ */
+public final class CouponSchedule {
+
+    private final LocalDate maturity;
+    private final PaymentType paymentType;
+    // 昇順の利払い日。最後の要素は償還日
+    private final LocalDate[] couponDates;
+
+    private CouponSchedule(LocalDate maturity, PaymentType paymentType, LocalDate[] couponDates) {
+        this.maturity = maturity;
+        this.paymentType = paymentType;
+        this.couponDates = couponDates;
+    }
+
+    /**
+     * 償還日から遡り、from以前の利払い日を1つ含むまで生成する。
+     * 月末の償還日は月末の利払い日として扱う。
+     * @param maturity
+     * @param paymentType
+     * @param from 最も早い受渡日
+     * @return
+     */
+    public static CouponSchedule generate(LocalDate maturity, PaymentType paymentType, LocalDate from) {
+        int months = paymentType.getStep().multiply(BigDecimal.valueOf(12)).intValue();
+        boolean isEndOfMonth = maturity.getDayOfMonth() == maturity.lengthOfMonth();
+        List<LocalDate> dates = new ArrayList<>();
+        for (int i = 0; ; i++) {
+            LocalDate date = maturity.minusMonths((long) months * i);
+            if (isEndOfMonth) {
+                date = date.withDayOfMonth(date.lengthOfMonth());
+            }
+            dates.add(date);
+            if (!date.isAfter(from)) {
+                break;
+            }
+        }
+        Collections.reverse(dates);
+        return new CouponSchedule(maturity, paymentType, dates.toArray(new LocalDate[0]));
+    }
+
+    public LocalDate getMaturity() {
+        return this.maturity;
+    }
+
+    public PaymentType getPaymentType() {
+        return this.paymentType;
+    }
+
+    /**
+     * 受渡日がこのスケジュールの範囲内か確認する。
+     * @param settlementDate
+     * @return
+     */
+    public boolean covers(LocalDate settlementDate) {
+        return !this.couponDates[0].isAfter(settlementDate);
+    }
+
+    /**
+     * 受渡日より後の最初の利払い日のインデックスを返す。受渡日当日の利払いは含まない。
+     * 償還日以降の場合は利払い日の数を返す。
+     * @param settlementDate
+     * @return
+     */
+    public int nextCouponIndex(LocalDate settlementDate) {
+        int index = Arrays.binarySearch(this.couponDates, settlementDate);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    public LocalDate getCouponDate(int index) {
+        return this.couponDates[index];
+    }
+
+    public int size() {
+        return this.couponDates.length;
+    }
+
+    /**
+     * 年間の利払い回数
+     * @return
+     */
+    public int frequency() {
+        return BigDecimal.ONE.divide(this.paymentType.getStep()).intValue();
+    }
+
+    @Override
+    public String toString() {
+        return "CouponSchedule(maturity=" + this.maturity + ", paymentType=" + this.paymentType + ", size=" + this.couponDates.length + ")";
+    }
+}
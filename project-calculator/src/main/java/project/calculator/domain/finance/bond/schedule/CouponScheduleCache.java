@@ -0,0 +1,115 @@
+package project.calculator.domain.finance.bond.schedule;
+
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * 銘柄ごとに利払いスケジュールを保持する。スケジュールは銘柄ごとに一度だけ生成し、リクエストをまたいで再利用する。
+ * </p>
+ * <p>
+ * 償還日がリクエストで指定されない場合はmaturityLoader(債券マスタ)から取得する。
+ * 償還日・利払い周期が変わった場合や、生成済みの範囲より前の受渡日で参照された場合のみ生成し直す。
+ * 債券マスタが更新された銘柄はCouponScheduleRefreshSchedulerがinvalidateで破棄する。
+ * </p>
+ * <p>
+ * 直近に参照したmaxSize銘柄分だけ保持し、古いものから破棄する。
+ * </p>
+ * CalculationStrategyConfigクラスで管理するのでAutoConfiguration用アノテーションは不用
+ */
+public class CouponScheduleCache {
+
+    // 保持する銘柄数の既定値
+    private static final int DEFAULT_MAX_SIZE = 10000;
+
+    private final Function<String, Optional<LocalDate>> maturityLoader;
+    // 銘柄コードごとのスケジュールのLRU。アクセス順のLinkedHashMapで古いものから破棄する。
+    private final Map<String, CouponSchedule> schedules;
+    // 破棄した回数。破棄の前に読んだ償還日で生成したスケジュールを、破棄の後に格納しないようにする
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * @param maturityLoader 銘柄コードから償還日を取得する
+     */
+    public CouponScheduleCache(Function<String, Optional<LocalDate>> maturityLoader) {
+        this(maturityLoader, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maturityLoader 銘柄コードから償還日を取得する
+     * @param maxSize 保持する銘柄数の上限
+     */
+    public CouponScheduleCache(Function<String, Optional<LocalDate>> maturityLoader, int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException(String.format("Max size must not be negative. Actual -> %d", maxSize));
+        }
+        this.maturityLoader = maturityLoader;
+        this.schedules = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CouponSchedule> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    /**
+     * 銘柄の利払いスケジュールを返す。
+     * @param bondCode
+     * @param maturity 償還日。nullの場合は債券マスタの償還日を使う
+     * @param paymentType
+     * @param settlementDate 受渡日
+     * @return 償還日がわからない場合はempty
+     */
+    public Optional<CouponSchedule> get(String bondCode, LocalDate maturity, PaymentType paymentType, LocalDate settlementDate) {
+        long invalidated = this.invalidations.get();
+        CouponSchedule cached = this.schedules.get(bondCode);
+        LocalDate resolvedMaturity = maturity;
+        if (resolvedMaturity == null) {
+            if (cached != null && cached.getPaymentType() == paymentType && cached.covers(settlementDate)) {
+                return Optional.of(cached);
+            }
+            Optional<LocalDate> loaded = this.maturityLoader.apply(bondCode);
+            if (loaded.isEmpty()) {
+                return Optional.empty();
+            }
+            resolvedMaturity = loaded.get();
+        }
+        if (cached != null && cached.getMaturity().equals(resolvedMaturity) && cached.getPaymentType() == paymentType && cached.covers(settlementDate)) {
+            return Optional.of(cached);
+        }
+        CouponSchedule schedule = CouponSchedule.generate(resolvedMaturity, paymentType, settlementDate);
+        if (this.invalidations.get() == invalidated) {
+            this.schedules.put(bondCode, schedule);
+        }
+        return Optional.of(schedule);
+    }
+
+    /**
+     * 銘柄のスケジュールを破棄する。次に参照したときに債券マスタから償還日を読み直す。
+     * @param bondCodes
+     */
+    public void invalidate(Collection<String> bondCodes) {
+        this.invalidations.incrementAndGet();
+        this.schedules.keySet().removeAll(bondCodes);
+    }
+
+    /**
+     * 全ての銘柄のスケジュールを破棄する。
+     */
+    public void invalidateAll() {
+        this.invalidations.incrementAndGet();
+        this.schedules.clear();
+    }
+
+    public int size() {
+        return this.schedules.size();
+    }
+}
@@ -0,0 +1,65 @@
+package project.calculator.domain.finance.bond.schedule;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import project.infra.rdb.bondmaster.BondMasterRepository;
+import project.infra.rdb.bondmaster.BondMasterVersion;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * bond_masterの銘柄ごとの最新バージョンを定期的に確認し、
+ * 前回から変わった銘柄・なくなった銘柄の利払いスケジュールをキャッシュから破棄する。
+ * 初回は確認前に生成したスケジュールのバージョンがわからないので、全て破棄する。
+ */
+@Component
+public class CouponScheduleRefreshScheduler {
+
+    private final BondMasterRepository bondMasterRepository;
+    private final CouponScheduleCache couponScheduleCache;
+    // 前回確認した銘柄ごとの最新バージョン。未確認の間はnull
+    private Map<String, Long> knownVersions;
+
+    private static final Logger logger = LoggerFactory.getLogger(CouponScheduleRefreshScheduler.class);
+
+    public CouponScheduleRefreshScheduler(BondMasterRepository bondMasterRepository, CouponScheduleCache couponScheduleCache) {
+        this.bondMasterRepository = bondMasterRepository;
+        this.couponScheduleCache = couponScheduleCache;
+    }
+
+    @Scheduled(fixedDelayString = "${calculator.coupon-schedule.refresh-interval-ms}")
+    public synchronized void refresh() {
+        Map<String, Long> latest = new HashMap<>();
+        for (BondMasterVersion version : this.bondMasterRepository.findLatestVersions()) {
+            latest.put(version.getBondCode(), version.getVersion());
+        }
+        if (this.knownVersions == null) {
+            this.couponScheduleCache.invalidateAll();
+            this.knownVersions = latest;
+            return;
+        }
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, Long> known : this.knownVersions.entrySet()) {
+            if (!Objects.equals(known.getValue(), latest.get(known.getKey()))) {
+                changed.add(known.getKey());
+            }
+        }
+        // 前回なかった銘柄も、マスタ登録前にリクエストの償還日で生成したスケジュールがあれば破棄する
+        for (String bondCode : latest.keySet()) {
+            if (!this.knownVersions.containsKey(bondCode)) {
+                changed.add(bondCode);
+            }
+        }
+        if (!changed.isEmpty()) {
+            this.couponScheduleCache.invalidate(changed);
+            logger.info(String.format("Invalidated coupon schedules of updated bonds. Count: %d", changed.size()));
+        }
+        this.knownVersions = latest;
+    }
+}
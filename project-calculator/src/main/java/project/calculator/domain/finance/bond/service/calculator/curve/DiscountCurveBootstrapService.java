@@ -0,0 +1,18 @@
+package project.calculator.domain.finance.bond.service.calculator.curve;
+
+import project.calculator.data.response.CurveBootstrapResult;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+public interface DiscountCurveBootstrapService {
+
+    /**
+     * 債券の市場価格から割引現在価値カーブを作り直し、新しいバージョンとして公開する。
+     * @param prices 銘柄コードごとの市場価格(額面あたり)。前回から変わった銘柄だけでよい
+     * @param fullRebuild trueの場合は債券マスタを読み直して全期間を解き直す
+     * @param updateUser
+     * @return
+     */
+    abstract CurveBootstrapResult bootstrap(Map<String, BigDecimal> prices, boolean fullRebuild, String updateUser);
+}
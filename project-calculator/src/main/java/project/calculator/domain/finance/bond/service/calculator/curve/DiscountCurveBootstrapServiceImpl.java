@@ -0,0 +1,146 @@
+package project.calculator.domain.finance.bond.service.calculator.curve;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.converter.BondMasterConverter;
+import project.calculator.data.response.CurveBootstrapResult;
+import project.calculator.domain.finance.bond.curve.DiscountCurve;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistry;
+import project.calculator.domain.finance.bond.curve.bootstrap.CurveBootstrapper;
+import project.infra.rdb.bondmaster.BondMasterRepository;
+import project.infra.rdb.discountfactor.DiscountFactorDataRepository;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * <p>
+ * 利払い周期ごとのCurveBootstrapperを保持し、受信した市場価格を差分で反映する。
+ * 債券マスタは初回・日付が変わった時・全件の再計算を指定された時のみ読み直す。
+ * </p>
+ * <p>
+ * 新しいバージョンは両方の利払い周期で同じ番号とし、discount_factor_masterのロックを取って採番してから一括で登録する。
+ * 市場価格の反映は複製したCurveBootstrapperで行い、保持している状態の更新とレジストリへの公開はコミット後に行う。
+ * ロールバックした場合は何も変えないので、同じ市場価格を再送すれば同じカーブを登録し直せる。
+ * </p>
+ */
+@Service
+public class DiscountCurveBootstrapServiceImpl implements DiscountCurveBootstrapService {
+
+    private final BondMasterRepository bondMasterRepository;
+    private final DiscountFactorDataRepository discountFactorDataRepository;
+    private final DiscountCurveRegistry discountCurveRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    /** 以下はthisで保護する */
+    private Map<PaymentType, CurveBootstrapper> bootstrappers = new EnumMap<>(PaymentType.class);
+    // 受信した全銘柄の最新の市場価格。債券マスタを読み直した時に再投入する
+    private Map<String, BigDecimal> latestPrices = new HashMap<>();
+    private LocalDate baseDate;
+
+    private static final Logger logger = LoggerFactory.getLogger(DiscountCurveBootstrapServiceImpl.class);
+
+    public DiscountCurveBootstrapServiceImpl(BondMasterRepository bondMasterRepository,
+                                             @Qualifier("discountFactorDataRepositoryJdbcImpl") DiscountFactorDataRepository discountFactorDataRepository,
+                                             DiscountCurveRegistry discountCurveRegistry, PlatformTransactionManager transactionManager) {
+        this.bondMasterRepository = bondMasterRepository;
+        this.discountFactorDataRepository = discountFactorDataRepository;
+        this.discountCurveRegistry = discountCurveRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * コミットまでを直列化するため、トランザクションはロックの内側で開始する。
+     */
+    @Override
+    public synchronized CurveBootstrapResult bootstrap(Map<String, BigDecimal> prices, boolean fullRebuild, String updateUser) {
+        Map<String, BigDecimal> mergedPrices = new HashMap<>(this.latestPrices);
+        mergedPrices.putAll(prices);
+        LocalDate today = LocalDate.now();
+        Map<String, BigDecimal> changed = prices;
+        Map<PaymentType, CurveBootstrapper> working;
+        if (fullRebuild || this.bootstrappers.isEmpty() || !today.equals(this.baseDate)) {
+            working = this.loadInstruments(today);
+            changed = mergedPrices;
+        } else {
+            working = new EnumMap<>(PaymentType.class);
+            this.bootstrappers.forEach((paymentType, bootstrapper) -> working.put(paymentType, bootstrapper.copy()));
+        }
+
+        Map<PaymentType, Integer> resolvedTerms = new EnumMap<>(PaymentType.class);
+        Map<PaymentType, Integer> curveSizes = new EnumMap<>(PaymentType.class);
+        int resolved = 0;
+        for (CurveBootstrapper bootstrapper : working.values()) {
+            int terms = bootstrapper.update(changed);
+            resolvedTerms.put(bootstrapper.getPaymentType(), terms);
+            curveSizes.put(bootstrapper.getPaymentType(), bootstrapper.getDiscountFactors().size());
+            resolved += terms;
+        }
+
+        if (resolved == 0) {
+            this.apply(working, mergedPrices, today);
+            long latestVersion = -1L;
+            for (PaymentType paymentType : PaymentType.values()) {
+                latestVersion = Math.max(latestVersion, this.discountFactorDataRepository.findLatestVersion(paymentType));
+            }
+            logger.info("Market prices did not change the discount curves.");
+            return new CurveBootstrapResult(latestVersion, false, curveSizes, resolvedTerms);
+        }
+
+        long version = this.transactionTemplate.execute(status -> {
+            long next = this.discountFactorDataRepository.lockLatestVersion() + 1;
+            List<DiscountCurve> curves = new ArrayList<>(working.size());
+            for (CurveBootstrapper bootstrapper : working.values()) {
+                List<BigDecimal> discountFactors = bootstrapper.getDiscountFactors();
+                this.discountFactorDataRepository.insertDiscountFactors(bootstrapper.getPaymentType(), next, discountFactors, updateUser);
+                curves.add(DiscountCurve.of(bootstrapper.getPaymentType(), next, discountFactors));
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    apply(working, mergedPrices, today);
+                    curves.forEach(discountCurveRegistry::publish);
+                }
+            });
+            return next;
+        });
+        logger.info(String.format("Published bootstrapped discount curves. Version: %d, ResolvedTerms: %s", version, resolvedTerms));
+        return new CurveBootstrapResult(version, true, curveSizes, resolvedTerms);
+    }
+
+    /**
+     * 市場価格を反映したCurveBootstrapperを保持する状態として採用する。
+     */
+    private void apply(Map<PaymentType, CurveBootstrapper> working, Map<String, BigDecimal> mergedPrices, LocalDate today) {
+        this.bootstrappers = working;
+        this.latestPrices = mergedPrices;
+        this.baseDate = today;
+    }
+
+    private Map<PaymentType, CurveBootstrapper> loadInstruments(LocalDate today) {
+        List<BondPricingData> instruments = this.bondMasterRepository.findLatestActive().stream()
+                .map(b -> BondMasterConverter.convertFrom(b, today))
+                .filter(b -> b.getPaymentType() != null && b.getCurrentMaturity().signum() > 0)
+                .collect(Collectors.toList());
+        Map<PaymentType, CurveBootstrapper> loaded = new EnumMap<>(PaymentType.class);
+        for (PaymentType paymentType : PaymentType.values()) {
+            loaded.put(paymentType, new CurveBootstrapper(paymentType, instruments));
+        }
+        logger.info(String.format("Loaded bootstrap instruments. Count: %d, BaseDate: %s", instruments.size(), today));
+        return loaded;
+    }
+}
@@ -0,0 +1,81 @@
+package project.calculator.domain.finance.bond.service.calculator.pricing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import project.calculator.data.BondPriceKey;
+import project.calculator.domain.finance.bond.curve.DiscountCurve;
+import project.calculator.domain.finance.bond.curve.DiscountCurveListener;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * 最新カーブが切り替わったら、同じ利払い周期の切替前のバージョンで計算したbondPriceCacheのエントリを破棄する。
+ * キーにカーブのバージョンを含むので古いエントリが誤った結果を返すことはないが、参照され続けると有効期限で破棄されずメモリに残る。
+ * </p>
+ * <p>
+ * CacheConfigクラスでDiscountCurveRegistryに登録するのでAutoConfiguration用アノテーションは不用
+ * </p>
+ */
+public class BondPriceCacheEvictor implements DiscountCurveListener {
+
+    private final CacheManager cacheManager;
+
+    private static final Logger logger = LoggerFactory.getLogger(BondPriceCacheEvictor.class);
+
+    public BondPriceCacheEvictor(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void onLatestChanged(DiscountCurve previous, DiscountCurve latest) {
+        if (previous == null) {
+            return;
+        }
+        Cache cache = this.cacheManager.getCache(CachedBondPriceCalculator.CACHE_NAME);
+        if (cache == null) {
+            return;
+        }
+        Object nativeCache = cache.getNativeCache();
+        int evicted;
+        if (nativeCache instanceof javax.cache.Cache) {
+            evicted = evict((javax.cache.Cache<?, ?>) nativeCache, latest);
+        } else if (nativeCache instanceof Map) {
+            evicted = evict((Map<?, ?>) nativeCache, latest);
+        } else {
+            logger.warn(String.format("Cannot evict superseded Bond Prices. Cache: %s", nativeCache.getClass().getName()));
+            return;
+        }
+        logger.info(String.format("Evicted Bond Prices of superseded Discount Curves. PaymentType: %s, Version: %d, Count: %d"
+                , latest.getPaymentType(), latest.getVersion(), evicted));
+    }
+
+    private static <K> int evict(javax.cache.Cache<K, ?> cache, DiscountCurve latest) {
+        Set<K> superseded = new HashSet<>();
+        for (javax.cache.Cache.Entry<K, ?> entry : cache) {
+            if (isSuperseded(entry.getKey(), latest)) {
+                superseded.add(entry.getKey());
+            }
+        }
+        cache.removeAll(superseded);
+        return superseded.size();
+    }
+
+    private static int evict(Map<?, ?> cache, DiscountCurve latest) {
+        int before = cache.size();
+        cache.keySet().removeIf(key -> isSuperseded(key, latest));
+        return before - cache.size();
+    }
+
+    private static boolean isSuperseded(Object key, DiscountCurve latest) {
+        if (!(key instanceof BondPriceKey)) {
+            return false;
+        }
+        BondPriceKey bondPriceKey = (BondPriceKey) key;
+        return bondPriceKey.getPaymentType() == latest.getPaymentType() && bondPriceKey.getCurveVersion() < latest.getVersion();
+    }
+}
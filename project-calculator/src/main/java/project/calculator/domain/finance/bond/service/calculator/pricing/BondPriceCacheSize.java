@@ -0,0 +1,65 @@
+package project.calculator.domain.finance.bond.service.calculator.pricing;
+
+/**
+ * <p>
+ * bondPriceCacheのオンヒープ層・オフヒープ層の大きさ(MB)。
+ * オンヒープ層は最大ヒープの1/8まで、オフヒープ層はダイレクトメモリ上限の1/2までとし、超える場合は起動時に失敗させる。
+ * ダイレクトメモリはgRPCの通信バッファなどと上限を共有するので、オフヒープ層で使い切らないようにする。
+ * </p>
+ */
+public final class BondPriceCacheSize {
+
+    private static final long MB = 1024L * 1024L;
+    private static final long HEAP_DIVISOR = 8L;
+    private static final long OFFHEAP_DIVISOR = 2L;
+
+    private final long heapMb;
+    private final long offheapMb;
+
+    private BondPriceCacheSize(long heapMb, long offheapMb) {
+        this.heapMb = heapMb;
+        this.offheapMb = offheapMb;
+    }
+
+    /**
+     * JVMのメモリ上限に収まることを確認して生成する。
+     * @param heapMb オンヒープ層の大きさ
+     * @param offheapMb オフヒープ層の大きさ
+     * @param maxHeapBytes 最大ヒープ
+     * @param maxDirectBytes ダイレクトメモリの上限
+     * @return
+     */
+    public static BondPriceCacheSize of(long heapMb, long offheapMb, long maxHeapBytes, long maxDirectBytes) {
+        if (heapMb <= 0 || offheapMb <= heapMb) {
+            // Ehcacheはオフヒープ層がオンヒープ層より大きくないと生成できない
+            throw new IllegalStateException(String.format("Invalid Bond Price Cache size. Heap: %dMB, Offheap: %dMB", heapMb, offheapMb));
+        }
+        long maxHeapMb = maxHeapBytes / MB / HEAP_DIVISOR;
+        if (heapMb > maxHeapMb) {
+            throw new IllegalStateException(String.format("Bond Price Cache heap tier %dMB exceeds 1/%d of max heap %dMB. Allowed: %dMB"
+                    , heapMb, HEAP_DIVISOR, maxHeapBytes / MB, maxHeapMb));
+        }
+        long maxOffheapMb = maxDirectBytes / MB / OFFHEAP_DIVISOR;
+        if (offheapMb > maxOffheapMb) {
+            throw new IllegalStateException(String.format("Bond Price Cache offheap tier %dMB exceeds 1/%d of max direct memory %dMB. Allowed: %dMB"
+                    , offheapMb, OFFHEAP_DIVISOR, maxDirectBytes / MB, maxOffheapMb));
+        }
+        return new BondPriceCacheSize(heapMb, offheapMb);
+    }
+
+    public long getHeapMb() {
+        return heapMb;
+    }
+
+    public long getOffheapMb() {
+        return offheapMb;
+    }
+
+    @Override
+    public String toString() {
+        return "BondPriceCacheSize{" +
+                "heapMb=" + heapMb +
+                ", offheapMb=" + offheapMb +
+                '}';
+    }
+}
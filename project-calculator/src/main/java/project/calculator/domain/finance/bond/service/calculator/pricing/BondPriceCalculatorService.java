@@ -3,7 +3,16 @@ package project.calculator.domain.finance.bond.service.calculator.pricing;
 import project.calculator.data.BondPricingData;
 import project.calculator.data.response.CalculationResult;
 
+import java.util.List;
+
 public interface BondPriceCalculatorService {
 
     abstract CalculationResult calculateByDiscountFactor(BondPricingData data);
+
+    /**
+     * 複数銘柄の理論価格をまとめて計算する。
+     * @param data
+     * @return リクエスト順の計算結果
+     */
+    abstract List<CalculationResult> calculateByDiscountFactor(List<BondPricingData> data);
 }
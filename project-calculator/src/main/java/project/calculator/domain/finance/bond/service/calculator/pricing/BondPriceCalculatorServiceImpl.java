@@ -1,26 +1,42 @@
 package project.calculator.domain.finance.bond.service.calculator.pricing;
 
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import project.calculator.data.BondPricingData;
 import project.calculator.data.response.CalculationResult;
-import project.calculator.domain.finance.bond.algo.CalculationStrategy;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistry;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class BondPriceCalculatorServiceImpl implements BondPriceCalculatorService {
 
-    private final CalculationStrategy<BondPricingData> bondPricingDataCalculationStrategy;
+    private final CachedBondPriceCalculator cachedBondPriceCalculator;
+    private final DiscountCurveRegistry discountCurveRegistry;
 
-    public BondPriceCalculatorServiceImpl(CalculationStrategy<BondPricingData> bondPricingDataCalculationStrategy){
-        this.bondPricingDataCalculationStrategy = bondPricingDataCalculationStrategy;
+    public BondPriceCalculatorServiceImpl(CachedBondPriceCalculator cachedBondPriceCalculator, DiscountCurveRegistry discountCurveRegistry){
+        this.cachedBondPriceCalculator = cachedBondPriceCalculator;
+        this.discountCurveRegistry = discountCurveRegistry;
     }
 
     /**
-     *
+     * バージョン未指定のリクエストは、その時点の最新カーブのバージョンに固定してから計算する。
+     * キャッシュのキーと計算が別々に最新版を解決すると、その間にカーブが切り替わった場合に新しいバージョンのキーで古いカーブの価格をキャッシュしてしまう。
      */
-    @Cacheable("bondPriceCache")
     public CalculationResult calculateByDiscountFactor(BondPricingData data){
-        CalculationResult result = this.bondPricingDataCalculationStrategy.execute(data);
-        return result;
+        return this.cachedBondPriceCalculator.calculate(this.pin(data));
+    }
+
+    /**
+     * カーブのバージョンを固定し、キャッシュにない銘柄をまとめて計算する。
+     */
+    public List<CalculationResult> calculateByDiscountFactor(List<BondPricingData> data){
+        return this.cachedBondPriceCalculator.calculateAll(data.stream().map(this::pin).collect(Collectors.toList()));
+    }
+
+    private BondPricingData pin(BondPricingData data){
+        return this.discountCurveRegistry.resolve(data.getPaymentType(), data.getCurveVersion())
+                .map(curve -> data.withCurveVersion(curve.getVersion()))
+                .orElse(data);
     }
 }
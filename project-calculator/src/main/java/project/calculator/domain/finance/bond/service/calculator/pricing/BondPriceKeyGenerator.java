@@ -0,0 +1,43 @@
+package project.calculator.domain.finance.bond.service.calculator.pricing;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+import project.calculator.data.BondPriceKey;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.PricingMethod;
+
+import java.lang.reflect.Method;
+
+/**
+ * <p>
+ * bondPriceCacheのキーを生成する。
+ * カーブのバージョンはBondPriceCalculatorServiceImplで計算に使うカーブのバージョンに固定済みなので、そのままキーに含める。
+ * </p>
+ * CacheConfigクラスで管理するのでAutoConfiguration用アノテーションは不用
+ */
+public class BondPriceKeyGenerator implements KeyGenerator {
+
+    // カーブが存在しない場合のバージョン。計算結果は正常終了しないのでキャッシュされない。
+    private static final long UNKNOWN_VERSION = -1L;
+
+    private final PricingMethod defaultPricingMethod;
+
+    public BondPriceKeyGenerator(PricingMethod defaultPricingMethod) {
+        this.defaultPricingMethod = defaultPricingMethod;
+    }
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        return this.generate((BondPricingData) params[0]);
+    }
+
+    /**
+     * CachedBondPriceCalculatorの一括計算でキャッシュを直接参照する場合に使う。
+     * @param data
+     * @return
+     */
+    public BondPriceKey generate(BondPricingData data) {
+        long curveVersion = data.getCurveVersion() == null ? UNKNOWN_VERSION : data.getCurveVersion();
+        PricingMethod pricingMethod = data.getPricingMethod() == null ? this.defaultPricingMethod : data.getPricingMethod();
+        return BondPriceKey.of(data, curveVersion, pricingMethod);
+    }
+}
@@ -0,0 +1,84 @@
+package project.calculator.domain.finance.bond.service.calculator.pricing;
+
+import io.grpc.util.Status;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import project.calculator.data.BondPriceKey;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.response.CalculationResult;
+import project.calculator.domain.finance.bond.algo.CalculationStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * 計算結果をbondPriceCacheにキャッシュして理論価格を計算する。
+ * カーブのバージョンはBondPriceCalculatorServiceImplで固定してから渡すので、キーと計算は同じカーブを使う。
+ * </p>
+ */
+@Service
+public class CachedBondPriceCalculator {
+
+    static final String CACHE_NAME = "bondPriceCache";
+
+    private final CalculationStrategy<BondPricingData> bondPricingDataCalculationStrategy;
+    private final CacheManager cacheManager;
+    private final BondPriceKeyGenerator bondPriceKeyGenerator;
+
+    public CachedBondPriceCalculator(CalculationStrategy<BondPricingData> bondPricingDataCalculationStrategy, CacheManager cacheManager
+            , BondPriceKeyGenerator bondPriceKeyGenerator) {
+        this.bondPricingDataCalculationStrategy = bondPricingDataCalculationStrategy;
+        this.cacheManager = cacheManager;
+        this.bondPriceKeyGenerator = bondPriceKeyGenerator;
+    }
+
+    /**
+     * 計算結果は価格に影響する項目とカーブのバージョンをキーとしてキャッシュする。
+     * 正常終了しなかった結果はキャッシュしない。
+     * @param data カーブのバージョンを固定した計算条件
+     * @return
+     */
+    @Cacheable(cacheNames = CACHE_NAME, keyGenerator = "bondPriceKeyGenerator",
+            unless = "#result.resultDetail.status != T(io.grpc.util.Status).OK")
+    public CalculationResult calculate(BondPricingData data) {
+        return this.bondPricingDataCalculationStrategy.execute(data);
+    }
+
+    /**
+     * キャッシュにない銘柄だけをまとめて一括計算する。キーとキャッシュする条件はcalculateと同じ。
+     * @param data カーブのバージョンを固定した計算条件
+     * @return リクエスト順の計算結果
+     */
+    public List<CalculationResult> calculateAll(List<BondPricingData> data) {
+        Cache cache = this.cacheManager.getCache(CACHE_NAME);
+        CalculationResult[] results = new CalculationResult[data.size()];
+        List<BondPricingData> missed = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        List<BondPriceKey> keys = new ArrayList<>();
+        for (int i = 0; i < data.size(); i++) {
+            BondPriceKey key = this.bondPriceKeyGenerator.generate(data.get(i));
+            CalculationResult cached = cache == null ? null : cache.get(key, CalculationResult.class);
+            if (cached != null) {
+                results[i] = cached;
+                continue;
+            }
+            missed.add(data.get(i));
+            positions.add(i);
+            keys.add(key);
+        }
+
+        List<CalculationResult> calculated = this.bondPricingDataCalculationStrategy.executeBatch(missed);
+        for (int j = 0; j < calculated.size(); j++) {
+            CalculationResult result = calculated.get(j);
+            results[positions.get(j)] = result;
+            if (cache != null && result.getResultDetail().getStatus() == Status.OK) {
+                cache.put(keys.get(j), result);
+            }
+        }
+        return Arrays.asList(results);
+    }
+}
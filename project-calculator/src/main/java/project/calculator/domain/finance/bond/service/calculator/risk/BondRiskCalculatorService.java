@@ -0,0 +1,11 @@
+package project.calculator.domain.finance.bond.service.calculator.risk;
+
+import project.calculator.data.BondPricingData;
+import project.calculator.data.response.BondRiskResult;
+
+import java.util.List;
+
+public interface BondRiskCalculatorService {
+
+    abstract List<BondRiskResult> calculateByDiscountFactor(List<BondPricingData> data);
+}
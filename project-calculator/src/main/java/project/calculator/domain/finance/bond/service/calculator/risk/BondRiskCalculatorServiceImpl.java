@@ -0,0 +1,25 @@
+package project.calculator.domain.finance.bond.service.calculator.risk;
+
+import org.springframework.stereotype.Service;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.response.BondRiskResult;
+import project.calculator.domain.finance.bond.algo.risk.BondRiskStrategy;
+
+import java.util.List;
+
+@Service
+public class BondRiskCalculatorServiceImpl implements BondRiskCalculatorService {
+
+    private final BondRiskStrategy bondRiskStrategy;
+
+    public BondRiskCalculatorServiceImpl(BondRiskStrategy bondRiskStrategy){
+        this.bondRiskStrategy = bondRiskStrategy;
+    }
+
+    /**
+     * 複数銘柄のリスク指標を並列に計算する。
+     */
+    public List<BondRiskResult> calculateByDiscountFactor(List<BondPricingData> data){
+        return this.bondRiskStrategy.executeBatch(data);
+    }
+}
@@ -0,0 +1,18 @@
+package project.calculator.domain.finance.bond.service.calculator.scenario;
+
+import project.calculator.data.BondPricingData;
+import project.calculator.domain.finance.bond.scenario.CurveShock;
+import project.calculator.domain.finance.bond.scenario.ScenarioCurveSet;
+import project.calculator.domain.finance.bond.scenario.ScenarioGridRows;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface BondScenarioService {
+
+    abstract List<BondPricingData> loadBondUniverse(LocalDate baseDate);
+
+    abstract ScenarioCurveSet buildCurveSet(Long baseVersion, List<CurveShock> shocks);
+
+    abstract ScenarioGridRows priceRows(List<BondPricingData> bonds, int fromRow, int toRow, ScenarioCurveSet curveSet);
+}
@@ -0,0 +1,44 @@
+package project.calculator.domain.finance.bond.service.calculator.scenario;
+
+import org.springframework.stereotype.Service;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.converter.BondMasterConverter;
+import project.calculator.domain.finance.bond.scenario.BondScenarioEngine;
+import project.calculator.domain.finance.bond.scenario.CurveShock;
+import project.calculator.domain.finance.bond.scenario.ScenarioCurveSet;
+import project.calculator.domain.finance.bond.scenario.ScenarioGridRows;
+import project.infra.rdb.bondmaster.BondMasterRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class BondScenarioServiceImpl implements BondScenarioService {
+
+    private final BondMasterRepository bondMasterRepository;
+    private final BondScenarioEngine bondScenarioEngine;
+
+    public BondScenarioServiceImpl(BondMasterRepository bondMasterRepository, BondScenarioEngine bondScenarioEngine){
+        this.bondMasterRepository = bondMasterRepository;
+        this.bondScenarioEngine = bondScenarioEngine;
+    }
+
+    /**
+     * 債券マスタの有効な銘柄のうち、基準日時点で償還していないものを返す。
+     */
+    public List<BondPricingData> loadBondUniverse(LocalDate baseDate){
+        return this.bondMasterRepository.findLatestActive().stream()
+                .map(b -> BondMasterConverter.convertFrom(b, baseDate))
+                .filter(b -> b.getCurrentMaturity().signum() >= 0)
+                .collect(Collectors.toList());
+    }
+
+    public ScenarioCurveSet buildCurveSet(Long baseVersion, List<CurveShock> shocks){
+        return this.bondScenarioEngine.buildCurveSet(baseVersion, shocks);
+    }
+
+    public ScenarioGridRows priceRows(List<BondPricingData> bonds, int fromRow, int toRow, ScenarioCurveSet curveSet){
+        return this.bondScenarioEngine.priceRows(bonds, fromRow, toRow, curveSet);
+    }
+}
@@ -0,0 +1,11 @@
+package project.calculator.domain.finance.bond.service.calculator.ytm;
+
+import project.calculator.data.BondPricingData;
+import project.calculator.data.response.BondYieldResult;
+
+import java.util.List;
+
+public interface BondYieldCalculatorService {
+
+    abstract List<BondYieldResult> calculateByPrice(List<BondPricingData> data);
+}
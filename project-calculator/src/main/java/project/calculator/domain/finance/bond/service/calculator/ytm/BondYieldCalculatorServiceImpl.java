@@ -0,0 +1,44 @@
+package project.calculator.domain.finance.bond.service.calculator.ytm;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.response.BondYieldResult;
+import project.calculator.domain.finance.bond.algo.ytm.BondYieldStrategy;
+
+import java.util.List;
+
+@Service
+public class BondYieldCalculatorServiceImpl implements BondYieldCalculatorService {
+
+    private final BondYieldStrategy bondYieldStrategy;
+    private final DistributionSummary throughput;
+
+    private static final Logger logger = LoggerFactory.getLogger(BondYieldCalculatorServiceImpl.class);
+
+    public BondYieldCalculatorServiceImpl(BondYieldStrategy bondYieldStrategy, MeterRegistry meterRegistry){
+        this.bondYieldStrategy = bondYieldStrategy;
+        this.throughput = DistributionSummary.builder("bond.yield.throughput")
+                .description("Bonds solved for yield to maturity per second per core")
+                .baseUnit("bonds/s/core")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 複数銘柄の最終利回りを並列に計算し、1コア・1秒あたりの銘柄数を記録する。
+     */
+    public List<BondYieldResult> calculateByPrice(List<BondPricingData> data){
+        long start = System.nanoTime();
+        List<BondYieldResult> results = this.bondYieldStrategy.executeBatch(data);
+        long elapsed = System.nanoTime() - start;
+        if (!data.isEmpty() && elapsed > 0) {
+            double bondsPerSecondPerCore = data.size() / (elapsed / 1e9) / this.bondYieldStrategy.getParallelism();
+            this.throughput.record(bondsPerSecondPerCore);
+            logger.debug(String.format("Solved yield to maturity. Count: %d, Throughput: %.0f bonds/s/core", data.size(), bondsPerSecondPerCore));
+        }
+        return results;
+    }
+}
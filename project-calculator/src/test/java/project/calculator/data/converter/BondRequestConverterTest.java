@@ -0,0 +1,31 @@
+package project.calculator.data.converter;
+
+import io.grpc.finance.calculation.product.bond.BondPricingRequest;
+import io.grpc.util.DecimalValueConverter;
+import io.grpc.util.NumericEncoding;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.calculator.data.BondPricingData;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class BondRequestConverterTest {
+
+    @Test
+    @DisplayName("固定小数点表現が未設定の項目は文字列表現から変換する")
+    void fallbackToStringField() {
+        BondPricingRequest request = BondPricingRequest.newBuilder()
+                .setNumericEncoding(NumericEncoding.SCALED_DECIMAL)
+                .setCouponRateDecimal(DecimalValueConverter.convertFrom(new BigDecimal("0.03")))
+                .setUnit("100")
+                .build();
+
+        BondPricingData data = BondRequestConverter.convertFrom(request);
+
+        assertThat(data.getCouponRate(), is(new BigDecimal("0.03")));
+        assertThat(data.getUnit(), is(new BigDecimal("100")));
+    }
+}
@@ -0,0 +1,82 @@
+package project.calculator.domain.batch.porfolio;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.infra.rdb.strockpricetimeseries.StockPriceArrival;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+class ArrivedPricesTest {
+
+    @Test
+    @DisplayName("届いた価格の基準日を銘柄ごとに昇順でまとめる")
+    public void groupByStockCode(){
+        List<StockPriceArrival> arrivals = new ArrayList<>();
+        arrivals.add(this.createArrival("8888", LocalDate.of(2021, 4, 5)));
+        arrivals.add(this.createArrival("9999", LocalDate.of(2021, 4, 2)));
+        arrivals.add(this.createArrival("8888", LocalDate.of(2021, 4, 1)));
+        arrivals.add(this.createArrival("8888", LocalDate.of(2021, 4, 5)));
+
+        ArrivedPrices arrivedPrices = ArrivedPrices.of(arrivals);
+
+        Assertions.assertEquals(Set.of("8888", "9999"), arrivedPrices.getStockCodes());
+        Assertions.assertEquals(List.of(LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 5)), new ArrayList<>(arrivedPrices.getDates("8888")));
+        Assertions.assertEquals(3, arrivedPrices.size());
+        Assertions.assertEquals(LocalDate.of(2021, 4, 1), arrivedPrices.getFirstDate());
+        Assertions.assertTrue(arrivedPrices.getDates("7777").isEmpty());
+    }
+
+    @Test
+    @DisplayName("横置き元より後、評価結果の基準日以前に価格が届いた評価結果だけを対象とする")
+    public void isAffected(){
+        List<StockPriceArrival> arrivals = new ArrayList<>();
+        arrivals.add(this.createArrival("8888", LocalDate.of(2021, 4, 5)));
+        ArrivedPrices arrivedPrices = ArrivedPrices.of(arrivals);
+
+        // 4/1の価格を横置きしている4/6の評価結果は4/5の価格で評価し直す
+        Assertions.assertTrue(arrivedPrices.isAffected("8888", LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 6)));
+        Assertions.assertTrue(arrivedPrices.isAffected("8888", LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 5)));
+        // 基準日より後の価格は横置きに使わない
+        Assertions.assertFalse(arrivedPrices.isAffected("8888", LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 2)));
+        // 横置き元が届いた価格以降なら新しい価格はない
+        Assertions.assertFalse(arrivedPrices.isAffected("8888", LocalDate.of(2021, 4, 5), LocalDate.of(2021, 4, 6)));
+        // 横置きできる価格がなかった評価結果は基準日以前に届けば対象
+        Assertions.assertTrue(arrivedPrices.isAffected("8888", null, LocalDate.of(2021, 4, 6)));
+        Assertions.assertFalse(arrivedPrices.isAffected("9999", null, LocalDate.of(2021, 4, 6)));
+    }
+
+    @Test
+    @DisplayName("価格が届いていなければ空")
+    public void empty(){
+        ArrivedPrices arrivedPrices = ArrivedPrices.of(new ArrayList<>());
+
+        Assertions.assertTrue(arrivedPrices.isEmpty());
+        Assertions.assertNull(arrivedPrices.getFirstDate());
+    }
+
+    private StockPriceArrival createArrival(String stockCode, LocalDate baseDate){
+        Timestamp updateTimestamp = Timestamp.valueOf(LocalDateTime.of(2021, 4, 7, 9, 0));
+        return new StockPriceArrival() {
+            @Override
+            public String getStockCode() {
+                return stockCode;
+            }
+
+            @Override
+            public LocalDate getBaseDate() {
+                return baseDate;
+            }
+
+            @Override
+            public Timestamp getUpdateTimestamp() {
+                return updateTimestamp;
+            }
+        };
+    }
+}
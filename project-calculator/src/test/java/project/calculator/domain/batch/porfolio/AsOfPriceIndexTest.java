@@ -0,0 +1,79 @@
+package project.calculator.domain.batch.porfolio;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.infra.rdb.strockpricetimeseries.StockPrice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+class AsOfPriceIndexTest {
+
+    @Test
+    @DisplayName("価格がない営業日はその日以前の最新の価格を横置きする")
+    public void forwardFill(){
+        List<StockPrice> prices = new ArrayList<>();
+        // 並べ替えていない価格でもよい
+        prices.add(this.createPrice(LocalDate.of(2021, 4, 5), BigDecimal.valueOf(135)));
+        prices.add(this.createPrice(LocalDate.of(2021, 4, 1), BigDecimal.valueOf(125)));
+
+        AsOfPriceIndex index = AsOfPriceIndex.of(this.createBusinessDays(), prices);
+
+        Assertions.assertEquals(5, index.size());
+        Assertions.assertEquals(BigDecimal.valueOf(125), index.getClosePrice(0));
+        Assertions.assertEquals(LocalDate.of(2021, 4, 1), index.getSourceDate(0));
+        Assertions.assertEquals(BigDecimal.valueOf(125), index.getClosePrice(1));
+        Assertions.assertEquals(LocalDate.of(2021, 4, 1), index.getSourceDate(1));
+        Assertions.assertEquals(BigDecimal.valueOf(135), index.getClosePrice(2));
+        Assertions.assertEquals(LocalDate.of(2021, 4, 5), index.getSourceDate(2));
+        Assertions.assertEquals(LocalDate.of(2021, 4, 5), index.getSourceDate(4));
+    }
+
+    @Test
+    @DisplayName("最初の価格より前の営業日は価格なしとなる")
+    public void noPriceBeforeFirstPrice(){
+        List<StockPrice> prices = new ArrayList<>();
+        prices.add(this.createPrice(LocalDate.of(2021, 4, 6), BigDecimal.valueOf(128)));
+
+        AsOfPriceIndex index = AsOfPriceIndex.of(this.createBusinessDays(), prices);
+
+        Assertions.assertFalse(index.hasPrice(2));
+        Assertions.assertNull(index.getClosePrice(2));
+        Assertions.assertTrue(index.hasPrice(3));
+        Assertions.assertFalse(AsOfPriceIndex.of(this.createBusinessDays(), null).hasPrice(4));
+    }
+
+    @Test
+    @DisplayName("営業日の序数を返し、営業日でない場合は-1を返す")
+    public void ordinalOf(){
+        AsOfPriceIndex index = AsOfPriceIndex.of(this.createBusinessDays(), new ArrayList<>());
+
+        Assertions.assertEquals(0, index.ordinalOf(LocalDate.of(2021, 4, 1)));
+        Assertions.assertEquals(2, index.ordinalOf(LocalDate.of(2021, 4, 5)));
+        Assertions.assertEquals(-1, index.ordinalOf(LocalDate.of(2021, 4, 3)));
+        Assertions.assertEquals(LocalDate.of(2021, 4, 7), index.getBusinessDay(4));
+    }
+
+    private SortedSet<LocalDate> createBusinessDays(){
+        SortedSet<LocalDate> businessDays = new TreeSet<>();
+        businessDays.add(LocalDate.of(2021, 4, 1));
+        businessDays.add(LocalDate.of(2021, 4, 2));
+        businessDays.add(LocalDate.of(2021, 4, 5));
+        businessDays.add(LocalDate.of(2021, 4, 6));
+        businessDays.add(LocalDate.of(2021, 4, 7));
+        return businessDays;
+    }
+
+    private StockPrice createPrice(LocalDate baseDate, BigDecimal closePrice){
+        StockPrice price = new StockPrice();
+        price.setStockCode("8888");
+        price.setBaseDate(baseDate);
+        price.setClosePrice(closePrice);
+        return price;
+    }
+}
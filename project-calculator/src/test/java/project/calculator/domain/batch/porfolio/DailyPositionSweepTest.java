@@ -0,0 +1,80 @@
+package project.calculator.domain.batch.porfolio;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.infra.rdb.stockexecution.BuySellType;
+import project.infra.rdb.stockexecution.entity.StockExecution;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class DailyPositionSweepTest {
+
+    @Test
+    @DisplayName("基準日ごとに約定全体を集計した場合と同じポジションを返す")
+    public void sameAsDailyAggregation(){
+        Random random = new Random(1);
+        List<StockExecution> executions = new ArrayList<>();
+        LocalDate first = LocalDate.of(2021, 4, 1);
+        for (int i = 0; i < 200; i++){
+            executions.add(this.createExecution(first.plusDays(random.nextInt(60))
+                    , BigDecimal.valueOf(1 + random.nextInt(500))
+                    , BigDecimal.valueOf(100 + random.nextInt(5000), 1)
+                    , random.nextBoolean() ? BuySellType.BUY : BuySellType.SELL));
+        }
+
+        DailyPositionSweep sweep = DailyPositionSweep.of("8888", 1l, "JPY", executions);
+        // 土日は基準日としないので、その日の約定は読み飛ばされる
+        for (LocalDate baseDate = first; baseDate.isBefore(first.plusDays(70)); baseDate = baseDate.plusDays(1)){
+            if (baseDate.getDayOfWeek().getValue() >= 6){
+                continue;
+            }
+            DailyPosition expected = DailyPosition.aggregateDailyExecution(baseDate, executions);
+            DailyPosition actual = sweep.next(baseDate);
+            Assertions.assertEquals(expected.getLongAmount(), actual.getLongAmount());
+            Assertions.assertEquals(expected.getLongValue(), actual.getLongValue());
+            Assertions.assertEquals(expected.getShortAmount(), actual.getShortAmount());
+            Assertions.assertEquals(expected.getShortValue(), actual.getShortValue());
+            Assertions.assertEquals(expected.calculateLongValue(), actual.calculateLongValue());
+            Assertions.assertEquals(expected.calculateTotalAmount(), actual.calculateTotalAmount());
+        }
+    }
+
+    @Test
+    @DisplayName("基準日が昇順でない場合は例外となる")
+    public void baseDateMustBeAscending(){
+        List<StockExecution> executions = new ArrayList<>();
+        executions.add(this.createExecution(LocalDate.of(2021, 4, 1), BigDecimal.valueOf(100), BigDecimal.valueOf(120), BuySellType.BUY));
+        DailyPositionSweep sweep = DailyPositionSweep.of("8888", 1l, "JPY", executions);
+
+        sweep.next(LocalDate.of(2021, 4, 2));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> sweep.next(LocalDate.of(2021, 4, 1)));
+    }
+
+    @Test
+    @DisplayName("他の銘柄の約定が含まれる場合は例外となる")
+    public void executionMustBeSameStock(){
+        List<StockExecution> executions = new ArrayList<>();
+        StockExecution other = this.createExecution(LocalDate.of(2021, 4, 1), BigDecimal.valueOf(100), BigDecimal.valueOf(120), BuySellType.BUY);
+        other.setStockCode("9999");
+        executions.add(other);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> DailyPositionSweep.of("8888", 1l, "JPY", executions));
+    }
+
+    private StockExecution createExecution(LocalDate executionDate, BigDecimal amount, BigDecimal bookValue, BuySellType buySellType){
+        StockExecution execution = new StockExecution();
+        execution.setStockCode("8888");
+        execution.setStockPortfolioId(1l);
+        execution.setExecutionDate(executionDate);
+        execution.setAmount(amount);
+        execution.setBookValue(bookValue);
+        execution.setCurrencyCode("JPY");
+        execution.setBuySellType(buySellType);
+        return execution;
+    }
+}
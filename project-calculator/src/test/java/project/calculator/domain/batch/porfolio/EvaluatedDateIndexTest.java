@@ -0,0 +1,73 @@
+package project.calculator.domain.batch.porfolio;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.infra.rdb.stockportfolioevaluation.EvaluatedDate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+class EvaluatedDateIndexTest {
+
+    @Test
+    @DisplayName("銘柄ごとに評価済みの営業日を除外する")
+    public void targetDaysByStockCode(){
+        List<EvaluatedDate> evaluatedDates = new ArrayList<>();
+        evaluatedDates.add(this.createEvaluatedDate("8888", LocalDate.of(2021, 4, 1)));
+        evaluatedDates.add(this.createEvaluatedDate("8888", LocalDate.of(2021, 4, 2)));
+        evaluatedDates.add(this.createEvaluatedDate("9999", LocalDate.of(2021, 4, 5)));
+
+        EvaluatedDateIndex index = EvaluatedDateIndex.of(this.createBusinessDays(), evaluatedDates);
+
+        SortedSet<LocalDate> expected = new TreeSet<>();
+        expected.add(LocalDate.of(2021, 4, 5));
+        expected.add(LocalDate.of(2021, 4, 6));
+        Assertions.assertEquals(expected, index.targetDays("8888").getBusinessDays());
+        Assertions.assertEquals(3, index.targetDays("9999").getBusinessDays().size());
+        Assertions.assertFalse(index.targetDays("9999").getBusinessDays().contains(LocalDate.of(2021, 4, 5)));
+        // 評価済みの日付がない銘柄は全ての営業日が対象
+        Assertions.assertEquals(this.createBusinessDays(), index.targetDays("7777").getBusinessDays());
+    }
+
+    @Test
+    @DisplayName("評価済みか確認でき、営業日でない基準日は無視する")
+    public void isEvaluated(){
+        List<EvaluatedDate> evaluatedDates = new ArrayList<>();
+        evaluatedDates.add(this.createEvaluatedDate("8888", LocalDate.of(2021, 4, 2)));
+        evaluatedDates.add(this.createEvaluatedDate("8888", LocalDate.of(2021, 4, 3)));
+
+        EvaluatedDateIndex index = EvaluatedDateIndex.of(this.createBusinessDays(), evaluatedDates);
+
+        Assertions.assertTrue(index.isEvaluated("8888", LocalDate.of(2021, 4, 2)));
+        Assertions.assertFalse(index.isEvaluated("8888", LocalDate.of(2021, 4, 3)));
+        Assertions.assertFalse(index.isEvaluated("8888", LocalDate.of(2021, 4, 5)));
+        Assertions.assertFalse(index.isEvaluated("9999", LocalDate.of(2021, 4, 2)));
+    }
+
+    private SortedSet<LocalDate> createBusinessDays(){
+        SortedSet<LocalDate> businessDays = new TreeSet<>();
+        businessDays.add(LocalDate.of(2021, 4, 1));
+        businessDays.add(LocalDate.of(2021, 4, 2));
+        businessDays.add(LocalDate.of(2021, 4, 5));
+        businessDays.add(LocalDate.of(2021, 4, 6));
+        return businessDays;
+    }
+
+    private EvaluatedDate createEvaluatedDate(String stockCode, LocalDate baseDate){
+        return new EvaluatedDate() {
+            @Override
+            public String getStockCode() {
+                return stockCode;
+            }
+
+            @Override
+            public LocalDate getBaseDate() {
+                return baseDate;
+            }
+        };
+    }
+}
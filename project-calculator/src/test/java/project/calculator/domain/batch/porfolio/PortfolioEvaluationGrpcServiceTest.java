@@ -0,0 +1,84 @@
+package project.calculator.domain.batch.porfolio;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.finance.calculation.batch.portfolio.PortfolioEvaluationBatchServiceGrpc;
+import io.grpc.finance.calculation.batch.portfolio.PortfolioEvaluationRequest;
+import io.grpc.finance.calculation.batch.portfolio.PortfolioEvaluationResponse;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.util.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.calculator.domain.batch.porfolio.job.PortfolioEvaluationJobService;
+import project.infra.rdb.evaluationjob.EvaluationType;
+
+import java.io.IOException;
+import java.util.OptionalLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * gRPCの呼び出しを経由して、評価計算の受付結果がクライアントに届くことを確認する。
+ */
+class PortfolioEvaluationGrpcServiceTest {
+
+    private final PortfolioEvaluationService portfolioEvaluationService = mock(PortfolioEvaluationService.class);
+    private final PortfolioEvaluationJobService portfolioEvaluationJobService = mock(PortfolioEvaluationJobService.class);
+    private Server server;
+    private ManagedChannel channel;
+    private PortfolioEvaluationBatchServiceGrpc.PortfolioEvaluationBatchServiceBlockingStub stub;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        this.server = InProcessServerBuilder.forName(name).directExecutor()
+                .addService(new PortfolioEvaluationGrpcService(this.portfolioEvaluationService, this.portfolioEvaluationJobService))
+                .build().start();
+        this.channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        this.stub = PortfolioEvaluationBatchServiceGrpc.newBlockingStub(this.channel);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.channel.shutdownNow();
+        this.server.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("過負荷の場合はgRPCのエラーではなく、RESOURCE_EXHAUSTEDと再試行までの目安を応答で返す")
+    void resourceExhaustedIsReturnedAsResponse() {
+        when(this.portfolioEvaluationJobService.checkAdmission(any())).thenReturn(OptionalLong.of(1500L));
+
+        PortfolioEvaluationResponse response = this.stub.executeRegularEvaluation(request());
+
+        assertThat(response.getStatusMsg().getStatus(), is(Status.RESOURCE_EXHAUSTED));
+        assertThat(response.getStatusMsg().getRetryAfterMs(), is(1500L));
+        verify(this.portfolioEvaluationJobService, never()).register(any(), any());
+    }
+
+    @Test
+    @DisplayName("受け付けた場合は登録したジョブのIDを返す")
+    void admittedRequestIsRegistered() {
+        when(this.portfolioEvaluationJobService.checkAdmission(any())).thenReturn(OptionalLong.empty());
+        when(this.portfolioEvaluationJobService.register(eq(EvaluationType.REGULAR), any())).thenReturn(42L);
+
+        PortfolioEvaluationResponse response = this.stub.executeRegularEvaluation(request());
+
+        assertThat(response.getStatusMsg().getStatus(), is(Status.OK));
+        assertThat(response.getJobId(), is(42L));
+    }
+
+    private static PortfolioEvaluationRequest request() {
+        return PortfolioEvaluationRequest.newBuilder().setPortfolioId(1L).setStartDate("20200101").setEndDate("20200131").build();
+    }
+}
@@ -0,0 +1,82 @@
+package project.calculator.domain.batch.porfolio;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+class PortfolioLanesTest {
+
+    @Test
+    @DisplayName("同じポートフォリオの計算は前の計算が終わってから開始する")
+    public void serializeSamePortfolio(){
+        PortfolioLanes lanes = new PortfolioLanes();
+        List<String> started = new ArrayList<>();
+        CompletableFuture<Void> first = new CompletableFuture<>();
+
+        CompletableFuture<Void> result1 = lanes.submit(1L, () -> {
+            started.add("first");
+            return first;
+        });
+        CompletableFuture<Void> result2 = lanes.submit(1L, () -> {
+            started.add("second");
+            return CompletableFuture.completedFuture(null);
+        });
+
+        Assertions.assertEquals(List.of("first"), started);
+        Assertions.assertTrue(lanes.isBusy(1L));
+        first.complete(null);
+        Assertions.assertEquals(List.of("first", "second"), started);
+        Assertions.assertTrue(result1.isDone());
+        Assertions.assertTrue(result2.isDone());
+        Assertions.assertFalse(lanes.isBusy(1L));
+    }
+
+    @Test
+    @DisplayName("異なるポートフォリオの計算は待たずに開始し、前の計算が失敗しても次の計算を開始する")
+    public void independentPortfolios(){
+        PortfolioLanes lanes = new PortfolioLanes();
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        lanes.submit(1L, () -> first);
+
+        CompletableFuture<String> other = lanes.submit(2L, () -> CompletableFuture.completedFuture("other"));
+        Assertions.assertEquals("other", other.join());
+
+        CompletableFuture<String> next = lanes.submit(1L, () -> CompletableFuture.completedFuture("next"));
+        Assertions.assertFalse(next.isDone());
+        first.completeExceptionally(new IllegalStateException("failed"));
+        Assertions.assertEquals("next", next.join());
+    }
+
+    @Test
+    @DisplayName("複数ポートフォリオの計算は全てのレーンが空いてから開始し、終わるまで各レーンを使う")
+    public void submitAll(){
+        PortfolioLanes lanes = new PortfolioLanes();
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        lanes.submit(2L, () -> first);
+        CompletableFuture<Void> multi = new CompletableFuture<>();
+        List<String> started = new ArrayList<>();
+
+        lanes.submitAll(Set.of(1L, 2L), () -> {
+            started.add("multi");
+            return multi;
+        });
+        CompletableFuture<Void> after = lanes.submit(1L, () -> {
+            started.add("after");
+            return CompletableFuture.completedFuture(null);
+        });
+
+        Assertions.assertTrue(started.isEmpty());
+        first.complete(null);
+        Assertions.assertEquals(List.of("multi"), started);
+        multi.complete(null);
+        Assertions.assertEquals(List.of("multi", "after"), started);
+        Assertions.assertTrue(after.isDone());
+        Assertions.assertFalse(lanes.isBusy(1L));
+        Assertions.assertFalse(lanes.isBusy(2L));
+    }
+}
@@ -0,0 +1,65 @@
+package project.calculator.domain.batch.porfolio;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.infra.rdb.stockexecution.entity.StockExecution;
+import project.infra.rdb.strockpricetimeseries.StockPrice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class StockSliceReaderTest {
+
+    @Test
+    @DisplayName("約定と市場価格を銘柄ごとに突き合わせ、価格のない銘柄は空の価格を返す")
+    public void sliceByStockCode(){
+        // DBの並び順を想定し、Javaの文字列順序とは異なる順序にしている
+        List<StockExecution> executions = Arrays.asList(this.createExecution("9999", 1), this.createExecution("9999", 2)
+                , this.createExecution("1111", 1), this.createExecution("5555", 3));
+        List<StockPrice> prices = Arrays.asList(this.createPrice("9999", 1), this.createPrice("5555", 1), this.createPrice("5555", 2));
+
+        StockSliceReader reader = new StockSliceReader(executions.iterator(), prices.iterator());
+
+        StockSliceReader.StockSlice first = reader.next();
+        Assertions.assertEquals("9999", first.getStockCode());
+        Assertions.assertEquals(2, first.getExecutions().size());
+        Assertions.assertEquals(1, first.getPrices().size());
+        StockSliceReader.StockSlice second = reader.next();
+        Assertions.assertEquals("1111", second.getStockCode());
+        Assertions.assertEquals(1, second.getExecutions().size());
+        Assertions.assertTrue(second.getPrices().isEmpty());
+        StockSliceReader.StockSlice third = reader.next();
+        Assertions.assertEquals("5555", third.getStockCode());
+        Assertions.assertEquals(2, third.getPrices().size());
+        Assertions.assertFalse(reader.hasNext());
+    }
+
+    @Test
+    @DisplayName("約定がない場合は銘柄を返さない")
+    public void emptyExecution(){
+        StockSliceReader reader = new StockSliceReader(Collections.<StockExecution>emptyList().iterator()
+                , Collections.singletonList(this.createPrice("8888", 1)).iterator());
+
+        Assertions.assertFalse(reader.hasNext());
+    }
+
+    private StockExecution createExecution(String stockCode, int day){
+        StockExecution execution = new StockExecution();
+        execution.setStockCode(stockCode);
+        execution.setExecutionDate(LocalDate.of(2021, 4, day));
+        execution.setAmount(BigDecimal.valueOf(100));
+        return execution;
+    }
+
+    private StockPrice createPrice(String stockCode, int day){
+        StockPrice price = new StockPrice();
+        price.setStockCode(stockCode);
+        price.setBaseDate(LocalDate.of(2021, 4, day));
+        price.setClosePrice(BigDecimal.valueOf(100));
+        return price;
+    }
+}
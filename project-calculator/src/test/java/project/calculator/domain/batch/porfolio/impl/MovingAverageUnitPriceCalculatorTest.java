@@ -2,14 +2,20 @@ package project.calculator.domain.batch.porfolio.impl;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import project.calculator.domain.batch.porfolio.AsOfPriceIndex;
 import project.calculator.domain.calendar.BusinessDays;
 import project.infra.rdb.stockexecution.BuySellType;
 import project.infra.rdb.stockexecution.entity.StockExecution;
+import project.infra.rdb.stockportfolioevaluation.StockPortfolioEvaluation;
 import project.infra.rdb.strockpricetimeseries.StockPrice;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class MovingAverageUnitPriceCalculatorTest {
 
@@ -22,6 +28,92 @@ class MovingAverageUnitPriceCalculatorTest {
         List<StockPrice> marketData = new ArrayList<>();
     }
 
+    @Test
+    @DisplayName("評価済みのポジションから続けて計算した結果は、最初から計算した結果と一致する")
+    public void resumeFromOpeningPosition(){
+        //Given
+        List<StockExecution> executions = this.createTestData();
+        List<StockPrice> marketData = this.createMarketData();
+        List<StockPortfolioEvaluation> full = MovingAverageUnitPriceCalculator.generate(executions, marketData, this.createBaseDate()).calculate();
+        StockPortfolioEvaluation openingPosition = full.stream().filter(e -> e.getBaseDate().equals(LocalDate.of(2021,4,2))).findFirst().orElseThrow();
+
+        //When
+        List<StockExecution> newExecutions = executions.stream().filter(e -> e.getExecutionDate().isAfter(LocalDate.of(2021,4,2))).collect(Collectors.toList());
+        BusinessDays newDays = BusinessDays.of(new HashSet<>(Arrays.asList(LocalDate.of(2021,4,5), LocalDate.of(2021,4,6), LocalDate.of(2021,4,7))));
+        List<StockPortfolioEvaluation> resumed = MovingAverageUnitPriceCalculator.resume(newExecutions, marketData, newDays, openingPosition).calculate();
+
+        //Then
+        assertEquals(3, resumed.size());
+        for (StockPortfolioEvaluation actual : resumed){
+            StockPortfolioEvaluation expected = full.stream().filter(e -> e.getBaseDate().equals(actual.getBaseDate())).findFirst().orElseThrow();
+            assertEquals(expected.getAmount(), actual.getAmount());
+            assertEquals(expected.getBookValue(), actual.getBookValue());
+            assertEquals(expected.getCurrentPl(), actual.getCurrentPl());
+        }
+    }
+
+    @Test
+    @DisplayName("新しい約定がない場合は評価済みのポジションを引き継ぐ")
+    public void resumeWithoutExecution(){
+        StockPortfolioEvaluation openingPosition = new StockPortfolioEvaluation();
+        openingPosition.setStockPortfolioId(1l);
+        openingPosition.setStockCode("8888");
+        openingPosition.setCurrencyCode("JPY");
+        openingPosition.setBaseDate(LocalDate.of(2021,4,7));
+        openingPosition.setAmount(BigDecimal.valueOf(300));
+        openingPosition.setBookValue(BigDecimal.valueOf(130));
+        BusinessDays newDays = BusinessDays.of(new HashSet<>(Collections.singletonList(LocalDate.of(2021,4,8))));
+
+        List<StockPortfolioEvaluation> resumed = MovingAverageUnitPriceCalculator.resume(Collections.emptyList(), this.createMarketData(), newDays, openingPosition).calculate();
+
+        assertEquals(1, resumed.size());
+        assertEquals(0, BigDecimal.valueOf(300).compareTo(resumed.get(0).getAmount()));
+        assertEquals(0, BigDecimal.valueOf(130).compareTo(resumed.get(0).getBookValue()));
+        // 4/8の市場価格はないので4/7の価格で横置きする
+        assertEquals(LocalDate.of(2021,4,7), resumed.get(0).getEvaluationDateBaseDate());
+        assertTrue(resumed.get(0).isLockOut());
+    }
+
+    @Test
+    @DisplayName("共有の横置き価格の索引を使った結果は、市場価格から計算した結果と一致する")
+    public void sharedPriceIndex(){
+        //Given
+        List<StockExecution> executions = this.createTestData();
+        List<StockPrice> marketData = this.createMarketData();
+        AsOfPriceIndex priceIndex = AsOfPriceIndex.of(this.createBaseDate().getBusinessDays(), marketData);
+        // 評価済みの日付を除いた営業日だけを計算する場合も、索引は全ての営業日のものを使う
+        BusinessDays targetDays = BusinessDays.of(new HashSet<>(Arrays.asList(LocalDate.of(2021,4,1), LocalDate.of(2021,4,6), LocalDate.of(2021,4,7))));
+
+        //When
+        List<StockPortfolioEvaluation> expected = MovingAverageUnitPriceCalculator.generate(executions, marketData, targetDays).calculate();
+        List<StockPortfolioEvaluation> actual = MovingAverageUnitPriceCalculator.generate(executions, priceIndex, targetDays).calculate();
+
+        //Then
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++){
+            assertEquals(expected.get(i).getBaseDate(), actual.get(i).getBaseDate());
+            assertEquals(expected.get(i).getAmount(), actual.get(i).getAmount());
+            assertEquals(expected.get(i).getBookValue(), actual.get(i).getBookValue());
+            assertEquals(expected.get(i).getCurrentValue(), actual.get(i).getCurrentValue());
+            assertEquals(expected.get(i).getEvaluationDateBaseDate(), actual.get(i).getEvaluationDateBaseDate());
+            assertEquals(expected.get(i).isLockOut(), actual.get(i).isLockOut());
+        }
+    }
+
+    private List<StockPrice> createMarketData(){
+        List<StockPrice> marketData = new ArrayList<>();
+        int[] closePrices = {125, 140, 135, 128, 150};
+        LocalDate[] dates = {LocalDate.of(2021,4,1), LocalDate.of(2021,4,2), LocalDate.of(2021,4,5), LocalDate.of(2021,4,6), LocalDate.of(2021,4,7)};
+        for (int i = 0; i < dates.length; i++){
+            StockPrice price = new StockPrice();
+            price.setStockCode("8888");
+            price.setBaseDate(dates[i]);
+            price.setClosePrice(BigDecimal.valueOf(closePrices[i]));
+            marketData.add(price);
+        }
+        return marketData;
+    }
+
     private List<StockExecution> createTestData(){
         // 約定のデータ
         String stockCode = "8888";
@@ -0,0 +1,273 @@
+package project.calculator.domain.batch.porfolio.impl;
+
+import io.grpc.finance.calculation.batch.portfolio.MultiPortfolioEvaluationRequest;
+import io.grpc.finance.calculation.batch.portfolio.PortfolioEvaluationRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.springframework.data.jpa.domain.Specification;
+import project.calculator.domain.calendar.CalendarService;
+import project.calculator.domain.calendar.CountryCode;
+import project.infra.rdb.evaluationdirtykey.StockEvaluationDirtyKey;
+import project.infra.rdb.evaluationdirtykey.StockEvaluationDirtyKeyRepository;
+import project.infra.rdb.stockexecution.BuySellType;
+import project.infra.rdb.stockexecution.StockExecutionCursorRepository;
+import project.infra.rdb.stockexecution.StockExecutionRepository;
+import project.infra.rdb.stockexecution.entity.StockExecution;
+import project.infra.rdb.stockportfolio.StockPortfolioRepository;
+import project.infra.rdb.stockportfolioevaluation.StockPortfolioEvaluation;
+import project.infra.rdb.stockportfolioevaluation.StockPortfolioEvaluationBulkWriter;
+import project.infra.rdb.stockportfolioevaluation.StockPortfolioEvaluationRepository;
+import project.infra.rdb.strockpricetimeseries.StockPrice;
+import project.infra.rdb.strockpricetimeseries.StockPriceCursorRepository;
+import project.infra.rdb.strockpricetimeseries.StockPriceRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PortfolioEvaluationServiceImplTest {
+
+    private static final long PORTFOLIO_ID = 1l;
+    private static final String STOCK_CODE = "8888";
+    private static final String NEW_STOCK_CODE = "9999";
+
+    private final CalendarService calendarService = mock(CalendarService.class);
+    private final StockExecutionRepository stockExecutionRepository = mock(StockExecutionRepository.class);
+    private final StockPriceRepository stockPriceRepository = mock(StockPriceRepository.class);
+    private final StockPortfolioEvaluationRepository stockPortfolioEvaluationRepository = mock(StockPortfolioEvaluationRepository.class);
+    private final StockPortfolioEvaluationBulkWriter stockPortfolioEvaluationBulkWriter = mock(StockPortfolioEvaluationBulkWriter.class);
+    private final StockEvaluationDirtyKeyRepository stockEvaluationDirtyKeyRepository = mock(StockEvaluationDirtyKeyRepository.class);
+    private final StockExecutionCursorRepository stockExecutionCursorRepository = mock(StockExecutionCursorRepository.class);
+    private final StockPriceCursorRepository stockPriceCursorRepository = mock(StockPriceCursorRepository.class);
+    private ForkJoinPool evaluationExecutor;
+    private PortfolioEvaluationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        this.evaluationExecutor = new ForkJoinPool(1);
+        this.service = new PortfolioEvaluationServiceImpl(this.calendarService, this.stockExecutionRepository, this.stockPriceRepository
+                , this.stockPortfolioEvaluationRepository, this.stockPortfolioEvaluationBulkWriter, mock(StockPortfolioRepository.class)
+                , this.stockExecutionCursorRepository, this.stockPriceCursorRepository, this.stockEvaluationDirtyKeyRepository, this.evaluationExecutor);
+        when(this.stockPortfolioEvaluationRepository.findFirstBaseDate(PORTFOLIO_ID)).thenReturn(LocalDate.of(2021, 4, 1));
+        when(this.stockPortfolioEvaluationRepository.findLastBaseDate(PORTFOLIO_ID)).thenReturn(LocalDate.of(2021, 4, 7));
+        when(this.stockPriceRepository.retrieveByStockCode(any(), any(), any())).thenReturn(this.createMarketData());
+        when(this.stockPortfolioEvaluationBulkWriter.upsertAll(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.evaluationExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("遡って売却しポジションが0になった場合は、約定日以降の古い評価結果を削除してから登録する")
+    public void deleteClosedPosition(){
+        // 4/1に100株保有していたが、4/2の売却を後から登録した
+        when(this.stockEvaluationDirtyKeyRepository.findAllByStockPortfolioId(PORTFOLIO_ID))
+                .thenReturn(List.of(this.createDirtyKey(LocalDate.of(2021, 4, 2), 3l)));
+        when(this.stockPortfolioEvaluationRepository.findFirstByStockPortfolioIdAndStockCodeAndDeletedFalseAndBaseDateLessThanOrderByBaseDateDesc(
+                PORTFOLIO_ID, STOCK_CODE, LocalDate.of(2021, 4, 2))).thenReturn(Optional.of(this.createOpeningPosition(LocalDate.of(2021, 4, 1), 100)));
+        when(this.calendarService.getBusinessDaysBetween(CountryCode.JP, LocalDate.of(2021, 4, 2), LocalDate.of(2021, 4, 7)))
+                .thenReturn(Set.of(LocalDate.of(2021, 4, 2), LocalDate.of(2021, 4, 5), LocalDate.of(2021, 4, 6), LocalDate.of(2021, 4, 7)));
+        when(this.stockExecutionRepository.findAll(ArgumentMatchers.<Specification<StockExecution>>any()))
+                .thenReturn(List.of(this.createExecution(LocalDate.of(2021, 4, 2), 100, 130, BuySellType.SELL)));
+
+        this.service.executeDirtyEvaluation(PortfolioEvaluationRequest.newBuilder().setPortfolioId(PORTFOLIO_ID).build()).join();
+
+        InOrder order = inOrder(this.stockPortfolioEvaluationRepository, this.stockPortfolioEvaluationBulkWriter, this.stockEvaluationDirtyKeyRepository);
+        order.verify(this.stockPortfolioEvaluationRepository)
+                .deleteByStockPortfolioIdAndStockCodeInPeriod(PORTFOLIO_ID, STOCK_CODE, LocalDate.of(2021, 4, 2), LocalDate.of(2021, 4, 7));
+        // 数量が0の日は登録しない
+        order.verify(this.stockPortfolioEvaluationBulkWriter).upsertAll(Collections.emptyList());
+        order.verify(this.stockEvaluationDirtyKeyRepository).deleteIfUnchanged(PORTFOLIO_ID, STOCK_CODE, 3l);
+    }
+
+    @Test
+    @DisplayName("評価済みのポジションがなければ評価済みの期間の初めから計算し直す")
+    public void recalculateFromFirstBaseDate(){
+        when(this.stockEvaluationDirtyKeyRepository.findAllByStockPortfolioId(PORTFOLIO_ID))
+                .thenReturn(List.of(this.createDirtyKey(LocalDate.of(2021, 3, 31), 1l)));
+        when(this.stockPortfolioEvaluationRepository.findFirstByStockPortfolioIdAndStockCodeAndDeletedFalseAndBaseDateLessThanOrderByBaseDateDesc(
+                PORTFOLIO_ID, STOCK_CODE, LocalDate.of(2021, 3, 31))).thenReturn(Optional.empty());
+        when(this.calendarService.getBusinessDaysBetween(CountryCode.JP, LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 7)))
+                .thenReturn(Set.of(LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 2), LocalDate.of(2021, 4, 5), LocalDate.of(2021, 4, 6), LocalDate.of(2021, 4, 7)));
+        when(this.stockExecutionRepository.findAll(ArgumentMatchers.<Specification<StockExecution>>any()))
+                .thenReturn(List.of(this.createExecution(LocalDate.of(2021, 4, 1), 100, 120, BuySellType.BUY)
+                        , this.createExecution(LocalDate.of(2021, 4, 5), 100, 130, BuySellType.SELL)));
+
+        this.service.executeDirtyEvaluation(PortfolioEvaluationRequest.newBuilder().setPortfolioId(PORTFOLIO_ID).build()).join();
+
+        verify(this.stockPortfolioEvaluationRepository)
+                .deleteByStockPortfolioIdAndStockCodeInPeriod(PORTFOLIO_ID, STOCK_CODE, LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 7));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StockPortfolioEvaluation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(this.stockPortfolioEvaluationBulkWriter).upsertAll(captor.capture());
+        // 4/5に売却したので4/1・4/2だけを登録する
+        List<LocalDate> baseDates = new ArrayList<>();
+        captor.getValue().forEach(e -> baseDates.add(e.getBaseDate()));
+        assertEquals(List.of(LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 2)), baseDates);
+        assertTrue(captor.getValue().stream().allMatch(e -> BigDecimal.valueOf(100).compareTo(e.getAmount()) == 0));
+        verify(this.stockEvaluationDirtyKeyRepository).deleteIfUnchanged(eq(PORTFOLIO_ID), eq(STOCK_CODE), eq(1l));
+    }
+
+    @Test
+    @DisplayName("約定が全て取り消された場合は評価結果を削除するだけとする")
+    public void deleteWithoutExecution(){
+        when(this.stockEvaluationDirtyKeyRepository.findAllByStockPortfolioId(PORTFOLIO_ID))
+                .thenReturn(List.of(this.createDirtyKey(LocalDate.of(2021, 4, 1), 2l)));
+        when(this.stockPortfolioEvaluationRepository.findFirstByStockPortfolioIdAndStockCodeAndDeletedFalseAndBaseDateLessThanOrderByBaseDateDesc(
+                PORTFOLIO_ID, STOCK_CODE, LocalDate.of(2021, 4, 1))).thenReturn(Optional.empty());
+        when(this.calendarService.getBusinessDaysBetween(CountryCode.JP, LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 7)))
+                .thenReturn(Set.of(LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 2)));
+        when(this.stockExecutionRepository.findAll(ArgumentMatchers.<Specification<StockExecution>>any()))
+                .thenReturn(Collections.emptyList());
+
+        this.service.executeDirtyEvaluation(PortfolioEvaluationRequest.newBuilder().setPortfolioId(PORTFOLIO_ID).build()).join();
+
+        verify(this.stockPortfolioEvaluationRepository)
+                .deleteByStockPortfolioIdAndStockCodeInPeriod(PORTFOLIO_ID, STOCK_CODE, LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 7));
+        verify(this.stockEvaluationDirtyKeyRepository).deleteIfUnchanged(PORTFOLIO_ID, STOCK_CODE, 2l);
+    }
+
+    @Test
+    @DisplayName("差分評価では評価結果のない銘柄を、評価済みの基準日より前の約定を含めて最初の約定日から計算する")
+    public void evaluateNewStockFromFirstExecution(){
+        // 8888は4/2まで評価済み。9999の4/1の買付を後から登録した
+        when(this.stockPortfolioEvaluationRepository.findLatestByStockPortfolioId(PORTFOLIO_ID, LocalDate.of(2021, 4, 7)))
+                .thenReturn(List.of(this.createOpeningPosition(LocalDate.of(2021, 4, 2), 100)));
+        when(this.calendarService.getBusinessDaysBetween(CountryCode.JP, LocalDate.of(2021, 4, 3), LocalDate.of(2021, 4, 7)))
+                .thenReturn(Set.of(LocalDate.of(2021, 4, 5), LocalDate.of(2021, 4, 6), LocalDate.of(2021, 4, 7)));
+        when(this.calendarService.getBusinessDaysBetween(CountryCode.JP, LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 7)))
+                .thenReturn(Set.of(LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 2), LocalDate.of(2021, 4, 5), LocalDate.of(2021, 4, 6), LocalDate.of(2021, 4, 7)));
+        when(this.stockExecutionCursorRepository.streamByStockPortfolioId(PORTFOLIO_ID, LocalDate.of(2021, 4, 7)))
+                .thenReturn(Stream.of(this.createExecution(STOCK_CODE, LocalDate.of(2021, 4, 1), 100, 120, BuySellType.BUY)
+                        , this.createExecution(NEW_STOCK_CODE, LocalDate.of(2021, 4, 1), 50, 100, BuySellType.BUY)
+                        , this.createExecution(NEW_STOCK_CODE, LocalDate.of(2021, 4, 5), 50, 110, BuySellType.BUY)));
+        when(this.stockPriceCursorRepository.streamByStockPortfolioId(PORTFOLIO_ID, LocalDate.of(2021, 4, 7), LocalDate.of(2021, 4, 2), LocalDate.of(2021, 4, 7)))
+                .thenReturn(this.createMarketData(STOCK_CODE).stream().filter(p -> !p.getBaseDate().isBefore(LocalDate.of(2021, 4, 2))));
+        when(this.stockPriceRepository.retrieveByStockCode(Set.of(NEW_STOCK_CODE), LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 7)))
+                .thenReturn(this.createMarketData(NEW_STOCK_CODE));
+
+        this.service.executeRegularEvaluation(PortfolioEvaluationRequest.newBuilder().setPortfolioId(PORTFOLIO_ID)
+                .setStartDate("2021-04-01").setEndDate("2021-04-07").setIncremental(true).build()).join();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StockPortfolioEvaluation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(this.stockPortfolioEvaluationBulkWriter, times(2)).upsertAll(captor.capture());
+        // 8888は評価済みのポジションから続け、4/1の約定を二重に数えない
+        List<StockPortfolioEvaluation> resumed = captor.getAllValues().get(0);
+        assertEquals(3, resumed.size());
+        assertTrue(resumed.stream().allMatch(e -> BigDecimal.valueOf(100).compareTo(e.getAmount()) == 0));
+        // 9999は4/1の買付から計算する
+        List<StockPortfolioEvaluation> generated = captor.getAllValues().get(1);
+        List<LocalDate> baseDates = new ArrayList<>();
+        generated.forEach(e -> baseDates.add(e.getBaseDate()));
+        assertEquals(List.of(LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 2), LocalDate.of(2021, 4, 5), LocalDate.of(2021, 4, 6), LocalDate.of(2021, 4, 7)), baseDates);
+        assertEquals(0, BigDecimal.valueOf(50).compareTo(generated.get(1).getAmount()));
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(generated.get(4).getAmount()));
+        assertEquals(0, BigDecimal.valueOf(105).compareTo(generated.get(4).getBookValue()));
+    }
+
+    @Test
+    @DisplayName("複数ポートフォリオの評価はポートフォリオごとにカーソルで読み、約定のないポートフォリオは計算しない")
+    public void evaluateMultiPortfolioByCursor(){
+        long otherPortfolioId = 2l;
+        when(this.calendarService.getBusinessDaysBetween(CountryCode.JP, LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 7)))
+                .thenReturn(Set.of(LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 2), LocalDate.of(2021, 4, 5), LocalDate.of(2021, 4, 6), LocalDate.of(2021, 4, 7)));
+        when(this.stockExecutionCursorRepository.streamByStockPortfolioId(PORTFOLIO_ID, LocalDate.of(2021, 4, 7)))
+                .thenReturn(Stream.of(this.createExecution(LocalDate.of(2021, 4, 1), 100, 120, BuySellType.BUY)));
+        when(this.stockPriceCursorRepository.streamByStockPortfolioId(PORTFOLIO_ID, LocalDate.of(2021, 4, 7), LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 7)))
+                .thenReturn(this.createMarketData().stream());
+        when(this.stockExecutionCursorRepository.streamByStockPortfolioId(otherPortfolioId, LocalDate.of(2021, 4, 7))).thenReturn(Stream.empty());
+        when(this.stockPriceCursorRepository.streamByStockPortfolioId(otherPortfolioId, LocalDate.of(2021, 4, 7), LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 7)))
+                .thenReturn(Stream.empty());
+
+        this.service.executeMultiPortfolioEvaluation(MultiPortfolioEvaluationRequest.newBuilder().addPortfolioIds(otherPortfolioId).addPortfolioIds(PORTFOLIO_ID)
+                .setStartDate("2021-04-01").setEndDate("2021-04-07").build()).join();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StockPortfolioEvaluation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(this.stockPortfolioEvaluationBulkWriter).upsertAll(captor.capture());
+        assertEquals(5, captor.getValue().size());
+        assertTrue(captor.getValue().stream().allMatch(e -> e.getStockPortfolioId() == PORTFOLIO_ID));
+        verify(this.stockPortfolioEvaluationRepository).findEvaluatedDates(otherPortfolioId, LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 7));
+        verify(this.stockExecutionRepository, never()).findAll(ArgumentMatchers.<Specification<StockExecution>>any());
+    }
+
+    private StockEvaluationDirtyKey createDirtyKey(LocalDate fromDate, long revision){
+        StockEvaluationDirtyKey dirtyKey = new StockEvaluationDirtyKey();
+        dirtyKey.setStockPortfolioId(PORTFOLIO_ID);
+        dirtyKey.setStockCode(STOCK_CODE);
+        dirtyKey.setFromDate(fromDate);
+        dirtyKey.setRevision(revision);
+        return dirtyKey;
+    }
+
+    private StockPortfolioEvaluation createOpeningPosition(LocalDate baseDate, int amount){
+        StockPortfolioEvaluation openingPosition = new StockPortfolioEvaluation();
+        openingPosition.setStockPortfolioId(PORTFOLIO_ID);
+        openingPosition.setStockCode(STOCK_CODE);
+        openingPosition.setCurrencyCode("JPY");
+        openingPosition.setBaseDate(baseDate);
+        openingPosition.setAmount(BigDecimal.valueOf(amount));
+        openingPosition.setBookValue(BigDecimal.valueOf(120));
+        return openingPosition;
+    }
+
+    private StockExecution createExecution(LocalDate executionDate, int amount, int bookValue, BuySellType buySellType){
+        return this.createExecution(STOCK_CODE, executionDate, amount, bookValue, buySellType);
+    }
+
+    private StockExecution createExecution(String stockCode, LocalDate executionDate, int amount, int bookValue, BuySellType buySellType){
+        StockExecution execution = new StockExecution();
+        execution.setStockCode(stockCode);
+        execution.setStockPortfolioId(PORTFOLIO_ID);
+        execution.setExecutionDate(executionDate);
+        execution.setAmount(BigDecimal.valueOf(amount));
+        execution.setBookValue(BigDecimal.valueOf(bookValue));
+        execution.setCurrencyCode("JPY");
+        execution.setBuySellType(buySellType);
+        return execution;
+    }
+
+    private List<StockPrice> createMarketData(){
+        return this.createMarketData(STOCK_CODE);
+    }
+
+    private List<StockPrice> createMarketData(String stockCode){
+        List<StockPrice> marketData = new ArrayList<>();
+        int[] closePrices = {125, 140, 135, 128, 150};
+        LocalDate[] dates = {LocalDate.of(2021,4,1), LocalDate.of(2021,4,2), LocalDate.of(2021,4,5), LocalDate.of(2021,4,6), LocalDate.of(2021,4,7)};
+        for (int i = 0; i < dates.length; i++){
+            StockPrice price = new StockPrice();
+            price.setStockCode(stockCode);
+            price.setBaseDate(dates[i]);
+            price.setClosePrice(BigDecimal.valueOf(closePrices[i]));
+            marketData.add(price);
+        }
+        return marketData;
+    }
+}
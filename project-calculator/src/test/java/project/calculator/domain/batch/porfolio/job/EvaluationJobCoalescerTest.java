@@ -0,0 +1,135 @@
+package project.calculator.domain.batch.porfolio.job;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.infra.rdb.evaluationjob.EvaluationJobStatus;
+import project.infra.rdb.evaluationjob.EvaluationPriority;
+import project.infra.rdb.evaluationjob.EvaluationType;
+import project.infra.rdb.evaluationjob.PortfolioEvaluationJob;
+
+import java.time.LocalDate;
+import java.util.List;
+
+class EvaluationJobCoalescerTest {
+
+    @Test
+    @DisplayName("期間が重なるか隣接するジョブは最も古いジョブにまとめる")
+    public void coalesceOverlappingAndAdjacent(){
+        PortfolioEvaluationJob job1 = this.createJob(1L, 1L, EvaluationType.REGULAR, LocalDate.of(2021, 4, 5), LocalDate.of(2021, 4, 9));
+        PortfolioEvaluationJob job2 = this.createJob(2L, 1L, EvaluationType.REGULAR, LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 6));
+        PortfolioEvaluationJob job3 = this.createJob(3L, 1L, EvaluationType.REGULAR, LocalDate.of(2021, 4, 10), LocalDate.of(2021, 4, 12));
+
+        EvaluationJobCoalescer.Result result = EvaluationJobCoalescer.coalesce(List.of(job1, job2, job3));
+
+        Assertions.assertEquals(List.of(job1), result.getRunnable());
+        Assertions.assertEquals(LocalDate.of(2021, 4, 1), job1.getStartDate());
+        Assertions.assertEquals(LocalDate.of(2021, 4, 12), job1.getEndDate());
+        Assertions.assertEquals(2, result.getMerged().size());
+        Assertions.assertEquals(EvaluationJobStatus.MERGED, job2.getStatus());
+        Assertions.assertEquals(1L, job2.getMergedJobId());
+        Assertions.assertEquals(EvaluationJobStatus.MERGED, job3.getStatus());
+        Assertions.assertEquals(1L, job3.getMergedJobId());
+    }
+
+    @Test
+    @DisplayName("期間が離れたジョブ、種類・ポートフォリオが異なるジョブはまとめない")
+    public void keepDisjointJobs(){
+        PortfolioEvaluationJob job1 = this.createJob(1L, 1L, EvaluationType.REGULAR, LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 2));
+        PortfolioEvaluationJob job2 = this.createJob(2L, 1L, EvaluationType.REGULAR, LocalDate.of(2021, 4, 5), LocalDate.of(2021, 4, 6));
+        PortfolioEvaluationJob job3 = this.createJob(3L, 1L, EvaluationType.FORCE, LocalDate.of(2021, 4, 2), LocalDate.of(2021, 4, 3));
+        PortfolioEvaluationJob job4 = this.createJob(4L, 2L, EvaluationType.REGULAR, LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 2));
+
+        EvaluationJobCoalescer.Result result = EvaluationJobCoalescer.coalesce(List.of(job4, job3, job2, job1));
+
+        Assertions.assertEquals(List.of(job1, job2, job3, job4), result.getRunnable());
+        Assertions.assertTrue(result.getMerged().isEmpty());
+        Assertions.assertEquals(EvaluationJobStatus.PENDING, job2.getStatus());
+        Assertions.assertEquals(LocalDate.of(2021, 4, 5), job2.getStartDate());
+    }
+
+    @Test
+    @DisplayName("修正評価はポートフォリオごとに1つにまとめる")
+    public void coalesceRevise(){
+        PortfolioEvaluationJob job1 = this.createJob(1L, 1L, EvaluationType.REVISE, null, null);
+        PortfolioEvaluationJob job2 = this.createJob(2L, 1L, EvaluationType.REVISE, null, null);
+        PortfolioEvaluationJob job3 = this.createJob(3L, 2L, EvaluationType.REVISE, null, null);
+
+        EvaluationJobCoalescer.Result result = EvaluationJobCoalescer.coalesce(List.of(job1, job2, job3));
+
+        Assertions.assertEquals(List.of(job1, job3), result.getRunnable());
+        Assertions.assertEquals(List.of(job2), result.getMerged());
+        Assertions.assertEquals(1L, job2.getMergedJobId());
+    }
+
+    @Test
+    @DisplayName("差分評価はポートフォリオごとに1つにまとめ、修正評価とはまとめない")
+    public void coalesceDirty(){
+        PortfolioEvaluationJob job1 = this.createJob(1L, 1L, EvaluationType.DIRTY, null, null);
+        PortfolioEvaluationJob job2 = this.createJob(2L, 1L, EvaluationType.REVISE, null, null);
+        PortfolioEvaluationJob job3 = this.createJob(3L, 1L, EvaluationType.DIRTY, null, null);
+
+        EvaluationJobCoalescer.Result result = EvaluationJobCoalescer.coalesce(List.of(job1, job2, job3));
+
+        Assertions.assertEquals(List.of(job1, job2), result.getRunnable());
+        Assertions.assertEquals(List.of(job3), result.getMerged());
+        Assertions.assertEquals(1L, job3.getMergedJobId());
+    }
+
+    @Test
+    @DisplayName("同じ期間の重複したジョブは1つになる")
+    public void dropDuplicate(){
+        PortfolioEvaluationJob job1 = this.createJob(1L, 1L, EvaluationType.FORCE, LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 30));
+        PortfolioEvaluationJob job2 = this.createJob(2L, 1L, EvaluationType.FORCE, LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 30));
+
+        EvaluationJobCoalescer.Result result = EvaluationJobCoalescer.coalesce(List.of(job2, job1));
+
+        Assertions.assertEquals(List.of(job1), result.getRunnable());
+        Assertions.assertEquals(List.of(job2), result.getMerged());
+        Assertions.assertEquals(LocalDate.of(2021, 4, 1), job1.getStartDate());
+        Assertions.assertEquals(LocalDate.of(2021, 4, 30), job1.getEndDate());
+    }
+
+    @Test
+    @DisplayName("まとめたジョブは最も高い優先度で実行する")
+    public void keepHighestPriority(){
+        PortfolioEvaluationJob job1 = this.createJob(1L, 1L, EvaluationType.FORCE, LocalDate.of(2011, 4, 1), LocalDate.of(2021, 4, 30));
+        job1.setPriority(EvaluationPriority.NIGHTLY);
+        PortfolioEvaluationJob job2 = this.createJob(2L, 1L, EvaluationType.FORCE, LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 2));
+
+        EvaluationJobCoalescer.Result result = EvaluationJobCoalescer.coalesce(List.of(job1, job2));
+
+        Assertions.assertEquals(List.of(job1), result.getRunnable());
+        Assertions.assertEquals(EvaluationPriority.INTERACTIVE, job1.getPriority());
+    }
+
+    @Test
+    @DisplayName("強制評価の期間に含まれる標準評価は強制評価にまとめる")
+    public void absorbRegularIntoForce(){
+        PortfolioEvaluationJob regular = this.createJob(1L, 1L, EvaluationType.REGULAR, LocalDate.of(2021, 4, 5), LocalDate.of(2021, 4, 9));
+        PortfolioEvaluationJob force = this.createJob(2L, 1L, EvaluationType.FORCE, LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 30));
+        force.setPriority(EvaluationPriority.NIGHTLY);
+        PortfolioEvaluationJob outside = this.createJob(3L, 1L, EvaluationType.REGULAR, LocalDate.of(2021, 4, 20), LocalDate.of(2021, 5, 7));
+        PortfolioEvaluationJob incremental = this.createJob(4L, 1L, EvaluationType.REGULAR, LocalDate.of(2021, 4, 1), LocalDate.of(2021, 4, 2));
+        incremental.setIncremental(true);
+        PortfolioEvaluationJob otherPortfolio = this.createJob(5L, 2L, EvaluationType.REGULAR, LocalDate.of(2021, 4, 5), LocalDate.of(2021, 4, 9));
+
+        EvaluationJobCoalescer.Result result = EvaluationJobCoalescer.coalesce(List.of(regular, force, outside, incremental, otherPortfolio));
+
+        Assertions.assertEquals(List.of(force, outside, incremental, otherPortfolio), result.getRunnable());
+        Assertions.assertEquals(List.of(regular), result.getMerged());
+        Assertions.assertEquals(2L, regular.getMergedJobId());
+        Assertions.assertEquals(EvaluationPriority.INTERACTIVE, force.getPriority());
+    }
+
+    private PortfolioEvaluationJob createJob(long id, long portfolioId, EvaluationType evaluationType, LocalDate startDate, LocalDate endDate){
+        PortfolioEvaluationJob job = new PortfolioEvaluationJob();
+        job.setId(id);
+        job.setStockPortfolioId(portfolioId);
+        job.setEvaluationType(evaluationType);
+        job.setStartDate(startDate);
+        job.setEndDate(endDate);
+        job.setStatus(EvaluationJobStatus.PENDING);
+        return job;
+    }
+}
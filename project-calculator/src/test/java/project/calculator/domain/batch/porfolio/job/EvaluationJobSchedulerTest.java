@@ -0,0 +1,89 @@
+package project.calculator.domain.batch.porfolio.job;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.infra.rdb.evaluationjob.EvaluationJobStatus;
+import project.infra.rdb.evaluationjob.EvaluationPriority;
+import project.infra.rdb.evaluationjob.EvaluationType;
+import project.infra.rdb.evaluationjob.PortfolioEvaluationJob;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+class EvaluationJobSchedulerTest {
+
+    @Test
+    @DisplayName("INTERACTIVEのジョブはNIGHTLYのジョブより古くても先に選ばれ、NIGHTLYの枠を超えない")
+    public void interactiveFirst(){
+        EvaluationJobScheduler scheduler = new EvaluationJobScheduler(3, 1, Map.of());
+        PortfolioEvaluationJob nightly1 = this.createJob(1L, 1L, EvaluationType.FORCE, EvaluationPriority.NIGHTLY);
+        PortfolioEvaluationJob nightly2 = this.createJob(2L, 2L, EvaluationType.FORCE, EvaluationPriority.NIGHTLY);
+        PortfolioEvaluationJob interactive = this.createJob(3L, 3L, EvaluationType.REGULAR, EvaluationPriority.INTERACTIVE);
+
+        List<PortfolioEvaluationJob> selected = scheduler.select(List.of(nightly1, nightly2, interactive), List.of());
+
+        Assertions.assertEquals(List.of(interactive, nightly1), selected);
+    }
+
+    @Test
+    @DisplayName("NIGHTLYのジョブが実行中でも、INTERACTIVEのジョブは残りの枠で開始できる")
+    public void reservedForInteractive(){
+        EvaluationJobScheduler scheduler = new EvaluationJobScheduler(3, 2, Map.of());
+        List<PortfolioEvaluationJob> running = List.of(
+                this.createJob(1L, 1L, EvaluationType.FORCE, EvaluationPriority.NIGHTLY)
+                , this.createJob(2L, 2L, EvaluationType.FORCE, EvaluationPriority.NIGHTLY));
+        PortfolioEvaluationJob nightly = this.createJob(3L, 3L, EvaluationType.FORCE, EvaluationPriority.NIGHTLY);
+        PortfolioEvaluationJob interactive = this.createJob(4L, 4L, EvaluationType.REVISE, EvaluationPriority.INTERACTIVE);
+
+        Assertions.assertEquals(List.of(interactive), scheduler.select(List.of(nightly, interactive), running));
+        Assertions.assertEquals(List.of(), scheduler.select(List.of(nightly), running));
+    }
+
+    @Test
+    @DisplayName("同じポートフォリオのジョブは1件ずつ選び、実行中のジョブがあるポートフォリオは選ばない")
+    public void serializedByPortfolio(){
+        EvaluationJobScheduler scheduler = new EvaluationJobScheduler(4, 4, Map.of());
+        PortfolioEvaluationJob running = this.createJob(1L, 1L, EvaluationType.REGULAR, EvaluationPriority.INTERACTIVE);
+        PortfolioEvaluationJob job2 = this.createJob(2L, 1L, EvaluationType.FORCE, EvaluationPriority.INTERACTIVE);
+        PortfolioEvaluationJob job3 = this.createJob(3L, 2L, EvaluationType.REGULAR, EvaluationPriority.NIGHTLY);
+        PortfolioEvaluationJob job4 = this.createJob(4L, 3L, EvaluationType.REGULAR, EvaluationPriority.INTERACTIVE);
+        PortfolioEvaluationJob job5 = this.createJob(5L, 3L, EvaluationType.FORCE, EvaluationPriority.INTERACTIVE);
+        PortfolioEvaluationJob job6 = this.createJob(6L, 2L, EvaluationType.REVISE, EvaluationPriority.INTERACTIVE);
+
+        List<PortfolioEvaluationJob> selected = scheduler.select(List.of(job2, job3, job4, job5, job6), List.of(running));
+
+        // ポートフォリオ1は実行中、ポートフォリオ2はINTERACTIVEのジョブを選んだのでNIGHTLYのジョブは選ばない
+        Assertions.assertEquals(List.of(job4, job6), selected);
+    }
+
+    @Test
+    @DisplayName("種類ごとの上限に達した種類のジョブは選ばない")
+    public void budgetByType(){
+        Map<EvaluationType, Integer> maxRunningByType = new EnumMap<>(EvaluationType.class);
+        maxRunningByType.put(EvaluationType.FORCE, 1);
+        EvaluationJobScheduler scheduler = new EvaluationJobScheduler(5, 5, maxRunningByType);
+        PortfolioEvaluationJob force1 = this.createJob(1L, 1L, EvaluationType.FORCE, EvaluationPriority.INTERACTIVE);
+        PortfolioEvaluationJob force2 = this.createJob(2L, 2L, EvaluationType.FORCE, EvaluationPriority.INTERACTIVE);
+        PortfolioEvaluationJob regular = this.createJob(3L, 3L, EvaluationType.REGULAR, EvaluationPriority.INTERACTIVE);
+
+        Assertions.assertEquals(List.of(force1, regular), scheduler.select(List.of(force1, force2, regular), List.of()));
+    }
+
+    @Test
+    @DisplayName("NIGHTLYの上限が全体の上限を超える場合はエラー")
+    public void invalidMaxRunning(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new EvaluationJobScheduler(2, 3, Map.of()));
+    }
+
+    private PortfolioEvaluationJob createJob(long id, long portfolioId, EvaluationType evaluationType, EvaluationPriority priority){
+        PortfolioEvaluationJob job = new PortfolioEvaluationJob();
+        job.setId(id);
+        job.setStockPortfolioId(portfolioId);
+        job.setEvaluationType(evaluationType);
+        job.setPriority(priority);
+        job.setStatus(EvaluationJobStatus.PENDING);
+        return job;
+    }
+}
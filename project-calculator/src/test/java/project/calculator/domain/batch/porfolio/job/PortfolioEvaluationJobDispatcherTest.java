@@ -0,0 +1,116 @@
+package project.calculator.domain.batch.porfolio.job;
+
+import io.grpc.finance.calculation.batch.portfolio.MultiPortfolioEvaluationRequest;
+import io.grpc.finance.calculation.batch.portfolio.PortfolioEvaluationRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.calculator.domain.batch.porfolio.PortfolioEvaluationService;
+import project.calculator.domain.batch.porfolio.PortfolioLanes;
+import project.infra.rdb.evaluationdirtykey.StockEvaluationDirtyKeyRepository;
+import project.infra.rdb.evaluationjob.EvaluationJobStatus;
+import project.infra.rdb.evaluationjob.EvaluationType;
+import project.infra.rdb.evaluationjob.PortfolioEvaluationJob;
+import project.infra.rdb.evaluationjob.PortfolioEvaluationJobRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PortfolioEvaluationJobDispatcherTest {
+
+    private final PortfolioEvaluationJobRepository portfolioEvaluationJobRepository = mock(PortfolioEvaluationJobRepository.class);
+    private final PortfolioEvaluationJobService portfolioEvaluationJobService = mock(PortfolioEvaluationJobService.class);
+    private final StockEvaluationDirtyKeyRepository stockEvaluationDirtyKeyRepository = mock(StockEvaluationDirtyKeyRepository.class);
+    private final PortfolioEvaluationService portfolioEvaluationService = mock(PortfolioEvaluationService.class);
+
+    @Test
+    @DisplayName("差分評価が最近失敗したポートフォリオと、差分評価のジョブが実行待ちのポートフォリオは登録しない")
+    public void skipRecentlyFailedDirtyJob(){
+        PortfolioEvaluationJob pending = new PortfolioEvaluationJob();
+        pending.setId(10L);
+        pending.setStockPortfolioId(3L);
+        pending.setEvaluationType(EvaluationType.DIRTY);
+        pending.setStatus(EvaluationJobStatus.PENDING);
+        when(this.portfolioEvaluationJobRepository.findAllByStatusOrderByIdAsc(EvaluationJobStatus.PENDING)).thenReturn(List.of(pending));
+        when(this.stockEvaluationDirtyKeyRepository.findAllStockPortfolioIds()).thenReturn(List.of(1L, 2L, 3L));
+        when(this.portfolioEvaluationJobRepository.findStockPortfolioIdsUpdatedSince(eq(EvaluationType.DIRTY), eq(EvaluationJobStatus.FAILED), any()))
+                .thenReturn(List.of(2L));
+
+        this.createDispatcher().dispatch();
+
+        verify(this.portfolioEvaluationJobService).register(EvaluationType.DIRTY, PortfolioEvaluationRequest.newBuilder().setPortfolioId(1L).build());
+        verify(this.portfolioEvaluationJobService, never()).register(EvaluationType.DIRTY, PortfolioEvaluationRequest.newBuilder().setPortfolioId(2L).build());
+        verify(this.portfolioEvaluationJobService, never()).register(EvaluationType.DIRTY, PortfolioEvaluationRequest.newBuilder().setPortfolioId(3L).build());
+    }
+
+    @Test
+    @DisplayName("同時に開始する同じ期間の標準評価のジョブは、複数ポートフォリオの評価計算でまとめて計算する")
+    public void executeSamePeriodRegularJobsTogether(){
+        PortfolioEvaluationJob first = this.createRegularJob(10L, 1L, false);
+        PortfolioEvaluationJob second = this.createRegularJob(11L, 2L, false);
+        PortfolioEvaluationJob incremental = this.createRegularJob(12L, 3L, true);
+        when(this.portfolioEvaluationJobRepository.findAllByStatusOrderByIdAsc(EvaluationJobStatus.PENDING)).thenReturn(List.of(first, second, incremental));
+        when(this.stockEvaluationDirtyKeyRepository.findAllStockPortfolioIds()).thenReturn(List.of());
+        when(this.portfolioEvaluationService.executeMultiPortfolioEvaluation(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(this.portfolioEvaluationService.executeRegularEvaluation(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        this.createDispatcher(new EvaluationJobScheduler(3, 3, Map.of())).dispatch();
+
+        verify(this.portfolioEvaluationService).executeMultiPortfolioEvaluation(MultiPortfolioEvaluationRequest.newBuilder()
+                .addAllPortfolioIds(List.of(1L, 2L)).setStartDate("2021-04-01").setEndDate("2021-04-30").build());
+        // 続きから計算するジョブは1件ずつ計算する
+        verify(this.portfolioEvaluationService).executeRegularEvaluation(PortfolioEvaluationRequest.newBuilder()
+                .setPortfolioId(3L).setIncremental(true).setStartDate("2021-04-01").setEndDate("2021-04-30").build());
+        Assertions.assertEquals(EvaluationJobStatus.COMPLETED, first.getStatus());
+        Assertions.assertEquals(EvaluationJobStatus.COMPLETED, second.getStatus());
+        Assertions.assertEquals(EvaluationJobStatus.COMPLETED, incremental.getStatus());
+    }
+
+    @Test
+    @DisplayName("まとめて計算したジョブは、計算が失敗すると全て失敗にする")
+    public void failAllJobsExecutedTogether(){
+        PortfolioEvaluationJob first = this.createRegularJob(10L, 1L, false);
+        PortfolioEvaluationJob second = this.createRegularJob(11L, 2L, false);
+        when(this.portfolioEvaluationJobRepository.findAllByStatusOrderByIdAsc(EvaluationJobStatus.PENDING)).thenReturn(List.of(first, second));
+        when(this.stockEvaluationDirtyKeyRepository.findAllStockPortfolioIds()).thenReturn(List.of());
+        when(this.portfolioEvaluationService.executeMultiPortfolioEvaluation(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broken execution")));
+
+        this.createDispatcher(new EvaluationJobScheduler(3, 3, Map.of())).dispatch();
+
+        Assertions.assertEquals(EvaluationJobStatus.FAILED, first.getStatus());
+        Assertions.assertEquals(EvaluationJobStatus.FAILED, second.getStatus());
+        Assertions.assertTrue(second.getDetail().contains("broken execution"));
+    }
+
+    private PortfolioEvaluationJob createRegularJob(long id, long portfolioId, boolean incremental){
+        PortfolioEvaluationJob job = new PortfolioEvaluationJob();
+        job.setId(id);
+        job.setStockPortfolioId(portfolioId);
+        job.setEvaluationType(EvaluationType.REGULAR);
+        job.setStartDate(LocalDate.of(2021, 4, 1));
+        job.setEndDate(LocalDate.of(2021, 4, 30));
+        job.setIncremental(incremental);
+        job.setStatus(EvaluationJobStatus.PENDING);
+        return job;
+    }
+
+    private PortfolioEvaluationJobDispatcher createDispatcher(){
+        // 差分評価のジョブは開始しないスケジューラで、登録だけを確認する
+        return this.createDispatcher(new EvaluationJobScheduler(1, 1, Map.of(EvaluationType.DIRTY, 0)));
+    }
+
+    private PortfolioEvaluationJobDispatcher createDispatcher(EvaluationJobScheduler scheduler){
+        return new PortfolioEvaluationJobDispatcher(this.portfolioEvaluationJobRepository, this.portfolioEvaluationService, scheduler
+                , new PortfolioLanes(), this.portfolioEvaluationJobService, this.stockEvaluationDirtyKeyRepository, 300000L);
+    }
+}
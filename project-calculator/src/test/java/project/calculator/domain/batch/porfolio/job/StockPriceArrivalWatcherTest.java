@@ -0,0 +1,120 @@
+package project.calculator.domain.batch.porfolio.job;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.calculator.domain.batch.porfolio.PortfolioEvaluationService;
+import project.calculator.domain.batch.porfolio.PortfolioLanes;
+import project.infra.rdb.strockpricetimeseries.StockPriceArrival;
+import project.infra.rdb.strockpricetimeseries.StockPriceArrivalCursor;
+import project.infra.rdb.strockpricetimeseries.StockPriceArrivalCursorRepository;
+import project.infra.rdb.strockpricetimeseries.StockPriceRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StockPriceArrivalWatcherTest {
+
+    private static final Timestamp ARRIVED_AT = Timestamp.valueOf(LocalDateTime.of(2021, 4, 7, 9, 0));
+
+    private final StockPriceRepository stockPriceRepository = mock(StockPriceRepository.class);
+    private final StockPriceArrivalCursorRepository stockPriceArrivalCursorRepository = mock(StockPriceArrivalCursorRepository.class);
+    private final PortfolioEvaluationService portfolioEvaluationService = mock(PortfolioEvaluationService.class);
+    private StockPriceArrivalCursor cursor;
+
+    @BeforeEach
+    void setUp() {
+        this.cursor = new StockPriceArrivalCursor();
+        this.cursor.setCursorTimestamp(Timestamp.valueOf(LocalDateTime.of(2021, 4, 6, 9, 0)));
+        this.cursor.setCursorStockCode("");
+        this.cursor.setCursorBaseDate(LocalDate.EPOCH);
+        when(this.stockPriceArrivalCursorRepository.findById(StockPriceArrivalCursor.ID)).thenReturn(Optional.of(this.cursor));
+        when(this.stockPriceArrivalCursorRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(this.stockPriceRepository.findArrivedAfter(any(), any(), any(), any(), any()))
+                .thenReturn(List.of(this.createArrival("8888", LocalDate.of(2021, 4, 5))));
+        when(this.portfolioEvaluationService.findLockOutPortfolioIds(any())).thenReturn(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("評価し直しが終わると読み込み位置を進めて保存する")
+    public void advanceAfterEvaluation(){
+        when(this.portfolioEvaluationService.executeArrivedPriceEvaluation(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        this.createWatcher(2).poll();
+
+        verify(this.stockPriceArrivalCursorRepository).save(this.cursor);
+        Assertions.assertEquals(ARRIVED_AT, this.cursor.getCursorTimestamp());
+        Assertions.assertEquals("8888", this.cursor.getCursorStockCode());
+        Assertions.assertEquals(LocalDate.of(2021, 4, 5), this.cursor.getCursorBaseDate());
+    }
+
+    @Test
+    @DisplayName("失敗した価格は上限まで読み直し、それでも失敗すれば読み飛ばす")
+    public void skipAfterRetries(){
+        when(this.portfolioEvaluationService.executeArrivedPriceEvaluation(any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broken price")));
+        StockPriceArrivalWatcher watcher = this.createWatcher(2);
+
+        watcher.poll();
+        watcher.poll();
+        // 読み直している間は読み込み位置を進めない
+        verify(this.stockPriceArrivalCursorRepository, never()).save(any());
+        Assertions.assertEquals("", this.cursor.getCursorStockCode());
+
+        watcher.poll();
+        verify(this.portfolioEvaluationService, times(3)).executeArrivedPriceEvaluation(any(), any());
+        verify(this.stockPriceArrivalCursorRepository).save(this.cursor);
+        Assertions.assertEquals("8888", this.cursor.getCursorStockCode());
+    }
+
+    @Test
+    @DisplayName("保存した読み込み位置がなければ最新の更新日時から遡って読み始める")
+    public void startFromLookback(){
+        when(this.stockPriceArrivalCursorRepository.findById(StockPriceArrivalCursor.ID)).thenReturn(Optional.empty());
+        when(this.stockPriceRepository.findMaxUpdateTimestamp()).thenReturn(ARRIVED_AT);
+        when(this.stockPriceRepository.findArrivedAfter(any(), any(), any(), any(), any())).thenReturn(List.of());
+
+        this.createWatcher(2).poll();
+
+        // 初めて読み始めた位置を保存する
+        verify(this.stockPriceArrivalCursorRepository).save(any());
+        verify(this.stockPriceRepository).findArrivedAfter(eq(Timestamp.valueOf(LocalDateTime.of(2021, 4, 6, 9, 0))), eq(""), eq(LocalDate.EPOCH), any(), any());
+    }
+
+    private StockPriceArrivalWatcher createWatcher(int maxRetries){
+        return new StockPriceArrivalWatcher(this.stockPriceRepository, this.stockPriceArrivalCursorRepository, this.portfolioEvaluationService, new PortfolioLanes()
+                , 100, 0L, 86400000L, maxRetries, 0L);
+    }
+
+    private StockPriceArrival createArrival(String stockCode, LocalDate baseDate){
+        return new StockPriceArrival() {
+            @Override
+            public String getStockCode() {
+                return stockCode;
+            }
+
+            @Override
+            public LocalDate getBaseDate() {
+                return baseDate;
+            }
+
+            @Override
+            public Timestamp getUpdateTimestamp() {
+                return ARRIVED_AT;
+            }
+        };
+    }
+}
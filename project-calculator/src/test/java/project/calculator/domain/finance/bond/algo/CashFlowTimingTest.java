@@ -0,0 +1,136 @@
+package project.calculator.domain.finance.bond.algo;
+
+import io.grpc.util.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.CashFlowTiming;
+import project.calculator.data.enums.CurveInterpolation;
+import project.calculator.data.response.BondRiskResult;
+import project.calculator.data.response.BondYieldResult;
+import project.calculator.data.response.CalculationResult;
+import project.calculator.domain.finance.bond.algo.pricing.BondDoublePricingStrategy;
+import project.calculator.domain.finance.bond.algo.pricing.BondTheoreticalPricingStrategy;
+import project.calculator.domain.finance.bond.algo.risk.BondRiskStrategy;
+import project.calculator.domain.finance.bond.algo.ytm.BondYieldStrategy;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistry;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistryImpl;
+import project.calculator.domain.finance.bond.schedule.CouponScheduleCache;
+import project.infra.rdb.discountfactor.DiscountFactorDataRepositoryMockImpl;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * 残存期間が利払い周期の整数倍でない債券の理論価格・リスク指標・最終利回りが、同じキャッシュフローの時点で整合することを確認する。
+ * モックのカーブは年5%の一定の金利なので、理論価格から求めた最終利回りは5%になる。
+ */
+class CashFlowTimingTest {
+
+    private ForkJoinPool pool;
+    private DiscountCurveRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        this.pool = new ForkJoinPool(1);
+        this.registry = new DiscountCurveRegistryImpl(new DiscountFactorDataRepositoryMockImpl(), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("期間数に切り捨てる場合は、理論価格・リスク指標・最終利回りとも切り捨てた期間数の債券と同じになる")
+    void truncatedTimingIsConsistent() {
+        BondPricingData offGrid = bond("2.6", null);
+        BondPricingData truncated = bond("2", null);
+
+        CalculationResult price = this.pricing(CashFlowTiming.TRUNCATED).execute(offGrid);
+        BondRiskResult risk = this.risk(CashFlowTiming.TRUNCATED).execute(offGrid);
+        BondYieldResult yield = this.yield(CashFlowTiming.TRUNCATED).execute(bond("2.6", price.getResult()));
+
+        assertThat(price.getResult().compareTo(this.pricing(CashFlowTiming.TRUNCATED).execute(truncated).getResult()), is(0));
+        assertThat(risk.getTheoreticalPrice(), is(closeTo(price.getResult().doubleValue(), 1e-9)));
+        assertThat(risk.getMacaulayDuration(), is(closeTo(this.risk(CashFlowTiming.TRUNCATED).execute(truncated).getMacaulayDuration(), 1e-12)));
+        assertThat(yield.getResultDetail().getStatus(), is(Status.OK));
+        assertThat(yield.getYieldToMaturity(), is(closeTo(0.05, 1e-9)));
+    }
+
+    @Test
+    @DisplayName("償還時点から遡って割り引く場合は、理論価格・リスク指標・最終利回りとも同じ時点のキャッシュフローを使う")
+    void offGridTimingIsConsistent() {
+        BondPricingData offGrid = bond("2.6", null);
+
+        CalculationResult price = this.pricing(CashFlowTiming.OFF_GRID).execute(offGrid);
+        BondRiskResult risk = this.risk(CashFlowTiming.OFF_GRID).execute(offGrid);
+        BondYieldResult yield = this.yield(CashFlowTiming.OFF_GRID).execute(bond("2.6", price.getResult()));
+
+        // 0.6年・1.6年・2.6年のキャッシュフローを年5%で割り引いた価格
+        double expected = 3 / Math.pow(1.05, 0.6) + 3 / Math.pow(1.05, 1.6) + 103 / Math.pow(1.05, 2.6);
+        assertThat(price.getResultDetail().getStatus(), is(Status.OK));
+        assertThat(price.getResult().doubleValue(), is(closeTo(expected, 1e-9)));
+        assertThat(risk.getTheoreticalPrice(), is(closeTo(expected, 1e-9)));
+        assertThat(this.risk(CashFlowTiming.OFF_GRID).execute(zeroCoupon("2.6")).getMacaulayDuration(), is(closeTo(2.6, 1e-9)));
+        assertThat(yield.getResultDetail().getStatus(), is(Status.OK));
+        assertThat(yield.getYieldToMaturity(), is(closeTo(0.05, 1e-9)));
+    }
+
+    @Test
+    @DisplayName("倍精度の計算は期間の途中で割り引く債券だけを基準の計算方法に任せる")
+    void doublePricingFollowsTiming() {
+        BondPricingData offGrid = bond("2.6", null);
+
+        for (CashFlowTiming timing : new CashFlowTiming[]{CashFlowTiming.TRUNCATED, CashFlowTiming.OFF_GRID}) {
+            BondTheoreticalPricingStrategy reference = this.pricing(timing);
+            BondDoublePricingStrategy algo = new BondDoublePricingStrategy(this.registry, reference, false, timing);
+
+            assertThat(algo.execute(offGrid).getResult().doubleValue(), is(closeTo(reference.execute(offGrid).getResult().doubleValue(), 1e-9)));
+        }
+    }
+
+    private BondTheoreticalPricingStrategy pricing(CashFlowTiming timing) {
+        return new BondTheoreticalPricingStrategy(this.registry, new CouponScheduleCache(code -> Optional.empty()), CurveInterpolation.LOG_LINEAR, timing);
+    }
+
+    private BondRiskStrategy risk(CashFlowTiming timing) {
+        return new BondRiskStrategy(this.registry, this.pool, new double[]{1, 2, 3, 5}, CurveInterpolation.LOG_LINEAR, timing);
+    }
+
+    private BondYieldStrategy yield(CashFlowTiming timing) {
+        return new BondYieldStrategy(this.pool, 50, timing);
+    }
+
+    private static BondPricingData bond(String maturity, BigDecimal currentPrice) {
+        return new BondPricingData("1000"
+                , currentPrice
+                , new BigDecimal("99")
+                , new BigDecimal("100")
+                , new BigDecimal("0.03")
+                , PaymentType.Annual
+                , Boolean.TRUE
+                , new BigDecimal(maturity)
+        );
+    }
+
+    private static BondPricingData zeroCoupon(String maturity) {
+        return new BondPricingData("2000"
+                , null
+                , new BigDecimal("99")
+                , new BigDecimal("100")
+                , BigDecimal.ZERO
+                , PaymentType.Annual
+                , Boolean.TRUE
+                , new BigDecimal(maturity)
+        );
+    }
+}
@@ -0,0 +1,89 @@
+package project.calculator.domain.finance.bond.algo.montecarlo;
+
+import io.grpc.util.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.CurveInterpolation;
+import project.calculator.data.response.CalculationResult;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistry;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistryImpl;
+import project.infra.rdb.discountfactor.DiscountFactorDataRepositoryMockImpl;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+class HullWhiteMonteCarloStrategyTest {
+
+    private final DiscountCurveRegistry registry = new DiscountCurveRegistryImpl(new DiscountFactorDataRepositoryMockImpl(), 2);
+    private final ForkJoinPool single = new ForkJoinPool(1);
+    private final ForkJoinPool parallel = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        single.shutdown();
+        parallel.shutdown();
+    }
+
+    @Test
+    @DisplayName("モデルはカーブに較正されているので、割引現在価値による理論価格に一致する")
+    void convergesToDiscountFactorPrice() {
+        HullWhiteMonteCarloStrategy strategy = new HullWhiteMonteCarloStrategy(registry, parallel, CurveInterpolation.LOG_LINEAR, 0.03, 0.01, 20000, 1L);
+
+        CalculationResult actual = strategy.execute(bond(Boolean.TRUE));
+
+        // 期待値はBondTheoreticalPricingStrategyTestと同じ
+        assertThat(actual.getResult(), is(closeTo(new BigDecimal("94.553"), new BigDecimal("0.05"))));
+        assertThat(actual.getResultDetail().getStatus(), is(Status.OK));
+    }
+
+    @Test
+    @DisplayName("ボラティリティが0の場合は割引現在価値による理論価格と一致する")
+    void zeroVolatilityIsDeterministic() {
+        HullWhiteMonteCarloStrategy strategy = new HullWhiteMonteCarloStrategy(registry, single, CurveInterpolation.LOG_LINEAR, 0.03, 0, 10, 1L);
+
+        CalculationResult actual = strategy.execute(bond(Boolean.TRUE));
+
+        assertThat(actual.getResult(), is(closeTo(new BigDecimal("94.553"), new BigDecimal("0.001"))));
+    }
+
+    @Test
+    @DisplayName("同じseedであれば並列度によらずビット単位で同じ結果となる")
+    void reproducibleAtAnyParallelism() {
+        BondPricingData data = bond(Boolean.TRUE);
+        double first = new HullWhiteMonteCarloStrategy(registry, single, CurveInterpolation.LOG_LINEAR, 0.03, 0.01, 3000, 42L).execute(data).getResult().doubleValue();
+        double second = new HullWhiteMonteCarloStrategy(registry, parallel, CurveInterpolation.LOG_LINEAR, 0.03, 0.01, 3000, 42L).execute(data).getResult().doubleValue();
+        double otherSeed = new HullWhiteMonteCarloStrategy(registry, parallel, CurveInterpolation.LOG_LINEAR, 0.03, 0.01, 3000, 43L).execute(data).getResult().doubleValue();
+
+        assertThat(Double.doubleToLongBits(first), is(Double.doubleToLongBits(second)));
+        assertThat(first == otherSeed, is(false));
+    }
+
+    @Test
+    @DisplayName("期中払いの債券は計算未完了とする")
+    void termStartPaymentIsNotSupported() {
+        HullWhiteMonteCarloStrategy strategy = new HullWhiteMonteCarloStrategy(registry, single, CurveInterpolation.LOG_LINEAR, 0.03, 0.01, 10, 1L);
+
+        CalculationResult actual = strategy.execute(bond(Boolean.FALSE));
+
+        assertThat(actual.getResultDetail().getStatus(), is(Status.NOT_COMPLETED));
+    }
+
+    private static BondPricingData bond(Boolean isTermEndPayment) {
+        return new BondPricingData("1000"
+                , new BigDecimal("98") //
+                , new BigDecimal("99") //
+                , new BigDecimal("100") //
+                , new BigDecimal("0.03") //
+                , PaymentType.Annual //
+                , isTermEndPayment //
+                , new BigDecimal("3") //
+        );
+    }
+}
@@ -0,0 +1,104 @@
+package project.calculator.domain.finance.bond.algo.pricing;
+
+import io.grpc.util.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.PricingMethod;
+import project.calculator.data.response.CalculationResult;
+import project.calculator.domain.finance.bond.algo.CalculationStrategy;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistry;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistryImpl;
+import project.infra.rdb.discountfactor.DiscountFactorDataRepositoryMockImpl;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+class BondDoublePricingStrategyTest {
+
+    private CalculationStrategy<BondPricingData> reference;
+    private BondDoublePricingStrategy algo;
+
+    @BeforeEach
+    void setUp() {
+        DiscountCurveRegistry registry = new DiscountCurveRegistryImpl(new DiscountFactorDataRepositoryMockImpl(), 2);
+        this.reference = new BondTheoreticalPricingStrategy(registry);
+        this.algo = new BondDoublePricingStrategy(registry, this.reference, false);
+    }
+
+    @Test
+    @DisplayName("一括計算の結果はリクエスト順でBigDecimalによる計算と一致する")
+    void batchMatchesReference() {
+        List<BondPricingData> book = new ArrayList<>();
+        for (int maturity = 1; maturity <= 6; maturity++) {
+            book.add(bond("A" + maturity, "0.03", PaymentType.Annual, Boolean.TRUE, String.valueOf(maturity)));
+            book.add(bond("S" + maturity, "0.07", PaymentType.SemiAnnual, Boolean.FALSE, maturity + ".5"));
+        }
+
+        List<CalculationResult> actual = this.algo.executeBatch(book);
+
+        assertThat(actual.size(), is(book.size()));
+        for (int i = 0; i < book.size(); i++) {
+            CalculationResult expected = this.reference.execute(book.get(i));
+            assertThat(actual.get(i).getResultDetail().getStatus(), is(expected.getResultDetail().getStatus()));
+            assertThat(actual.get(i).getResult(), is(closeTo(expected.getResult(), new BigDecimal("0.000000001"))));
+            assertThat(actual.get(i).getMethod(), is(PricingMethod.DISCOUNT_FACTOR_DOUBLE));
+        }
+        assertThat(this.algo.measureMaxDeviation(book), is(lessThan(new BigDecimal("0.000000001"))));
+    }
+
+    @Test
+    @DisplayName("割引現在価値が不足する銘柄のみ計算未完了となる")
+    void insufficientCurveIsReportedPerBond() {
+        List<BondPricingData> book = Arrays.asList(
+                bond("1000", "0.03", PaymentType.Annual, Boolean.TRUE, "3"),
+                bond("2000", "0.03", PaymentType.Annual, Boolean.TRUE, "100"));
+
+        List<CalculationResult> actual = this.algo.executeBatch(book);
+
+        assertThat(actual.get(0).getResultDetail().getStatus(), is(Status.OK));
+        assertThat(actual.get(0).getResult(), is(closeTo(new BigDecimal("94.553"), new BigDecimal("0.001"))));
+        assertThat(actual.get(1).getResultDetail().getStatus(), is(Status.NOT_COMPLETED));
+    }
+
+    @Test
+    @DisplayName("リクエストで計算方法を指定しない場合は既定の計算方法を使う")
+    void selectorFallsBackToDefaultMethod() {
+        Map<PricingMethod, CalculationStrategy<BondPricingData>> strategies = new EnumMap<>(PricingMethod.class);
+        strategies.put(PricingMethod.DISCOUNT_FACTOR, this.reference);
+        strategies.put(PricingMethod.DISCOUNT_FACTOR_DOUBLE, this.algo);
+        CalculationStrategy<BondPricingData> selector = new BondPricingStrategySelector(strategies, PricingMethod.DISCOUNT_FACTOR);
+
+        BondPricingData byDefault = bond("1000", "0.03", PaymentType.Annual, Boolean.TRUE, "3");
+        BondPricingData byDouble = BondPricingData.builder()
+                .bondCode("1000").unit(new BigDecimal("100")).couponRate(new BigDecimal("0.03"))
+                .paymentType(PaymentType.Annual).isTermEndPayment(Boolean.TRUE).currentMaturity(new BigDecimal("3"))
+                .pricingMethod(PricingMethod.DISCOUNT_FACTOR_DOUBLE).build();
+
+        assertThat(selector.execute(byDefault).getMethod(), is(PricingMethod.DISCOUNT_FACTOR));
+        assertThat(selector.execute(byDouble).getMethod(), is(PricingMethod.DISCOUNT_FACTOR_DOUBLE));
+    }
+
+    private BondPricingData bond(String bondCode, String couponRate, PaymentType paymentType, Boolean isTermEndPayment, String maturity) {
+        return new BondPricingData(bondCode
+                , new BigDecimal("98")
+                , new BigDecimal("99")
+                , new BigDecimal("100")
+                , new BigDecimal(couponRate)
+                , paymentType
+                , isTermEndPayment
+                , new BigDecimal(maturity)
+        );
+    }
+}
@@ -4,12 +4,19 @@ import io.grpc.util.Status;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.CashFlowTiming;
 import project.calculator.data.response.CalculationResult;
 import project.calculator.domain.finance.bond.algo.CalculationStrategy;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistryImpl;
 import project.infra.rdb.discountfactor.DiscountFactorDataRepositoryMockImpl;
 import project.infra.rdb.discountfactor.PaymentType;
+import project.calculator.data.enums.CurveInterpolation;
+import project.calculator.data.enums.DayCountConvention;
+import project.calculator.domain.finance.bond.schedule.CouponScheduleCache;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.closeTo;
@@ -23,7 +30,7 @@ class BondTheoreticalPricingStrategyTest {
 
     @BeforeEach
     void setUp() {
-        this.algo = new BondTheoreticalPricingStrategy(new DiscountFactorDataRepositoryMockImpl());
+        this.algo = new BondTheoreticalPricingStrategy(new DiscountCurveRegistryImpl(new DiscountFactorDataRepositoryMockImpl(), 2));
     }
 
     /**
@@ -243,4 +250,97 @@ class BondTheoreticalPricingStrategyTest {
         );
         assertThat(actual.getResultDetail().getStatus(), is(Status.OK));
     }
-}
\ No newline at end of file
+
+    /**
+     * 受渡日が利払い日で残存期間が利払い周期の整数倍の場合、日数計算方式を指定しても従来の理論価格と一致し、経過利息は0となる。
+     */
+    @Test
+    void whenSettlementIsOnCouponDateDirtyPriceEqualsToPeriodicPrice() {
+        CalculationResult actual = this.executeByDayCount(DayCountConvention.ACT_ACT, LocalDate.of(2021, 1, 1));
+
+        assertThat(new BigDecimal("94.553")
+                , is(closeTo(actual.getResult(), new BigDecimal("0.001"))) //
+        );
+        assertThat(actual.getAccruedInterest(), is(closeTo(BigDecimal.ZERO, new BigDecimal("0.000001"))));
+        assertThat(actual.getResultDetail().getStatus(), is(Status.OK));
+    }
+
+    /**
+     * 利払い期間の途中の受渡日では、日数計算方式に応じた経過利息を返す。
+     */
+    @Test
+    void whenSettlementIsBetweenCouponDatesAccruedInterestDependsOnConvention() {
+        CalculationResult actAct = this.executeByDayCount(DayCountConvention.ACT_ACT, LocalDate.of(2021, 7, 1));
+        CalculationResult thirty360 = this.executeByDayCount(DayCountConvention.THIRTY_360, LocalDate.of(2021, 7, 1));
+
+        // 3 × 181 / 365
+        assertThat(actAct.getAccruedInterest(), is(closeTo(new BigDecimal("1.487671"), new BigDecimal("0.000001"))));
+        // 3 × 180 / 360
+        assertThat(thirty360.getAccruedInterest(), is(closeTo(new BigDecimal("1.5"), new BigDecimal("0.000001"))));
+        assertThat(actAct.getResultDetail().getStatus(), is(Status.OK));
+    }
+
+    /**
+     * 償還日がわからない銘柄は計算未完了とする。
+     */
+    @Test
+    void whenMaturityIsUnknownResultIsNotCompleted() {
+        BondPricingData data = BondPricingData.builder()
+                .bondCode("9999")
+                .unit(new BigDecimal("100"))
+                .couponRate(new BigDecimal("0.03"))
+                .paymentType(PaymentType.Annual)
+                .isTermEndPayment(Boolean.TRUE)
+                .currentMaturity(new BigDecimal("3"))
+                .dayCountConvention(DayCountConvention.ACT_ACT)
+                .settlementDate(LocalDate.of(2021, 1, 1))
+                .build();
+
+        CalculationResult actual = this.algo.execute(data);
+
+        assertThat(actual.getResultDetail().getStatus(), is(Status.NOT_COMPLETED));
+    }
+
+    /**
+     * 償還時点から遡って割り引く場合、残存期間が利払い周期の整数倍でない債券は期間の途中の割引現在価値を補間して計算する。
+     * 3年債と2年債の理論価格の間となる。
+     */
+    @Test
+    void whenCurrentMaturityIsOffGridDiscountFactorIsInterpolated() {
+        BondTheoreticalPricingStrategy strategy = new BondTheoreticalPricingStrategy(new DiscountCurveRegistryImpl(new DiscountFactorDataRepositoryMockImpl(), 2)
+                , new CouponScheduleCache(code -> Optional.empty()), CurveInterpolation.LOG_LINEAR, CashFlowTiming.OFF_GRID);
+        BondPricingData data = new BondPricingData("1000"
+                , new BigDecimal("98") //
+                , new BigDecimal("99") //
+                , new BigDecimal("100") //
+                , new BigDecimal("0.03") //
+                , PaymentType.Annual //
+                , Boolean.TRUE //
+                , new BigDecimal("2.5") //
+        );
+
+        CalculationResult actual = strategy.execute(data);
+
+        assertThat(actual.getResultDetail().getStatus(), is(Status.OK));
+        assertThat(actual.getResult().compareTo(new BigDecimal("94.553")) > 0, is(true));
+        assertThat(actual.getResult().compareTo(new BigDecimal("100")) < 0, is(true));
+        // 期間数に切り捨てる場合は2年債と同じ
+        assertThat(this.algo.execute(data).getResult().compareTo(strategy.execute(data).getResult()) < 0, is(true));
+    }
+
+    private CalculationResult executeByDayCount(DayCountConvention convention, LocalDate settlementDate) {
+        BondTheoreticalPricingStrategy strategy = new BondTheoreticalPricingStrategy(new DiscountCurveRegistryImpl(new DiscountFactorDataRepositoryMockImpl(), 2)
+                , new CouponScheduleCache(code -> Optional.of(LocalDate.of(2024, 1, 1))), CurveInterpolation.LOG_LINEAR, CashFlowTiming.TRUNCATED);
+        BondPricingData data = BondPricingData.builder()
+                .bondCode("1000")
+                .unit(new BigDecimal("100"))
+                .couponRate(new BigDecimal("0.03"))
+                .paymentType(PaymentType.Annual)
+                .isTermEndPayment(Boolean.TRUE)
+                .currentMaturity(new BigDecimal("3"))
+                .dayCountConvention(convention)
+                .settlementDate(settlementDate)
+                .build();
+        return strategy.execute(data);
+    }
+}
@@ -0,0 +1,94 @@
+package project.calculator.domain.finance.bond.algo.risk;
+
+import io.grpc.util.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.response.BondRiskResult;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistryImpl;
+import project.infra.rdb.discountfactor.DiscountFactorDataRepositoryMockImpl;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+class BondRiskStrategyTest {
+
+    private ForkJoinPool pool;
+    private BondRiskStrategy algo;
+
+    @BeforeEach
+    void setUp() {
+        this.pool = new ForkJoinPool(2);
+        this.algo = new BondRiskStrategy(new DiscountCurveRegistryImpl(new DiscountFactorDataRepositoryMockImpl(), 2),
+                pool, new double[]{1, 2, 3, 5});
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("基準価格は理論価格と一致し、DV01とキーレートデュレーションは修正デュレーションと整合する")
+    void riskMeasuresAreConsistent() {
+        BondRiskResult actual = this.algo.execute(bond("0.03", "3"));
+
+        assertThat(actual.getResultDetail().getStatus(), is(Status.OK));
+        assertThat(actual.getTheoreticalPrice(), is(closeTo(94.553, 0.001)));
+        assertThat(actual.getMacaulayDuration(), is(greaterThan(2.0)));
+        assertThat(actual.getModifiedDuration(), is(closeTo(actual.getMacaulayDuration() / 1.05, 0.01)));
+        assertThat(actual.getDv01(), is(closeTo(actual.getModifiedDuration() * actual.getTheoreticalPrice() * 0.0001, 1e-6)));
+        assertThat(actual.getConvexity(), is(greaterThan(0.0)));
+        assertThat(Arrays.stream(actual.getKeyRateDurations()).sum(), is(closeTo(actual.getModifiedDuration(), 1e-4)));
+    }
+
+    @Test
+    @DisplayName("割引債のマコーレーデュレーションは残存期間と一致する")
+    void zeroCouponMacaulayDurationIsMaturity() {
+        BondRiskResult actual = this.algo.execute(bond("0", "3"));
+
+        assertThat(actual.getMacaulayDuration(), is(closeTo(3.0, 1e-12)));
+        assertThat(actual.getKeyRateDurations()[2], is(closeTo(actual.getModifiedDuration(), 1e-4)));
+    }
+
+    @Test
+    @DisplayName("一括計算はリクエスト順に1銘柄ずつの計算と同じ結果を返す")
+    void batchMatchesSingleExecution() {
+        List<BondPricingData> book = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            book.add(bond(String.valueOf(i % 10 / 100.0), String.valueOf(i % 7)));
+        }
+
+        List<BondRiskResult> actual = this.algo.executeBatch(book);
+
+        assertThat(actual.size(), is(book.size()));
+        for (int i = 0; i < book.size(); i++) {
+            BondRiskResult expected = this.algo.execute(book.get(i));
+            assertThat(actual.get(i).getResultDetail().getStatus(), is(expected.getResultDetail().getStatus()));
+            assertThat(actual.get(i).getModifiedDuration(), is(expected.getModifiedDuration()));
+        }
+    }
+
+    private BondPricingData bond(String couponRate, String maturity) {
+        return new BondPricingData("1000"
+                , new BigDecimal("98")
+                , new BigDecimal("99")
+                , new BigDecimal("100")
+                , new BigDecimal(couponRate)
+                , PaymentType.Annual
+                , Boolean.TRUE
+                , new BigDecimal(maturity)
+        );
+    }
+}
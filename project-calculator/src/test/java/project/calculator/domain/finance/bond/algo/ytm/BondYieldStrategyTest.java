@@ -0,0 +1,108 @@
+package project.calculator.domain.finance.bond.algo.ytm;
+
+import io.grpc.util.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.CashFlowTiming;
+import project.calculator.data.response.BondYieldResult;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+class BondYieldStrategyTest {
+
+    private BondYieldStrategy algo;
+
+    @BeforeEach
+    void setUp() {
+        this.algo = new BondYieldStrategy(new ForkJoinPool(2), 50);
+    }
+
+    @Test
+    @DisplayName("既知の利回りで割り引いた価格から、その利回りを求められる")
+    void solvesKnownYield() {
+        // 年1回払い・残存3年・クーポン3%を利回り2%で割り引いた価格
+        double annual = 100 * (0.03 / 1.02 + 0.03 / Math.pow(1.02, 2) + 1.03 / Math.pow(1.02, 3));
+        // 半年1回払い・残存2年・クーポン4%を利回り5%(半年複利)で割り引いた価格
+        double semiAnnual = 0;
+        for (int k = 1; k <= 4; k++) {
+            semiAnnual += 100 * 0.02 / Math.pow(1.025, k);
+        }
+        semiAnnual += 100 / Math.pow(1.025, 4);
+
+        List<BondYieldResult> actual = this.algo.executeBatch(Arrays.asList(
+                bond("1000", annual, "0.03", PaymentType.Annual, "3"),
+                bond("2000", semiAnnual, "0.04", PaymentType.SemiAnnual, "2"),
+                bond("3000", 100, "0.03", PaymentType.Annual, "5")));
+
+        assertThat(actual.get(0).getResultDetail().getStatus(), is(Status.OK));
+        assertThat(actual.get(0).getYieldToMaturity(), is(closeTo(0.02, 1e-9)));
+        assertThat(actual.get(1).getYieldToMaturity(), is(closeTo(0.05, 1e-9)));
+        // パー価格ではクーポンレートと一致する
+        assertThat(actual.get(2).getYieldToMaturity(), is(closeTo(0.03, 1e-9)));
+    }
+
+    @Test
+    @DisplayName("前回の解を初期値にするので、同じ価格の再計算は1回の反復で収束する")
+    void warmStartsFromPreviousYield() {
+        List<BondPricingData> book = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            book.add(bond(String.valueOf(i), 90 + i % 20, "0.03", PaymentType.Annual, String.valueOf(1 + i % 10)));
+        }
+
+        List<BondYieldResult> first = this.algo.executeBatch(book);
+        List<BondYieldResult> second = this.algo.executeBatch(book);
+
+        for (int i = 0; i < book.size(); i++) {
+            assertThat(first.get(i).getResultDetail().getStatus(), is(Status.OK));
+            assertThat(second.get(i).getYieldToMaturity(), is(closeTo(first.get(i).getYieldToMaturity(), 1e-9)));
+            assertThat(second.get(i).getIterations(), is(1));
+        }
+    }
+
+    @Test
+    @DisplayName("前回の解は保持する銘柄数を超えると古いものから破棄する")
+    void evictsLeastRecentlyUsedYield() {
+        BondYieldStrategy bounded = new BondYieldStrategy(new ForkJoinPool(1), 50, CashFlowTiming.TRUNCATED, 1);
+        BondPricingData first = bond("1000", 80, "0.03", PaymentType.Annual, "10");
+        BondPricingData second = bond("2000", 85, "0.02", PaymentType.Annual, "7");
+
+        bounded.execute(first);
+        bounded.execute(second);
+
+        assertThat(bounded.execute(second).getIterations(), is(1));
+        assertThat(bounded.execute(first).getIterations(), is(greaterThan(1)));
+    }
+
+    @Test
+    @DisplayName("反復回数の上限までに収束しない銘柄と、解が範囲外の銘柄は計算未完了となる")
+    void reportsNotConverged() {
+        BondYieldStrategy capped = new BondYieldStrategy(new ForkJoinPool(1), 1);
+
+        assertThat(capped.execute(bond("1000", 80, "0.03", PaymentType.Annual, "10")).getResultDetail().getStatus(), is(Status.NOT_COMPLETED));
+        assertThat(this.algo.execute(bond("2000", 1000, "0.03", PaymentType.Annual, "3")).getResultDetail().getStatus(), is(Status.NOT_COMPLETED));
+    }
+
+    private BondPricingData bond(String bondCode, double currentPrice, String couponRate, PaymentType paymentType, String maturity) {
+        return new BondPricingData(bondCode
+                , BigDecimal.valueOf(currentPrice)
+                , new BigDecimal("99")
+                , new BigDecimal("100")
+                , new BigDecimal(couponRate)
+                , paymentType
+                , Boolean.TRUE
+                , new BigDecimal(maturity)
+        );
+    }
+}
@@ -0,0 +1,148 @@
+package project.calculator.domain.finance.bond.curve;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.infra.rdb.discountfactor.DiscountFactorDataRepository;
+import project.infra.rdb.discountfactor.DiscountFactorDataRepositoryMockImpl;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DiscountCurveRegistryImplTest {
+
+    private DiscountFactorDataRepository repository = mock(DiscountFactorDataRepository.class);
+
+    private final List<BigDecimal> version1 = Arrays.asList(new BigDecimal("1"), new BigDecimal("0.95"));
+    private final List<BigDecimal> version2 = Arrays.asList(new BigDecimal("1"), new BigDecimal("0.96"));
+    private final List<BigDecimal> version3 = Arrays.asList(new BigDecimal("1"), new BigDecimal("0.97"));
+
+    @BeforeEach
+    void setUp() {
+        when(repository.loadDiscountFactor(PaymentType.Annual, 1L)).thenReturn(version1);
+        when(repository.loadDiscountFactor(PaymentType.Annual, 2L)).thenReturn(version2);
+        when(repository.loadDiscountFactor(PaymentType.Annual, 3L)).thenReturn(version3);
+    }
+
+    @Test
+    @DisplayName("最新カーブは初回参照時のみマスターデータから読み込まれる")
+    void latestCurveIsLoadedOnlyOnce() {
+        when(repository.findLatestVersion(PaymentType.Annual)).thenReturn(1L);
+        DiscountCurveRegistry registry = new DiscountCurveRegistryImpl(repository, 2);
+
+        DiscountCurve first = registry.getLatest(PaymentType.Annual).orElseThrow();
+        DiscountCurve second = registry.getLatest(PaymentType.Annual).orElseThrow();
+
+        assertThat(first.getVersion(), is(1L));
+        assertThat(first == second, is(true));
+        verify(repository, times(1)).loadDiscountFactor(PaymentType.Annual, 1L);
+    }
+
+    @Test
+    @DisplayName("カーブがない利払い周期は、次の確認までマスターデータを読み直さない")
+    void missingCurveIsNotQueriedUntilRefresh() {
+        when(repository.findLatestVersion(PaymentType.Annual)).thenReturn(-1L);
+        DiscountCurveRegistry registry = new DiscountCurveRegistryImpl(repository, 2);
+
+        assertThat(registry.getLatest(PaymentType.Annual).isPresent(), is(false));
+        assertThat(registry.getLatest(PaymentType.Annual).isPresent(), is(false));
+        verify(repository, times(1)).findLatestVersion(PaymentType.Annual);
+
+        when(repository.findLatestVersion(PaymentType.Annual)).thenReturn(1L);
+        assertThat(registry.refresh(PaymentType.Annual), is(true));
+        assertThat(registry.getLatest(PaymentType.Annual).orElseThrow().getVersion(), is(1L));
+    }
+
+    @Test
+    @DisplayName("新しいバージョンが公開されると最新カーブが切り替わり、旧バージョンも参照できる")
+    void refreshSwitchesToNewVersion() {
+        when(repository.findLatestVersion(PaymentType.Annual)).thenReturn(1L);
+        DiscountCurveRegistry registry = new DiscountCurveRegistryImpl(repository, 2);
+        registry.getLatest(PaymentType.Annual);
+
+        when(repository.findLatestVersion(PaymentType.Annual)).thenReturn(2L);
+        boolean switched = registry.refresh(PaymentType.Annual);
+
+        assertThat(switched, is(true));
+        assertThat(registry.getLatest(PaymentType.Annual).orElseThrow().getDiscountFactor(1), is(new BigDecimal("0.96")));
+        assertThat(registry.get(PaymentType.Annual, 1L).orElseThrow().getDiscountFactor(1), is(new BigDecimal("0.95")));
+        verify(repository, times(1)).loadDiscountFactor(PaymentType.Annual, 1L);
+    }
+
+    @Test
+    @DisplayName("バージョンが変わらなければカーブは切り替わらない")
+    void refreshDoesNothingWhenVersionIsSame() {
+        when(repository.findLatestVersion(PaymentType.Annual)).thenReturn(1L);
+        DiscountCurveRegistry registry = new DiscountCurveRegistryImpl(repository, 2);
+        registry.getLatest(PaymentType.Annual);
+
+        assertThat(registry.refresh(PaymentType.Annual), is(false));
+        verify(repository, times(1)).loadDiscountFactor(PaymentType.Annual, 1L);
+    }
+
+    @Test
+    @DisplayName("保持数を超えた過去バージョンは古いものから破棄され、再参照時に読み直される")
+    void historyIsEvictedByLru() {
+        when(repository.findLatestVersion(PaymentType.Annual)).thenReturn(3L);
+        DiscountCurveRegistry registry = new DiscountCurveRegistryImpl(repository, 1);
+
+        registry.get(PaymentType.Annual, 1L);
+        registry.get(PaymentType.Annual, 2L);
+        registry.get(PaymentType.Annual, 1L);
+
+        verify(repository, times(2)).loadDiscountFactor(PaymentType.Annual, 1L);
+        verify(repository, times(1)).loadDiscountFactor(PaymentType.Annual, 2L);
+    }
+
+    @Test
+    @DisplayName("存在しないバージョンを指定した場合はemptyを返す")
+    void unknownVersionIsEmpty() {
+        when(repository.loadDiscountFactor(PaymentType.SemiAnnual, 9L)).thenReturn(Collections.emptyList());
+        DiscountCurveRegistry registry = new DiscountCurveRegistryImpl(repository, 2);
+
+        Optional<DiscountCurve> actual = registry.get(PaymentType.SemiAnnual, 9L);
+
+        assertThat(actual.isPresent(), is(false));
+    }
+
+    @Test
+    @DisplayName("publishされたカーブが現在より新しければ最新版として切り替わる")
+    void publishSwitchesWhenNewer() {
+        when(repository.findLatestVersion(PaymentType.Annual)).thenReturn(1L);
+        DiscountCurveRegistry registry = new DiscountCurveRegistryImpl(repository, 2);
+        registry.getLatest(PaymentType.Annual);
+
+        registry.publish(DiscountCurve.of(PaymentType.Annual, 5L, version3));
+        registry.publish(DiscountCurve.of(PaymentType.Annual, 4L, version2));
+
+        assertThat(registry.getLatest(PaymentType.Annual).orElseThrow().getVersion(), is(5L));
+        assertThat(registry.get(PaymentType.Annual, 4L).orElseThrow().getDiscountFactor(1), is(new BigDecimal("0.96")));
+        verify(repository, times(0)).loadDiscountFactor(PaymentType.Annual, 4L);
+    }
+
+    @Test
+    @DisplayName("モックのマスターデータに登録したバージョンは次の確認で最新カーブになる")
+    void refreshLoadsVersionInsertedIntoMock() {
+        DiscountFactorDataRepositoryMockImpl mockRepository = new DiscountFactorDataRepositoryMockImpl();
+        DiscountCurveRegistry registry = new DiscountCurveRegistryImpl(mockRepository, 2);
+        assertThat(registry.getLatest(PaymentType.Annual).orElseThrow().getVersion(), is(0L));
+
+        long version = mockRepository.lockLatestVersion() + 1;
+        mockRepository.insertDiscountFactors(PaymentType.Annual, version, version2, "test");
+
+        assertThat(registry.refresh(PaymentType.Annual), is(true));
+        assertThat(registry.getLatest(PaymentType.Annual).orElseThrow().getDiscountFactors(), is(version2));
+        assertThat(mockRepository.findLatestVersion(PaymentType.SemiAnnual), is(0L));
+    }
+}
@@ -0,0 +1,33 @@
+package project.calculator.domain.finance.bond.curve;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DiscountCurveTest {
+
+    private final DiscountCurve curve = DiscountCurve.of(PaymentType.Annual, 1L,
+            Arrays.asList(new BigDecimal("1"), new BigDecimal("0.99"), new BigDecimal("0.97"), new BigDecimal("0.94")));
+
+    @Test
+    @DisplayName("累積和から任意区間の割引現在価値の合計が求まる")
+    void sumDiscountFactors() {
+        assertThat(curve.sumDiscountFactors(0, 4), is(new BigDecimal("3.90")));
+        assertThat(curve.sumDiscountFactors(1, 3), is(new BigDecimal("1.96")));
+        assertThat(curve.sumDiscountFactors(2, 2), is(new BigDecimal("0.00")));
+    }
+
+    @Test
+    @DisplayName("範囲外の区間を指定した場合は例外となる")
+    void sumDiscountFactorsOutOfRange() {
+        assertThrows(IndexOutOfBoundsException.class, () -> curve.sumDiscountFactors(0, 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> curve.sumDiscountFactors(3, 2));
+    }
+}
@@ -0,0 +1,92 @@
+package project.calculator.domain.finance.bond.curve.bootstrap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.calculator.data.BondPricingData;
+import project.calculator.domain.finance.bond.algo.pricing.BondTheoreticalPricingStrategy;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistryImpl;
+import project.infra.rdb.discountfactor.DiscountFactorDataRepositoryMockImpl;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+class CurveBootstrapperTest {
+
+    private final List<BigDecimal> expected = new DiscountFactorDataRepositoryMockImpl().loadAnnualDiscountFactor();
+    private List<BondPricingData> bonds;
+    private Map<String, BigDecimal> prices;
+
+    @BeforeEach
+    void setUp() {
+        BondTheoreticalPricingStrategy pricing = new BondTheoreticalPricingStrategy(new DiscountCurveRegistryImpl(new DiscountFactorDataRepositoryMockImpl(), 2));
+        this.bonds = new ArrayList<>();
+        this.prices = new HashMap<>();
+        // 残存4年の債券はなく、補間で埋める
+        for (int maturity : new int[]{1, 2, 3, 5, 6}) {
+            BondPricingData bond = bond("A" + maturity, "0.0" + maturity, maturity);
+            this.bonds.add(bond);
+            this.prices.put(bond.getBondCode(), pricing.execute(bond).getResult());
+        }
+    }
+
+    @Test
+    @DisplayName("割引現在価値で計算した価格から、元の割引現在価値を復元できる")
+    void recoversDiscountFactors() {
+        CurveBootstrapper bootstrapper = new CurveBootstrapper(PaymentType.Annual, this.bonds);
+
+        int resolved = bootstrapper.update(this.prices);
+
+        List<BigDecimal> actual = bootstrapper.getDiscountFactors();
+        assertThat(resolved, is(6));
+        assertThat(actual.size(), is(7));
+        for (int k = 0; k < actual.size(); k++) {
+            assertThat(actual.get(k), is(closeTo(this.expected.get(k), new BigDecimal("0.0000000001"))));
+        }
+    }
+
+    @Test
+    @DisplayName("価格が変わった銘柄のピラー以降のみ解き直し、全件を解き直した結果と一致する")
+    void updatesIncrementally() {
+        CurveBootstrapper incremental = new CurveBootstrapper(PaymentType.Annual, this.bonds);
+        incremental.update(this.prices);
+        List<BigDecimal> before = incremental.getDiscountFactors();
+
+        Map<String, BigDecimal> changed = Collections.singletonMap("A5", this.prices.get("A5").subtract(BigDecimal.ONE));
+        int resolved = incremental.update(changed);
+
+        Map<String, BigDecimal> all = new HashMap<>(this.prices);
+        all.putAll(changed);
+        CurveBootstrapper full = new CurveBootstrapper(PaymentType.Annual, this.bonds);
+        full.update(all);
+
+        // 直前のピラー(3年)より後の4〜6年のみ解き直す
+        assertThat(resolved, is(3));
+        for (int k = 0; k <= 3; k++) {
+            assertThat(incremental.getDiscountFactors().get(k), is(before.get(k)));
+        }
+        assertThat(incremental.getDiscountFactors(), is(full.getDiscountFactors()));
+        assertThat(incremental.update(changed), is(0));
+    }
+
+    private BondPricingData bond(String bondCode, String couponRate, int maturity) {
+        return new BondPricingData(bondCode
+                , null
+                , null
+                , new BigDecimal("100")
+                , new BigDecimal(couponRate)
+                , PaymentType.Annual
+                , Boolean.TRUE
+                , new BigDecimal(maturity)
+        );
+    }
+}
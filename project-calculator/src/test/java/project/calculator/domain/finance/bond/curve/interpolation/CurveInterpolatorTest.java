@@ -0,0 +1,73 @@
+package project.calculator.domain.finance.bond.curve.interpolation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.calculator.data.enums.CurveInterpolation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+class CurveInterpolatorTest {
+
+    private final double[] times = {0, 1, 2, 3, 4};
+    private final double[] discountFactors = {1, 0.99, 0.97, 0.94, 0.905};
+
+    @Test
+    @DisplayName("どの補間方式でも期間の端点では元の割引現在価値と一致する")
+    void reproducesNodes() {
+        for (CurveInterpolation interpolation : CurveInterpolation.values()) {
+            CurveInterpolator interpolator = CurveInterpolator.of(interpolation, times, discountFactors);
+            for (int i = 0; i < times.length; i++) {
+                assertThat(interpolation.name(), interpolator.discountFactor(times[i]), is(closeTo(discountFactors[i], 1e-15)));
+            }
+            // 区間内の積分も端点で連続となる
+            assertThat(interpolation.name(), interpolator.discountFactor(Math.nextDown(2.0)), is(closeTo(0.97, 1e-12)));
+        }
+    }
+
+    @Test
+    @DisplayName("対数線形補間では区間の中点が両端の幾何平均となる")
+    void logLinearMidPoint() {
+        CurveInterpolator interpolator = CurveInterpolator.of(CurveInterpolation.LOG_LINEAR, times, discountFactors);
+
+        assertThat(interpolator.discountFactor(1.5), is(closeTo(Math.sqrt(0.99 * 0.97), 1e-15)));
+    }
+
+    @Test
+    @DisplayName("ゼロレート一定のカーブはどの補間方式でも同じ値に補間される")
+    void flatCurve() {
+        double rate = 0.02;
+        double[] flat = new double[times.length];
+        for (int i = 0; i < times.length; i++) {
+            flat[i] = Math.exp(-rate * times[i]);
+        }
+        for (CurveInterpolation interpolation : CurveInterpolation.values()) {
+            CurveInterpolator interpolator = CurveInterpolator.of(interpolation, times, flat);
+            assertThat(interpolation.name(), interpolator.discountFactor(2.7), is(closeTo(Math.exp(-rate * 2.7), 1e-12)));
+        }
+    }
+
+    @Test
+    @DisplayName("monotone convex法では割引現在価値が単調減少のまま補間される")
+    void monotoneConvexKeepsMonotonicity() {
+        CurveInterpolator interpolator = CurveInterpolator.of(CurveInterpolation.MONOTONE_CONVEX, times, discountFactors);
+
+        double previous = interpolator.discountFactor(0);
+        for (double t = 0.01; t <= 4; t += 0.01) {
+            double df = interpolator.discountFactor(t);
+            assertThat(df < previous, is(true));
+            previous = df;
+        }
+    }
+
+    @Test
+    @DisplayName("カーブの範囲外はNaNとなる")
+    void outOfRange() {
+        for (CurveInterpolation interpolation : CurveInterpolation.values()) {
+            CurveInterpolator interpolator = CurveInterpolator.of(interpolation, times, discountFactors);
+            assertThat(Double.isNaN(interpolator.discountFactor(4.5)), is(true));
+            assertThat(Double.isNaN(interpolator.discountFactor(-0.1)), is(true));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package project.calculator.domain.finance.bond.external.grpc;
+
+import io.grpc.finance.calculation.product.bond.BondPricingBatchRequest;
+import io.grpc.finance.calculation.product.bond.BondPricingRequest;
+import io.grpc.finance.calculation.product.bond.BondTheoreticalPriceBatchResponse;
+import io.grpc.finance.calculation.product.bond.BondTheoreticalPriceResponse;
+import io.grpc.finance.calculation.product.bond.PaymentTypeRpc;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import io.grpc.util.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import project.calculator.data.enums.PricingMethod;
+import project.calculator.domain.finance.bond.algo.pricing.BondTheoreticalPricingStrategy;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistryImpl;
+import project.calculator.domain.finance.bond.service.calculator.pricing.BondPriceCalculatorServiceImpl;
+import project.calculator.domain.finance.bond.service.calculator.pricing.BondPriceKeyGenerator;
+import project.calculator.domain.finance.bond.service.calculator.pricing.CachedBondPriceCalculator;
+import project.calculator.domain.finance.bond.service.calculator.risk.BondRiskCalculatorService;
+import project.calculator.domain.finance.bond.service.calculator.scenario.BondScenarioService;
+import project.calculator.domain.finance.bond.service.calculator.ytm.BondYieldCalculatorService;
+import project.infra.rdb.discountfactor.DiscountFactorDataRepositoryMockImpl;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BondPriceCalculatorGrpcServiceImplTest {
+
+    private BondPriceCalculatorGrpcServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        DiscountCurveRegistryImpl registry = new DiscountCurveRegistryImpl(new DiscountFactorDataRepositoryMockImpl(), 2);
+        BondPriceCalculatorServiceImpl calculatorService = new BondPriceCalculatorServiceImpl(
+                new CachedBondPriceCalculator(new BondTheoreticalPricingStrategy(registry), new ConcurrentMapCacheManager("bondPriceCache")
+                        , new BondPriceKeyGenerator(PricingMethod.DISCOUNT_FACTOR)), registry);
+        // 呼び出しスレッドで計算させて結果を決定的にする
+        this.service = new BondPriceCalculatorGrpcServiceImpl(calculatorService, mock(BondRiskCalculatorService.class), mock(BondYieldCalculatorService.class), mock(BondScenarioService.class), Runnable::run, 2, 256);
+    }
+
+    @Test
+    @DisplayName("バッチ計算はリクエスト順に結果を返し、不正な銘柄はその銘柄のみエラーとなる")
+    @SuppressWarnings("unchecked")
+    void batchPricingKeepsRequestOrder() {
+        BondPricingBatchRequest request = BondPricingBatchRequest.newBuilder()
+                .addRequests(bond("1000", "0.03"))
+                .addRequests(bond("2000", "invalid"))
+                .addRequests(bond("3000", "0.05"))
+                .build();
+        StreamObserver<BondTheoreticalPriceBatchResponse> observer = mock(StreamObserver.class);
+
+        this.service.responseTheoreticalPricesByDiscountFactor(request, observer);
+
+        ArgumentCaptor<BondTheoreticalPriceBatchResponse> captor = ArgumentCaptor.forClass(BondTheoreticalPriceBatchResponse.class);
+        verify(observer).onNext(captor.capture());
+        verify(observer).onCompleted();
+        BondTheoreticalPriceBatchResponse actual = captor.getValue();
+        assertThat(actual.getResponsesCount(), is(3));
+        assertThat(actual.getResponses(0).getBondCode(), is("1000"));
+        assertThat(actual.getResponses(0).getStatusMsg().getStatus(), is(Status.OK));
+        assertThat(new BigDecimal(actual.getResponses(0).getTheoreticalPrice()), is(closeTo(new BigDecimal("94.553"), new BigDecimal("0.001"))));
+        assertThat(actual.getResponses(1).getBondCode(), is("2000"));
+        assertThat(actual.getResponses(1).getRequestIndex(), is(1L));
+        assertThat(actual.getResponses(1).getStatusMsg().getStatus(), is(Status.ERROR));
+        assertThat(actual.getResponses(2).getBondCode(), is("3000"));
+        assertThat(actual.getResponses(2).getStatusMsg().getStatus(), is(Status.OK));
+    }
+
+    @Test
+    @DisplayName("ストリーム計算はクライアントが受信可能な場合のみ次のリクエストを要求する")
+    @SuppressWarnings("unchecked")
+    void streamPricingFollowsBackPressure() {
+        ServerCallStreamObserver<BondTheoreticalPriceResponse> observer = mock(ServerCallStreamObserver.class);
+        ArgumentCaptor<Runnable> onReady = ArgumentCaptor.forClass(Runnable.class);
+
+        StreamObserver<BondPricingRequest> requestObserver = this.service.streamTheoreticalPriceByDiscountFactor(observer);
+        verify(observer).disableAutoInboundFlowControl();
+        verify(observer).setOnReadyHandler(onReady.capture());
+        verify(observer).request(2);
+
+        when(observer.isReady()).thenReturn(false);
+        requestObserver.onNext(bond("1000", "0.03"));
+        verify(observer, times(1)).onNext(any());
+        verify(observer, never()).request(1);
+
+        when(observer.isReady()).thenReturn(true);
+        onReady.getValue().run();
+        verify(observer).request(1);
+
+        requestObserver.onCompleted();
+        verify(observer).onCompleted();
+    }
+
+    private BondPricingRequest bond(String bondCode, String couponRate) {
+        return BondPricingRequest.newBuilder()
+                .setBondCode(bondCode)
+                .setCurrentPrice("98")
+                .setBookPrice("99")
+                .setUnit("100")
+                .setCouponRate(couponRate)
+                .setPaymentType(PaymentTypeRpc.ANNUAL)
+                .setIsTermEndPayment(true)
+                .setCurrentMaturity("3")
+                .build();
+    }
+}
@@ -0,0 +1,123 @@
+package project.calculator.domain.finance.bond.scenario;
+
+import io.grpc.util.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.DayCountConvention;
+import project.calculator.domain.finance.bond.algo.pricing.BondTheoreticalPricingStrategy;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistry;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistryImpl;
+import project.infra.rdb.discountfactor.DiscountFactorDataRepositoryMockImpl;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+class BondScenarioEngineTest {
+
+    private BondTheoreticalPricingStrategy pricing;
+    private BondScenarioEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        DiscountCurveRegistry registry = new DiscountCurveRegistryImpl(new DiscountFactorDataRepositoryMockImpl(), 2);
+        this.pricing = new BondTheoreticalPricingStrategy(registry);
+        this.engine = new BondScenarioEngine(registry, this.pricing);
+    }
+
+    @Test
+    @DisplayName("シフト幅0のシナリオは基準カーブの理論価格と一致し、金利上昇シナリオでは価格が下がる")
+    void shockedPricesFollowCurve() {
+        List<BondPricingData> bonds = Arrays.asList(
+                bond("1000", PaymentType.Annual, "3"),
+                bond("2000", PaymentType.SemiAnnual, "2.5"));
+        ScenarioCurveSet curveSet = this.engine.buildCurveSet(null,
+                Arrays.asList(CurveShock.parallel("base", 0), CurveShock.parallel("up100", 100)));
+
+        ScenarioGridRows actual = this.engine.priceRows(bonds, 0, bonds.size(), curveSet);
+
+        assertThat(curveSet.getScenarioIds(), is(Arrays.asList("base", "up100")));
+        assertThat(actual.rowCount(), is(2));
+        for (int r = 0; r < bonds.size(); r++) {
+            double expected = this.pricing.execute(bonds.get(r)).getResult().doubleValue();
+            assertThat(actual.getBondCode(r), is(bonds.get(r).getBondCode()));
+            assertThat(actual.getStatus(r), is(Status.OK));
+            assertThat(actual.getPrices()[r * 2], is(closeTo(expected, 1e-9)));
+            assertThat(actual.getPrices()[r * 2 + 1], is(lessThan(expected)));
+        }
+    }
+
+    @Test
+    @DisplayName("割引現在価値が不足する銘柄の行は計算未完了となり、価格はNaNとなる")
+    void insufficientCurveIsNotCompleted() {
+        List<BondPricingData> bonds = Arrays.asList(
+                bond("1000", PaymentType.Annual, "3"),
+                bond("2000", PaymentType.Annual, "100"));
+        ScenarioCurveSet curveSet = this.engine.buildCurveSet(null, Arrays.asList(CurveShock.parallel("up100", 100)));
+
+        ScenarioGridRows actual = this.engine.priceRows(bonds, 1, 2, curveSet);
+
+        assertThat(actual.getFirstRow(), is(1));
+        assertThat(actual.getBondCode(0), is("2000"));
+        assertThat(actual.getStatus(0), is(Status.NOT_COMPLETED));
+        assertThat(Double.isNaN(actual.getPrices()[0]), is(true));
+    }
+
+    @Test
+    @DisplayName("残存期間がカーブの最後の期間を超える銘柄は、期間数に切り捨てずに計算未完了とする")
+    void maturityBeyondCurveIsNotCompleted() {
+        // モックのカーブは0..6年なので、6.2年は範囲外
+        List<BondPricingData> bonds = Arrays.asList(bond("1000", PaymentType.Annual, "6"), bond("2000", PaymentType.Annual, "6.2"));
+        ScenarioCurveSet curveSet = this.engine.buildCurveSet(null, Arrays.asList(CurveShock.parallel("base", 0)));
+
+        ScenarioGridRows actual = this.engine.priceRows(bonds, 0, bonds.size(), curveSet);
+
+        assertThat(actual.getStatus(0), is(Status.OK));
+        assertThat(actual.getStatus(1), is(Status.NOT_COMPLETED));
+        assertThat(Double.isNaN(actual.getPrices()[1]), is(true));
+    }
+
+    @Test
+    @DisplayName("シナリオごとの計算結果が正常終了しなかった場合は行の状態に反映し、価格はNaNとする")
+    void cellStatusIsPropagatedToRow() {
+        // 債券マスタを参照しないので、日数計算方式を指定して償還日がない銘柄は計算未完了となる
+        BondPricingData bond = BondPricingData.builder()
+                .bondCode("1000")
+                .currentPrice(new BigDecimal("98"))
+                .bookPrice(new BigDecimal("99"))
+                .unit(new BigDecimal("100"))
+                .couponRate(new BigDecimal("0.03"))
+                .paymentType(PaymentType.Annual)
+                .isTermEndPayment(Boolean.TRUE)
+                .currentMaturity(new BigDecimal("3"))
+                .dayCountConvention(DayCountConvention.ACT_365F)
+                .build();
+        ScenarioCurveSet curveSet = this.engine.buildCurveSet(null, Arrays.asList(CurveShock.parallel("base", 0), CurveShock.parallel("up100", 100)));
+
+        ScenarioGridRows actual = this.engine.priceRows(Arrays.asList(bond), 0, 1, curveSet);
+
+        assertThat(actual.getStatus(0), is(Status.NOT_COMPLETED));
+        assertThat(Double.isNaN(actual.getPrices()[0]), is(true));
+        assertThat(Double.isNaN(actual.getPrices()[1]), is(true));
+    }
+
+    private BondPricingData bond(String bondCode, PaymentType paymentType, String maturity) {
+        return new BondPricingData(bondCode
+                , new BigDecimal("98")
+                , new BigDecimal("99")
+                , new BigDecimal("100")
+                , new BigDecimal("0.03")
+                , paymentType
+                , Boolean.TRUE
+                , new BigDecimal(maturity)
+        );
+    }
+}
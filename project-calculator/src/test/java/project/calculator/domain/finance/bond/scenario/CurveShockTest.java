@@ -0,0 +1,51 @@
+package project.calculator.domain.finance.bond.scenario;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.calculator.domain.finance.bond.curve.DiscountCurve;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+class CurveShockTest {
+
+    @Test
+    @DisplayName("パラレルシフトは全年限で同じシフト幅となる")
+    void parallelShiftIsFlat() {
+        CurveShock shock = CurveShock.parallel("up100", 100);
+
+        assertThat(shock.shiftAt(0), is(100.0));
+        assertThat(shock.shiftAt(7.5), is(100.0));
+        assertThat(shock.shiftAt(30), is(100.0));
+    }
+
+    @Test
+    @DisplayName("年限間は線形補間し、範囲外は端の値で外挿する")
+    void twistIsInterpolated() {
+        CurveShock shock = CurveShock.of("steepener", new double[]{10, 2}, new double[]{25, -25});
+
+        assertThat(shock.shiftAt(1), is(-25.0));
+        assertThat(shock.shiftAt(6), is(closeTo(0.0, 1e-12)));
+        assertThat(shock.shiftAt(8), is(closeTo(12.5, 1e-12)));
+        assertThat(shock.shiftAt(20), is(25.0));
+    }
+
+    @Test
+    @DisplayName("ショック後の割引現在価値はDF×exp(-シフト幅×年限)となる")
+    void applyScalesDiscountFactors() {
+        DiscountCurve base = DiscountCurve.of(PaymentType.SemiAnnual, 3L,
+                Arrays.asList(new BigDecimal("1"), new BigDecimal("0.99"), new BigDecimal("0.98")));
+
+        DiscountCurve actual = CurveShock.parallel("up100", 100).apply(base);
+
+        assertThat(actual.getVersion(), is(3L));
+        assertThat(actual.getDiscountFactorAsDouble(0), is(closeTo(1.0, 1e-12)));
+        assertThat(actual.getDiscountFactorAsDouble(1), is(closeTo(0.99 * Math.exp(-0.01 * 0.5), 1e-12)));
+        assertThat(actual.getDiscountFactorAsDouble(2), is(closeTo(0.98 * Math.exp(-0.01 * 1.0), 1e-12)));
+    }
+}
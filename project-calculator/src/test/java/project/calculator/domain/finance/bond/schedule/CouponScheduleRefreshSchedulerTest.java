@@ -0,0 +1,52 @@
+package project.calculator.domain.finance.bond.schedule;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.infra.rdb.bondmaster.BondMasterRepository;
+import project.infra.rdb.bondmaster.BondMasterVersion;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CouponScheduleRefreshSchedulerTest {
+
+    private final BondMasterRepository bondMasterRepository = mock(BondMasterRepository.class);
+    private final CouponScheduleCache couponScheduleCache = mock(CouponScheduleCache.class);
+
+    @Test
+    @DisplayName("初回は全て破棄し、以降は最新バージョンが変わった銘柄・増減した銘柄だけを破棄する")
+    void invalidateUpdatedBonds() {
+        CouponScheduleRefreshScheduler scheduler = new CouponScheduleRefreshScheduler(this.bondMasterRepository, this.couponScheduleCache);
+        when(this.bondMasterRepository.findLatestVersions()).thenReturn(List.of(version("1000", 1L), version("2000", 1L), version("3000", 1L)));
+
+        scheduler.refresh();
+        verify(this.couponScheduleCache).invalidateAll();
+
+        scheduler.refresh();
+        verify(this.couponScheduleCache, never()).invalidate(any());
+
+        when(this.bondMasterRepository.findLatestVersions()).thenReturn(List.of(version("1000", 1L), version("2000", 2L), version("4000", 1L)));
+        scheduler.refresh();
+        verify(this.couponScheduleCache).invalidate(Set.of("2000", "3000", "4000"));
+    }
+
+    private static BondMasterVersion version(String bondCode, Long version) {
+        return new BondMasterVersion() {
+            @Override
+            public String getBondCode() {
+                return bondCode;
+            }
+
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+        };
+    }
+}
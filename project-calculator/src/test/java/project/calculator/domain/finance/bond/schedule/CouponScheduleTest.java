@@ -0,0 +1,101 @@
+package project.calculator.domain.finance.bond.schedule;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.calculator.data.enums.DayCountConvention;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+class CouponScheduleTest {
+
+    @Test
+    @DisplayName("償還日から利払い周期ごとに遡り、受渡日以前の利払い日を1つ含むまで生成する")
+    void generateFromMaturity() {
+        CouponSchedule schedule = CouponSchedule.generate(LocalDate.of(2024, 3, 20), PaymentType.SemiAnnual, LocalDate.of(2022, 11, 1));
+
+        assertThat(schedule.size(), is(4));
+        assertThat(schedule.getCouponDate(0), is(LocalDate.of(2022, 9, 20)));
+        assertThat(schedule.getCouponDate(3), is(LocalDate.of(2024, 3, 20)));
+        assertThat(schedule.frequency(), is(2));
+    }
+
+    @Test
+    @DisplayName("月末の償還日は月末の利払い日として生成する")
+    void endOfMonthMaturity() {
+        CouponSchedule schedule = CouponSchedule.generate(LocalDate.of(2024, 2, 29), PaymentType.SemiAnnual, LocalDate.of(2023, 1, 1));
+
+        assertThat(schedule.getCouponDate(0), is(LocalDate.of(2022, 8, 31)));
+        assertThat(schedule.getCouponDate(1), is(LocalDate.of(2023, 2, 28)));
+        assertThat(schedule.getCouponDate(2), is(LocalDate.of(2023, 8, 31)));
+    }
+
+    @Test
+    @DisplayName("受渡日当日の利払いは次回の利払いに含めない")
+    void nextCouponIndexExcludesSettlementDate() {
+        CouponSchedule schedule = CouponSchedule.generate(LocalDate.of(2024, 1, 1), PaymentType.Annual, LocalDate.of(2021, 1, 1));
+
+        assertThat(schedule.nextCouponIndex(LocalDate.of(2021, 1, 1)), is(1));
+        assertThat(schedule.nextCouponIndex(LocalDate.of(2021, 6, 30)), is(1));
+        assertThat(schedule.nextCouponIndex(LocalDate.of(2024, 1, 1)), is(schedule.size()));
+    }
+
+    @Test
+    @DisplayName("日数計算方式ごとに利払い期間の期首からの年数を求める")
+    void yearFractionByConvention() {
+        LocalDate start = LocalDate.of(2021, 1, 1);
+        LocalDate end = LocalDate.of(2022, 1, 1);
+        LocalDate date = LocalDate.of(2021, 7, 1);
+
+        assertThat(DayCountConvention.ACT_365F.yearFraction(start, end, date, 1), is(closeTo(new BigDecimal("0.495890"), new BigDecimal("0.000001"))));
+        assertThat(DayCountConvention.ACT_ACT.yearFraction(start, end, date, 1), is(closeTo(new BigDecimal("0.495890"), new BigDecimal("0.000001"))));
+        assertThat(DayCountConvention.THIRTY_360.yearFraction(start, end, date, 1), is(closeTo(new BigDecimal("0.5"), new BigDecimal("0.000001"))));
+        // ACT/ACTは半期払いの場合、期間の実日数×2で割る
+        assertThat(DayCountConvention.ACT_ACT.yearFraction(start, LocalDate.of(2021, 7, 1), LocalDate.of(2021, 7, 1), 2), is(closeTo(new BigDecimal("0.5"), new BigDecimal("0.000001"))));
+    }
+
+    @Test
+    @DisplayName("同じ銘柄のスケジュールは償還日を読み直さずに再利用する")
+    void cacheReusesSchedule() {
+        AtomicInteger loaded = new AtomicInteger();
+        CouponScheduleCache cache = new CouponScheduleCache(code -> {
+            loaded.incrementAndGet();
+            return Optional.of(LocalDate.of(2024, 1, 1));
+        });
+
+        CouponSchedule first = cache.get("1000", null, PaymentType.Annual, LocalDate.of(2021, 6, 1)).get();
+        CouponSchedule second = cache.get("1000", null, PaymentType.Annual, LocalDate.of(2022, 6, 1)).get();
+
+        assertThat(second == first, is(true));
+        assertThat(loaded.get(), is(1));
+        assertThat(cache.get("2000", LocalDate.of(2025, 1, 1), PaymentType.Annual, LocalDate.of(2021, 6, 1)).get().getMaturity(), is(LocalDate.of(2025, 1, 1)));
+        assertThat(cache.size(), is(2));
+    }
+
+    @Test
+    @DisplayName("保持する銘柄数を超えると直近に参照していない銘柄から破棄し、破棄した銘柄は償還日を読み直す")
+    void cacheEvictsAndInvalidates() {
+        Map<String, LocalDate> maturities = new HashMap<>(Map.of("1000", LocalDate.of(2024, 1, 1), "2000", LocalDate.of(2025, 1, 1)));
+        CouponScheduleCache cache = new CouponScheduleCache(code -> Optional.ofNullable(maturities.get(code)), 1);
+
+        cache.get("1000", null, PaymentType.Annual, LocalDate.of(2021, 6, 1));
+        cache.get("2000", null, PaymentType.Annual, LocalDate.of(2021, 6, 1));
+        assertThat(cache.size(), is(1));
+
+        maturities.put("2000", LocalDate.of(2026, 1, 1));
+        assertThat(cache.get("2000", null, PaymentType.Annual, LocalDate.of(2021, 6, 1)).get().getMaturity(), is(LocalDate.of(2025, 1, 1)));
+        cache.invalidate(List.of("2000"));
+        assertThat(cache.size(), is(0));
+        assertThat(cache.get("2000", null, PaymentType.Annual, LocalDate.of(2021, 6, 1)).get().getMaturity(), is(LocalDate.of(2026, 1, 1)));
+    }
+}
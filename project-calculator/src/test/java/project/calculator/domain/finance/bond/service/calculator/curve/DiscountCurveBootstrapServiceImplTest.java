@@ -0,0 +1,122 @@
+package project.calculator.domain.finance.bond.service.calculator.curve;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import project.calculator.data.response.CurveBootstrapResult;
+import project.calculator.domain.finance.bond.curve.DiscountCurve;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistry;
+import project.infra.rdb.bondmaster.BondMaster;
+import project.infra.rdb.bondmaster.BondMasterRepository;
+import project.infra.rdb.bondmaster.PaymentType;
+import project.infra.rdb.discountfactor.DiscountFactorDataRepository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DiscountCurveBootstrapServiceImplTest {
+
+    private final BondMasterRepository bondMasterRepository = mock(BondMasterRepository.class);
+    private final DiscountFactorDataRepository discountFactorDataRepository = mock(DiscountFactorDataRepository.class);
+    private final DiscountCurveRegistry discountCurveRegistry = mock(DiscountCurveRegistry.class);
+    private DiscountCurveBootstrapServiceImpl service;
+
+    private final Map<String, BigDecimal> prices = Map.of("A1", new BigDecimal("98"), "A2", new BigDecimal("96"));
+
+    @BeforeEach
+    void setUp() {
+        when(this.bondMasterRepository.findLatestActive()).thenReturn(List.of(bond("A1", 1), bond("A2", 2)));
+        when(this.discountFactorDataRepository.lockLatestVersion()).thenReturn(3L);
+        this.service = new DiscountCurveBootstrapServiceImpl(this.bondMasterRepository, this.discountFactorDataRepository, this.discountCurveRegistry
+                , new ImmediateTransactionManager());
+    }
+
+    @Test
+    @DisplayName("ロックを取って採番したバージョンで登録し、コミット後に公開する")
+    void publishAfterCommit() {
+        CurveBootstrapResult result = this.service.bootstrap(this.prices, false, "test");
+
+        Assertions.assertTrue(result.isPublished());
+        Assertions.assertEquals(4L, result.getVersion());
+        verify(this.discountFactorDataRepository, times(2)).insertDiscountFactors(any(), eq(4L), any(), anyString());
+        verify(this.discountCurveRegistry, times(2)).publish(any(DiscountCurve.class));
+    }
+
+    @Test
+    @DisplayName("ロールバックした場合は公開せず、同じ市場価格を再送すると登録し直す")
+    void retryAfterRollback() {
+        doThrow(new IllegalStateException("Duplicate entry")).doNothing()
+                .when(this.discountFactorDataRepository).insertDiscountFactors(any(), anyLong(), any(), anyString());
+
+        Assertions.assertThrows(IllegalStateException.class, () -> this.service.bootstrap(this.prices, false, "test"));
+        verify(this.discountCurveRegistry, never()).publish(any());
+
+        CurveBootstrapResult result = this.service.bootstrap(this.prices, false, "test");
+
+        Assertions.assertTrue(result.isPublished());
+        verify(this.discountCurveRegistry, times(2)).publish(any(DiscountCurve.class));
+    }
+
+    @Test
+    @DisplayName("コミットした市場価格と同じ価格を再送した場合は登録しない")
+    void notChangedAfterCommit() {
+        this.service.bootstrap(this.prices, false, "test");
+
+        CurveBootstrapResult result = this.service.bootstrap(this.prices, false, "test");
+
+        Assertions.assertFalse(result.isPublished());
+        verify(this.discountCurveRegistry, times(2)).publish(any(DiscountCurve.class));
+    }
+
+    private BondMaster bond(String bondCode, int years) {
+        BondMaster bond = new BondMaster();
+        bond.setBondCode(bondCode);
+        bond.setCouponRate(new BigDecimal("0.03"));
+        bond.setFaceValue(new BigDecimal("100"));
+        bond.setPaymentType(PaymentType.ONE_YEAR);
+        // 実日数 / 365で数えるので、閏年をまたいでも期間数が変わらないように1日足す
+        bond.setMaturity(Date.valueOf(LocalDate.now().plusYears(years).plusDays(1)));
+        return bond;
+    }
+
+    /**
+     * 同期処理だけを行うトランザクションマネージャ。コールバックが例外を投げた場合はロールバックする。
+     */
+    private static class ImmediateTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
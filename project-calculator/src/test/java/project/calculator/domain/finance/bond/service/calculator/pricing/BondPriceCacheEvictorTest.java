@@ -0,0 +1,52 @@
+package project.calculator.domain.finance.bond.service.calculator.pricing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import project.calculator.data.BondPriceKey;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.PricingMethod;
+import project.calculator.domain.finance.bond.curve.DiscountCurve;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+class BondPriceCacheEvictorTest {
+
+    @Test
+    @DisplayName("最新カーブが切り替わると、同じ利払い周期の切替前のバージョンのエントリだけを破棄する")
+    void evictSupersededVersions() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("bondPriceCache");
+        Cache cache = cacheManager.getCache("bondPriceCache");
+        BondPriceKey old = key(PaymentType.Annual, 1L);
+        BondPriceKey current = key(PaymentType.Annual, 2L);
+        BondPriceKey other = key(PaymentType.SemiAnnual, 1L);
+        cache.put(old, "old");
+        cache.put(current, "current");
+        cache.put(other, "other");
+        BondPriceCacheEvictor evictor = new BondPriceCacheEvictor(cacheManager);
+
+        evictor.onLatestChanged(curve(PaymentType.Annual, 1L), curve(PaymentType.Annual, 2L));
+
+        assertThat(cache.get(old), is(nullValue()));
+        assertThat(cache.get(current), is(notNullValue()));
+        assertThat(cache.get(other), is(notNullValue()));
+    }
+
+    private static BondPriceKey key(PaymentType paymentType, long curveVersion) {
+        BondPricingData data = new BondPricingData("1000", null, new BigDecimal("99"), new BigDecimal("100")
+                , new BigDecimal("0.03"), paymentType, Boolean.TRUE, new BigDecimal("3"));
+        return BondPriceKey.of(data, curveVersion, PricingMethod.DISCOUNT_FACTOR);
+    }
+
+    private static DiscountCurve curve(PaymentType paymentType, long version) {
+        return DiscountCurve.of(paymentType, version, List.of(BigDecimal.ONE, new BigDecimal("0.95")));
+    }
+}
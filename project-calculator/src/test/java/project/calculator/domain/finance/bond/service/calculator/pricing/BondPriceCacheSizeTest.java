@@ -0,0 +1,40 @@
+package project.calculator.domain.finance.bond.service.calculator.pricing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BondPriceCacheSizeTest {
+
+    private static final long MB = 1024L * 1024L;
+
+    @Test
+    @DisplayName("既定の大きさは-Xmx128mとMaxDirectMemorySize=100Mに収まる")
+    public void fitDefaultLimits(){
+        BondPriceCacheSize size = BondPriceCacheSize.of(8, 32, 128 * MB, 100 * MB);
+
+        Assertions.assertEquals(8, size.getHeapMb());
+        Assertions.assertEquals(32, size.getOffheapMb());
+    }
+
+    @Test
+    @DisplayName("オフヒープ層がダイレクトメモリ上限の半分を超える場合は起動させない")
+    public void rejectOffheapOverDirectMemory(){
+        Assertions.assertThrows(IllegalStateException.class, () -> BondPriceCacheSize.of(8, 128, 512 * MB, 100 * MB));
+        Assertions.assertThrows(IllegalStateException.class, () -> BondPriceCacheSize.of(8, 51, 512 * MB, 100 * MB));
+    }
+
+    @Test
+    @DisplayName("オンヒープ層が最大ヒープの1/8を超える場合は起動させない")
+    public void rejectHeapOverMaxHeap(){
+        Assertions.assertThrows(IllegalStateException.class, () -> BondPriceCacheSize.of(32, 48, 128 * MB, 100 * MB));
+        Assertions.assertEquals(16, BondPriceCacheSize.of(16, 48, 128 * MB, 100 * MB).getHeapMb());
+    }
+
+    @Test
+    @DisplayName("オフヒープ層はオンヒープ層より大きくなければならない")
+    public void rejectOffheapNotLargerThanHeap(){
+        Assertions.assertThrows(IllegalStateException.class, () -> BondPriceCacheSize.of(8, 8, 512 * MB, 512 * MB));
+        Assertions.assertThrows(IllegalStateException.class, () -> BondPriceCacheSize.of(0, 8, 512 * MB, 512 * MB));
+    }
+}
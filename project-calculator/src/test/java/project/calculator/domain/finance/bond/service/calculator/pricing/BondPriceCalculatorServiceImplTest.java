@@ -0,0 +1,60 @@
+package project.calculator.domain.finance.bond.service.calculator.pricing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.calculator.data.BondPricingData;
+import project.calculator.domain.finance.bond.curve.DiscountCurve;
+import project.calculator.domain.finance.bond.curve.DiscountCurveRegistry;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BondPriceCalculatorServiceImplTest {
+
+    private final DiscountCurveRegistry registry = mock(DiscountCurveRegistry.class);
+    private final CachedBondPriceCalculator cachedBondPriceCalculator = mock(CachedBondPriceCalculator.class);
+    private final BondPriceCalculatorServiceImpl service = new BondPriceCalculatorServiceImpl(cachedBondPriceCalculator, registry);
+
+    private final BondPricingData data = new BondPricingData("1000", new BigDecimal("98"), new BigDecimal("99"), new BigDecimal("100"),
+            new BigDecimal("0.03"), PaymentType.Annual, Boolean.TRUE, new BigDecimal("3"));
+
+    @Test
+    @DisplayName("バージョン未指定のリクエストは解決した最新カーブのバージョンに固定して計算する")
+    void pinLatestCurveVersion() {
+        when(registry.resolve(PaymentType.Annual, null)).thenReturn(Optional.of(DiscountCurve.of(PaymentType.Annual, 2L, Collections.singletonList(BigDecimal.ONE))));
+
+        this.service.calculateByDiscountFactor(data);
+
+        verify(this.cachedBondPriceCalculator).calculate(data.withCurveVersion(2L));
+    }
+
+    @Test
+    @DisplayName("カーブが存在しなければそのまま計算してエラーを返す")
+    void passThroughWithoutCurve() {
+        when(registry.resolve(any(), any())).thenReturn(Optional.empty());
+
+        this.service.calculateByDiscountFactor(data);
+
+        verify(this.cachedBondPriceCalculator).calculate(data);
+    }
+
+    @Test
+    @DisplayName("一括計算も銘柄ごとにカーブのバージョンを固定してからまとめて計算する")
+    void pinLatestCurveVersionInBatch() {
+        BondPricingData pinned = data.withCurveVersion(1L);
+        when(registry.resolve(PaymentType.Annual, null)).thenReturn(Optional.of(DiscountCurve.of(PaymentType.Annual, 2L, Collections.singletonList(BigDecimal.ONE))));
+        when(registry.resolve(PaymentType.Annual, 1L)).thenReturn(Optional.of(DiscountCurve.of(PaymentType.Annual, 1L, Collections.singletonList(BigDecimal.ONE))));
+
+        this.service.calculateByDiscountFactor(List.of(data, pinned));
+
+        verify(this.cachedBondPriceCalculator).calculateAll(List.of(data.withCurveVersion(2L), pinned));
+    }
+}
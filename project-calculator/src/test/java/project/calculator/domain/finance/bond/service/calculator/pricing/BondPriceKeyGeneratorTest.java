@@ -0,0 +1,43 @@
+package project.calculator.domain.finance.bond.service.calculator.pricing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.PricingMethod;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+class BondPriceKeyGeneratorTest {
+
+    private BondPriceKeyGenerator generator = new BondPriceKeyGenerator(PricingMethod.DISCOUNT_FACTOR);
+
+    @Test
+    @DisplayName("価格に影響しない項目と数値の表記ゆれはキーに影響しない")
+    void keyIgnoresNonPricingFields() {
+        BondPricingData a = new BondPricingData("1000", new BigDecimal("98"), new BigDecimal("99"), new BigDecimal("100"),
+                new BigDecimal("0.03"), PaymentType.Annual, Boolean.TRUE, new BigDecimal("3"), 1L, null);
+        BondPricingData b = new BondPricingData("2000", new BigDecimal("97"), new BigDecimal("96"), new BigDecimal("100.00"),
+                new BigDecimal("0.030"), PaymentType.Annual, Boolean.TRUE, new BigDecimal("3.0"), 1L, PricingMethod.DISCOUNT_FACTOR);
+
+        assertThat(generate(a), is(generate(b)));
+    }
+
+    @Test
+    @DisplayName("固定したカーブのバージョンが異なれば別のキーになる")
+    void keyFollowsPinnedCurveVersion() {
+        BondPricingData data = new BondPricingData("1000", new BigDecimal("98"), new BigDecimal("99"), new BigDecimal("100"),
+                new BigDecimal("0.03"), PaymentType.Annual, Boolean.TRUE, new BigDecimal("3"), 1L, null);
+
+        assertThat(generate(data.withCurveVersion(2L)), is(not(generate(data))));
+        assertThat(generate(data.withCurveVersion(1L)), is(generate(data)));
+    }
+
+    private Object generate(BondPricingData data) {
+        return this.generator.generate(null, null, data);
+    }
+}
@@ -0,0 +1,71 @@
+package project.calculator.domain.finance.bond.service.calculator.pricing;
+
+import io.grpc.util.Status;
+import io.grpc.util.StatusMsg;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import project.calculator.data.BondPricingData;
+import project.calculator.data.enums.PricingMethod;
+import project.calculator.data.response.CalculationResult;
+import project.calculator.domain.finance.bond.algo.CalculationStrategy;
+import project.infra.rdb.discountfactor.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachedBondPriceCalculatorTest {
+
+    @SuppressWarnings("unchecked")
+    private final CalculationStrategy<BondPricingData> strategy = mock(CalculationStrategy.class);
+    private CachedBondPriceCalculator calculator;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        this.calculator = new CachedBondPriceCalculator(this.strategy, new ConcurrentMapCacheManager("bondPriceCache")
+                , new BondPriceKeyGenerator(PricingMethod.DISCOUNT_FACTOR));
+        // 満期0の銘柄は計算未完了とする
+        when(this.strategy.executeBatch(any())).thenAnswer(invocation -> ((List<BondPricingData>) invocation.getArgument(0)).stream()
+                .map(data -> data.getCurrentMaturity().signum() == 0 ? result(Status.NOT_COMPLETED) : result(Status.OK))
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("一括計算はキャッシュにない銘柄だけをまとめて計算し、正常終了した結果だけをキャッシュする")
+    @SuppressWarnings("unchecked")
+    void calculateOnlyMissedBonds() {
+        BondPricingData first = bond("3");
+        BondPricingData second = bond("5");
+        BondPricingData failed = bond("0");
+        List<CalculationResult> cached = this.calculator.calculateAll(List.of(first, failed));
+
+        List<CalculationResult> actual = this.calculator.calculateAll(List.of(first, second, failed));
+
+        assertThat(actual.size(), is(3));
+        assertThat(actual.get(0), is(sameInstance(cached.get(0))));
+        assertThat(actual.get(1).getResultDetail().getStatus(), is(Status.OK));
+        assertThat(actual.get(2).getResultDetail().getStatus(), is(Status.NOT_COMPLETED));
+        verify(this.strategy).executeBatch(List.of(first, failed));
+        verify(this.strategy).executeBatch(List.of(second, failed));
+    }
+
+    private static BondPricingData bond(String maturity) {
+        return new BondPricingData("1000", new BigDecimal("98"), new BigDecimal("99"), new BigDecimal("100"),
+                new BigDecimal("0.03"), PaymentType.Annual, Boolean.TRUE, new BigDecimal(maturity), 1L, null);
+    }
+
+    private static CalculationResult result(Status status) {
+        return CalculationResult.create(BigDecimal.ONE, PricingMethod.DISCOUNT_FACTOR, StatusMsg.newBuilder().setStatus(status).build());
+    }
+}
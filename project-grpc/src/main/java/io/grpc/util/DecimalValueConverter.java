@@ -0,0 +1,45 @@
+package io.grpc.util;
+
+import com.google.protobuf.ByteString;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * gRPCの固定小数点表現(DecimalValue)とBigDecimalを相互に変換する。
+ * 文字列を経由しないので変換は桁数に比例するコストで済み、値は欠落しない。
+ * 画面と計算サーバで同じ変換を使うよう、protoの生成コードと同じライブラリに置く。
+ */
+public class DecimalValueConverter {
+
+    /**
+     * <p>
+     * DecimalValueのBigDecimal表現を返します。
+     * </p>
+     * @param value
+     * @return
+     */
+    public static BigDecimal convertFrom(DecimalValue value){
+        if (!value.getUnscaledBytes().isEmpty()) {
+            return new BigDecimal(new BigInteger(value.getUnscaledBytes().toByteArray()), value.getScale());
+        }
+        return BigDecimal.valueOf(value.getUnscaledValue(), value.getScale());
+    }
+
+    /**
+     * <p>
+     * BigDecimalのDecimalValue表現を返します。
+     * 仮数部がint64に収まらない場合はバイト列で格納します。
+     * </p>
+     * @param value
+     * @return
+     */
+    public static DecimalValue convertFrom(BigDecimal value){
+        BigInteger unscaled = value.unscaledValue();
+        DecimalValue.Builder builder = DecimalValue.newBuilder().setScale(value.scale());
+        if (unscaled.bitLength() < Long.SIZE) {
+            return builder.setUnscaledValue(unscaled.longValue()).build();
+        }
+        return builder.setUnscaledBytes(ByteString.copyFrom(unscaled.toByteArray())).build();
+    }
+}
@@ -0,0 +1,33 @@
+package io.grpc.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class DecimalValueConverterTest {
+
+    @Test
+    @DisplayName("int64に収まる値は仮数部とスケールで表し、スケールも含めて復元できる")
+    void roundTripWithinLong() {
+        BigDecimal value = new BigDecimal("-94.5530");
+        DecimalValue decimal = DecimalValueConverter.convertFrom(value);
+
+        assertEquals(-945530L, decimal.getUnscaledValue());
+        assertEquals(4, decimal.getScale());
+        assertEquals(value, DecimalValueConverter.convertFrom(decimal));
+    }
+
+    @Test
+    @DisplayName("int64に収まらない値はバイト列で表し、欠落なく復元できる")
+    void roundTripBeyondLong() {
+        BigDecimal value = new BigDecimal("94.55301234567890123456789012");
+        DecimalValue decimal = DecimalValueConverter.convertFrom(value);
+
+        assertFalse(decimal.getUnscaledBytes().isEmpty());
+        assertEquals(value, DecimalValueConverter.convertFrom(decimal));
+    }
+}
@@ -0,0 +1,123 @@
+package project.infra.rdb;
+
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.SQLErrorCodeSQLExceptionTranslator;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>
+ * 前方のみ・読み取り専用のカーソルで検索結果を1行ずつ読み込むStreamを返す。
+ * 行はJPAのエンティティとして管理されないので、読み終えた行はGCの対象となり、ヒープは取得件数によらない。
+ * </p>
+ * <p>
+ * 接続は呼び出し元のトランザクションのものを使うので、Streamはトランザクション内で読み、必ずcloseすること。
+ * MySQLで複数のカーソルを同時に開く場合は接続URLにuseCursorFetch=trueを指定する。
+ * </p>
+ */
+public final class CursorReader {
+
+    private final DataSource dataSource;
+    private final SQLExceptionTranslator exceptionTranslator;
+    // 1回の通信で取得する行数
+    private final int fetchSize;
+
+    public CursorReader(DataSource dataSource, int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid fetch size: %d", fetchSize));
+        }
+        this.dataSource = dataSource;
+        this.exceptionTranslator = new SQLErrorCodeSQLExceptionTranslator(dataSource);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * SQLを実行し、結果を順に返すStreamを返す。
+     * @param sql
+     * @param setter
+     * @param rowMapper
+     * @param <T>
+     * @return
+     */
+    public <T> Stream<T> stream(String sql, PreparedStatementSetter setter, RowMapper<T> rowMapper) {
+        Connection connection = DataSourceUtils.getConnection(this.dataSource);
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(this.fetchSize);
+            setter.setValues(statement);
+            resultSet = statement.executeQuery();
+        } catch (SQLException e) {
+            close(connection, statement, resultSet);
+            throw this.exceptionTranslator.translate("CursorReader", sql, e);
+        }
+        RowIterator<T> iterator = new RowIterator<>(sql, resultSet, rowMapper);
+        PreparedStatement openedStatement = statement;
+        ResultSet openedResultSet = resultSet;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> close(connection, openedStatement, openedResultSet));
+    }
+
+    private void close(Connection connection, PreparedStatement statement, ResultSet resultSet) {
+        JdbcUtils.closeResultSet(resultSet);
+        JdbcUtils.closeStatement(statement);
+        DataSourceUtils.releaseConnection(connection, this.dataSource);
+    }
+
+    /**
+     * ResultSetを1行ずつ読み進めるIterator
+     */
+    private class RowIterator<T> implements Iterator<T> {
+        private final String sql;
+        private final ResultSet resultSet;
+        private final RowMapper<T> rowMapper;
+        private int rowNum = 0;
+        private Boolean hasNext = null;
+
+        RowIterator(String sql, ResultSet resultSet, RowMapper<T> rowMapper) {
+            this.sql = sql;
+            this.resultSet = resultSet;
+            this.rowMapper = rowMapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.hasNext == null) {
+                try {
+                    this.hasNext = this.resultSet.next();
+                } catch (SQLException e) {
+                    throw CursorReader.this.exceptionTranslator.translate("CursorReader", this.sql, e);
+                }
+            }
+            return this.hasNext;
+        }
+
+        @Override
+        public T next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.hasNext = null;
+            try {
+                return this.rowMapper.mapRow(this.resultSet, this.rowNum++);
+            } catch (SQLException e) {
+                throw CursorReader.this.exceptionTranslator.translate("CursorReader", this.sql, e);
+            }
+        }
+    }
+}
@@ -1,8 +1,33 @@
 package project.infra.rdb.bondmaster;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface BondMasterRepository extends JpaRepository<BondMaster,Long> {
+
+    /**
+     * 銘柄ごとに最新バージョンのうち、削除されていないものを返す。
+     * @return
+     */
+    @Query("select b from BondMaster b where b.isDeleted = false and b.version = (select max(b2.version) from BondMaster b2 where b2.bondCode = b.bondCode) order by b.bondCode")
+    public List<BondMaster> findLatestActive();
+
+    /**
+     * 銘柄の最新バージョンのうち、削除されていないものを返す。
+     * @param bondCode
+     * @return
+     */
+    public Optional<BondMaster> findFirstByBondCodeAndIsDeletedFalseOrderByVersionDesc(String bondCode);
+
+    /**
+     * 銘柄ごとの最新バージョンを返す。削除されたバージョンも含む。
+     * @return
+     */
+    @Query("select b.bondCode as bondCode, max(b.version) as version from BondMaster b group by b.bondCode")
+    public List<BondMasterVersion> findLatestVersions();
 }
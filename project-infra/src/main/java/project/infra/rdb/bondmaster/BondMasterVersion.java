@@ -0,0 +1,11 @@
+package project.infra.rdb.bondmaster;
+
+/**
+ * 銘柄と最新バージョンの組。債券マスタのエンティティ全体を読み込まずに更新を確認するためのプロジェクション。
+ */
+public interface BondMasterVersion {
+
+    public String getBondCode();
+
+    public Long getVersion();
+}
@@ -8,4 +8,38 @@ public interface DiscountFactorDataRepository {
     abstract List<BigDecimal>  loadAnnualDiscountFactor();
 
     abstract List<BigDecimal> loadSemiAnnualDiscountFactor();
+
+    /**
+     * 指定した利払い周期で登録されている最新のバージョン番号を返す。
+     * データが存在しない場合は-1を返す。
+     * @param paymentType
+     * @return
+     */
+    abstract long findLatestVersion(PaymentType paymentType);
+
+    /**
+     * 全ての利払い周期で登録されている最新のバージョン番号を、排他ロックを取って返す。
+     * ロックはトランザクションの終了まで保持し、他のトランザクションの採番・登録を待たせる。
+     * 新しいバージョンを採番する場合はトランザクション内で呼ぶこと。データが存在しない場合は-1を返す。
+     * @return
+     */
+    abstract long lockLatestVersion();
+
+    /**
+     * 指定した利払い周期・バージョンの割引現在価値を期間の昇順で返す。
+     * @param paymentType
+     * @param version
+     * @return
+     */
+    abstract List<BigDecimal> loadDiscountFactor(PaymentType paymentType, long version);
+
+    /**
+     * 指定した利払い周期・バージョンの割引現在価値を一括で登録する。
+     * 期間(term)はリストのインデックスとする。
+     * @param paymentType
+     * @param version
+     * @param discountFactors 期間の昇順
+     * @param updateUser
+     */
+    abstract void insertDiscountFactors(PaymentType paymentType, long version, List<BigDecimal> discountFactors, String updateUser);
 }
@@ -2,12 +2,9 @@ package project.infra.rdb.discountfactor;
 
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -25,52 +22,57 @@ public class DiscountFactorDataRepositoryJdbcImpl implements DiscountFactorDataR
 
     @Override
     public List<BigDecimal> loadAnnualDiscountFactor() {
-        List<DiscountFactor> annualDiscountFactor = this.findByPaymentType(PaymentType.Annual);
-        List<BigDecimal> result = annualDiscountFactor.stream().map(DiscountFactor::getDiscountFactor).collect(Collectors.toList());;
-        return result;
+        return this.loadDiscountFactor(PaymentType.Annual, this.findLatestVersion(PaymentType.Annual));
     }
 
     @Override
     public List<BigDecimal> loadSemiAnnualDiscountFactor() {
-        List<DiscountFactor> annualDiscountFactor = this.findByPaymentType(PaymentType.SemiAnnual);
-        List<BigDecimal> result = annualDiscountFactor.stream().map(DiscountFactor::getDiscountFactor).collect(Collectors.toList());;
-        return result;
+        return this.loadDiscountFactor(PaymentType.SemiAnnual, this.findLatestVersion(PaymentType.SemiAnnual));
     }
 
-    private List<DiscountFactor> findByPaymentType(PaymentType paymentType){
-        String sql = "select term, discount_factor from discount_factor_master where payment_type = ?";
-        List<DiscountFactor> result = jdbcTemplate.queryForObject(sql,
-                new Object[]{paymentType.getDbValue()},
-                discountFactorRowMapper());
-        Collections.sort(result);
-        return result;
+    @Override
+    public long findLatestVersion(PaymentType paymentType) {
+        // versionカラムは文字列型のため数値に変換して比較する。
+        String sql = "select max(cast(version as unsigned)) from discount_factor_master where payment_type = ?";
+        Long version = jdbcTemplate.queryForObject(sql, new Object[]{paymentType.getDbValue()}, Long.class);
+        return version == null ? -1L : version;
     }
 
-    private RowMapper<List<DiscountFactor>> discountFactorRowMapper() {
-
-        return new RowMapper<List<DiscountFactor>>() {
-
-            @Override
-            public List<DiscountFactor> mapRow(ResultSet rs, int rowNum) throws SQLException {
+    @Override
+    public long lockLatestVersion() {
+        // 走査した行と隙間をロックするので、同時に採番したトランザクションはコミットまで待ち、登録後の最新バージョンを読む
+        String sql = "select max(cast(version as unsigned)) from discount_factor_master for update";
+        Long version = jdbcTemplate.queryForObject(sql, Long.class);
+        return version == null ? -1L : version;
+    }
 
-                if( rs == null ){
-                    return null;
-                }
+    @Override
+    public List<BigDecimal> loadDiscountFactor(PaymentType paymentType, long version) {
+        List<DiscountFactor> discountFactors = this.findByPaymentTypeAndVersion(paymentType, version);
+        return discountFactors.stream().map(DiscountFactor::getDiscountFactor).collect(Collectors.toList());
+    }
 
-                List<DiscountFactor> list = new ArrayList<>();
-                DiscountFactor discountFactor = new DiscountFactor();
-                discountFactor.setTerm(rs.getDouble("term"));
-                discountFactor.setDiscountFactor(rs.getBigDecimal("discount_factor"));
-                list.add(discountFactor);
+    @Override
+    public void insertDiscountFactors(PaymentType paymentType, long version, List<BigDecimal> discountFactors, String updateUser) {
+        String sql = "insert into discount_factor_master (term, discount_factor, payment_type, version, update_user) values (?, ?, ?, ?, ?)";
+        List<Object[]> args = new ArrayList<>(discountFactors.size());
+        for (int term = 0; term < discountFactors.size(); term++) {
+            args.add(new Object[]{String.valueOf(term), discountFactors.get(term), paymentType.getDbValue(), String.valueOf(version), updateUser});
+        }
+        jdbcTemplate.batchUpdate(sql, args);
+    }
 
-                while (rs.next()){
-                    discountFactor = new DiscountFactor();
+    private List<DiscountFactor> findByPaymentTypeAndVersion(PaymentType paymentType, long version){
+        String sql = "select term, discount_factor from discount_factor_master where payment_type = ? and version = ?";
+        List<DiscountFactor> result = jdbcTemplate.query(sql,
+                new Object[]{paymentType.getDbValue(), String.valueOf(version)},
+                (rs, rowNum) -> {
+                    DiscountFactor discountFactor = new DiscountFactor();
                     discountFactor.setTerm(rs.getDouble("term"));
                     discountFactor.setDiscountFactor(rs.getBigDecimal("discount_factor"));
-                    list.add(discountFactor);
-                }
-                return list;
-            }
-        };
+                    return discountFactor;
+                });
+        Collections.sort(result);
+        return result;
     }
 }
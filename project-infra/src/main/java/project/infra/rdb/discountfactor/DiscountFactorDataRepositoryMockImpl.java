@@ -4,21 +4,29 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
  * 5%の金利のときの現在価値割引を返す。
  * 本番では債券価格から逆算された現在価値のマスターデータを用いる。
+ * 登録した割引現在価値はメモリ上に保持し、最新バージョンとして返す。
  */
 @Repository
 @Qualifier("mock")
 public class DiscountFactorDataRepositoryMockImpl implements DiscountFactorDataRepository {
 
+    private static final long MOCK_VERSION = 0L;
+
     private final Map<Double, BigDecimal> annualDiscountFactor;
     private final Map<Double, BigDecimal> semiAnnualDiscountFactor;
+    // 利払い周期ごとのバージョン別の割引現在価値。thisで保護する
+    private final Map<PaymentType, TreeMap<Long, List<BigDecimal>>> versions = new EnumMap<>(PaymentType.class);
 
     public DiscountFactorDataRepositoryMockImpl(){
         Map<Double, BigDecimal> annual = new LinkedHashMap<>();
@@ -46,15 +54,61 @@ public class DiscountFactorDataRepositoryMockImpl implements DiscountFactorDataR
         semiAnnual.put(Double.valueOf("5.5"), new BigDecimal("0.7621447822"));
         semiAnnual.put(Double.valueOf("6"), new BigDecimal("0.743555885"));
         this.semiAnnualDiscountFactor = semiAnnual;
+
+        this.versions.put(PaymentType.Annual, new TreeMap<>(Map.of(MOCK_VERSION, toList(annual))));
+        this.versions.put(PaymentType.SemiAnnual, new TreeMap<>(Map.of(MOCK_VERSION, toList(semiAnnual))));
     }
 
     @Override
     public List<BigDecimal> loadAnnualDiscountFactor() {
-        return this.annualDiscountFactor.values().stream().collect(Collectors.toUnmodifiableList());
+        return this.loadDiscountFactor(PaymentType.Annual, this.findLatestVersion(PaymentType.Annual));
     }
 
     @Override
     public List<BigDecimal> loadSemiAnnualDiscountFactor() {
-        return this.semiAnnualDiscountFactor.values().stream().collect(Collectors.toUnmodifiableList());
+        return this.loadDiscountFactor(PaymentType.SemiAnnual, this.findLatestVersion(PaymentType.SemiAnnual));
+    }
+
+    @Override
+    public synchronized long findLatestVersion(PaymentType paymentType) {
+        TreeMap<Long, List<BigDecimal>> discountFactors = this.versions.get(paymentType);
+        return discountFactors == null ? -1L : discountFactors.lastKey();
+    }
+
+    /**
+     * メモリ上のデータなのでロックは取らず、全ての利払い周期の最新バージョンを返す。
+     */
+    @Override
+    public synchronized long lockLatestVersion() {
+        long latestVersion = -1L;
+        for (TreeMap<Long, List<BigDecimal>> discountFactors : this.versions.values()) {
+            latestVersion = Math.max(latestVersion, discountFactors.lastKey());
+        }
+        return latestVersion;
+    }
+
+    @Override
+    public synchronized List<BigDecimal> loadDiscountFactor(PaymentType paymentType, long version) {
+        TreeMap<Long, List<BigDecimal>> discountFactors = this.versions.get(paymentType);
+        if (discountFactors == null) {
+            return Collections.emptyList();
+        }
+        return discountFactors.getOrDefault(version, Collections.emptyList());
+    }
+
+    /**
+     * 本番と同じく、登録済みの利払い周期・バージョンは登録できない。
+     */
+    @Override
+    public synchronized void insertDiscountFactors(PaymentType paymentType, long version, List<BigDecimal> discountFactors, String updateUser) {
+        TreeMap<Long, List<BigDecimal>> registered = this.versions.computeIfAbsent(paymentType, k -> new TreeMap<>());
+        if (registered.containsKey(version)) {
+            throw new IllegalStateException(String.format("Discount factors are already registered. PaymentType: %s, Version: %d", paymentType, version));
+        }
+        registered.put(version, List.copyOf(discountFactors));
+    }
+
+    private static List<BigDecimal> toList(Map<Double, BigDecimal> discountFactors) {
+        return discountFactors.values().stream().collect(Collectors.toUnmodifiableList());
     }
 }
@@ -0,0 +1,173 @@
+package project.infra.rdb.evaluationdirtykey;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * <p>
+ * 約定の登録で評価結果が古くなった(ポートフォリオ, 銘柄)と、影響を受ける最も古い約定日。
+ * 計算サーバはこの日付以降の評価結果だけを計算し直し、終わると削除する。
+ * </p>
+ * <p>
+ * revisionは登録のたびに増えるので、計算中に登録し直された組は削除せずに残る。
+ * </p>
+ */
+@Entity
+@Table(name = "stock_evaluation_dirty_key")
+@IdClass(StockEvaluationDirtyKey.PK.class)
+public class StockEvaluationDirtyKey implements Serializable {
+    private static final long serialVersionUID = 1l;
+
+    @Id
+    @Column(name = "stock_portfolio_id")
+    private long stockPortfolioId;
+    @Id
+    @Column(name = "stock_code")
+    private String stockCode;
+    @Column(name = "from_date")
+    @NotNull
+    private LocalDate fromDate;
+    @Column(name = "revision")
+    @NotNull
+    private long revision;
+    @Column(name = "update_timestamp")
+    @NotNull
+    private Timestamp updateTimestamp;
+    @Column(name = "update_user")
+    @NotNull
+    private String updateUser;
+    @Column(name = "create_timestamp")
+    @NotNull
+    private Timestamp createTimestamp;
+    @Column(name = "create_user")
+    @NotNull
+    private String createUser;
+
+    public long getStockPortfolioId() {
+        return stockPortfolioId;
+    }
+
+    public void setStockPortfolioId(long stockPortfolioId) {
+        this.stockPortfolioId = stockPortfolioId;
+    }
+
+    public String getStockCode() {
+        return stockCode;
+    }
+
+    public void setStockCode(String stockCode) {
+        this.stockCode = stockCode;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public void setFromDate(LocalDate fromDate) {
+        this.fromDate = fromDate;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public Timestamp getUpdateTimestamp() {
+        return updateTimestamp;
+    }
+
+    public void setUpdateTimestamp(Timestamp updateTimestamp) {
+        this.updateTimestamp = updateTimestamp;
+    }
+
+    public String getUpdateUser() {
+        return updateUser;
+    }
+
+    public void setUpdateUser(String updateUser) {
+        this.updateUser = updateUser;
+    }
+
+    public Timestamp getCreateTimestamp() {
+        return createTimestamp;
+    }
+
+    public void setCreateTimestamp(Timestamp createTimestamp) {
+        this.createTimestamp = createTimestamp;
+    }
+
+    public String getCreateUser() {
+        return createUser;
+    }
+
+    public void setCreateUser(String createUser) {
+        this.createUser = createUser;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StockEvaluationDirtyKey that = (StockEvaluationDirtyKey) o;
+        return stockPortfolioId == that.stockPortfolioId && Objects.equals(stockCode, that.stockCode);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(stockPortfolioId, stockCode);
+    }
+
+    @Override
+    public String toString() {
+        return "StockEvaluationDirtyKey{" +
+                "stockPortfolioId=" + stockPortfolioId +
+                ", stockCode='" + stockCode + '\'' +
+                ", fromDate=" + fromDate +
+                ", revision=" + revision +
+                '}';
+    }
+
+    public static class PK implements Serializable {
+        private static final long serialVersionUID = 1l;
+        @Column(name = "stock_portfolio_id")
+        private long stockPortfolioId;
+        @Column(name = "stock_code")
+        private String stockCode;
+
+        public long getStockPortfolioId() {
+            return stockPortfolioId;
+        }
+
+        public void setStockPortfolioId(long stockPortfolioId) {
+            this.stockPortfolioId = stockPortfolioId;
+        }
+
+        public String getStockCode() {
+            return stockCode;
+        }
+
+        public void setStockCode(String stockCode) {
+            this.stockCode = stockCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            PK pk = (PK) o;
+            return stockPortfolioId == pk.stockPortfolioId && Objects.equals(stockCode, pk.stockCode);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(stockPortfolioId, stockCode);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package project.infra.rdb.evaluationdirtykey;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface StockEvaluationDirtyKeyRepository extends JpaRepository<StockEvaluationDirtyKey, StockEvaluationDirtyKey.PK> {
+
+    /**
+     * (ポートフォリオ, 銘柄)を計算し直す対象として登録する。
+     * すでに登録されている場合は、影響を受ける約定日を古い方にしてrevisionを増やす。
+     * @param stockPortfolioId
+     * @param stockCode
+     * @param fromDate
+     * @param user
+     * @param timestamp
+     * @return
+     */
+    @Modifying
+    @Query(value = "insert into stock_evaluation_dirty_key (stock_portfolio_id, stock_code, from_date, revision, update_timestamp, update_user, create_timestamp, create_user)"
+            + " values (:stockPortfolioId, :stockCode, :fromDate, 1, :timestamp, :user, :timestamp, :user)"
+            + " on duplicate key update from_date = least(from_date, values(from_date)), revision = revision + 1"
+            + ", update_timestamp = values(update_timestamp), update_user = values(update_user)", nativeQuery = true)
+    public int markDirty(@Param("stockPortfolioId") long stockPortfolioId, @Param("stockCode") String stockCode, @Param("fromDate") LocalDate fromDate
+            , @Param("user") String user, @Param("timestamp") Timestamp timestamp);
+
+    public List<StockEvaluationDirtyKey> findAllByStockPortfolioId(long stockPortfolioId);
+
+    @Query("select distinct k.stockPortfolioId from StockEvaluationDirtyKey k")
+    public List<Long> findAllStockPortfolioIds();
+
+    /**
+     * 計算し直した(ポートフォリオ, 銘柄)を削除する。計算中に登録し直されてrevisionが変わっている場合は削除しない。
+     * @param stockPortfolioId
+     * @param stockCode
+     * @param revision
+     * @return
+     */
+    @Modifying
+    @Query("delete from StockEvaluationDirtyKey k where k.stockPortfolioId = :stockPortfolioId and k.stockCode = :stockCode and k.revision = :revision")
+    public int deleteIfUnchanged(@Param("stockPortfolioId") long stockPortfolioId, @Param("stockCode") String stockCode, @Param("revision") long revision);
+}
@@ -0,0 +1,22 @@
+package project.infra.rdb.evaluationjob;
+
+/**
+ * ポートフォリオ評価計算ジョブの状態
+ */
+public enum EvaluationJobStatus {
+    // 実行待ち
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    // 他のジョブにまとめられた。結果はmergedJobIdのジョブを参照する
+    MERGED;
+
+    /**
+     * 終了した状態か確認する。
+     * @return
+     */
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED || this == MERGED;
+    }
+}
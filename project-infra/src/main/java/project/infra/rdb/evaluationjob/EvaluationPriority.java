@@ -0,0 +1,9 @@
+package project.infra.rdb.evaluationjob;
+
+/**
+ * ポートフォリオ評価計算ジョブの優先度。INTERACTIVEは画面などから依頼された計算、NIGHTLYは夜間の一括計算
+ */
+public enum EvaluationPriority {
+    INTERACTIVE,
+    NIGHTLY
+}
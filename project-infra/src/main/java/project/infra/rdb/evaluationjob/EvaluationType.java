@@ -0,0 +1,26 @@
+package project.infra.rdb.evaluationjob;
+
+/**
+ * ポートフォリオ評価計算の種類
+ */
+public enum EvaluationType {
+    REGULAR(true),
+    FORCE(true),
+    REVISE(false),
+    /** 約定の登録で古くなった(ポートフォリオ, 銘柄)だけを計算し直す差分評価 */
+    DIRTY(false);
+
+    private final boolean periodic;
+
+    EvaluationType(boolean periodic) {
+        this.periodic = periodic;
+    }
+
+    /**
+     * 計算の対象期間を指定する種類か
+     * @return
+     */
+    public boolean isPeriodic() {
+        return periodic;
+    }
+}
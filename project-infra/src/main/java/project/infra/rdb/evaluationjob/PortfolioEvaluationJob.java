@@ -0,0 +1,201 @@
+package project.infra.rdb.evaluationjob;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * ポートフォリオ評価計算ジョブ。計算サーバが再起動しても実行待ちのジョブが失われないように永続化する。
+ */
+@Entity
+@Table(name = "portfolio_evaluation_job")
+public class PortfolioEvaluationJob implements Serializable {
+    private static final long serialVersionUID = 1l;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private long id;
+    @Column(name = "stock_portfolio_id")
+    @NotNull
+    private long stockPortfolioId;
+    @Column(name = "evaluation_type")
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private EvaluationType evaluationType;
+    @Column(name = "start_date")
+    private LocalDate startDate;
+    @Column(name = "end_date")
+    private LocalDate endDate;
+    @Column(name = "incremental")
+    @NotNull
+    private boolean incremental;
+    @Column(name = "priority")
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private EvaluationPriority priority = EvaluationPriority.INTERACTIVE;
+    @Column(name = "status")
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private EvaluationJobStatus status;
+    @Column(name = "merged_job_id")
+    private Long mergedJobId;
+    @Column(name = "detail")
+    private String detail;
+    @Column(name = "update_timestamp")
+    @NotNull
+    private Timestamp updateTimestamp;
+    @Column(name = "update_user")
+    @NotNull
+    private String updateUser;
+    @Column(name = "create_timestamp")
+    @NotNull
+    private Timestamp createTimestamp;
+    @Column(name = "create_user")
+    @NotNull
+    private String createUser;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getStockPortfolioId() {
+        return stockPortfolioId;
+    }
+
+    public void setStockPortfolioId(long stockPortfolioId) {
+        this.stockPortfolioId = stockPortfolioId;
+    }
+
+    public EvaluationType getEvaluationType() {
+        return evaluationType;
+    }
+
+    public void setEvaluationType(EvaluationType evaluationType) {
+        this.evaluationType = evaluationType;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public EvaluationPriority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(EvaluationPriority priority) {
+        this.priority = priority;
+    }
+
+    public EvaluationJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(EvaluationJobStatus status) {
+        this.status = status;
+    }
+
+    public Long getMergedJobId() {
+        return mergedJobId;
+    }
+
+    public void setMergedJobId(Long mergedJobId) {
+        this.mergedJobId = mergedJobId;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public void setDetail(String detail) {
+        this.detail = detail;
+    }
+
+    public Timestamp getUpdateTimestamp() {
+        return updateTimestamp;
+    }
+
+    public void setUpdateTimestamp(Timestamp updateTimestamp) {
+        this.updateTimestamp = updateTimestamp;
+    }
+
+    public String getUpdateUser() {
+        return updateUser;
+    }
+
+    public void setUpdateUser(String updateUser) {
+        this.updateUser = updateUser;
+    }
+
+    public Timestamp getCreateTimestamp() {
+        return createTimestamp;
+    }
+
+    public void setCreateTimestamp(Timestamp createTimestamp) {
+        this.createTimestamp = createTimestamp;
+    }
+
+    public String getCreateUser() {
+        return createUser;
+    }
+
+    public void setCreateUser(String createUser) {
+        this.createUser = createUser;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PortfolioEvaluationJob that = (PortfolioEvaluationJob) o;
+        return id == that.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "PortfolioEvaluationJob{" +
+                "id=" + id +
+                ", stockPortfolioId=" + stockPortfolioId +
+                ", evaluationType=" + evaluationType +
+                ", startDate=" + startDate +
+                ", endDate=" + endDate +
+                ", incremental=" + incremental +
+                ", priority=" + priority +
+                ", status=" + status +
+                ", mergedJobId=" + mergedJobId +
+                ", detail='" + detail + '\'' +
+                '}';
+    }
+}
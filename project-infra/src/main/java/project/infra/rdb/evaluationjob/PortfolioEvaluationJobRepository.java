@@ -0,0 +1,44 @@
+package project.infra.rdb.evaluationjob;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+public interface PortfolioEvaluationJobRepository extends JpaRepository<PortfolioEvaluationJob, Long> {
+
+    public List<PortfolioEvaluationJob> findAllByStatusOrderByIdAsc(EvaluationJobStatus status);
+
+    public long countByStatusAndPriority(EvaluationJobStatus status, EvaluationPriority priority);
+
+    /**
+     * 指定した日時より後に指定した状態になった、指定した種類のジョブのポートフォリオIDを取得する。
+     * @param evaluationType
+     * @param status
+     * @param since
+     * @return
+     */
+    @Query("select distinct j.stockPortfolioId from PortfolioEvaluationJob j where j.evaluationType = :evaluationType and j.status = :status and j.updateTimestamp > :since")
+    public List<Long> findStockPortfolioIdsUpdatedSince(@Param("evaluationType") EvaluationType evaluationType, @Param("status") EvaluationJobStatus status
+            , @Param("since") Timestamp since);
+
+    /**
+     * 状態を一括で変更する。再起動時に実行中のまま残ったジョブを実行待ちに戻す場合に使う。
+     * @param from
+     * @param to
+     * @param updateUser
+     * @param updateTimestamp
+     * @return 変更した件数
+     */
+    @Modifying
+    @Transactional
+    @Query("update PortfolioEvaluationJob j set j.status = :to, j.updateUser = :updateUser, j.updateTimestamp = :updateTimestamp where j.status = :from")
+    public int updateStatus(@Param("from") EvaluationJobStatus from, @Param("to") EvaluationJobStatus to
+            , @Param("updateUser") String updateUser, @Param("updateTimestamp") Timestamp updateTimestamp);
+}
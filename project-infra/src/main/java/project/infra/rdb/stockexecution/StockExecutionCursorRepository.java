@@ -0,0 +1,54 @@
+package project.infra.rdb.stockexecution;
+
+import project.infra.rdb.CursorReader;
+import project.infra.rdb.stockexecution.entity.StockExecution;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * 評価計算用に約定をカーソルで読み込む。
+ * 銘柄コード・約定日の順に返すので、呼び出し元は銘柄ごとに区切って処理できる。
+ * </p>
+ * <p>
+ * 評価計算で使う列だけを読み込み、エンティティとしては管理しない。
+ * </p>
+ */
+public class StockExecutionCursorRepository {
+
+    private static final String SELECT_BY_PORTFOLIO = "select id, stock_portfolio_id, stock_code, book_value, currency_code, amount, execution_date, buy_sell_type"
+            + " from stock_execution where stock_portfolio_id = ? and execution_date <= ? order by stock_code, execution_date, id";
+
+    private final CursorReader cursorReader;
+
+    public StockExecutionCursorRepository(CursorReader cursorReader) {
+        this.cursorReader = cursorReader;
+    }
+
+    /**
+     * ポートフォリオの約定日がexecutionDateTo以前の約定を、銘柄コード・約定日の順に返す。
+     * 返したStreamはトランザクション内で読み、closeすること。
+     * @param stockPortfolioId
+     * @param executionDateTo
+     * @return
+     */
+    public Stream<StockExecution> streamByStockPortfolioId(long stockPortfolioId, LocalDate executionDateTo) {
+        return this.cursorReader.stream(SELECT_BY_PORTFOLIO, ps -> {
+            ps.setLong(1, stockPortfolioId);
+            ps.setDate(2, Date.valueOf(executionDateTo));
+        }, (rs, rowNum) -> {
+            StockExecution execution = new StockExecution();
+            execution.setId(rs.getLong("id"));
+            execution.setStockPortfolioId(rs.getLong("stock_portfolio_id"));
+            execution.setStockCode(rs.getString("stock_code"));
+            execution.setBookValue(rs.getBigDecimal("book_value"));
+            execution.setCurrencyCode(rs.getString("currency_code"));
+            execution.setAmount(rs.getBigDecimal("amount"));
+            execution.setExecutionDate(rs.getDate("execution_date").toLocalDate());
+            execution.setBuySellType(BuySellType.convertFrom(rs.getString("buy_sell_type")));
+            return execution;
+        });
+    }
+}
@@ -54,6 +54,16 @@ public class StockExecution extends StockExecutionBase implements Serializable {
                 builder.equal(root.get(StockExecution_.stockPortfolioId.getName()), portfolioId);
     }
 
+    /**
+     * 特定の銘柄のデータを取得するSpecificationを返す
+     * @param stockCode
+     * @return
+     */
+    public static Specification<StockExecution> stockCodeEqualsTo(String stockCode){
+        return stockCode == null? null : (root, query, builder) ->
+                builder.equal(root.get(StockExecution_.stockCode.getName()), stockCode);
+    }
+
     public void setCreateUser(String userName){
         super.setCreateUser(userName);
     }
@@ -1,6 +1,7 @@
 package project.infra.rdb.stockportfolio;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +11,11 @@ public interface StockPortfolioRepository extends JpaRepository<StockPortfolio,
 
     public List<StockPortfolio> findByUserId(Long userId);
     public List<StockPortfolio> findByUserIdAndIsDeletedFalse(Long userId);
+
+    /**
+     * 削除されていない全てのポートフォリオのIDを昇順で取得する。
+     * @return
+     */
+    @Query("select p.id from StockPortfolio p where p.isDeleted = false order by p.id")
+    public List<Long> findAllIdsByIsDeletedFalse();
 }
@@ -0,0 +1,13 @@
+package project.infra.rdb.stockportfolioevaluation;
+
+import java.time.LocalDate;
+
+/**
+ * 評価済みの銘柄と基準日の組。評価結果のエンティティ全体を読み込まずに評価済みの日付を確認するためのプロジェクション。
+ */
+public interface EvaluatedDate {
+
+    public String getStockCode();
+
+    public LocalDate getBaseDate();
+}
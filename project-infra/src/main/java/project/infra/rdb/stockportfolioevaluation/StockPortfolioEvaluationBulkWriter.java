@@ -0,0 +1,100 @@
+package project.infra.rdb.stockportfolioevaluation;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * <p>
+ * 評価結果を複数行のINSERT ... ON DUPLICATE KEY UPDATEでまとめて登録・更新する。
+ * 主キーを割り当てるエンティティをsaveAllすると行ごとにSELECTが発行されるので、大量の評価結果はこちらで書き込む。
+ * </p>
+ * <p>
+ * 既存の行は作成者・作成日時を残し、それ以外の列を更新する。
+ * JdbcTemplateを使うので、呼び出し元のトランザクションに参加する。
+ * </p>
+ */
+public class StockPortfolioEvaluationBulkWriter {
+
+    private static final String INSERT = "insert into stock_portfolio_evaluation (stock_portfolio_id, stock_code, base_date, book_value, current_value, amount, current_pl"
+            + ", currency_code, is_lock_out, evaluation_data_base_date, is_deleted, update_timestamp, update_user, create_timestamp, create_user) values ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ON_DUPLICATE_KEY_UPDATE = " on duplicate key update book_value = values(book_value), current_value = values(current_value)"
+            + ", amount = values(amount), current_pl = values(current_pl), currency_code = values(currency_code), is_lock_out = values(is_lock_out)"
+            + ", evaluation_data_base_date = values(evaluation_data_base_date), is_deleted = values(is_deleted)"
+            + ", update_timestamp = values(update_timestamp), update_user = values(update_user)";
+    private static final int COLUMNS = 15;
+
+    private final JdbcTemplate jdbcTemplate;
+    // 1文あたりの行数
+    private final int chunkSize;
+    // chunkSize行の文は繰り返し使うので一度だけ組み立てる
+    private final String fullChunkSql;
+
+    public StockPortfolioEvaluationBulkWriter(JdbcTemplate jdbcTemplate, int chunkSize) {
+        if (chunkSize <= 0 || (long) chunkSize * COLUMNS > 65535) {
+            // MySQLのプリペアドステートメントのパラメータ数の上限を超えないようにする
+            throw new IllegalArgumentException(String.format("Invalid chunk size: %d", chunkSize));
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = chunkSize;
+        this.fullChunkSql = createSql(chunkSize);
+    }
+
+    /**
+     * 評価結果を登録する。主キーが重複する行は更新する。
+     * @param evaluations
+     * @return 登録・更新した行数
+     */
+    public int upsertAll(List<? extends StockPortfolioEvaluationBase> evaluations) {
+        int count = 0;
+        for (int from = 0; from < evaluations.size(); from += this.chunkSize) {
+            List<? extends StockPortfolioEvaluationBase> chunk = evaluations.subList(from, Math.min(from + this.chunkSize, evaluations.size()));
+            String sql = chunk.size() == this.chunkSize ? this.fullChunkSql : createSql(chunk.size());
+            this.jdbcTemplate.update(sql, ps -> setValues(ps, chunk));
+            count += chunk.size();
+        }
+        return count;
+    }
+
+    static String createSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT.length() + rows * (ROW.length() + 2) + ON_DUPLICATE_KEY_UPDATE.length());
+        sql.append(INSERT);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+        }
+        return sql.append(ON_DUPLICATE_KEY_UPDATE).toString();
+    }
+
+    private static void setValues(PreparedStatement ps, List<? extends StockPortfolioEvaluationBase> chunk) throws SQLException {
+        int index = 1;
+        for (StockPortfolioEvaluationBase evaluation : chunk) {
+            ps.setLong(index++, evaluation.getStockPortfolioId());
+            ps.setString(index++, evaluation.getStockCode());
+            ps.setDate(index++, Date.valueOf(evaluation.getBaseDate()));
+            ps.setBigDecimal(index++, evaluation.getBookValue());
+            ps.setBigDecimal(index++, evaluation.getCurrentValue());
+            ps.setBigDecimal(index++, evaluation.getAmount());
+            ps.setBigDecimal(index++, evaluation.getCurrentPl());
+            ps.setString(index++, evaluation.getCurrencyCode());
+            ps.setBoolean(index++, evaluation.isLockOut());
+            if (evaluation.getEvaluationDateBaseDate() == null) {
+                ps.setNull(index++, Types.DATE);
+            } else {
+                ps.setDate(index++, Date.valueOf(evaluation.getEvaluationDateBaseDate()));
+            }
+            ps.setBoolean(index++, evaluation.isDeleted());
+            ps.setTimestamp(index++, evaluation.getUpdateTimestamp());
+            ps.setString(index++, evaluation.getUpdateUser());
+            ps.setTimestamp(index++, evaluation.getCreateTimestamp());
+            ps.setString(index++, evaluation.getCreateUser());
+        }
+    }
+}
@@ -1,14 +1,119 @@
 package project.infra.rdb.stockportfolioevaluation;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface StockPortfolioEvaluationRepository extends JpaRepository<StockPortfolioEvaluation, Long> {
 
     public List<StockPortfolioEvaluation> findAllByStockPortfolioIdEqualsAndBaseDateBeforeAndBaseDateAfter(long stockPortfolioId, LocalDate endDate, LocalDate startDate);
+
+    /**
+     * 横置きした評価結果を取得する。更新はStockPortfolioEvaluationBulkWriterで行うので、読み取り専用として変更を追跡しない。
+     * @param stockPortfolioId
+     * @return
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
     public List<StockPortfolioEvaluation> findAllByStockPortfolioIdEqualsAndLockOutTrueAndDeletedFalse(long stockPortfolioId);
+
+    /**
+     * 全てのポートフォリオから、銘柄の基準日がfrom以降の横置きした評価結果を取得する。読み取り専用として変更を追跡しない。
+     * @param stockCode
+     * @param from
+     * @return
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    public List<StockPortfolioEvaluation> findAllByStockCodeAndLockOutTrueAndDeletedFalseAndBaseDateGreaterThanEqual(String stockCode, LocalDate from);
+
+    /**
+     * 銘柄のいずれかで、基準日がfrom以降の横置きした評価結果を持つポートフォリオのIDを昇順で取得する。
+     * @param stockCodes
+     * @param from
+     * @return
+     */
+    @Query("select distinct e.stockPortfolioId from StockPortfolioEvaluation e where e.stockCode in :stockCodes and e.lockOut = true"
+            + " and e.deleted = false and e.baseDate >= :from order by e.stockPortfolioId")
+    public List<Long> findLockOutPortfolioIds(@Param("stockCodes") Collection<String> stockCodes, @Param("from") LocalDate from);
+
+    /**
+     * 基準日がstartDateより後、endDateより前の評価結果を一括で削除する。エンティティは読み込まない。
+     * @param stockPortfolioId
+     * @param startDate
+     * @param endDate
+     * @return 削除した行数
+     */
+    @Modifying
+    @Query("delete from StockPortfolioEvaluation e where e.stockPortfolioId = :stockPortfolioId and e.baseDate > :from and e.baseDate < :to")
+    public int deleteByStockPortfolioIdInPeriod(@Param("stockPortfolioId") long stockPortfolioId, @Param("from") LocalDate startDate, @Param("to") LocalDate endDate);
+
+    /**
+     * 銘柄の基準日がstartDate以上、endDate以下の評価結果を一括で削除する。エンティティは読み込まない。
+     * @param stockPortfolioId
+     * @param stockCode
+     * @param startDate
+     * @param endDate
+     * @return 削除した行数
+     */
+    @Modifying
+    @Query("delete from StockPortfolioEvaluation e where e.stockPortfolioId = :stockPortfolioId and e.stockCode = :stockCode and e.baseDate between :from and :to")
+    public int deleteByStockPortfolioIdAndStockCodeInPeriod(@Param("stockPortfolioId") long stockPortfolioId, @Param("stockCode") String stockCode
+            , @Param("from") LocalDate startDate, @Param("to") LocalDate endDate);
+
+    /**
+     * 銘柄ごとに、基準日がbaseDate以前の最新の評価結果を取得する。
+     * @param stockPortfolioId
+     * @param baseDate
+     * @return
+     */
+    @Query("select e from StockPortfolioEvaluation e where e.stockPortfolioId = :stockPortfolioId and e.deleted = false and e.baseDate = "
+            + "(select max(l.baseDate) from StockPortfolioEvaluation l where l.stockPortfolioId = e.stockPortfolioId and l.stockCode = e.stockCode and l.deleted = false and l.baseDate <= :baseDate)")
+    public List<StockPortfolioEvaluation> findLatestByStockPortfolioId(@Param("stockPortfolioId") long stockPortfolioId, @Param("baseDate") LocalDate baseDate);
+
+    /**
+     * 銘柄の、基準日がbaseDateより前の最新の評価結果を取得する。
+     * @param stockPortfolioId
+     * @param stockCode
+     * @param baseDate
+     * @return
+     */
+    public Optional<StockPortfolioEvaluation> findFirstByStockPortfolioIdAndStockCodeAndDeletedFalseAndBaseDateLessThanOrderByBaseDateDesc(
+            long stockPortfolioId, String stockCode, LocalDate baseDate);
+
+    /**
+     * ポートフォリオの評価済みの最も古い基準日を取得する。評価結果がない場合はnull
+     * @param stockPortfolioId
+     * @return
+     */
+    @Query("select min(e.baseDate) from StockPortfolioEvaluation e where e.stockPortfolioId = :stockPortfolioId and e.deleted = false")
+    public LocalDate findFirstBaseDate(@Param("stockPortfolioId") long stockPortfolioId);
+
+    /**
+     * ポートフォリオの評価済みの最新の基準日を取得する。評価結果がない場合はnull
+     * @param stockPortfolioId
+     * @return
+     */
+    @Query("select max(e.baseDate) from StockPortfolioEvaluation e where e.stockPortfolioId = :stockPortfolioId and e.deleted = false")
+    public LocalDate findLastBaseDate(@Param("stockPortfolioId") long stockPortfolioId);
+
+    /**
+     * ポートフォリオの評価済みの銘柄・基準日の組を取得する。
+     * 論理削除されたデータも主キーが重複するので評価済みとして扱う。
+     * @param stockPortfolioId
+     * @param startDate
+     * @param endDate
+     * @return
+     */
+    @Query("select distinct e.stockCode as stockCode, e.baseDate as baseDate from StockPortfolioEvaluation e"
+            + " where e.stockPortfolioId = :stockPortfolioId and e.baseDate between :from and :to")
+    public List<EvaluatedDate> findEvaluatedDates(@Param("stockPortfolioId") long stockPortfolioId, @Param("from") LocalDate startDate, @Param("to") LocalDate endDate);
 }
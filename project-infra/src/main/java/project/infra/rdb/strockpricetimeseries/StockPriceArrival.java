@@ -0,0 +1,16 @@
+package project.infra.rdb.strockpricetimeseries;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * 登録・更新された市場価格の銘柄・基準日と更新日時。価格の到着を検知するためのプロジェクション。
+ */
+public interface StockPriceArrival {
+
+    public String getStockCode();
+
+    public LocalDate getBaseDate();
+
+    public Timestamp getUpdateTimestamp();
+}
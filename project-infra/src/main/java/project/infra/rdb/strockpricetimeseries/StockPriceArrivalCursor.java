@@ -0,0 +1,131 @@
+package project.infra.rdb.strockpricetimeseries;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * 市場価格の到着を読み込んだ位置。(更新日時, 銘柄, 基準日)の順で最後に読んだ行を1行だけ持ち、計算サーバを再起動しても続きから読めるようにする。
+ */
+@Entity
+@Table(name = "stock_price_arrival_cursor")
+public class StockPriceArrivalCursor implements Serializable {
+    private static final long serialVersionUID = 1l;
+
+    // 1行だけなので主キーは固定
+    public static final int ID = 1;
+
+    @Id
+    @Column(name = "id")
+    private int id = ID;
+    @Column(name = "cursor_timestamp")
+    @NotNull
+    private Timestamp cursorTimestamp;
+    @Column(name = "cursor_stock_code")
+    @NotNull
+    private String cursorStockCode;
+    @Column(name = "cursor_base_date")
+    @NotNull
+    private LocalDate cursorBaseDate;
+    @Column(name = "update_timestamp")
+    @NotNull
+    private Timestamp updateTimestamp;
+    @Column(name = "update_user")
+    @NotNull
+    private String updateUser;
+    @Column(name = "create_timestamp")
+    @NotNull
+    private Timestamp createTimestamp;
+    @Column(name = "create_user")
+    @NotNull
+    private String createUser;
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public Timestamp getCursorTimestamp() {
+        return cursorTimestamp;
+    }
+
+    public void setCursorTimestamp(Timestamp cursorTimestamp) {
+        this.cursorTimestamp = cursorTimestamp;
+    }
+
+    public String getCursorStockCode() {
+        return cursorStockCode;
+    }
+
+    public void setCursorStockCode(String cursorStockCode) {
+        this.cursorStockCode = cursorStockCode;
+    }
+
+    public LocalDate getCursorBaseDate() {
+        return cursorBaseDate;
+    }
+
+    public void setCursorBaseDate(LocalDate cursorBaseDate) {
+        this.cursorBaseDate = cursorBaseDate;
+    }
+
+    public Timestamp getUpdateTimestamp() {
+        return updateTimestamp;
+    }
+
+    public void setUpdateTimestamp(Timestamp updateTimestamp) {
+        this.updateTimestamp = updateTimestamp;
+    }
+
+    public String getUpdateUser() {
+        return updateUser;
+    }
+
+    public void setUpdateUser(String updateUser) {
+        this.updateUser = updateUser;
+    }
+
+    public Timestamp getCreateTimestamp() {
+        return createTimestamp;
+    }
+
+    public void setCreateTimestamp(Timestamp createTimestamp) {
+        this.createTimestamp = createTimestamp;
+    }
+
+    public String getCreateUser() {
+        return createUser;
+    }
+
+    public void setCreateUser(String createUser) {
+        this.createUser = createUser;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StockPriceArrivalCursor that = (StockPriceArrivalCursor) o;
+        return id == that.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "StockPriceArrivalCursor{" +
+                "cursorTimestamp=" + cursorTimestamp +
+                ", cursorStockCode='" + cursorStockCode + '\'' +
+                ", cursorBaseDate=" + cursorBaseDate +
+                '}';
+    }
+}
@@ -0,0 +1,8 @@
+package project.infra.rdb.strockpricetimeseries;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockPriceArrivalCursorRepository extends JpaRepository<StockPriceArrivalCursor, Integer> {
+}
@@ -0,0 +1,55 @@
+package project.infra.rdb.strockpricetimeseries;
+
+import project.infra.rdb.CursorReader;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * 評価計算用に市場価格をカーソルで読み込む。
+ * 銘柄コード・基準日の順に返すので、同じ順序の約定と銘柄ごとに突き合わせられる。
+ * </p>
+ * <p>
+ * 評価計算で使う列だけを読み込み、エンティティとしては管理しない。
+ * </p>
+ */
+public class StockPriceCursorRepository {
+
+    // 約定のある銘柄の価格だけを返す
+    private static final String SELECT_BY_PORTFOLIO = "select p.stock_code, p.base_date, p.close_price from stock_price p"
+            + " where p.base_date between ? and ? and p.is_deleted = false"
+            + " and p.stock_code in (select distinct e.stock_code from stock_execution e where e.stock_portfolio_id = ? and e.execution_date <= ?)"
+            + " order by p.stock_code, p.base_date";
+
+    private final CursorReader cursorReader;
+
+    public StockPriceCursorRepository(CursorReader cursorReader) {
+        this.cursorReader = cursorReader;
+    }
+
+    /**
+     * ポートフォリオに約定日がexecutionDateTo以前の約定がある銘柄について、基準日がstartDateからendDateまでの市場価格を銘柄コード・基準日の順に返す。
+     * 返したStreamはトランザクション内で読み、closeすること。
+     * @param stockPortfolioId
+     * @param executionDateTo
+     * @param startDate
+     * @param endDate
+     * @return
+     */
+    public Stream<StockPrice> streamByStockPortfolioId(long stockPortfolioId, LocalDate executionDateTo, LocalDate startDate, LocalDate endDate) {
+        return this.cursorReader.stream(SELECT_BY_PORTFOLIO, ps -> {
+            ps.setDate(1, Date.valueOf(startDate));
+            ps.setDate(2, Date.valueOf(endDate));
+            ps.setLong(3, stockPortfolioId);
+            ps.setDate(4, Date.valueOf(executionDateTo));
+        }, (rs, rowNum) -> {
+            StockPrice stockPrice = new StockPrice();
+            stockPrice.setStockCode(rs.getString("stock_code"));
+            stockPrice.setBaseDate(rs.getDate("base_date").toLocalDate());
+            stockPrice.setClosePrice(rs.getBigDecimal("close_price"));
+            return stockPrice;
+        });
+    }
+}
@@ -1,11 +1,14 @@
 package project.infra.rdb.strockpricetimeseries;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -15,5 +18,31 @@ public interface StockPriceRepository extends JpaRepository<StockPrice, Long> {
     @Query("select s from StockPrice s where :from <= s.baseDate and :to >= s.baseDate and s.stockCode in :stockCode and s.deleted = false")
     public List<StockPrice> retrieveByStockCode(@Param("stockCode") Set<String> stockCode, @Param("from") LocalDate startDate, @Param("to") LocalDate endDate);
 
-    public List<StockPrice> findAllByBaseDateInAndDeletedFalse(Set<LocalDate> dates);
+    /**
+     * 銘柄の指定した基準日の価格を主キーで取得する。
+     * @param stockCode
+     * @param baseDates
+     * @return
+     */
+    public List<StockPrice> findAllByStockCodeAndBaseDateInAndDeletedFalse(String stockCode, Collection<LocalDate> baseDates);
+
+    /**
+     * (更新日時, 銘柄, 基準日)の順で、指定した位置より後、until以前に登録・更新された価格を取得する。
+     * 位置は前回取得した最後の行とし、同じ更新日時の行が多くても取りこぼさずに続きから読めるようにする。
+     * @param updateTimestamp
+     * @param stockCode
+     * @param baseDate
+     * @param until
+     * @param pageable
+     * @return
+     */
+    @Query("select s.stockCode as stockCode, s.baseDate as baseDate, s.updateTimestamp as updateTimestamp from StockPrice s"
+            + " where s.deleted = false and s.updateTimestamp <= :until and (s.updateTimestamp > :updateTimestamp"
+            + " or (s.updateTimestamp = :updateTimestamp and (s.stockCode > :stockCode or (s.stockCode = :stockCode and s.baseDate > :baseDate))))"
+            + " order by s.updateTimestamp, s.stockCode, s.baseDate")
+    public List<StockPriceArrival> findArrivedAfter(@Param("updateTimestamp") Timestamp updateTimestamp, @Param("stockCode") String stockCode
+            , @Param("baseDate") LocalDate baseDate, @Param("until") Timestamp until, Pageable pageable);
+
+    @Query("select max(s.updateTimestamp) from StockPrice s")
+    public Timestamp findMaxUpdateTimestamp();
 }
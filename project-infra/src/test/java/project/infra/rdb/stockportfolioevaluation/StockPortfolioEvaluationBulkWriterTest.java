@@ -0,0 +1,176 @@
+package project.infra.rdb.stockportfolioevaluation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StockPortfolioEvaluationBulkWriterTest {
+
+    // MySQLのプリペアドステートメントのパラメータ数の上限を15列で割った行数
+    private static final int MAX_CHUNK_SIZE = 65535 / 15;
+
+    @Test
+    @DisplayName("1文のパラメータ数が65535を超えるチャンクサイズは受け付けない")
+    void rejectChunkSizeOverParameterLimit() {
+        RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+
+        new StockPortfolioEvaluationBulkWriter(jdbcTemplate, MAX_CHUNK_SIZE);
+        assertThrows(IllegalArgumentException.class, () -> new StockPortfolioEvaluationBulkWriter(jdbcTemplate, MAX_CHUNK_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> new StockPortfolioEvaluationBulkWriter(jdbcTemplate, 0));
+    }
+
+    @Test
+    @DisplayName("上限のチャンクサイズで分割し、端数の行は行数に合わせた文で書き込む")
+    void splitIntoChunksAtParameterLimit() {
+        RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+        StockPortfolioEvaluationBulkWriter writer = new StockPortfolioEvaluationBulkWriter(jdbcTemplate, MAX_CHUNK_SIZE);
+        List<StockPortfolioEvaluation> evaluations = IntStream.range(0, MAX_CHUNK_SIZE * 2 + 1)
+                .mapToObj(i -> evaluation(String.valueOf(i), LocalDate.of(2020, 1, 1)))
+                .collect(Collectors.toList());
+
+        assertEquals(MAX_CHUNK_SIZE * 2 + 1, writer.upsertAll(evaluations));
+
+        assertEquals(List.of(MAX_CHUNK_SIZE * 15, MAX_CHUNK_SIZE * 15, 15), jdbcTemplate.parameterCounts());
+        assertEquals(StockPortfolioEvaluationBulkWriter.createSql(MAX_CHUNK_SIZE), jdbcTemplate.sqls.get(0));
+        assertEquals(StockPortfolioEvaluationBulkWriter.createSql(1), jdbcTemplate.sqls.get(2));
+        // 2つ目のチャンクの先頭は全体のMAX_CHUNK_SIZE行目
+        assertEquals(String.valueOf(MAX_CHUNK_SIZE), jdbcTemplate.parameters.get(1).get(2));
+        assertEquals(String.valueOf(MAX_CHUNK_SIZE * 2), jdbcTemplate.parameters.get(2).get(2));
+    }
+
+    @Test
+    @DisplayName("空のリストは何も書き込まない")
+    void writeNothingForEmptyList() {
+        RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+
+        assertEquals(0, new StockPortfolioEvaluationBulkWriter(jdbcTemplate, 10).upsertAll(List.of()));
+        assertTrue(jdbcTemplate.sqls.isEmpty());
+    }
+
+    @Test
+    @DisplayName("文の行数とプレースホルダの数が一致し、更新対象から主キーと作成者・作成日時を除く")
+    void createUpsertSql() {
+        String sql = StockPortfolioEvaluationBulkWriter.createSql(3);
+        String updateClause = sql.substring(sql.indexOf(" on duplicate key update "));
+
+        assertEquals(45, sql.chars().filter(c -> c == '?').count());
+        assertEquals(3, sql.split("\\(\\?").length - 1);
+        for (String column : new String[]{"book_value", "current_value", "amount", "current_pl", "currency_code", "is_lock_out"
+                , "evaluation_data_base_date", "is_deleted", "update_timestamp", "update_user"}) {
+            assertTrue(updateClause.contains(String.format("%1$s = values(%1$s)", column)), column);
+        }
+        for (String column : new String[]{"stock_portfolio_id", "stock_code", "base_date", "create_timestamp", "create_user"}) {
+            assertFalse(updateClause.contains(String.format("%1$s = values(%1$s)", column)), column);
+        }
+    }
+
+    @Test
+    @DisplayName("評価結果の各項目を列の順にパラメータへ設定する")
+    void mapColumnsInOrder() {
+        RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+        StockPortfolioEvaluationBulkWriter writer = new StockPortfolioEvaluationBulkWriter(jdbcTemplate, 10);
+        StockPortfolioEvaluation lockOut = evaluation("1000", LocalDate.of(2020, 1, 2));
+        lockOut.setLockOut(true);
+        lockOut.setEvaluationDateBaseDate(LocalDate.of(2019, 12, 31));
+        StockPortfolioEvaluation deleted = evaluation("2000", LocalDate.of(2020, 1, 3));
+        deleted.setDeleted(true);
+
+        writer.upsertAll(List.of(lockOut, deleted));
+
+        Map<Integer, Object> parameters = jdbcTemplate.parameters.get(0);
+        assertEquals(30, parameters.size());
+        assertEquals(1L, parameters.get(1));
+        assertEquals("1000", parameters.get(2));
+        assertEquals(Date.valueOf(LocalDate.of(2020, 1, 2)), parameters.get(3));
+        assertEquals(new BigDecimal("100"), parameters.get(4));
+        assertEquals(new BigDecimal("110"), parameters.get(5));
+        assertEquals(new BigDecimal("10"), parameters.get(6));
+        assertEquals(new BigDecimal("100"), parameters.get(7));
+        assertEquals("JPY", parameters.get(8));
+        assertEquals(true, parameters.get(9));
+        assertEquals(Date.valueOf(LocalDate.of(2019, 12, 31)), parameters.get(10));
+        assertEquals(false, parameters.get(11));
+        assertEquals(Timestamp.valueOf("2020-01-04 00:00:00"), parameters.get(12));
+        assertEquals("updater", parameters.get(13));
+        assertEquals(Timestamp.valueOf("2020-01-01 00:00:00"), parameters.get(14));
+        assertEquals("creator", parameters.get(15));
+        // 2行目は16番目のパラメータから始まる
+        assertEquals("2000", parameters.get(17));
+        assertEquals(false, parameters.get(24));
+        assertEquals(Types.DATE, parameters.get(25));
+        assertEquals(true, parameters.get(26));
+    }
+
+    private static StockPortfolioEvaluation evaluation(String stockCode, LocalDate baseDate) {
+        StockPortfolioEvaluation evaluation = new StockPortfolioEvaluation();
+        evaluation.setStockPortfolioId(1L);
+        evaluation.setStockCode(stockCode);
+        evaluation.setBaseDate(baseDate);
+        evaluation.setBookValue(new BigDecimal("100"));
+        evaluation.setCurrentValue(new BigDecimal("110"));
+        evaluation.setAmount(new BigDecimal("10"));
+        evaluation.setCurrentPl(new BigDecimal("100"));
+        evaluation.setCurrencyCode("JPY");
+        evaluation.setUpdateTimestamp(Timestamp.valueOf("2020-01-04 00:00:00"));
+        evaluation.setUpdateUser("updater");
+        evaluation.setCreateTimestamp(Timestamp.valueOf("2020-01-01 00:00:00"));
+        evaluation.setCreateUser("creator");
+        return evaluation;
+    }
+
+    /**
+     * DBに接続せず、発行した文と設定したパラメータを記録する。setNullは列の型を記録する。
+     */
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+
+        private final List<String> sqls = new ArrayList<>();
+        private final List<Map<Integer, Object>> parameters = new ArrayList<>();
+
+        @Override
+        public int update(String sql, PreparedStatementSetter pss) {
+            Map<Integer, Object> values = new HashMap<>();
+            PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader()
+                    , new Class<?>[]{PreparedStatement.class}
+                    , (proxy, method, args) -> {
+                        if (method.getName().startsWith("set")) {
+                            values.put((Integer) args[0], args[1]);
+                            return null;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+            try {
+                pss.setValues(ps);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            this.sqls.add(sql);
+            this.parameters.add(values);
+            return values.size() / 15;
+        }
+
+        private List<Integer> parameterCounts() {
+            return this.parameters.stream().map(Map::size).collect(Collectors.toList());
+        }
+    }
+}
@@ -9,10 +9,20 @@ public class PortfolioEvaluationApiResponse {
     private final Status status;
     @Schema(description = "計算サーバからの詳細メッセージ", nullable = true)
     private final String statusMessage;
+    @Schema(description = "計算サーバに登録された評価計算ジョブのID。登録されていない場合は0")
+    private final long jobId;
+    @Schema(description = "計算サーバが過負荷の場合、再試行するまでに待つ時間の目安(ミリ秒)。それ以外は0")
+    private final long retryAfterMs;
 
     public PortfolioEvaluationApiResponse(Status status, String statusMessage) {
+        this(status, statusMessage, 0L, 0L);
+    }
+
+    public PortfolioEvaluationApiResponse(Status status, String statusMessage, long jobId, long retryAfterMs) {
         this.status = status;
         this.statusMessage = statusMessage;
+        this.jobId = jobId;
+        this.retryAfterMs = retryAfterMs;
     }
 
     /**
@@ -30,6 +40,8 @@ public class PortfolioEvaluationApiResponse {
         return new PortfolioEvaluationApiResponse(
                 grpcResponse.getStatusMsg().getStatus()
                 ,grpcResponse.getStatusMsg().getDetail()
+                ,grpcResponse.getJobId()
+                ,grpcResponse.getStatusMsg().getRetryAfterMs()
         );
     }
 
@@ -40,4 +52,12 @@ public class PortfolioEvaluationApiResponse {
     public String getStatusMessage() {
         return statusMessage;
     }
+
+    public long getJobId() {
+        return jobId;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
 }
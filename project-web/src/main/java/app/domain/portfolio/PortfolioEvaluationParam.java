@@ -19,6 +19,10 @@ public class PortfolioEvaluationParam {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyyMMdd")
     @Schema(pattern = "([0-9]{8})", example = "20210409",description = "評価データの抽出終了日")
     private LocalDate endDate;
+    @Schema(description = "標準評価計算で、評価済みの最新のポジションから続けて計算するか")
+    private boolean incremental;
+    @Schema(description = "夜間の一括計算として実行するか。trueの場合は画面から依頼された計算を優先して実行する")
+    private boolean nightly;
 
     public long getPortfolioId() {
         return portfolioId;
@@ -44,17 +48,33 @@ public class PortfolioEvaluationParam {
         this.endDate = endDate;
     }
 
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public boolean isNightly() {
+        return nightly;
+    }
+
+    public void setNightly(boolean nightly) {
+        this.nightly = nightly;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         PortfolioEvaluationParam that = (PortfolioEvaluationParam) o;
-        return portfolioId == that.portfolioId && startDate.equals(that.startDate) && endDate.equals(that.endDate);
+        return portfolioId == that.portfolioId && incremental == that.incremental && nightly == that.nightly && startDate.equals(that.startDate) && endDate.equals(that.endDate);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(portfolioId, startDate, endDate);
+        return Objects.hash(portfolioId, startDate, endDate, incremental, nightly);
     }
 
     @Override
@@ -63,6 +83,8 @@ public class PortfolioEvaluationParam {
                 "portfolioId=" + portfolioId +
                 ", startDate=" + startDate +
                 ", endDate=" + endDate +
+                ", incremental=" + incremental +
+                ", nightly=" + nightly +
                 '}';
     }
 }
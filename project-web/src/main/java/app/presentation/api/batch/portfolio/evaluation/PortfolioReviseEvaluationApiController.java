@@ -4,6 +4,7 @@ import app.domain.api.response.PortfolioEvaluationApiResponse;
 import app.domain.portfolio.PortfolioEvaluationParam;
 import app.presentation.inner.calculator.service.PortfolioEvaluationBatchService;
 import com.google.common.flogger.FluentLogger;
+import io.grpc.finance.calculation.batch.portfolio.EvaluationPriority;
 import io.grpc.finance.calculation.batch.portfolio.PortfolioEvaluationRequest;
 import io.grpc.finance.calculation.batch.portfolio.PortfolioEvaluationResponse;
 import io.grpc.util.Status;
@@ -39,6 +40,7 @@ public class PortfolioReviseEvaluationApiController {
     @ApiResponses(
             value = {
                     @ApiResponse(responseCode = "200", description = "評価計算ジョブの登録に成功したこと")
+                    ,@ApiResponse(responseCode = "429", description = "計算サーバが過負荷のため未登録。Retry-Afterヘッダの秒数だけ待ってから再試行すること")
                     ,@ApiResponse(responseCode = "503", description = "計算サーバが利用不可、もしくはWebサーバの内部処理に問題発生")
             }
     )
@@ -49,11 +51,19 @@ public class PortfolioReviseEvaluationApiController {
                 .setPortfolioId(param.getPortfolioId())
                 .setStartDate(param.getStartDate().format(DateTimeFormatter.ISO_LOCAL_DATE))
                 .setEndDate(param.getEndDate().format(DateTimeFormatter.ISO_LOCAL_DATE))
+                .setPriority(param.isNightly() ? EvaluationPriority.NIGHTLY : EvaluationPriority.INTERACTIVE)
                 .build();
 
         PortfolioEvaluationResponse res = this.portfolioEvaluationBatchService.executeReviseEvaluation(req);
 
         HttpHeaders headers = new HttpHeaders();
+
+        if (res != null && res.getStatusMsg().getStatus() == Status.RESOURCE_EXHAUSTED){
+            // 計算サーバが過負荷なので、指定された時間が経ってから再試行してもらう
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf((res.getStatusMsg().getRetryAfterMs() + 999) / 1000));
+            ResponseEntity<PortfolioEvaluationApiResponse> response = new ResponseEntity<>(PortfolioEvaluationApiResponse.of(res), headers, HttpStatus.TOO_MANY_REQUESTS);
+            return response;
+        }
         if (res == null || res.getStatusMsg().getStatus() == Status.ERROR || res.getStatusMsg().getStatus() == Status.UNRECOGNIZED){
             ResponseEntity<PortfolioEvaluationApiResponse> response = new ResponseEntity<>(PortfolioEvaluationApiResponse.of(res), headers, HttpStatus.SERVICE_UNAVAILABLE);
             return response;
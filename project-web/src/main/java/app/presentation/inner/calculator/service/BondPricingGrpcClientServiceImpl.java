@@ -2,13 +2,22 @@ package app.presentation.inner.calculator.service;
 
 import app.domain.calculation.bond.BondDataDto;
 import app.domain.calculation.bond.PaymentTypeConverter;
+import io.grpc.ConnectivityState;
 import io.grpc.ManagedChannel;
 import io.grpc.finance.calculation.product.bond.BondPricingRequest;
 import io.grpc.finance.calculation.product.bond.BondTheoreticalPriceResponse;
+import io.grpc.util.DecimalValueConverter;
+import io.grpc.util.NumericEncoding;
+import io.grpc.util.Status;
+import io.grpc.util.StatusMsg;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static io.grpc.finance.calculation.pricer.bond.BondPriceCalculatorGrpcServiceGrpc.BondPriceCalculatorGrpcServiceBlockingStub;
 import static io.grpc.finance.calculation.pricer.bond.BondPriceCalculatorGrpcServiceGrpc.newBlockingStub;
 
@@ -19,17 +28,91 @@ public class BondPricingGrpcClientServiceImpl implements BondPricingGrpcClientSe
     @Qualifier("calculator")
     private ManagedChannel managedChannel;
 
+    /**
+     * 計算サーバと合意した数値のエンコード方式。未確定の間はnull。
+     * 未確定の間は文字列と固定小数点の両方を送り、正常応答に固定小数点の結果が含まれていれば以降は固定小数点のみを送る。
+     * 再接続先の計算サーバが同じ版とは限らないので、チャネルの接続が切れたら未確定に戻す。
+     */
+    private final AtomicReference<NumericEncoding> negotiatedEncoding = new AtomicReference<>();
+
+    @PostConstruct
+    void watchConnectivity() {
+        watchConnectivity(managedChannel.getState(false));
+    }
+
+    /**
+     * チャネルの状態がcurrentから変わるたびに呼び出され、接続済み以外の状態になったら合意したエンコード方式を破棄する。
+     * @param current
+     */
+    private void watchConnectivity(ConnectivityState current) {
+        if (current == ConnectivityState.SHUTDOWN) {
+            return;
+        }
+        managedChannel.notifyWhenStateChanged(current, () -> {
+            ConnectivityState next = managedChannel.getState(false);
+            if (next != ConnectivityState.READY) {
+                negotiatedEncoding.set(null);
+            }
+            watchConnectivity(next);
+        });
+    }
+
+    /**
+     * 数値項目が空・数値でない場合は計算サーバを呼び出さず、ERRORの応答を返す。
+     * 入力値の誤りを通信障害として扱わないよう、例外は投げない。
+     */
     @Override
     public BondTheoreticalPriceResponse calculateBondPriceByDiscountFactor(BondDataDto data){
+        BigDecimal couponRate = toBigDecimal(data.getCouponRate());
+        BigDecimal unit = toBigDecimal(data.getUnit());
+        BigDecimal currentMaturity = toBigDecimal(data.getCurrentMaturity());
+        if (couponRate == null || unit == null || currentMaturity == null) {
+            return BondTheoreticalPriceResponse.newBuilder()
+                    .setStatusMsg(StatusMsg.newBuilder().setStatus(Status.ERROR)
+                            .setDetail(String.format("Invalid numeric field. CouponRate: %s, Unit: %s, CurrentMaturity: %s"
+                                    , data.getCouponRate(), data.getUnit(), data.getCurrentMaturity())))
+                    .build();
+        }
+
         BondPriceCalculatorGrpcServiceBlockingStub stub = newBlockingStub(managedChannel);
-        BondPricingRequest request = BondPricingRequest.newBuilder()
-                .setCouponRate(data.getCouponRate())
+        NumericEncoding encoding = negotiatedEncoding.get();
+        BondPricingRequest.Builder builder = BondPricingRequest.newBuilder()
                 .setIsTermEndPayment(data.getIsTermEndPayment())
-                .setUnit(data.getUnit())
-                .setCurrentMaturity(data.getCurrentMaturity())
-                .setPaymentType(PaymentTypeConverter.covertFrom(data.getPaymentType()))
-                .build();
-        BondTheoreticalPriceResponse response = stub.responseTheoreticalPriceByDiscountFactor(request);
+                .setPaymentType(PaymentTypeConverter.covertFrom(data.getPaymentType()));
+
+        if (encoding != NumericEncoding.SCALED_DECIMAL) {
+            builder.setCouponRate(data.getCouponRate())
+                    .setUnit(data.getUnit())
+                    .setCurrentMaturity(data.getCurrentMaturity());
+        }
+        if (encoding != NumericEncoding.STRING) {
+            builder.setNumericEncoding(NumericEncoding.SCALED_DECIMAL)
+                    .setCouponRateDecimal(DecimalValueConverter.convertFrom(couponRate))
+                    .setUnitDecimal(DecimalValueConverter.convertFrom(unit))
+                    .setCurrentMaturityDecimal(DecimalValueConverter.convertFrom(currentMaturity));
+        }
+
+        BondTheoreticalPriceResponse response = stub.responseTheoreticalPriceByDiscountFactor(builder.build());
+
+        if (encoding == null && response.getStatusMsg().getStatus() == Status.OK) {
+            negotiatedEncoding.compareAndSet(null,
+                    response.hasTheoreticalPriceDecimal() ? NumericEncoding.SCALED_DECIMAL : NumericEncoding.STRING);
+        }
         return response;
     }
+
+    /**
+     * @param s
+     * @return 空・数値でない場合はnull
+     */
+    private static BigDecimal toBigDecimal(String s){
+        if (s == null || s.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(s);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
@@ -12,6 +12,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.util.function.Function;
+
 @Service
 @CircuitBreaker(name = "default", fallbackMethod = "fallback")
 public class PortfolioEvaluationBatchServiceImpl implements PortfolioEvaluationBatchService{
@@ -23,22 +25,31 @@ public class PortfolioEvaluationBatchServiceImpl implements PortfolioEvaluationB
 
     @Override
     public PortfolioEvaluationResponse executeForceEvaluation(PortfolioEvaluationRequest req) {
-        PortfolioEvaluationBatchServiceGrpc.PortfolioEvaluationBatchServiceBlockingStub stub = PortfolioEvaluationBatchServiceGrpc.newBlockingStub(managedChannel);
-        PortfolioEvaluationResponse response = stub.executeForceEvaluation(req);
-        return response;
+        return this.call(stub -> stub.executeForceEvaluation(req));
     }
 
     @Override
     public PortfolioEvaluationResponse executeReviseEvaluation(PortfolioEvaluationRequest req) {
-        PortfolioEvaluationBatchServiceGrpc.PortfolioEvaluationBatchServiceBlockingStub stub = PortfolioEvaluationBatchServiceGrpc.newBlockingStub(managedChannel);
-        PortfolioEvaluationResponse response = stub.executeReviseEvaluation(req);
-        return response;
+        return this.call(stub -> stub.executeReviseEvaluation(req));
     }
 
     @Override
     public PortfolioEvaluationResponse executeRegularEvaluation(PortfolioEvaluationRequest req) {
-        PortfolioEvaluationBatchServiceGrpc.PortfolioEvaluationBatchServiceBlockingStub stub = PortfolioEvaluationBatchServiceGrpc.newBlockingStub(managedChannel);
-        PortfolioEvaluationResponse response = stub.executeRegularEvaluation(req);
+        return this.call(stub -> stub.executeRegularEvaluation(req));
+    }
+
+    /**
+     * 計算サーバを呼び出す。
+     * 過負荷で受け付けられなかった場合も、計算サーバはgRPCのエラーではなくStatusMsgのRESOURCE_EXHAUSTEDと再試行までの目安を応答で返すので、
+     * サーキットブレーカーの失敗には数えられない。
+     * @param rpc
+     * @return
+     */
+    private PortfolioEvaluationResponse call(Function<PortfolioEvaluationBatchServiceGrpc.PortfolioEvaluationBatchServiceBlockingStub, PortfolioEvaluationResponse> rpc) {
+        PortfolioEvaluationResponse response = rpc.apply(PortfolioEvaluationBatchServiceGrpc.newBlockingStub(managedChannel));
+        if (response.getStatusMsg().getStatus() == Status.RESOURCE_EXHAUSTED) {
+            logger.atWarning().log("Calculator is overloaded. RetryAfterMs: [%d]", response.getStatusMsg().getRetryAfterMs());
+        }
         return response;
     }
 
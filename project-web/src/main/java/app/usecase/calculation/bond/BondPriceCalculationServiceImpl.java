@@ -5,6 +5,7 @@ import app.presentation.inner.calculator.CalculatorGrpcFacade;
 import com.google.common.flogger.FluentLogger;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.grpc.finance.calculation.product.bond.BondTheoreticalPriceResponse;
+import io.grpc.util.DecimalValueConverter;
 import io.grpc.util.Status;
 import org.springframework.stereotype.Service;
 
@@ -33,7 +34,10 @@ public class BondPriceCalculationServiceImpl implements BondPriceCalculationServ
             return null;
         }
 
-        request.setTheoreticalPrice(response.getTheoreticalPrice());
+        // 計算サーバが固定小数点表現で返した場合はそちらを使う
+        request.setTheoreticalPrice(response.hasTheoreticalPriceDecimal()
+                ? DecimalValueConverter.convertFrom(response.getTheoreticalPriceDecimal()).toPlainString()
+                : response.getTheoreticalPrice());
         logger.atInfo().log("RPC受信結果：%s", request);
         return request;
     }
@@ -24,6 +24,7 @@ import org.supercsv.exception.SuperCsvException;
 import org.supercsv.prefs.CsvPreference;
 import project.infra.rdb.currencymaster.CurrencyMaster;
 import project.infra.rdb.currencymaster.CurrencyMasterRepository;
+import project.infra.rdb.evaluationdirtykey.StockEvaluationDirtyKeyRepository;
 import project.infra.rdb.stockexecution.StockExecutionRepository;
 import project.infra.rdb.stockexecution.entity.StockExecution;
 import project.infra.rdb.stockmaster.StockMaster;
@@ -37,8 +38,12 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -53,16 +58,20 @@ public class StockExecutionManagementServiceImpl implements StockExecutionManage
 
     private final CurrencyMasterRepository currencyMasterRepository;
 
+    private final StockEvaluationDirtyKeyRepository stockEvaluationDirtyKeyRepository;
+
     private static final FluentLogger logger = FluentLogger.forEnclosingClass();
 
     public StockExecutionManagementServiceImpl(StockExecutionRepository stockExecutionRepository
     ,StockPortfolioRepository stockPortfolioRepository
     ,StockMasterRepository stockMasterRepository
-    ,CurrencyMasterRepository currencyMasterRepository){
+    ,CurrencyMasterRepository currencyMasterRepository
+    ,StockEvaluationDirtyKeyRepository stockEvaluationDirtyKeyRepository){
         this.stockExecutionRepository = stockExecutionRepository;
         this.stockPortfolioRepository = stockPortfolioRepository;
         this.stockMasterRepository = stockMasterRepository;
         this.currencyMasterRepository = currencyMasterRepository;
+        this.stockEvaluationDirtyKeyRepository = stockEvaluationDirtyKeyRepository;
     }
 
     @Override
@@ -140,6 +149,15 @@ public class StockExecutionManagementServiceImpl implements StockExecutionManage
         }
         this.stockExecutionRepository.saveAll(stockExecutions);
         logger.atInfo().log("Registered %d Stock Executions", stockExecutions.size());
+        // 約定と同じトランザクションで、評価結果を計算し直す(ポートフォリオ, 銘柄)と最も古い約定日を記録する
+        Map<Pair<Long, String>, LocalDate> fromDateByKey = stockExecutions.stream()
+                .collect(Collectors.toMap(e -> Pair.of(e.getStockPortfolioId(), e.getStockCode()), StockExecution::getExecutionDate
+                        , (a, b) -> a.isBefore(b) ? a : b));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Map.Entry<Pair<Long, String>, LocalDate> entry : fromDateByKey.entrySet()){
+            this.stockEvaluationDirtyKeyRepository.markDirty(entry.getKey().getFirst(), entry.getKey().getSecond(), entry.getValue(), session.getUsername(), now);
+        }
+        logger.atInfo().log("Marked %d Evaluation Keys as dirty", fromDateByKey.size());
         result.setStatus(CsvUploadResult.UploadStatus.OK);
         return result;
     }
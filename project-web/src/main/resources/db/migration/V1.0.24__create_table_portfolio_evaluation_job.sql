@@ -0,0 +1,18 @@
+CREATE TABLE IF NOT EXISTS `portfolio_evaluation_job`(
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    stock_portfolio_id BIGINT NOT NULL,
+    evaluation_type CHAR(20) NOT NULL,
+    start_date DATE,
+    end_date DATE,
+    incremental boolean NOT NULL default False,
+    status CHAR(20) NOT NULL,
+    merged_job_id BIGINT,
+    detail varchar(500),
+    update_timestamp DATETIME NOT NULL,
+    update_user varchar(500) NOT NULL,
+    create_timestamp DATETIME NOT NULL,
+    create_user varchar(500) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX portfolio_evaluation_job_idx1 (status, stock_portfolio_id),
+    FOREIGN KEY portfolio_evaluation_job_fkey1 (stock_portfolio_id) references stock_portfolio(id)
+);
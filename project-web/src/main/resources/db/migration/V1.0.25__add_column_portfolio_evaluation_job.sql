@@ -0,0 +1,2 @@
+alter table portfolio_evaluation_job add column priority CHAR(20) NOT NULL default 'INTERACTIVE' after incremental;
+alter table portfolio_evaluation_job add index portfolio_evaluation_job_idx2 (status, priority);
@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS `stock_evaluation_dirty_key`(
+    stock_portfolio_id BIGINT NOT NULL,
+    stock_code CHAR(50) NOT NULL,
+    from_date DATE NOT NULL,
+    revision BIGINT NOT NULL default 1,
+    update_timestamp DATETIME NOT NULL,
+    update_user varchar(500) NOT NULL,
+    create_timestamp DATETIME NOT NULL,
+    create_user varchar(500) NOT NULL,
+    CONSTRAINT stock_evaluation_dirty_key_pkey1 PRIMARY KEY (stock_portfolio_id, stock_code),
+    FOREIGN KEY stock_evaluation_dirty_key_fkey1 (stock_code) references stock_master(stock_code),
+    FOREIGN KEY stock_evaluation_dirty_key_fkey2 (stock_portfolio_id) references stock_portfolio(id)
+);
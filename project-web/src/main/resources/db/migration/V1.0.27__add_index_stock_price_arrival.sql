@@ -0,0 +1,2 @@
+alter table stock_price add index stock_price_idx1 (update_timestamp, stock_code, base_date);
+alter table stock_portfolio_evaluation add index stock_portfolio_evaluation_idx1 (stock_code, is_lock_out, base_date);
@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS `stock_price_arrival_cursor`(
+    id INT NOT NULL,
+    cursor_timestamp DATETIME NOT NULL,
+    cursor_stock_code CHAR(50) NOT NULL,
+    cursor_base_date DATE NOT NULL,
+    update_timestamp DATETIME NOT NULL,
+    update_user varchar(500) NOT NULL,
+    create_timestamp DATETIME NOT NULL,
+    create_user varchar(500) NOT NULL,
+    PRIMARY KEY (id)
+);